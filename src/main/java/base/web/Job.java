@@ -122,10 +122,18 @@ class Job {
 		return id;
 	}
 
+	/**
+	 * @return The memory the job declared to need at most (in bytes), 0 if none
+	 *         was declared.
+	 */
 	protected long getMaxMemory() {
 		return maxMemory;
 	}
 
+	/**
+	 * @return The time the job may run at most (in milliseconds), 0 if there is
+	 *         no limit.
+	 */
 	protected long getMaxTime() {
 		return maxTime;
 	}
@@ -18,7 +18,9 @@ class JobDao {
 
 	protected static List<Job> fetchPending() throws SQLException {
 		synchronized (DatabaseFacade.GLOBAL_LOCK) {
-			return dao().queryBuilder().orderBy("createdAt", true).where().isNull("startedAt").query();
+			// jobs rejected before they were started have ended nonetheless
+			return dao().queryBuilder().orderBy("createdAt", true).where().isNull("startedAt").and().isNull("endedAt")
+					.query();
 		}
 	}
 
@@ -85,9 +85,25 @@ class JobScheduler implements Runnable {
 		try {
 			List<Job> pending = JobDao.fetchPending();
 			LOGGER.debug("Got " + pending.size() + " pending jobs, in execution: " + startedJobs.size());
+			// Jobs are admitted strictly in order of age: if the oldest pending job does
+			// not fit into memory, younger ones wait as well, so that a large job cannot
+			// be starved by smaller ones overtaking it.
 			for (Job job : pending) {
-				LOGGER.debug("Starting pending job: " + job.getId());
 				try {
+					StatusReport status = StatusReport.collect();
+					if (job.getMaxMemory() > status.getMaxMemory()) {
+						LOGGER.debug("Rejecting job that can never fit into memory: " + job.getId());
+						job.setFailed("Declared memory demand of " + job.getMaxMemory()
+								+ " bytes exceeds the maximum memory available: " + status.getMaxMemory());
+						continue;
+					}
+					// if nothing is running, the memory in use is not ours to wait for
+					if (!startedJobs.isEmpty() && job.getMaxMemory() > status.getLongTermUsableMemory()) {
+						LOGGER.debug("Not enough memory to start job: " + job.getId() + ", demand: "
+								+ job.getMaxMemory() + ", usable: " + status.getLongTermUsableMemory());
+						break;
+					}
+					LOGGER.debug("Starting pending job: " + job.getId());
 					startJob(job);
 				} catch (Exception e) {
 					e.printStackTrace();
@@ -128,6 +144,12 @@ class JobScheduler implements Runnable {
 					job.setSucceeded();
 					shutdownModuleNetwork(job.getId());
 				}
+				// a job may have exceeded its time limit
+				else if (!job.hasEnded() && hasExceededMaxTime(job)) {
+					LOGGER.debug("Stopping job after exceeding its maximum time: " + job.getId());
+					job.setFailed("Cancelled after exceeding the maximum time of " + job.getMaxTime() + " ms.");
+					shutdownModuleNetwork(job.getId());
+				}
 				// a job may have been cancelled
 				else if (job.hasFailed()) {
 					shutdownModuleNetwork(job.getId());
@@ -147,6 +169,13 @@ class JobScheduler implements Runnable {
 		checkForAndHandleZombies(runningJobs);
 	}
 
+	private boolean hasExceededMaxTime(Job job) {
+		if (job.getMaxTime() <= 0 || job.getStartedAt() == null) {
+			return false;
+		}
+		return System.currentTimeMillis() - job.getStartedAt().getTime() > job.getMaxTime();
+	}
+
 	private void checkForAndHandleZombies(List<Job> runningJobs) {
 		Set<Long> maybeZombieIds = new TreeSet<>(startedJobs.keySet());
 		Set<Long> dbJobIds = runningJobs.stream().map(j -> j.getId()).collect(Collectors.toSet());
@@ -35,7 +35,8 @@ class StatusReport {
 	@Expose(deserialize = false)
 	private long usableMemory;
 
-	// the memory that can be newly allocated by us atm (maxMemory - usedMemory, in bytes)
+	// the usable memory minus the part of the memory demands declared by running
+	// jobs that is not used yet (maxMemory - max(usedMemory, demands), in bytes)
 	@Expose(deserialize = false)
 	private long longTermUsableMemory;
 
@@ -68,7 +69,10 @@ class StatusReport {
 		// calculate some values on our own
 		result.usedMemory = result.totalMemory - result.freeMemory;
 		result.usableMemory = result.maxMemory - result.usedMemory;
-		result.longTermUsableMemory = result.usableMemory - JobDao.sumRunningJobsMemoryDemands();
+		// the memory running jobs use already is part of the used memory, so
+		// only their demands exceeding it need to be reserved
+		result.longTermUsableMemory = result.maxMemory
+				- Math.max(result.usedMemory, JobDao.sumRunningJobsMemoryDemands());
 
 		// get some information out of the db
 		result.runningJobs = JobDao.countRunningJobs();
@@ -76,4 +80,12 @@ class StatusReport {
 		return result;
 	}
 
+	protected long getMaxMemory() {
+		return maxMemory;
+	}
+
+	protected long getLongTermUsableMemory() {
+		return longTermUsableMemory;
+	}
+
 }
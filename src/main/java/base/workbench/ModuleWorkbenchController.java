@@ -27,6 +27,7 @@ import modules.ModuleNetwork;
 import modules.ModuleNetworkGsonDeserializer;
 import modules.ModuleNetworkGsonSerializer;
 import modules.bag_of_words.BagsOfWordsDistancesModule;
+import modules.bag_of_words.BagsOfWordsMinHashModule;
 import modules.bag_of_words.BagsOfWordsModule;
 import modules.basic_text_processing.CaseChangerModule;
 import modules.basic_text_processing.ComparisonModule;
@@ -36,6 +37,7 @@ import modules.basic_text_processing.RegExReplacementModule;
 import modules.basic_text_processing.ReverserModule;
 import modules.basic_text_processing.TextSorterModule;
 import modules.basic_text_processing.burrows_wheeler.BurrowsWheelerTransformationModule;
+import modules.basic_text_processing.burrows_wheeler.FMIndexModule;
 import modules.clustering.minkowskiDistance.MinkowskiDistanceMatrixModule;
 import modules.clustering.suffixTreeClusteringModuleWrapper.SuffixTreeClusteringModuleWrapper;
 import modules.clustering.suffixTreeClusteringModuleWrapper.SuffixTreeClusteringWrapperV2;
@@ -184,6 +186,7 @@ public class ModuleWorkbenchController{ // TODO anderer Listener
 		createAndRegisterModule(BufferModule.class);
 		createAndRegisterModule(SuffixTreeClusteringModuleWrapper.class);
 		createAndRegisterModule(BagsOfWordsDistancesModule.class);
+		createAndRegisterModule(BagsOfWordsMinHashModule.class);
 		createAndRegisterModule(ReverserModule.class);
 		createAndRegisterModule(ExternalCommandModule.class);
 		createAndRegisterModule(TreeBuilderV2Module.class);
@@ -216,6 +219,7 @@ public class ModuleWorkbenchController{ // TODO anderer Listener
 		createAndRegisterModule(JoinModule.class);
 		createAndRegisterModule(BowTypeMatrixModule.class);
 		createAndRegisterModule(BurrowsWheelerTransformationModule.class);
+		createAndRegisterModule(FMIndexModule.class);
 		createAndRegisterModule(MclModule.class);
 		createAndRegisterModule(CSV2GEXFModule.class);
 		createAndRegisterModule(TextSorterModule.class);
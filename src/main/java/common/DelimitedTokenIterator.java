@@ -0,0 +1,149 @@
+package common;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the tokens of a character stream that are separated by a
+ * literal (non-regex) delimiter. Reads the underlying reader in blocks and
+ * does not use regular expressions, making it considerably cheaper than a
+ * java.util.Scanner for simple delimiters.
+ * 
+ * I/O errors encountered while iterating are rethrown as
+ * UncheckedIOException.
+ */
+public class DelimitedTokenIterator implements Iterator<String>, Iterable<String>, Closeable {
+
+	private static final int BUFFERSIZE = 8192;
+
+	private final Reader reader;
+	private final char[] delimiter;
+	private final boolean skipEmptyTokens;
+	private final char[] buffer = new char[BUFFERSIZE];
+	private int bufferPos = 0;
+	private int bufferLimit = 0;
+	private boolean endOfInput = false;
+	private final StringBuilder token = new StringBuilder();
+	private String next = null;
+
+	/**
+	 * @param reader
+	 *            The reader to read from
+	 * @param delimiter
+	 *            The literal token delimiter (must not be empty)
+	 * @param skipEmptyTokens
+	 *            Whether empty tokens (e.g. between two subsequent
+	 *            delimiters) should be left out
+	 */
+	public DelimitedTokenIterator(Reader reader, String delimiter, boolean skipEmptyTokens) {
+		if (delimiter == null || delimiter.isEmpty())
+			throw new IllegalArgumentException("The token delimiter must not be empty.");
+		this.reader = reader;
+		this.delimiter = delimiter.toCharArray();
+		this.skipEmptyTokens = skipEmptyTokens;
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (this.next == null) {
+			String candidate = this.readToken();
+			if (candidate == null)
+				return false;
+			if (!this.skipEmptyTokens || !candidate.isEmpty())
+				this.next = candidate;
+		}
+		return true;
+	}
+
+	@Override
+	public String next() {
+		if (!this.hasNext())
+			throw new NoSuchElementException();
+		String result = this.next;
+		this.next = null;
+		return result;
+	}
+
+	@Override
+	public Iterator<String> iterator() {
+		return this;
+	}
+
+	/**
+	 * Closes the underlying reader.
+	 */
+	@Override
+	public void close() {
+		try {
+			this.reader.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Reads the next token from the input.
+	 * 
+	 * @return The token or null if the input is exhausted
+	 */
+	private String readToken() {
+		final int delimiterLength = this.delimiter.length;
+		final char lastDelimiterChar = this.delimiter[delimiterLength - 1];
+		this.token.setLength(0);
+
+		while (true) {
+			if (this.bufferPos == this.bufferLimit && !this.fillBuffer()) {
+				// Input exhausted; a trailing delimiter does not start another token
+				return (this.token.length() == 0) ? null : this.token.toString();
+			}
+
+			// Scan the buffer for the last char of the delimiter
+			int start = this.bufferPos;
+			while (this.bufferPos < this.bufferLimit) {
+				char c = this.buffer[this.bufferPos++];
+				if (c == lastDelimiterChar) {
+					this.token.append(this.buffer, start, this.bufferPos - start);
+					start = this.bufferPos;
+					if (this.endsWithDelimiter()) {
+						this.token.setLength(this.token.length() - delimiterLength);
+						return this.token.toString();
+					}
+				}
+			}
+			this.token.append(this.buffer, start, this.bufferPos - start);
+		}
+	}
+
+	private boolean endsWithDelimiter() {
+		int offset = this.token.length() - this.delimiter.length;
+		if (offset < 0)
+			return false;
+		for (int i = 0; i < this.delimiter.length; i++) {
+			if (this.token.charAt(offset + i) != this.delimiter[i])
+				return false;
+		}
+		return true;
+	}
+
+	private boolean fillBuffer() {
+		if (this.endOfInput)
+			return false;
+		try {
+			int read = this.reader.read(this.buffer, 0, this.buffer.length);
+			if (read < 0) {
+				this.endOfInput = true;
+				return false;
+			}
+			this.bufferPos = 0;
+			this.bufferLimit = read;
+			return true;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
@@ -0,0 +1,82 @@
+package common;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the lines of a character stream. Lines are terminated by
+ * '\n', '\r' or "\r\n" (see BufferedReader.readLine()).
+ * 
+ * I/O errors encountered while iterating are rethrown as
+ * UncheckedIOException.
+ */
+public class LineIterator implements Iterator<String>, Iterable<String>, Closeable {
+
+	private static final int BUFFERSIZE = 65536;
+
+	private final BufferedReader reader;
+	private final boolean skipEmptyLines;
+	private String next = null;
+	private boolean endOfInput = false;
+
+	/**
+	 * @param reader
+	 *            The reader to read from
+	 * @param skipEmptyLines
+	 *            Whether empty lines should be left out (equivalent to
+	 *            splitting the input on "\\R+" with a Scanner)
+	 */
+	public LineIterator(Reader reader, boolean skipEmptyLines) {
+		this.reader = (reader instanceof BufferedReader) ? (BufferedReader) reader
+				: new BufferedReader(reader, BUFFERSIZE);
+		this.skipEmptyLines = skipEmptyLines;
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (this.next == null && !this.endOfInput) {
+			try {
+				String line = this.reader.readLine();
+				if (line == null)
+					this.endOfInput = true;
+				else if (!this.skipEmptyLines || !line.isEmpty())
+					this.next = line;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return this.next != null;
+	}
+
+	@Override
+	public String next() {
+		if (!this.hasNext())
+			throw new NoSuchElementException();
+		String result = this.next;
+		this.next = null;
+		return result;
+	}
+
+	@Override
+	public Iterator<String> iterator() {
+		return this;
+	}
+
+	/**
+	 * Closes the underlying reader.
+	 */
+	@Override
+	public void close() {
+		try {
+			this.reader.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
@@ -3,6 +3,7 @@ package common;
 import java.io.FileWriter;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.io.Writer;
 
 public class XmlPrintWriter extends PrintWriter {
 
@@ -17,6 +18,10 @@ public class XmlPrintWriter extends PrintWriter {
 	public XmlPrintWriter(StringWriter sw) {
 		super(new PrintWriter(sw));
 	}
+	
+	public XmlPrintWriter(Writer w) {
+		super(w);
+	}
 
 	public void printTag(String tag, boolean start, int nrTabs, boolean newline) {
 		for (int i = 0; i < nrTabs; i++) {
@@ -10,6 +10,9 @@ public class ExtensibleTreeNode implements Comparable<ExtensibleTreeNode> {
 	private int nodeCounter = 0;
 	private TreeMap<String,ExtensibleTreeNode> childNodes = new TreeMap<String,ExtensibleTreeNode>();
 	private Map<String,Object> attributes = new HashMap<String,Object>();
+	// links maintained by putChildNode() and removeChildNode() only (transient to keep them out of serialisations)
+	private transient ExtensibleTreeNode parentNode = null;
+	private transient String keyInParent = null;
 	
 	public ExtensibleTreeNode() {
 		super();
@@ -67,6 +70,45 @@ public class ExtensibleTreeNode implements Comparable<ExtensibleTreeNode> {
 		this.nodeValue = nodeValue;
 	}
 	
+	/**
+	 * @return the parent node (null for the root or if the node has not been
+	 *         attached via putChildNode())
+	 */
+	public ExtensibleTreeNode getParentNode() {
+		return parentNode;
+	}
+	/**
+	 * @return the key this node is mapped to in its parent's child nodes (null
+	 *         for the root or if the node has not been attached via putChildNode())
+	 */
+	public String getKeyInParent() {
+		return keyInParent;
+	}
+	/**
+	 * Maps the given child node to the key and sets its parent link.
+	 * @param key the key
+	 * @param childNode the child node
+	 * @return the child node previously mapped to the key, null if there was none
+	 */
+	public ExtensibleTreeNode putChildNode(String key, ExtensibleTreeNode childNode) {
+		childNode.parentNode = this;
+		childNode.keyInParent = key;
+		return this.childNodes.put(key, childNode);
+	}
+	/**
+	 * Removes the child node mapped to the key and clears its parent link.
+	 * @param key the key
+	 * @return the removed child node, null if there was none
+	 */
+	public ExtensibleTreeNode removeChildNode(String key) {
+		ExtensibleTreeNode childNode = this.childNodes.remove(key);
+		if (childNode != null && childNode.parentNode == this) {
+			childNode.parentNode = null;
+			childNode.keyInParent = null;
+		}
+		return childNode;
+	}
+	
 	@Override
 	public int compareTo(ExtensibleTreeNode node) {
 		return (this.nodeValue+this.toString()).compareTo(node.nodeValue+node.toString());
@@ -6,10 +6,11 @@ import java.io.StringReader;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
-import java.util.Scanner;
 import java.util.Set;
 import java.util.TreeMap;
 
+import common.LineIterator;
+
 /**
  * A dynamically resizing two-dimensional Array whose fields can be addressed by
  * pairs of Strings as well as pairs of numbers.
@@ -620,6 +621,30 @@ public class NamedFieldMatrix {
 		}
 	}
 
+	/**
+	 * Creates a deep copy of this matrix.
+	 * 
+	 * @return A new matrix with the same names, values and delimiter
+	 */
+	public NamedFieldMatrix copy() {
+		NamedFieldMatrix result = new NamedFieldMatrix();
+		result.rowNamesToRows.putAll(this.rowNamesToRows);
+		result.rowsToRowNames.putAll(this.rowsToRowNames);
+		result.colNamesToCols.putAll(this.colNamesToCols);
+		result.colsToColNames.putAll(this.colsToColNames);
+		result.rowAmount = this.rowAmount;
+		result.colAmount = this.colAmount;
+		result.delimiter = this.delimiter;
+		result.values = new double[this.rowAmount][];
+		for (int i = 0; i < this.rowAmount; i++) {
+			result.values[i] = (this.values[i] == null) ? new double[this.colAmount]
+					: Arrays.copyOf(this.values[i], this.colAmount);
+		}
+		result.rowMax = this.rowAmount;
+		result.colMax = this.colAmount;
+		return result;
+	}
+
 	/**
 	 * Reads CSV data from specified string and returns a NamedFieldMatrix
 	 * object instance.
@@ -653,9 +678,8 @@ public class NamedFieldMatrix {
 		// Instantiate matrix
 		NamedFieldMatrix matrix = new NamedFieldMatrix();
 
-		// Use scanner for input
-		Scanner input = new Scanner(csvReader);
-		input.useDelimiter("\\R");
+		// Read input line by line
+		LineIterator input = new LineIterator(csvReader, false);
 
 		// Read csv head row
 		String[] colNames = null;
@@ -6,13 +6,39 @@ import java.io.PipedOutputStream;
 
 public class BytePipe implements Pipe {
 	
+	/**
+	 * Buffer size (in bytes) used if none is specified.
+	 */
+	public static final int DEFAULT_BUFFERSIZE = 65536;
+	
 	private PipedInputStream input;
 	private PipedOutputStream output;
+	private int bufferSize;
 
 	public BytePipe() throws IOException {
+		this(DEFAULT_BUFFERSIZE);
+	}
+	
+	/**
+	 * Creates a pipe with a ring buffer of the given size.
+	 * @param bufferSize buffer size in bytes
+	 * @throws IOException thrown on I/O error
+	 */
+	public BytePipe(int bufferSize) throws IOException {
+		if (bufferSize <= 0)
+			throw new IllegalArgumentException("Pipe buffer size must be > 0");
+		this.bufferSize = bufferSize;
 		this.reset();
 	}
 	
+	/**
+	 * Get the size of the pipe's buffer.
+	 * @return buffer size in bytes
+	 */
+	public int getBufferSize() {
+		return bufferSize;
+	}
+	
 	/**
 	 * Get the input stream.
 	 * @return input stream
@@ -66,8 +92,8 @@ public class BytePipe implements Pipe {
 
 	@Override
 	public void reset() throws IOException {
-		this.input = new PipedInputStream();
-		this.output = new PipedOutputStream();
+		this.input = new RingBufferPipedInputStream(this.bufferSize);
+		this.output = new RingBufferPipedOutputStream();
 		this.input.connect(this.output);
 	}
 
@@ -6,13 +6,39 @@ import java.io.PipedWriter;
 
 public class CharPipe implements Pipe {
 	
+	/**
+	 * Buffer size (in chars) used if none is specified.
+	 */
+	public static final int DEFAULT_BUFFERSIZE = 65536;
+	
 	private PipedReader input;
 	private PipedWriter output;
+	private int bufferSize;
 
 	public CharPipe() throws IOException {
+		this(DEFAULT_BUFFERSIZE);
+	}
+	
+	/**
+	 * Creates a pipe with a ring buffer of the given size.
+	 * @param bufferSize buffer size in chars
+	 * @throws IOException thrown on I/O error
+	 */
+	public CharPipe(int bufferSize) throws IOException {
+		if (bufferSize <= 0)
+			throw new IllegalArgumentException("Pipe buffer size must be > 0");
+		this.bufferSize = bufferSize;
 		this.reset();
 	}
 	
+	/**
+	 * Get the size of the pipe's buffer.
+	 * @return buffer size in chars
+	 */
+	public int getBufferSize() {
+		return bufferSize;
+	}
+	
 	/**
 	 * Get input reader
 	 * @return the input
@@ -76,8 +102,8 @@ public class CharPipe implements Pipe {
 
 	@Override
 	public void reset() throws IOException {
-		this.input = new PipedReader();
-		this.output = new PipedWriter();
+		this.input = new RingBufferPipedReader(this.bufferSize);
+		this.output = new RingBufferPipedWriter();
 		this.input.connect(this.output);
 	}
 
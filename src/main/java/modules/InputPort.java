@@ -99,6 +99,23 @@ public class InputPort extends AbstractPort {
 		}
 	}
 
+	/**
+	 * Reads the next object from the input.
+	 * @see modules.ObjectPipe#read()
+	 * @return Object read (null if input is closed)
+	 * @throws NotSupportedException Thrown if this port does not provide object input after all
+	 * @throws IOException Thrown if something goes wrong
+	 */
+	public Object readObject() throws NotSupportedException, IOException {
+		if (this.pipe == null) throw new IOException("There is no pipe to read from.");
+		if (!this.pipe.getClass().equals(ObjectPipe.class)){
+			throw new NotSupportedException("This port ("+this.toString()+") does not provide object input.");
+		} else {
+			ObjectPipe<?> objectPipe = (ObjectPipe<?>) this.pipe;
+			return objectPipe.read();
+		}
+	}
+
 	@Override
 	public void addPipe(Pipe pipe, Port connectedPort) throws NotSupportedException, OccupiedException {
 		if (super.supportsPipe(pipe)){
@@ -1,6 +1,7 @@
 package modules;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -9,11 +10,15 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import common.DelimitedTokenIterator;
+import common.LineIterator;
 import common.parallelization.CallbackReceiver;
 
 public abstract class ModuleImpl implements Module {
 
 	public static final String PROPERTYKEY_NAME = "name";
+	// Block size used when reading whole inputs
+	private static final int READBUFFERSIZE = 65536;
 	private CallbackReceiver callbackReceiver;
 	private String name;
 	private Properties properties = new Properties();
@@ -118,25 +123,77 @@ public abstract class ModuleImpl implements Module {
 	 */
 	protected String readStringFromInputPort(InputPort inputPort)
 			throws Exception {
+		return this.readStringFromInputPort(inputPort, READBUFFERSIZE);
+	}
+
+	/**
+	 * Reads the total remaining String from inputPort, reserving space for
+	 * the specified amount of chars up front to avoid repeated copying
+	 * when the size of the input is roughly known.
+	 *
+	 * @param inputPort the port to read from
+	 * @param expectedLength the expected amount of chars
+	 * @return The String read
+	 * @throws IOException if an IO-Error occurs
+	 * @throws NotSupportedException if the InputPort does not provide a char pipe to read from.
+	 * @throws InterruptedException if the Thread has been interrupted.
+	 */
+	protected String readStringFromInputPort(InputPort inputPort, int expectedLength)
+			throws Exception {
 
 		if(!inputPort.isConnected()) {
 			throw new Exception("inputPort is not connected");
 		}
 		
-		final StringBuilder stringBuilder = new StringBuilder();
-		int charCode = inputPort.getInputReader().read();
+		final Reader reader = inputPort.getInputReader();
+		final StringBuilder stringBuilder = new StringBuilder(Math.max(expectedLength, 16));
+		final char[] buffer = new char[READBUFFERSIZE];
+		int charsRead = reader.read(buffer, 0, buffer.length);
 
-		while (charCode != -1) {
+		while (charsRead != -1) {
 			if (Thread.interrupted()) {
 				throw new InterruptedException("Thread has been interrupted.");
 			}
-			stringBuilder.append((char) charCode);
-			charCode = inputPort.getInputReader().read();
+			stringBuilder.append(buffer, 0, charsRead);
+			charsRead = reader.read(buffer, 0, buffer.length);
 		}
 
 		return stringBuilder.toString();
 	}
 
+	/**
+	 * Returns the lines read from inputPort (terminated by '\n', '\r' or
+	 * "\r\n") for use in a for-each loop. I/O errors encountered while
+	 * iterating are thrown as UncheckedIOException.
+	 *
+	 * @param inputPort the port to read from
+	 * @param skipEmptyLines whether to leave out empty lines (equivalent to
+	 *            splitting the input on "\\R+" with a Scanner)
+	 * @return Lines
+	 * @throws NotSupportedException if the InputPort does not provide a char pipe to read from.
+	 */
+	protected LineIterator readLinesFromInputPort(InputPort inputPort, boolean skipEmptyLines)
+			throws NotSupportedException {
+		return new LineIterator(inputPort.getInputReader(), skipEmptyLines);
+	}
+
+	/**
+	 * Returns the tokens read from inputPort that are separated by the
+	 * specified literal (not regex) delimiter for use in a for-each loop.
+	 * I/O errors encountered while iterating are thrown as
+	 * UncheckedIOException.
+	 *
+	 * @param inputPort the port to read from
+	 * @param delimiter the literal delimiter
+	 * @param skipEmptyTokens whether to leave out empty tokens
+	 * @return Tokens
+	 * @throws NotSupportedException if the InputPort does not provide a char pipe to read from.
+	 */
+	protected DelimitedTokenIterator readTokensFromInputPort(InputPort inputPort, String delimiter,
+			boolean skipEmptyTokens) throws NotSupportedException {
+		return new DelimitedTokenIterator(inputPort.getInputReader(), delimiter, skipEmptyTokens);
+	}
+
 	/*
 	 * @see parallelization.CallbackProcess#getRueckmeldungsEmpfaenger()
 	 */
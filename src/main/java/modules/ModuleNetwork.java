@@ -28,12 +28,14 @@ public class ModuleNetwork extends CallbackReceiverImpl {
 
 	/**
 	 * Determines which pipe to use between both given module ports (prefers
-	 * byte pipe).
+	 * object pipe, then byte pipe).
 	 * 
 	 * @param port1
 	 *            Module port 1
 	 * @param port2
 	 *            Module port 2
+	 * @param bufferSize
+	 *            Size of the pipe's buffer
 	 * @return Compatible pipe
 	 * @throws IOException
 	 *             Thrown if an I/O error occurs
@@ -41,18 +43,15 @@ public class ModuleNetwork extends CallbackReceiverImpl {
 	 *             Thrown if the module ports' I/O is not compatible
 	 */
 	private static Pipe getCompatiblePipe(Port port1,
-			Port port2) throws NotSupportedException, IOException {
-		Pipe pipe = new BytePipe();
-		if (!(port2.supportsPipe(pipe) && port1
-				.supportsPipe(pipe))) {
-			pipe = new CharPipe();
-			if (!(port2.supportsPipe(pipe) && port1
-					.supportsPipe(pipe))) {
-				throw new NotSupportedException (
-						"The I/O of those two module ports does not seem to be compatible.");
-			}
-		}
-		return pipe;
+			Port port2, int bufferSize) throws NotSupportedException, IOException {
+		if (port1.supportsPipeClass(ObjectPipe.class) && port2.supportsPipeClass(ObjectPipe.class))
+			return new ObjectPipe<Object>();
+		if (port1.supportsPipeClass(BytePipe.class) && port2.supportsPipeClass(BytePipe.class))
+			return new BytePipe(bufferSize);
+		if (port1.supportsPipeClass(CharPipe.class) && port2.supportsPipeClass(CharPipe.class))
+			return new CharPipe(bufferSize);
+		throw new NotSupportedException (
+				"The I/O of those two module ports does not seem to be compatible.");
 	}
 
 	/**
@@ -134,9 +133,33 @@ public class ModuleNetwork extends CallbackReceiverImpl {
 	 */
 	public boolean addConnection(Port port1, Port port2)
 			throws NotSupportedException, OccupiedException, IOException {
+		return this.addConnection(port1, port2, CharPipe.DEFAULT_BUFFERSIZE);
+	}
+
+	/**
+	 * Adds a connection between two I/O ports using a compatible pipe with
+	 * a buffer of the specified size (in bytes or chars, depending on the
+	 * type of pipe used; object pipes use their default capacity).
+	 * 
+	 * @param port1
+	 *            Port 1 to connect
+	 * @param port2
+	 *            Port 2 to connect
+	 * @param pipeBufferSize
+	 *            Size of the connecting pipe's buffer
+	 * @return True if successful
+	 * @throws NotSupportedException
+	 *             Thrown if there is no pipe that is compatible with both ports
+	 * @throws OccupiedException
+	 *             Thrown if the input port is occupied
+	 * @throws IOException
+	 *             Thrown if an I/O error occurs
+	 */
+	public boolean addConnection(Port port1, Port port2, int pipeBufferSize)
+			throws NotSupportedException, OccupiedException, IOException {
 
 		// Determine pipe that connects both modules
-		Pipe pipe = ModuleNetwork.getCompatiblePipe(port1, port2);
+		Pipe pipe = ModuleNetwork.getCompatiblePipe(port1, port2, pipeBufferSize);
 
 		// Jump to more detailed method
 		return this.addConnection(port1, port2, pipe);
@@ -0,0 +1,153 @@
+package modules;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipe that passes objects (e.g. a NamedFieldMatrix) from one module to
+ * another by reference, sparing the modules the serialization to and
+ * parsing from a text format.
+ *
+ * Objects written to an output port are handed to every connected pipe
+ * as the same instance, so neither the writing nor the reading modules
+ * may modify them after they have been written.
+ *
+ * @param <T> Type of the objects passed through the pipe
+ */
+public class ObjectPipe<T> implements Pipe {
+
+	/**
+	 * Amount of objects the pipe can hold before writes block, used if none is specified.
+	 */
+	public static final int DEFAULT_CAPACITY = 16;
+
+	// Maximum time to block before checking whether the other side's thread is still alive
+	private static final long DEADPEER_CHECK_INTERVAL = 1000l;
+
+	// Marks the end of the stream in the queue
+	private static final Object ENDOFSTREAM = new Object();
+
+	private final int capacity;
+	private BlockingQueue<Object> queue;
+	private volatile boolean closedByWriter;
+	private volatile boolean closedByReader;
+	private volatile Thread readSide;
+	private volatile Thread writeSide;
+	private boolean endOfStreamReached;
+
+	public ObjectPipe() throws IOException {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a pipe that can hold the given amount of objects.
+	 * @param capacity amount of objects
+	 * @throws IOException thrown on I/O error
+	 */
+	public ObjectPipe(int capacity) throws IOException {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Pipe capacity must be > 0");
+		this.capacity = capacity;
+		this.reset();
+	}
+
+	/**
+	 * Get the amount of objects the pipe can hold before writes block.
+	 * @return capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Writes an object to the pipe, blocking while the pipe is full.
+	 * @param object object to write (must not be null)
+	 * @throws IOException thrown if the pipe is closed or the thread gets interrupted
+	 */
+	public void write(T object) throws IOException {
+		if (object == null)
+			throw new NullPointerException("Cannot write null to an object pipe.");
+		if (this.closedByWriter || this.closedByReader)
+			throw new IOException("Pipe closed");
+		this.writeSide = Thread.currentThread();
+		this.enqueue(object);
+	}
+
+	@Override
+	public void writeClose() throws IOException {
+		if (this.closedByWriter)
+			return;
+		this.closedByWriter = true;
+		if (!this.closedByReader)
+			this.enqueue(ENDOFSTREAM);
+	}
+
+	/**
+	 * Reads the next object from the pipe, blocking until one is available.
+	 * @return the object read or null if the writing side has closed the pipe
+	 * @throws IOException thrown if the pipe is broken or the thread gets interrupted
+	 */
+	@SuppressWarnings("unchecked")
+	public T read() throws IOException {
+		if (this.closedByReader)
+			throw new IOException("Pipe closed");
+		if (this.endOfStreamReached)
+			return null;
+		this.readSide = Thread.currentThread();
+		try {
+			Object object;
+			while ((object = this.queue.poll(DEADPEER_CHECK_INTERVAL, TimeUnit.MILLISECONDS)) == null) {
+				Thread writer = this.writeSide;
+				if (writer != null && !writer.isAlive() && this.queue.isEmpty())
+					throw new IOException("Write end dead");
+			}
+			if (object == ENDOFSTREAM) {
+				this.endOfStreamReached = true;
+				return null;
+			}
+			return (T) object;
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException();
+		}
+	}
+
+	@Override
+	public void readClose() throws IOException {
+		this.closedByReader = true;
+		// Unblock a writer waiting for free space
+		this.queue.clear();
+	}
+
+	@Override
+	public void reset() throws IOException {
+		this.queue = new LinkedBlockingQueue<Object>(this.capacity);
+		this.closedByWriter = false;
+		this.closedByReader = false;
+		this.endOfStreamReached = false;
+		this.readSide = null;
+		this.writeSide = null;
+	}
+
+	/**
+	 * Puts the given object into the queue, blocking while it is full.
+	 * @param object object to enqueue
+	 * @throws IOException thrown if the pipe is broken or the thread gets interrupted
+	 */
+	private void enqueue(Object object) throws IOException {
+		try {
+			while (!this.queue.offer(object, DEADPEER_CHECK_INTERVAL, TimeUnit.MILLISECONDS)) {
+				Thread reader = this.readSide;
+				if (this.closedByReader)
+					throw new IOException("Pipe closed");
+				if (reader != null && !reader.isAlive())
+					throw new IOException("Read end dead");
+			}
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException();
+		}
+	}
+
+}
@@ -129,6 +129,27 @@ public class OutputPort extends AbstractPort {
 		}
 	}
 	
+	/**
+	 * Writes the given object to all object output pipes. Every pipe
+	 * receives the same instance, which must not be modified afterwards.
+	 * @param data Object to write
+	 * @throws IOException Thrown if an I/O problem occurs
+	 */
+	@SuppressWarnings("unchecked")
+	public void outputToAllObjectPipes(Object data) throws IOException {
+		
+		// Check whether this port does support object output
+		if (!this.supportsPipeClass(ObjectPipe.class))
+			throw new IOException("This port ("+this.toString()+") does not support object output.");
+		
+		// Loop over the defined outputs
+		Iterator<Pipe> outputPipes = this.pipes.get(ObjectPipe.class).iterator();
+		while (outputPipes.hasNext()) {
+			ObjectPipe<Object> outputPipe = (ObjectPipe<Object>) outputPipes.next();
+			outputPipe.write(data);
+		}
+	}
+	
 	/**
 	 * Writes the given byte array to all byte stream output pipes.
 	 * @param data Data to write
@@ -178,4 +199,15 @@ public class OutputPort extends AbstractPort {
 		return !this.connectedPorts.isEmpty();
 	}
 
+	/**
+	 * Check whether the output port has at least one connected pipe of the specified class.
+	 * 
+	 * @param pipeClass The pipe class to check for.
+	 * @return true if there is a pipe of the specified class connected to this port.
+	 */
+	public boolean isConnectedTo(Class<? extends Pipe> pipeClass) {
+		List<Pipe> pipeList = this.pipes.get(pipeClass);
+		return pipeList != null && !pipeList.isEmpty();
+	}
+
 }
@@ -0,0 +1,107 @@
+package modules;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream that passes its data on to all byte pipes of an output port.
+ * Data is collected in a buffer of fixed size, so large outputs can be
+ * streamed into the pipes piece by piece instead of being assembled in
+ * memory first; once the pipes are full, writing blocks until the connected
+ * modules have read from them.
+ *
+ * Closing the stream flushes it but leaves the output port open.
+ *
+ * @see OutputPortWriter
+ */
+public class OutputPortOutputStream extends OutputStream {
+
+	/**
+	 * Size of the buffer in bytes, used if none is specified.
+	 */
+	public static final int DEFAULT_BUFFERSIZE = 8192;
+
+	private final OutputPort outputPort;
+	private final byte[] buffer;
+	private int count = 0;
+	private boolean closed = false;
+
+	public OutputPortOutputStream(OutputPort outputPort) {
+		this(outputPort, DEFAULT_BUFFERSIZE);
+	}
+
+	/**
+	 * @param outputPort The port to write to
+	 * @param bufferSize Size of the buffer in bytes
+	 */
+	public OutputPortOutputStream(OutputPort outputPort, int bufferSize) {
+		if (bufferSize <= 0)
+			throw new IllegalArgumentException("Buffer size must be > 0");
+		this.outputPort = outputPort;
+		this.buffer = new byte[bufferSize];
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.OutputStream#write(int)
+	 */
+	@Override
+	public void write(int b) throws IOException {
+		this.ensureOpen();
+		if (this.count == this.buffer.length)
+			this.flushBuffer();
+		this.buffer[this.count++] = (byte) b;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.OutputStream#write(byte[], int, int)
+	 */
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		this.ensureOpen();
+		if (off < 0 || len < 0 || off + len > b.length || off + len < 0)
+			throw new IndexOutOfBoundsException();
+		if (len >= this.buffer.length) {
+			// Bypass the buffer for large chunks
+			this.flushBuffer();
+			this.outputPort.outputToAllBytePipes(b, off, len);
+			return;
+		}
+		if (len > this.buffer.length - this.count)
+			this.flushBuffer();
+		System.arraycopy(b, off, this.buffer, this.count, len);
+		this.count += len;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.OutputStream#flush()
+	 */
+	@Override
+	public void flush() throws IOException {
+		this.ensureOpen();
+		this.flushBuffer();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.OutputStream#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.closed)
+			return;
+		this.flushBuffer();
+		this.closed = true;
+	}
+
+	private void flushBuffer() throws IOException {
+		if (this.count > 0) {
+			this.outputPort.outputToAllBytePipes(this.buffer, 0, this.count);
+			this.count = 0;
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (this.closed)
+			throw new IOException("Stream closed");
+	}
+
+}
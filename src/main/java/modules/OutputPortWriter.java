@@ -0,0 +1,122 @@
+package modules;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer that passes its data on to all char pipes of an output port. Data
+ * is collected in a buffer of fixed size, so large outputs can be streamed
+ * into the pipes piece by piece instead of being assembled in memory first;
+ * once the pipes are full, writing blocks until the connected modules have
+ * read from them.
+ *
+ * Closing the writer flushes it but leaves the output port open.
+ */
+public class OutputPortWriter extends Writer {
+
+	/**
+	 * Size of the buffer in chars, used if none is specified.
+	 */
+	public static final int DEFAULT_BUFFERSIZE = 8192;
+
+	private final OutputPort outputPort;
+	private final char[] buffer;
+	private int count = 0;
+	private boolean closed = false;
+
+	public OutputPortWriter(OutputPort outputPort) {
+		this(outputPort, DEFAULT_BUFFERSIZE);
+	}
+
+	/**
+	 * @param outputPort The port to write to
+	 * @param bufferSize Size of the buffer in chars
+	 */
+	public OutputPortWriter(OutputPort outputPort, int bufferSize) {
+		if (bufferSize <= 0)
+			throw new IllegalArgumentException("Buffer size must be > 0");
+		this.outputPort = outputPort;
+		this.buffer = new char[bufferSize];
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.Writer#write(char[], int, int)
+	 */
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		this.ensureOpen();
+		if (off < 0 || len < 0 || off + len > cbuf.length || off + len < 0)
+			throw new IndexOutOfBoundsException();
+		if (len >= this.buffer.length) {
+			// Bypass the buffer for large chunks
+			this.flushBuffer();
+			this.outputPort.outputToAllCharPipes(cbuf, off, len);
+			return;
+		}
+		if (len > this.buffer.length - this.count)
+			this.flushBuffer();
+		System.arraycopy(cbuf, off, this.buffer, this.count, len);
+		this.count += len;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.Writer#write(java.lang.String, int, int)
+	 */
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		this.ensureOpen();
+		while (len > 0) {
+			if (this.count == this.buffer.length)
+				this.flushBuffer();
+			int chunk = Math.min(len, this.buffer.length - this.count);
+			str.getChars(off, off + chunk, this.buffer, this.count);
+			this.count += chunk;
+			off += chunk;
+			len -= chunk;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.Writer#write(int)
+	 */
+	@Override
+	public void write(int c) throws IOException {
+		this.ensureOpen();
+		if (this.count == this.buffer.length)
+			this.flushBuffer();
+		this.buffer[this.count++] = (char) c;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.Writer#flush()
+	 */
+	@Override
+	public void flush() throws IOException {
+		this.ensureOpen();
+		this.flushBuffer();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.Writer#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.closed)
+			return;
+		this.flushBuffer();
+		this.closed = true;
+	}
+
+	private void flushBuffer() throws IOException {
+		if (this.count > 0) {
+			this.outputPort.outputToAllCharPipes(this.buffer, 0, this.count);
+			this.count = 0;
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (this.closed)
+			throw new IOException("Writer closed");
+	}
+
+}
@@ -0,0 +1,234 @@
+package modules;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+
+/**
+ * Piped byte stream backed by a ring buffer of configurable size.
+ * Unlike java.io.PipedInputStream, data is transferred in bulk (array copies
+ * instead of single bytes) and both sides are woken up immediately
+ * whenever the state of the buffer changes.
+ *
+ * Extends PipedInputStream so it can be handed out wherever modules expect one.
+ *
+ * @see RingBufferPipedOutputStream
+ */
+public class RingBufferPipedInputStream extends PipedInputStream {
+
+	// Maximum time to block before checking whether the other side's thread is still alive
+	private static final long DEADPEER_CHECK_INTERVAL = 1000l;
+
+	private final byte[] ring;
+	private int readPos = 0;
+	private int count = 0;
+
+	private boolean connected = false;
+	private boolean closedByWriter = false;
+	private boolean closedByReader = false;
+	private Thread readSide;
+	private Thread writeSide;
+
+	/**
+	 * Creates a new, not yet connected reader.
+	 * @param bufferSize Size of the ring buffer in bytes
+	 */
+	public RingBufferPipedInputStream(int bufferSize) {
+		// The super class' own buffer is never used
+		super(1);
+		if (bufferSize <= 0)
+			throw new IllegalArgumentException("Pipe buffer size must be > 0");
+		this.ring = new byte[bufferSize];
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedInputStream#connect(java.io.PipedOutputStream)
+	 */
+	@Override
+	public void connect(PipedOutputStream src) throws IOException {
+		src.connect(this);
+	}
+
+	/**
+	 * Marks this reader as connected to a writer. Called by RingBufferPipedOutputStream.
+	 * @throws IOException Thrown if already connected
+	 */
+	synchronized void markConnected() throws IOException {
+		if (this.connected)
+			throw new IOException("Already connected");
+		this.connected = true;
+	}
+
+	/**
+	 * Stores a single byte in the buffer, blocking while it is full.
+	 * @param c byte to store
+	 * @throws IOException Thrown if the pipe is broken
+	 */
+	protected synchronized void receive(int c) throws IOException {
+		this.checkWritable();
+		this.awaitSpace();
+		this.ring[(this.readPos + this.count) % this.ring.length] = (byte) c;
+		this.count++;
+		this.notifyAll();
+	}
+
+	/**
+	 * Stores the given bytes in the buffer, blocking while it is full.
+	 * @param data Source array
+	 * @param offset Offset within the source array
+	 * @param length Amount of bytes to store
+	 * @throws IOException Thrown if the pipe is broken
+	 */
+	synchronized void receive(byte[] data, int offset, int length) throws IOException {
+		this.checkWritable();
+		while (length > 0) {
+			this.awaitSpace();
+			int writePos = (this.readPos + this.count) % this.ring.length;
+			int chunk = Math.min(length, Math.min(this.ring.length - this.count, this.ring.length - writePos));
+			System.arraycopy(data, offset, this.ring, writePos, chunk);
+			this.count += chunk;
+			offset += chunk;
+			length -= chunk;
+			this.notifyAll();
+		}
+	}
+
+	/**
+	 * Signals that the writer has been closed.
+	 */
+	synchronized void receivedLast() {
+		this.closedByWriter = true;
+		this.notifyAll();
+	}
+
+	/**
+	 * Wakes up a reader waiting for input.
+	 */
+	synchronized void wakeUp() {
+		this.notifyAll();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedInputStream#read()
+	 */
+	@Override
+	public synchronized int read() throws IOException {
+		if (!this.awaitData())
+			return -1;
+		int b = this.ring[this.readPos] & 0xFF;
+		this.consumed(1);
+		return b;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedInputStream#read(byte[], int, int)
+	 */
+	@Override
+	public synchronized int read(byte[] b, int off, int len) throws IOException {
+		if (off < 0 || len < 0 || off + len > b.length || off + len < 0)
+			throw new IndexOutOfBoundsException();
+		if (len == 0)
+			return 0;
+		if (!this.awaitData())
+			return -1;
+
+		int total = 0;
+		while (this.count > 0 && total < len) {
+			int chunk = Math.min(len - total, Math.min(this.count, this.ring.length - this.readPos));
+			System.arraycopy(this.ring, this.readPos, b, off + total, chunk);
+			this.consumed(chunk);
+			total += chunk;
+		}
+		return total;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedInputStream#available()
+	 */
+	@Override
+	public synchronized int available() throws IOException {
+		if (this.closedByReader)
+			throw new IOException("Pipe closed");
+		return this.count;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedInputStream#close()
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		this.closedByReader = true;
+		this.count = 0;
+		this.notifyAll();
+	}
+
+	/**
+	 * Advances the read position after bytes have been taken from the buffer.
+	 * @param amount Amount of bytes consumed
+	 */
+	private void consumed(int amount) {
+		this.count -= amount;
+		// Rewind when empty to keep subsequent transfers in one piece
+		this.readPos = this.count == 0 ? 0 : (this.readPos + amount) % this.ring.length;
+		this.notifyAll();
+	}
+
+	/**
+	 * Blocks until there is data in the buffer or the writer has closed.
+	 * @return false if the end of the stream has been reached
+	 * @throws IOException Thrown if the pipe is broken or the thread gets interrupted
+	 */
+	private boolean awaitData() throws IOException {
+		if (!this.connected)
+			throw new IOException("Pipe not connected");
+		if (this.closedByReader)
+			throw new IOException("Pipe closed");
+		this.readSide = Thread.currentThread();
+		while (this.count == 0) {
+			if (this.closedByWriter)
+				return false;
+			if (this.writeSide != null && !this.writeSide.isAlive())
+				throw new IOException("Write end dead");
+			try {
+				this.wait(DEADPEER_CHECK_INTERVAL);
+			} catch (InterruptedException e) {
+				throw new InterruptedIOException();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether data may be written to the pipe.
+	 * @throws IOException Thrown if not
+	 */
+	private void checkWritable() throws IOException {
+		if (!this.connected)
+			throw new IOException("Pipe not connected");
+		if (this.closedByWriter || this.closedByReader)
+			throw new IOException("Pipe closed");
+		if (this.readSide != null && !this.readSide.isAlive())
+			throw new IOException("Read end dead");
+		this.writeSide = Thread.currentThread();
+	}
+
+	/**
+	 * Blocks until there is free space in the buffer.
+	 * @throws IOException Thrown if the pipe is broken or the thread gets interrupted
+	 */
+	private void awaitSpace() throws IOException {
+		while (this.count == this.ring.length) {
+			if (this.closedByReader)
+				throw new IOException("Pipe closed");
+			if (this.readSide != null && !this.readSide.isAlive())
+				throw new IOException("Read end dead");
+			try {
+				this.wait(DEADPEER_CHECK_INTERVAL);
+			} catch (InterruptedException e) {
+				throw new InterruptedIOException();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,80 @@
+package modules;
+
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+
+/**
+ * Piped byte output stream that hands its data to a RingBufferPipedInputStream in bulk.
+ *
+ * @see RingBufferPipedInputStream
+ */
+public class RingBufferPipedOutputStream extends PipedOutputStream {
+
+	private RingBufferPipedInputStream sink;
+
+	/**
+	 * Creates a new, not yet connected output stream.
+	 */
+	public RingBufferPipedOutputStream() {
+		super();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedOutputStream#connect(java.io.PipedInputStream)
+	 */
+	@Override
+	public synchronized void connect(PipedInputStream snk) throws IOException {
+		if (snk == null)
+			throw new NullPointerException();
+		if (!(snk instanceof RingBufferPipedInputStream))
+			throw new IOException("Can only be connected to a " + RingBufferPipedInputStream.class.getSimpleName());
+		if (this.sink != null)
+			throw new IOException("Already connected");
+		RingBufferPipedInputStream reader = (RingBufferPipedInputStream) snk;
+		reader.markConnected();
+		this.sink = reader;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedOutputStream#write(int)
+	 */
+	@Override
+	public void write(int c) throws IOException {
+		this.getSink().receive(c);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedOutputStream#write(byte[], int, int)
+	 */
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (off < 0 || len < 0 || off + len > b.length || off + len < 0)
+			throw new IndexOutOfBoundsException();
+		this.getSink().receive(b, off, len);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedOutputStream#flush()
+	 */
+	@Override
+	public void flush() throws IOException {
+		this.getSink().wakeUp();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedOutputStream#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.sink != null)
+			this.sink.receivedLast();
+	}
+
+	private RingBufferPipedInputStream getSink() throws IOException {
+		if (this.sink == null)
+			throw new IOException("Pipe not connected");
+		return this.sink;
+	}
+
+}
@@ -0,0 +1,258 @@
+package modules;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+
+/**
+ * Piped character reader backed by a ring buffer of configurable size.
+ * Unlike java.io.PipedReader, data is transferred in bulk (array copies
+ * instead of single chars) and both sides are woken up immediately
+ * whenever the state of the buffer changes.
+ *
+ * Extends PipedReader so it can be handed out wherever modules expect one.
+ *
+ * @see RingBufferPipedWriter
+ */
+public class RingBufferPipedReader extends PipedReader {
+
+	// Maximum time to block before checking whether the other side's thread is still alive
+	private static final long DEADPEER_CHECK_INTERVAL = 1000l;
+
+	private final char[] buffer;
+	private int readPos = 0;
+	private int count = 0;
+
+	private boolean connected = false;
+	private boolean closedByWriter = false;
+	private boolean closedByReader = false;
+	private Thread readSide;
+	private Thread writeSide;
+
+	/**
+	 * Creates a new, not yet connected reader.
+	 * @param bufferSize Size of the ring buffer in chars
+	 */
+	public RingBufferPipedReader(int bufferSize) {
+		// The super class' own buffer is never used
+		super(1);
+		if (bufferSize <= 0)
+			throw new IllegalArgumentException("Pipe buffer size must be > 0");
+		this.buffer = new char[bufferSize];
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedReader#connect(java.io.PipedWriter)
+	 */
+	@Override
+	public void connect(PipedWriter src) throws IOException {
+		src.connect(this);
+	}
+
+	/**
+	 * Marks this reader as connected to a writer. Called by RingBufferPipedWriter.
+	 * @throws IOException Thrown if already connected
+	 */
+	synchronized void markConnected() throws IOException {
+		if (this.connected)
+			throw new IOException("Already connected");
+		this.connected = true;
+	}
+
+	/**
+	 * Stores a single char in the buffer, blocking while it is full.
+	 * @param c char to store
+	 * @throws IOException Thrown if the pipe is broken
+	 */
+	synchronized void receive(int c) throws IOException {
+		this.checkWritable();
+		this.awaitSpace();
+		this.buffer[(this.readPos + this.count) % this.buffer.length] = (char) c;
+		this.count++;
+		this.notifyAll();
+	}
+
+	/**
+	 * Stores the given chars in the buffer, blocking while it is full.
+	 * @param data Source array
+	 * @param offset Offset within the source array
+	 * @param length Amount of chars to store
+	 * @throws IOException Thrown if the pipe is broken
+	 */
+	synchronized void receive(char[] data, int offset, int length) throws IOException {
+		this.checkWritable();
+		while (length > 0) {
+			this.awaitSpace();
+			int writePos = (this.readPos + this.count) % this.buffer.length;
+			int chunk = Math.min(length, Math.min(this.buffer.length - this.count, this.buffer.length - writePos));
+			System.arraycopy(data, offset, this.buffer, writePos, chunk);
+			this.count += chunk;
+			offset += chunk;
+			length -= chunk;
+			this.notifyAll();
+		}
+	}
+
+	/**
+	 * Stores a part of the given String in the buffer without copying it to
+	 * an intermediate array first, blocking while the buffer is full.
+	 * @param data Source String
+	 * @param offset Offset within the String
+	 * @param length Amount of chars to store
+	 * @throws IOException Thrown if the pipe is broken
+	 */
+	synchronized void receive(String data, int offset, int length) throws IOException {
+		this.checkWritable();
+		while (length > 0) {
+			this.awaitSpace();
+			int writePos = (this.readPos + this.count) % this.buffer.length;
+			int chunk = Math.min(length, Math.min(this.buffer.length - this.count, this.buffer.length - writePos));
+			data.getChars(offset, offset + chunk, this.buffer, writePos);
+			this.count += chunk;
+			offset += chunk;
+			length -= chunk;
+			this.notifyAll();
+		}
+	}
+
+	/**
+	 * Signals that the writer has been closed.
+	 */
+	synchronized void receivedLast() {
+		this.closedByWriter = true;
+		this.notifyAll();
+	}
+
+	/**
+	 * Wakes up a reader waiting for input.
+	 */
+	synchronized void wakeUp() {
+		this.notifyAll();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedReader#read()
+	 */
+	@Override
+	public synchronized int read() throws IOException {
+		if (!this.awaitData())
+			return -1;
+		char c = this.buffer[this.readPos];
+		this.consumed(1);
+		return c;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedReader#read(char[], int, int)
+	 */
+	@Override
+	public synchronized int read(char[] cbuf, int off, int len) throws IOException {
+		if (off < 0 || len < 0 || off + len > cbuf.length || off + len < 0)
+			throw new IndexOutOfBoundsException();
+		if (len == 0)
+			return 0;
+		if (!this.awaitData())
+			return -1;
+
+		int total = 0;
+		while (this.count > 0 && total < len) {
+			int chunk = Math.min(len - total, Math.min(this.count, this.buffer.length - this.readPos));
+			System.arraycopy(this.buffer, this.readPos, cbuf, off + total, chunk);
+			this.consumed(chunk);
+			total += chunk;
+		}
+		return total;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedReader#ready()
+	 */
+	@Override
+	public synchronized boolean ready() throws IOException {
+		if (this.closedByReader)
+			throw new IOException("Pipe closed");
+		if (!this.connected)
+			throw new IOException("Pipe not connected");
+		return this.count > 0;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedReader#close()
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		this.closedByReader = true;
+		this.count = 0;
+		this.notifyAll();
+	}
+
+	/**
+	 * Advances the read position after chars have been taken from the buffer.
+	 * @param amount Amount of chars consumed
+	 */
+	private void consumed(int amount) {
+		this.count -= amount;
+		// Rewind when empty to keep subsequent transfers in one piece
+		this.readPos = this.count == 0 ? 0 : (this.readPos + amount) % this.buffer.length;
+		this.notifyAll();
+	}
+
+	/**
+	 * Blocks until there is data in the buffer or the writer has closed.
+	 * @return false if the end of the stream has been reached
+	 * @throws IOException Thrown if the pipe is broken or the thread gets interrupted
+	 */
+	private boolean awaitData() throws IOException {
+		if (!this.connected)
+			throw new IOException("Pipe not connected");
+		if (this.closedByReader)
+			throw new IOException("Pipe closed");
+		this.readSide = Thread.currentThread();
+		while (this.count == 0) {
+			if (this.closedByWriter)
+				return false;
+			if (this.writeSide != null && !this.writeSide.isAlive())
+				throw new IOException("Write end dead");
+			try {
+				this.wait(DEADPEER_CHECK_INTERVAL);
+			} catch (InterruptedException e) {
+				throw new InterruptedIOException();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether data may be written to the pipe.
+	 * @throws IOException Thrown if not
+	 */
+	private void checkWritable() throws IOException {
+		if (!this.connected)
+			throw new IOException("Pipe not connected");
+		if (this.closedByWriter || this.closedByReader)
+			throw new IOException("Pipe closed");
+		if (this.readSide != null && !this.readSide.isAlive())
+			throw new IOException("Read end dead");
+		this.writeSide = Thread.currentThread();
+	}
+
+	/**
+	 * Blocks until there is free space in the buffer.
+	 * @throws IOException Thrown if the pipe is broken or the thread gets interrupted
+	 */
+	private void awaitSpace() throws IOException {
+		while (this.count == this.buffer.length) {
+			if (this.closedByReader)
+				throw new IOException("Pipe closed");
+			if (this.readSide != null && !this.readSide.isAlive())
+				throw new IOException("Read end dead");
+			try {
+				this.wait(DEADPEER_CHECK_INTERVAL);
+			} catch (InterruptedException e) {
+				throw new InterruptedIOException();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+package modules;
+
+import java.io.IOException;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+
+/**
+ * Piped character writer that hands its data to a RingBufferPipedReader in bulk.
+ *
+ * @see RingBufferPipedReader
+ */
+public class RingBufferPipedWriter extends PipedWriter {
+
+	private RingBufferPipedReader sink;
+
+	/**
+	 * Creates a new, not yet connected writer.
+	 */
+	public RingBufferPipedWriter() {
+		super();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedWriter#connect(java.io.PipedReader)
+	 */
+	@Override
+	public synchronized void connect(PipedReader snk) throws IOException {
+		if (snk == null)
+			throw new NullPointerException();
+		if (!(snk instanceof RingBufferPipedReader))
+			throw new IOException("Can only be connected to a " + RingBufferPipedReader.class.getSimpleName());
+		if (this.sink != null)
+			throw new IOException("Already connected");
+		RingBufferPipedReader reader = (RingBufferPipedReader) snk;
+		reader.markConnected();
+		this.sink = reader;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedWriter#write(int)
+	 */
+	@Override
+	public void write(int c) throws IOException {
+		this.getSink().receive(c);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedWriter#write(char[], int, int)
+	 */
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		if (off < 0 || len < 0 || off + len > cbuf.length || off + len < 0)
+			throw new IndexOutOfBoundsException();
+		this.getSink().receive(cbuf, off, len);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.Writer#write(java.lang.String, int, int)
+	 */
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		if (off < 0 || len < 0 || off + len > str.length() || off + len < 0)
+			throw new IndexOutOfBoundsException();
+		this.getSink().receive(str, off, len);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedWriter#flush()
+	 */
+	@Override
+	public void flush() throws IOException {
+		this.getSink().wakeUp();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.PipedWriter#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.sink != null)
+			this.sink.receivedLast();
+	}
+
+	private RingBufferPipedReader getSink() throws IOException {
+		if (this.sink == null)
+			throw new IOException("Pipe not connected");
+		return this.sink;
+	}
+
+}
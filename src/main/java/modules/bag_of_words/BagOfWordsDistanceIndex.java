@@ -0,0 +1,238 @@
+package modules.bag_of_words;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index over a list of Bags of Words to compute the Levenshtein distances (see
+ * {@link BagOfWordsHelper#levenshteinDistance(Map, Map)}) between them. Words
+ * are interned to int ids, every bag is kept as a sorted array of word ids and
+ * an inverted index maps each word id to the bags containing it. The amount of
+ * words two bags share is thus only determined for pairs that share any word;
+ * the distance of all other pairs follows from the sizes of the bags.
+ *
+ * The index is immutable and may be used by several threads at once, as long
+ * as each uses its own {@link Scratch}.
+ */
+public class BagOfWordsDistanceIndex {
+
+	/**
+	 * Working memory for the computation of distances, to be used by one
+	 * thread at a time.
+	 */
+	public static class Scratch {
+		// per bag: amount of words shared with the bag whose distances are computed
+		private final int[] overlaps;
+		private final int[] touched;
+		private final int[] columns;
+
+		private Scratch(int size) {
+			this.overlaps = new int[size];
+			this.touched = new int[size];
+			this.columns = new int[size];
+		}
+	}
+
+	/**
+	 * Distances of one bag to others.
+	 */
+	public static class Row {
+		private final int[] columns;
+		private final float[] distances;
+
+		private Row(int[] columns, float[] distances) {
+			this.columns = columns;
+			this.distances = distances;
+		}
+
+		/**
+		 * @return Indices of the other bags, ascending
+		 */
+		public int[] getColumns() {
+			return this.columns;
+		}
+
+		/**
+		 * @return Distances to the other bags, in the order of {@link #getColumns()}
+		 */
+		public float[] getDistances() {
+			return this.distances;
+		}
+	}
+
+	// bags as sorted word ids
+	private final int[][] bags;
+	// word id to the (ascending) indices of the bags containing it
+	private final int[][] postings;
+	private final boolean normalize;
+
+	/**
+	 * Builds the index. Only the words of the bags are regarded, not their
+	 * counts.
+	 *
+	 * @param bags
+	 *            Bags of Words
+	 * @param normalize
+	 *            Whether to divide each distance by its possible maximum (the
+	 *            size of the bigger bag)
+	 */
+	public BagOfWordsDistanceIndex(List<? extends Map<String, Integer>> bags, boolean normalize) {
+		this.normalize = normalize;
+		this.bags = new int[bags.size()][];
+
+		// intern the words
+		final Map<String, Integer> wordIds = new HashMap<String, Integer>();
+		for (int bag = 0; bag < this.bags.length; bag++) {
+			final int[] words = new int[bags.get(bag).size()];
+			int n = 0;
+			for (String word : bags.get(bag).keySet()) {
+				Integer wordId = wordIds.get(word);
+				if (wordId == null) {
+					wordId = wordIds.size();
+					wordIds.put(word, wordId);
+				}
+				words[n++] = wordId;
+			}
+			Arrays.sort(words);
+			this.bags[bag] = words;
+		}
+
+		// build the inverted index
+		final int[] postingSizes = new int[wordIds.size()];
+		for (int[] words : this.bags)
+			for (int word : words)
+				postingSizes[word]++;
+		this.postings = new int[wordIds.size()][];
+		for (int word = 0; word < this.postings.length; word++)
+			this.postings[word] = new int[postingSizes[word]];
+		Arrays.fill(postingSizes, 0);
+		for (int bag = 0; bag < this.bags.length; bag++)
+			for (int word : this.bags[bag])
+				this.postings[word][postingSizes[word]++] = bag;
+	}
+
+	/**
+	 * @return The amount of bags
+	 */
+	public int size() {
+		return this.bags.length;
+	}
+
+	/**
+	 * @return New working memory for {@link #distances(int, float, int[], Scratch)}
+	 */
+	public Scratch createScratch() {
+		return new Scratch(this.bags.length);
+	}
+
+	/**
+	 * Determines the indices of the bags whose distance to another bag can be
+	 * below the threshold without sharing a word with it, to be passed to
+	 * {@link #distances(int, float, int[], Scratch)}.
+	 *
+	 * @param threshold
+	 *            Threshold
+	 * @return Indices of the bags, ascending
+	 */
+	public int[] disjointCandidates(float threshold) {
+		final int[] candidates = new int[this.bags.length];
+		int n = 0;
+		for (int bag = 0; bag < this.bags.length; bag++) {
+			// the distance of disjoint bags is the size of the bigger one
+			// (1 if normalised, undefined if both are empty)
+			if (this.normalize ? 1f < threshold : this.bags[bag].length < threshold)
+				candidates[n++] = bag;
+		}
+		return Arrays.copyOf(candidates, n);
+	}
+
+	/**
+	 * Computes the distances of the given bag to all other bags.
+	 *
+	 * @param bag
+	 *            Index of the bag
+	 * @param scratch
+	 *            Working memory
+	 * @return The distances
+	 */
+	public Row distances(int bag, Scratch scratch) {
+		final int touchedCount = this.countOverlaps(bag, scratch);
+		final int[] columns = new int[this.bags.length - 1];
+		final float[] distances = new float[columns.length];
+		int n = 0;
+		for (int other = 0; other < this.bags.length; other++) {
+			if (other == bag)
+				continue;
+			columns[n] = other;
+			distances[n++] = this.distance(bag, other, scratch.overlaps[other]);
+		}
+		this.resetOverlaps(scratch, touchedCount);
+		return new Row(columns, distances);
+	}
+
+	/**
+	 * Computes the distances of the given bag to all other bags, that are
+	 * below the threshold.
+	 *
+	 * @param bag
+	 *            Index of the bag
+	 * @param threshold
+	 *            Threshold
+	 * @param disjointCandidates
+	 *            As returned by {@link #disjointCandidates(float)} for the threshold
+	 * @param scratch
+	 *            Working memory
+	 * @return The distances
+	 */
+	public Row distances(int bag, float threshold, int[] disjointCandidates, Scratch scratch) {
+		final int touchedCount = this.countOverlaps(bag, scratch);
+		int n = 0;
+
+		// bags sharing words with this one
+		for (int i = 0; i < touchedCount; i++) {
+			final int other = scratch.touched[i];
+			if (other != bag && this.distance(bag, other, scratch.overlaps[other]) < threshold)
+				scratch.columns[n++] = other;
+		}
+		// bags sharing no word with this one
+		for (int other : disjointCandidates) {
+			if (other != bag && scratch.overlaps[other] == 0 && this.distance(bag, other, 0) < threshold)
+				scratch.columns[n++] = other;
+		}
+
+		Arrays.sort(scratch.columns, 0, n);
+		final int[] columns = Arrays.copyOf(scratch.columns, n);
+		final float[] distances = new float[n];
+		for (int i = 0; i < n; i++)
+			distances[i] = this.distance(bag, columns[i], scratch.overlaps[columns[i]]);
+		this.resetOverlaps(scratch, touchedCount);
+		return new Row(columns, distances);
+	}
+
+	// counts the words shared with the given bag for all bags sharing any,
+	// returns the amount of these bags (listed in scratch.touched)
+	private int countOverlaps(int bag, Scratch scratch) {
+		int touchedCount = 0;
+		for (int word : this.bags[bag]) {
+			for (int other : this.postings[word]) {
+				if (scratch.overlaps[other]++ == 0)
+					scratch.touched[touchedCount++] = other;
+			}
+		}
+		return touchedCount;
+	}
+
+	private void resetOverlaps(Scratch scratch, int touchedCount) {
+		for (int i = 0; i < touchedCount; i++)
+			scratch.overlaps[scratch.touched[i]] = 0;
+	}
+
+	private float distance(int bag, int other, int overlap) {
+		final int maxSize = Math.max(this.bags[bag].length, this.bags[other].length);
+		final float distance = (float) (maxSize - overlap);
+		return this.normalize ? distance / (float) maxSize : distance;
+	}
+
+}
@@ -0,0 +1,219 @@
+package modules.bag_of_words;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+/**
+ * MinHash signatures of Bags of Words (regarded as sets of words, i.e.
+ * ignoring the counts) and banded locality sensitive hashing on them.
+ *
+ * A signature consists of bands * rows minimum hash values. The fraction of
+ * equal values in two signatures estimates the Jaccard similarity of the two
+ * sets. Two sets become a candidate pair if all values of any band are equal,
+ * which is likely for similar and unlikely for dissimilar sets (the threshold
+ * lies at about (1/bands)^(1/rows)).
+ *
+ * Signatures of several sets are kept in one flat int array, the signature of
+ * set i starting at i * {@link #getSignatureLength()}.
+ */
+public class BagOfWordsMinHash {
+
+	private final int bands;
+	private final int rows;
+	// one seed per hash function
+	private final long[] seeds;
+
+	/**
+	 * @param bands
+	 *            Amount of bands
+	 * @param rows
+	 *            Amount of hash values per band
+	 * @param seed
+	 *            Seed for the hash functions
+	 */
+	public BagOfWordsMinHash(int bands, int rows, long seed) {
+		if (bands < 1 || rows < 1)
+			throw new IllegalArgumentException("There must be at least one band of at least one row.");
+		this.bands = bands;
+		this.rows = rows;
+		this.seeds = new long[bands * rows];
+		final Random random = new Random(seed);
+		for (int i = 0; i < this.seeds.length; i++)
+			this.seeds[i] = random.nextLong();
+	}
+
+	/**
+	 * @return The amount of bands
+	 */
+	public int getBands() {
+		return this.bands;
+	}
+
+	/**
+	 * @return The amount of hash values in a signature
+	 */
+	public int getSignatureLength() {
+		return this.seeds.length;
+	}
+
+	/**
+	 * Computes the signature of the given set of words.
+	 *
+	 * @param words
+	 *            The words (should not be empty)
+	 * @param signatures
+	 *            Array to write the signature to
+	 * @param index
+	 *            Index of the set, its signature is written to index *
+	 *            {@link #getSignatureLength()}
+	 */
+	public void signature(Collection<String> words, int[] signatures, int index) {
+		final int offset = index * this.seeds.length;
+		Arrays.fill(signatures, offset, offset + this.seeds.length, Integer.MAX_VALUE);
+		for (String word : words) {
+			final long wordHash = hash(word);
+			for (int i = 0; i < this.seeds.length; i++) {
+				final int value = (int) (mix(wordHash ^ this.seeds[i]) >>> 32);
+				if (value < signatures[offset + i])
+					signatures[offset + i] = value;
+			}
+		}
+	}
+
+	/**
+	 * Estimates the Jaccard similarity of two sets from their signatures.
+	 *
+	 * @param signatures
+	 *            Signatures
+	 * @param a
+	 *            Index of one set
+	 * @param b
+	 *            Index of the other set
+	 * @return The fraction of equal hash values
+	 */
+	public float similarity(int[] signatures, int a, int b) {
+		final int offsetA = a * this.seeds.length;
+		final int offsetB = b * this.seeds.length;
+		int equal = 0;
+		for (int i = 0; i < this.seeds.length; i++)
+			if (signatures[offsetA + i] == signatures[offsetB + i])
+				equal++;
+		return (float) equal / (float) this.seeds.length;
+	}
+
+	/**
+	 * Determines the pairs of sets whose signatures agree in all values of the
+	 * given band, but in none of the bands before it. Each candidate pair is
+	 * thus found in exactly one band.
+	 *
+	 * @param signatures
+	 *            Signatures
+	 * @param count
+	 *            Amount of signatures
+	 * @param band
+	 *            Index of the band
+	 * @return Pairs as (a &lt;&lt; 32 | b) with a &lt; b, see {@link #first(long)}
+	 *         and {@link #second(long)}
+	 */
+	public long[] candidates(int[] signatures, int count, int band) {
+		// sort the sets by the hash of the band, keeping their index in the
+		// lower half
+		final long[] buckets = new long[count];
+		for (int set = 0; set < count; set++)
+			buckets[set] = ((long) this.bandHash(signatures, set, band) << 32) | set;
+		Arrays.sort(buckets);
+
+		long[] pairs = new long[16];
+		int n = 0;
+		int start = 0;
+		while (start < count) {
+			int end = start + 1;
+			while (end < count && (buckets[end] >>> 32) == (buckets[start] >>> 32))
+				end++;
+			// within the bucket (ordered by index) compare the bands proper
+			for (int i = start; i < end; i++) {
+				final int a = (int) buckets[i];
+				for (int j = i + 1; j < end; j++) {
+					final int b = (int) buckets[j];
+					if (!this.bandEquals(signatures, a, b, band))
+						continue;
+					boolean earlier = false;
+					for (int other = 0; other < band && !earlier; other++)
+						earlier = this.bandEquals(signatures, a, b, other);
+					if (earlier)
+						continue;
+					if (n == pairs.length)
+						pairs = Arrays.copyOf(pairs, 2 * n);
+					pairs[n++] = pair(a, b);
+				}
+			}
+			start = end;
+		}
+		return Arrays.copyOf(pairs, n);
+	}
+
+	/**
+	 * @param pair
+	 *            A pair as returned by {@link #candidates(int[], int, int)}
+	 * @return Index of its first set
+	 */
+	public static int first(long pair) {
+		return (int) (pair >>> 32);
+	}
+
+	/**
+	 * @param pair
+	 *            A pair as returned by {@link #candidates(int[], int, int)}
+	 * @return Index of its second set
+	 */
+	public static int second(long pair) {
+		return (int) pair;
+	}
+
+	/**
+	 * @param first
+	 *            Index of the first set
+	 * @param second
+	 *            Index of the second set
+	 * @return The pair as (first &lt;&lt; 32 | second)
+	 */
+	public static long pair(int first, int second) {
+		return ((long) first << 32) | (second & 0xffffffffL);
+	}
+
+	private int bandHash(int[] signatures, int set, int band) {
+		final int offset = set * this.seeds.length + band * this.rows;
+		long hash = band;
+		for (int i = 0; i < this.rows; i++)
+			hash = mix(hash ^ signatures[offset + i]);
+		return (int) (hash >>> 32);
+	}
+
+	private boolean bandEquals(int[] signatures, int a, int b, int band) {
+		final int offsetA = a * this.seeds.length + band * this.rows;
+		final int offsetB = b * this.seeds.length + band * this.rows;
+		for (int i = 0; i < this.rows; i++)
+			if (signatures[offsetA + i] != signatures[offsetB + i])
+				return false;
+		return true;
+	}
+
+	// 64 bit FNV-1a hash of the word's chars
+	private static long hash(String word) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < word.length(); i++) {
+			hash ^= word.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	// finalizer of the SplitMix64 generator
+	private static long mix(long value) {
+		value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+		value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+		return value ^ (value >>> 31);
+	}
+
+}
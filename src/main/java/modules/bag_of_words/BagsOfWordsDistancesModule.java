@@ -1,21 +1,31 @@
 package modules.bag_of_words;
 
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
 
 import common.parallelization.CallbackReceiver;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
 import modules.OutputPort;
+import modules.OutputPortWriter;
+import modules.bag_of_words.BagOfWordsDistanceIndex.Row;
+import modules.bag_of_words.BagOfWordsDistanceIndex.Scratch;
 
 /**
  * Module to determine the distance between Bags of Words.
@@ -45,8 +55,6 @@ public class BagsOfWordsDistancesModule extends ModuleImpl {
 	// Types for deserializing the input and serializing output
 	private final static Type INPUT_TYPE = new TypeToken<TreeMap<Integer, TreeMap<String, Integer>>>() {
 	}.getType();
-	private final static Type OUTPUT_TYPE = new TypeToken<TreeMap<Integer, TreeMap<Integer, Float>>>() {
-	}.getType();
 
 	// Name and description of this module for the User
 	private final static String MODULE_NAME = "BagsOfWordsDistancesModule";
@@ -68,6 +76,21 @@ public class BagsOfWordsDistancesModule extends ModuleImpl {
 	private final static String DEFAULT_TFIDF_MIN = "0.8";
 	private Float tfIdfMin;
 
+	// Property to restrict the output to pairs of close Bags of Words
+	private final static String PROPERTYKEY_MAX_DISTANCE = "Distance threshold";
+	private final static String DESCRIPTION_MAX_DISTANCE = "Only outputs distances below this value. Disabled if empty.";
+	private final static String DEFAULT_MAX_DISTANCE = "";
+	private float maxDistance = Float.POSITIVE_INFINITY;
+
+	// Property for the amount of threads to compute distances in
+	private final static String PROPERTYKEY_THREADS = "Threads";
+	private final static String DESCRIPTION_THREADS = "Maximum number of threads to compute distances in.";
+	private final static String DEFAULT_THREADS = String.valueOf(Runtime.getRuntime().availableProcessors());
+	private int threads = 1;
+
+	// Amount of sentences each thread computes the distances for at a time
+	private final static int ROWS_PER_TASK = 16;
+
 	public BagsOfWordsDistancesModule(CallbackReceiver callbackReceiver, Properties properties) throws Exception {
 		// Call parent constructor
 		super(callbackReceiver, properties);
@@ -89,6 +112,10 @@ public class BagsOfWordsDistancesModule extends ModuleImpl {
 		this.getPropertyDefaultValues().put(PROPERTYKEY_NORMALIZE_DISTANCE, DEFAUL_NORMALIZE_DISTANCE);
 		this.getPropertyDescriptions().put(PROPERTYKEY_TFIDF_MIN, DESCRIPTION_TFIDF_MIN);
 		this.getPropertyDefaultValues().put(PROPERTYKEY_TFIDF_MIN, DEFAULT_TFIDF_MIN);
+		this.getPropertyDescriptions().put(PROPERTYKEY_MAX_DISTANCE, DESCRIPTION_MAX_DISTANCE);
+		this.getPropertyDefaultValues().put(PROPERTYKEY_MAX_DISTANCE, DEFAULT_MAX_DISTANCE);
+		this.getPropertyDescriptions().put(PROPERTYKEY_THREADS, DESCRIPTION_THREADS);
+		this.getPropertyDefaultValues().put(PROPERTYKEY_THREADS, DEFAULT_THREADS);
 	}
 
 	@Override
@@ -98,10 +125,7 @@ public class BagsOfWordsDistancesModule extends ModuleImpl {
 		// read the whole text once
 		final String input = this.readStringFromInputPort(this.getInputPorts().get(INPUT_ID));
 
-		// the output: an empty result map mapping sentence Nrs to a map holding
-		// the distance of this sentence to each other sentence
-		final Map<Integer, Map<Integer, Float>> sentenceNrsToDistances = new TreeMap<Integer, Map<Integer, Float>>();
-
+		ExecutorService executor = null;
 		try {
 			// deserialize the input
 			final Gson gson = new GsonBuilder().setPrettyPrinting().create();
@@ -138,61 +162,97 @@ public class BagsOfWordsDistancesModule extends ModuleImpl {
 				}
 			}
 
-			// bags that are compared
-			// word => count in sentence
-			Map<String, Integer> thisBag;
-			Map<String, Integer> otherBag;
-
-			// distances that are produced by comparison
-			// sentenceNr => distance
-			Map<Integer, Float> thisDistances;
-			Map<Integer, Float> otherDistances;
-
-			// first loop over sentences to compare
-			for (Integer thisSentence : sentenceNrs) {
-				thisDistances = sentenceNrsToDistances.getOrDefault(thisSentence, new TreeMap<Integer, Float>());
-
-				// second loop over sentences to compare with
-				for (Integer otherSentence : sentenceNrs) {
-					// move on if there is already a distance for this
-					// combination or the sentences are the same
-					if ((thisSentence == otherSentence) || (thisDistances.get(otherSentence) != null)) {
-						continue;
-					}
-					// get bags of words and paranoia check that they exist
-					thisBag = sentenceNrsToBagOfWords.get(thisSentence);
-					otherBag = sentenceNrsToBagOfWords.get(otherSentence);
-					if (thisBag != null && otherBag != null) {
-						// actually compare bags
-						final Float distance;
-						if (this.normalizeDistance) {
-							distance = BagOfWordsHelper.normalizedLevenshteinDistance(thisBag, otherBag);
-						} else {
-							distance = BagOfWordsHelper.levenshteinDistance(thisBag, otherBag);
+			// index the bags of words (in ascending order of the sentence
+			// nrs), paranoia check that they exist
+			final List<Integer> indexedSentenceNrs = new ArrayList<Integer>(sentenceNrs.size());
+			final List<Map<String, Integer>> bags = new ArrayList<Map<String, Integer>>(sentenceNrs.size());
+			for (Integer sentenceNr : sentenceNrs) {
+				final Map<String, Integer> bag = sentenceNrsToBagOfWords.get(sentenceNr);
+				if (bag != null) {
+					indexedSentenceNrs.add(sentenceNr);
+					bags.add(bag);
+				} else {
+					LOGGER.warning("Missing Bag of Words for sentence: " + sentenceNr);
+				}
+			}
+			final BagOfWordsDistanceIndex index = new BagOfWordsDistanceIndex(bags, this.normalizeDistance);
+			final int[] disjointCandidates = index.disjointCandidates(this.maxDistance);
+
+			// working memory for each thread
+			final int tasks = Math.max(1, this.threads);
+			final Scratch[] scratches = new Scratch[tasks];
+			for (int task = 0; task < tasks; task++)
+				scratches[task] = index.createScratch();
+			if (tasks > 1)
+				executor = Executors.newFixedThreadPool(tasks);
+
+			// the output: a map of sentence nrs to maps holding the distance of
+			// this sentence to each other sentence, streamed in blocks of
+			// sentences whose distances are computed in parallel
+			final JsonWriter out = new JsonWriter(new OutputPortWriter(this.getOutputPorts().get(OUTPUT_ID)));
+			out.setIndent("  ");
+			out.beginObject();
+			final int blockSize = tasks * ROWS_PER_TASK;
+			for (int blockStart = 0; blockStart < index.size(); blockStart += blockSize) {
+
+				// Check for interrupt signal
+				if (Thread.interrupted()) {
+					throw new InterruptedException("Thread has been interrupted.");
+				}
+
+				final List<Callable<Row[]>> blockTasks = new ArrayList<Callable<Row[]>>(tasks);
+				for (int task = 0; task < tasks; task++) {
+					final int from = Math.min(index.size(), blockStart + task * ROWS_PER_TASK);
+					final int to = Math.min(index.size(), from + ROWS_PER_TASK);
+					final Scratch scratch = scratches[task];
+					blockTasks.add(new Callable<Row[]>() {
+						@Override
+						public Row[] call() throws Exception {
+							final Row[] rows = new Row[to - from];
+							for (int bag = from; bag < to; bag++) {
+								if (Float.isInfinite(maxDistance))
+									rows[bag - from] = index.distances(bag, scratch);
+								else
+									rows[bag - from] = index.distances(bag, maxDistance, disjointCandidates, scratch);
+							}
+							return rows;
 						}
+					});
+				}
 
-						// write distance to both distance maps and write maps
-						// back
-						otherDistances = sentenceNrsToDistances.getOrDefault(otherSentence,
-								new TreeMap<Integer, Float>());
-						thisDistances.put(otherSentence, distance);
-						otherDistances.put(thisSentence, distance);
-						sentenceNrsToDistances.put(thisSentence, thisDistances);
-						sentenceNrsToDistances.put(otherSentence, otherDistances);
-					} else {
-						LOGGER.warning(
-								"Missing Bag of Words for sentence pair: " + thisSentence + ", " + otherSentence);
-					}
+				final List<Row[]> blockRows = new ArrayList<Row[]>(tasks);
+				if (executor == null) {
+					blockRows.add(blockTasks.get(0).call());
+				} else {
+					for (Future<Row[]> taskRows : executor.invokeAll(blockTasks))
+						blockRows.add(taskRows.get());
+				}
 
+				// write distances to the output
+				int bag = blockStart;
+				for (Row[] rows : blockRows) {
+					for (Row row : rows) {
+						if (row.getColumns().length > 0) {
+							out.name(String.valueOf(indexedSentenceNrs.get(bag)));
+							out.beginObject();
+							for (int i = 0; i < row.getColumns().length; i++) {
+								out.name(String.valueOf(indexedSentenceNrs.get(row.getColumns()[i])));
+								out.value(Float.valueOf(row.getDistances()[i]));
+							}
+							out.endObject();
+						}
+						bag++;
+					}
 				}
 			}
-			// serialize and flush to output
-			final String jsonOut = gson.toJson(sentenceNrsToDistances, OUTPUT_TYPE);
-			this.getOutputPorts().get(OUTPUT_ID).outputToAllCharPipes(jsonOut);
+			out.endObject();
+			out.close();
 		} catch (Exception e) {
 			result = false;
 			throw e;
 		} finally {
+			if (executor != null)
+				executor.shutdownNow();
 			this.closeAllOutputs();
 		}
 
@@ -208,6 +268,14 @@ public class BagsOfWordsDistancesModule extends ModuleImpl {
 					.parseBoolean(this.getProperties().getProperty(PROPERTYKEY_NORMALIZE_DISTANCE));
 			this.tfIdfMin = Float.parseFloat(this.getProperties().getProperty(PROPERTYKEY_TFIDF_MIN));
 		}
+		if (this.getProperties().containsKey(PROPERTYKEY_MAX_DISTANCE)) {
+			final String maxDistanceString = this.getProperties().getProperty(PROPERTYKEY_MAX_DISTANCE).trim();
+			this.maxDistance = maxDistanceString.isEmpty() ? Float.POSITIVE_INFINITY
+					: Float.parseFloat(maxDistanceString);
+		}
+		if (this.getProperties().containsKey(PROPERTYKEY_THREADS)) {
+			this.threads = Math.max(1, Integer.parseInt(this.getProperties().getProperty(PROPERTYKEY_THREADS)));
+		}
 
 		super.applyProperties();
 	}
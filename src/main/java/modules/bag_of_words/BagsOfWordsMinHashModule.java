@@ -0,0 +1,268 @@
+package modules.bag_of_words;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+
+import base.workbench.ModuleRunner;
+import common.parallelization.CallbackReceiver;
+import modules.CharPipe;
+import modules.InputPort;
+import modules.ModuleImpl;
+import modules.OutputPort;
+import modules.OutputPortWriter;
+
+/**
+ * Module to find pairs of similar Bags of Words without comparing all pairs.
+ *
+ * Computes MinHash signatures of the Bags of Words (regarded as sets of
+ * words) and outputs only the pairs that collide in any band of the
+ * signatures (see {@link BagOfWordsMinHash}), together with the Jaccard
+ * similarity estimated from their signatures.
+ */
+public class BagsOfWordsMinHashModule extends ModuleImpl {
+
+	// Main method for stand-alone execution
+	public static void main(String[] args) throws Exception {
+		ModuleRunner.runStandAlone(BagsOfWordsMinHashModule.class, args);
+	}
+
+	private static final Logger LOGGER = Logger.getLogger(BagsOfWordsMinHashModule.class.getName());
+
+	// Strings identifying/describing in- and output pipes
+	private final static String INPUT_ID = "json";
+	private final static String OUTPUT_ID = "json";
+	private final static String INPUT_DESC = "[text/json] TreeMap<Integer,TreeMap<String,Integer>>";
+	private final static String OUTPUT_DESC = "[text/json] TreeMap<Integer,TreeMap<Integer,Float>>";
+
+	// Type for deserializing the input
+	private final static Type INPUT_TYPE = new TypeToken<TreeMap<Integer, TreeMap<String, Integer>>>() {
+	}.getType();
+
+	// Name and description of this module for the User
+	private final static String MODULE_NAME = "BagsOfWordsMinHashModule";
+	private final static String MODULE_DESCRIPTION = "<p>Module to find pairs of similar Bags of Words.</p>"
+			+ "<p>Computes MinHash signatures of the Bags of Words and uses banded locality sensitive hashing "
+			+ "to output only candidate pairs, each with the Jaccard similarity of the two sets of words "
+			+ "estimated from their signatures. Pairs with a similarity of about (1/bands)^(1/rows) "
+			+ "or higher are likely to be found.</p>";
+
+	// Properties defining the signatures
+	private final static String PROPERTYKEY_BANDS = "Bands";
+	private final static String DESCRIPTION_BANDS = "Amount of bands of the signatures. More bands find less similar pairs.";
+	private final static String DEFAULT_BANDS = "20";
+	private int bands;
+
+	private final static String PROPERTYKEY_ROWS = "Rows per band";
+	private final static String DESCRIPTION_ROWS = "Amount of hash values per band. More rows find less dissimilar pairs.";
+	private final static String DEFAULT_ROWS = "5";
+	private int rows;
+
+	private final static String PROPERTYKEY_SEED = "Seed";
+	private final static String DESCRIPTION_SEED = "Seed for the hash functions.";
+	private final static String DEFAULT_SEED = "0";
+	private long seed;
+
+	// Property to drop candidate pairs of low similarity
+	private final static String PROPERTYKEY_MIN_SIMILARITY = "Minimum similarity";
+	private final static String DESCRIPTION_MIN_SIMILARITY = "Only outputs candidate pairs with an estimated similarity of at least this value.";
+	private final static String DEFAULT_MIN_SIMILARITY = "0.0";
+	private float minSimilarity;
+
+	// Property for the amount of threads to compute signatures in
+	private final static String PROPERTYKEY_THREADS = "Threads";
+	private final static String DESCRIPTION_THREADS = "Maximum number of threads to compute signatures and candidates in.";
+	private final static String DEFAULT_THREADS = String.valueOf(Runtime.getRuntime().availableProcessors());
+	private int threads = 1;
+
+	public BagsOfWordsMinHashModule(CallbackReceiver callbackReceiver, Properties properties) throws Exception {
+		// Call parent constructor
+		super(callbackReceiver, properties);
+
+		// Set the modules name and description
+		this.getPropertyDefaultValues().put(ModuleImpl.PROPERTYKEY_NAME, MODULE_NAME);
+		this.setDescription(MODULE_DESCRIPTION);
+
+		// Setup I/O, reads from and writes to CharPipe
+		InputPort inputPort = new InputPort(INPUT_ID, INPUT_DESC, this);
+		inputPort.addSupportedPipe(CharPipe.class);
+		OutputPort outputPort = new OutputPort(OUTPUT_ID, OUTPUT_DESC, this);
+		outputPort.addSupportedPipe(CharPipe.class);
+		super.addInputPort(inputPort);
+		super.addOutputPort(outputPort);
+
+		// Setup properties
+		this.getPropertyDescriptions().put(PROPERTYKEY_BANDS, DESCRIPTION_BANDS);
+		this.getPropertyDefaultValues().put(PROPERTYKEY_BANDS, DEFAULT_BANDS);
+		this.getPropertyDescriptions().put(PROPERTYKEY_ROWS, DESCRIPTION_ROWS);
+		this.getPropertyDefaultValues().put(PROPERTYKEY_ROWS, DEFAULT_ROWS);
+		this.getPropertyDescriptions().put(PROPERTYKEY_SEED, DESCRIPTION_SEED);
+		this.getPropertyDefaultValues().put(PROPERTYKEY_SEED, DEFAULT_SEED);
+		this.getPropertyDescriptions().put(PROPERTYKEY_MIN_SIMILARITY, DESCRIPTION_MIN_SIMILARITY);
+		this.getPropertyDefaultValues().put(PROPERTYKEY_MIN_SIMILARITY, DEFAULT_MIN_SIMILARITY);
+		this.getPropertyDescriptions().put(PROPERTYKEY_THREADS, DESCRIPTION_THREADS);
+		this.getPropertyDefaultValues().put(PROPERTYKEY_THREADS, DEFAULT_THREADS);
+	}
+
+	@Override
+	public boolean process() throws Exception {
+		ExecutorService executor = null;
+		try {
+			// deserialize the input
+			final TreeMap<Integer, Map<String, Integer>> sentenceNrsToBagOfWords = new Gson().fromJson(
+					this.getInputPorts().get(INPUT_ID).getInputReader(), INPUT_TYPE);
+			if (sentenceNrsToBagOfWords == null || sentenceNrsToBagOfWords.isEmpty()) {
+				throw new Exception("No bags of words given");
+			}
+
+			// empty bags have no signature and are thus never similar
+			final List<Integer> sentenceNrs = new ArrayList<Integer>(sentenceNrsToBagOfWords.size());
+			final List<Map<String, Integer>> bags = new ArrayList<Map<String, Integer>>(sentenceNrsToBagOfWords.size());
+			for (Entry<Integer, Map<String, Integer>> entry : sentenceNrsToBagOfWords.entrySet()) {
+				if (entry.getValue() == null) {
+					LOGGER.warning("Missing Bag of Words for sentence: " + entry.getKey());
+				} else if (!entry.getValue().isEmpty()) {
+					sentenceNrs.add(entry.getKey());
+					bags.add(entry.getValue());
+				}
+			}
+			sentenceNrsToBagOfWords.clear();
+
+			final BagOfWordsMinHash minHash = new BagOfWordsMinHash(this.bands, this.rows, this.seed);
+			final int count = bags.size();
+			final int[] signatures = new int[count * minHash.getSignatureLength()];
+			if (this.threads > 1)
+				executor = Executors.newFixedThreadPool(this.threads);
+
+			// compute the signatures, each task for a contiguous range of bags
+			final List<Callable<Void>> signatureTasks = new ArrayList<Callable<Void>>(this.threads);
+			final int bagsPerTask = Math.max(1, (count + this.threads - 1) / this.threads);
+			for (int from = 0; from < count; from += bagsPerTask) {
+				final int start = from;
+				final int end = Math.min(count, from + bagsPerTask);
+				signatureTasks.add(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						for (int bag = start; bag < end; bag++)
+							minHash.signature(bags.get(bag).keySet(), signatures, bag);
+						return null;
+					}
+				});
+			}
+			this.runAll(signatureTasks, executor);
+			bags.clear();
+
+			// Check for interrupt signal
+			if (Thread.interrupted()) {
+				throw new InterruptedException("Thread has been interrupted.");
+			}
+
+			// collect the candidate pairs of all bands, each in both directions
+			final List<Callable<long[]>> bandTasks = new ArrayList<Callable<long[]>>(this.bands);
+			for (int band = 0; band < this.bands; band++) {
+				final int currentBand = band;
+				bandTasks.add(new Callable<long[]>() {
+					@Override
+					public long[] call() throws Exception {
+						return minHash.candidates(signatures, count, currentBand);
+					}
+				});
+			}
+			final List<long[]> bandPairs = this.runAll(bandTasks, executor);
+			int pairCount = 0;
+			for (long[] pairs : bandPairs)
+				pairCount += pairs.length;
+			long[] pairs = new long[2 * pairCount];
+			int n = 0;
+			for (int band = 0; band < bandPairs.size(); band++) {
+				for (long pair : bandPairs.get(band)) {
+					final int first = BagOfWordsMinHash.first(pair);
+					final int second = BagOfWordsMinHash.second(pair);
+					if (minHash.similarity(signatures, first, second) >= this.minSimilarity) {
+						pairs[n++] = pair;
+						pairs[n++] = BagOfWordsMinHash.pair(second, first);
+					}
+				}
+				bandPairs.set(band, null);
+			}
+			pairs = Arrays.copyOf(pairs, n);
+			Arrays.sort(pairs);
+
+			// Check for interrupt signal
+			if (Thread.interrupted()) {
+				throw new InterruptedException("Thread has been interrupted.");
+			}
+
+			// stream the similarities of each bag to the output
+			final JsonWriter out = new JsonWriter(new OutputPortWriter(this.getOutputPorts().get(OUTPUT_ID)));
+			out.setIndent("  ");
+			out.beginObject();
+			int i = 0;
+			while (i < pairs.length) {
+				final int first = BagOfWordsMinHash.first(pairs[i]);
+				out.name(String.valueOf(sentenceNrs.get(first)));
+				out.beginObject();
+				for (; i < pairs.length && BagOfWordsMinHash.first(pairs[i]) == first; i++) {
+					final int second = BagOfWordsMinHash.second(pairs[i]);
+					out.name(String.valueOf(sentenceNrs.get(second)));
+					out.value(Float.valueOf(minHash.similarity(signatures, first, second)));
+				}
+				out.endObject();
+			}
+			out.endObject();
+			out.close();
+		} finally {
+			if (executor != null)
+				executor.shutdownNow();
+			this.closeAllOutputs();
+		}
+
+		return true;
+	}
+
+	// runs the tasks on the executor (or in this thread if null) and returns
+	// their results in order
+	private <T> List<T> runAll(List<Callable<T>> tasks, ExecutorService executor) throws Exception {
+		final List<T> results = new ArrayList<T>(tasks.size());
+		if (executor == null) {
+			for (Callable<T> task : tasks)
+				results.add(task.call());
+		} else {
+			for (Future<T> future : executor.invokeAll(tasks))
+				results.add(future.get());
+		}
+		return results;
+	}
+
+	@Override
+	public void applyProperties() throws Exception {
+		super.setDefaultsIfMissing();
+
+		if (this.getProperties().containsKey(PROPERTYKEY_BANDS))
+			this.bands = Integer.parseInt(this.getProperties().getProperty(PROPERTYKEY_BANDS));
+		if (this.getProperties().containsKey(PROPERTYKEY_ROWS))
+			this.rows = Integer.parseInt(this.getProperties().getProperty(PROPERTYKEY_ROWS));
+		if (this.getProperties().containsKey(PROPERTYKEY_SEED))
+			this.seed = Long.parseLong(this.getProperties().getProperty(PROPERTYKEY_SEED));
+		if (this.getProperties().containsKey(PROPERTYKEY_MIN_SIMILARITY))
+			this.minSimilarity = Float.parseFloat(this.getProperties().getProperty(PROPERTYKEY_MIN_SIMILARITY));
+		if (this.getProperties().containsKey(PROPERTYKEY_THREADS))
+			this.threads = Math.max(1, Integer.parseInt(this.getProperties().getProperty(PROPERTYKEY_THREADS)));
+
+		super.applyProperties();
+	}
+}
@@ -0,0 +1,97 @@
+package modules.basic_text_processing.burrows_wheeler;
+
+/**
+ * Burrows-Wheeler transform (see
+ * https://en.wikipedia.org/wiki/Burrows-Wheeler_transform) in linear time
+ * and space, using a suffix array for the forward transform and the
+ * LF-mapping for the inverse.
+ */
+public class BurrowsWheeler {
+
+	// only used statically
+	private BurrowsWheeler() {
+	}
+
+	/**
+	 * Returns the last column of the sorted matrix of all of the string's
+	 * rotations.
+	 *
+	 * @param str
+	 *            The string to transform
+	 * @return The transformed string
+	 */
+	public static String transform(String str) {
+		// Return if input is empty
+		if (str == null || str.isEmpty())
+			return str;
+
+		final int n = str.length();
+		final int[] rotations = SuffixArray.sortedRotations(str);
+		final char[] result = new char[n];
+		for (int i = 0; i < n; i++)
+			result[i] = str.charAt((rotations[i] + n - 1) % n);
+		return new String(result);
+	}
+
+	/**
+	 * Reverses the transform, returning the first row of the sorted rotation
+	 * matrix that ends with the given end char.
+	 *
+	 * @param bwt
+	 *            A transformed string
+	 * @param stringEndChar
+	 *            The char the original string ended with
+	 * @return The original string or null if no row ends with the end char
+	 */
+	public static String inverse(String bwt, char stringEndChar) {
+		final int n = bwt.length();
+
+		// The rows are sorted, so the first one ending with the end char is
+		// the first position of the end char in the last column
+		final int row = bwt.indexOf(stringEndChar);
+		if (row < 0)
+			return null;
+
+		final int[] lf = lfMapping(bwt);
+
+		// Walk the string backwards from its last char
+		final char[] result = new char[n];
+		int current = row;
+		for (int i = n - 1; i >= 0; i--) {
+			result[i] = bwt.charAt(current);
+			current = lf[current];
+		}
+		return new String(result);
+	}
+
+	/**
+	 * Computes the LF-mapping of a transformed string: for every row, the row
+	 * of the sorted rotation matrix that begins with the row's last char
+	 * (i.e. the rotation one step to the right).
+	 *
+	 * @param bwt
+	 *            A transformed string
+	 * @return The LF-mapping
+	 */
+	public static int[] lfMapping(String bwt) {
+		final int n = bwt.length();
+
+		// first row starting with each char (the C array)
+		final int[] firstRow = new int[Character.MAX_VALUE + 1];
+		for (int i = 0; i < n; i++)
+			firstRow[bwt.charAt(i)]++;
+		int sum = 0;
+		for (int c = 0; c < firstRow.length; c++) {
+			final int count = firstRow[c];
+			firstRow[c] = sum;
+			sum += count;
+		}
+
+		// equal chars keep their relative order between the first and last column
+		final int[] lf = new int[n];
+		for (int i = 0; i < n; i++)
+			lf[i] = firstRow[bwt.charAt(i)]++;
+		return lf;
+	}
+
+}
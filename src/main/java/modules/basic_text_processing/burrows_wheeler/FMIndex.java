@@ -0,0 +1,319 @@
+package modules.basic_text_processing.burrows_wheeler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * FM-index over a text: its Burrows-Wheeler transform together with rank
+ * tables for the occurrences of each char and a sample of the suffix array.
+ * Allows counting and locating the occurrences of a pattern without holding
+ * the text or its full suffix array in memory.
+ *
+ * The transform is taken of the text followed by a virtual end marker that
+ * is smaller than every char, so the index has one row more than the text
+ * has chars.
+ */
+public class FMIndex {
+
+	// distance of the rows for which the occurrence counts are stored
+	private static final int OCC_SAMPLE_RATE = 64;
+
+	// distance of the text positions for which the suffix array is stored
+	private static final int SA_SAMPLE_RATE = 32;
+
+	// identifies index files written by this class
+	private static final int FILE_MAGIC = 0x464d4958;
+	private static final int FILE_VERSION = 1;
+
+	// length of the text
+	private final int n;
+
+	// the transform (n + 1 rows); the row holding the end marker is noted separately
+	private final char[] bwt;
+	private final int endMarkerRow;
+
+	// the chars occurring in the text, sorted, and the first row starting with each
+	private final char[] alphabet;
+	private final int[] firstRow;
+
+	// occurrence counts of each char (by alphabet index) in the rows before every
+	// OCC_SAMPLE_RATE-th row
+	private final int[] occ;
+
+	// marks the rows whose suffix array value is sampled, with the amount
+	// of marked rows before each word, and the sampled values in row order
+	private final long[] sampledRows;
+	private final int[] sampledRowsRank;
+	private final int[] samples;
+
+	/**
+	 * Builds the index over the given text.
+	 *
+	 * @param text
+	 *            The text to index
+	 */
+	public FMIndex(CharSequence text) {
+		this.n = text.length();
+		final int[] sa = SuffixArray.build(text);
+
+		// row 0 belongs to the end marker suffix, row i + 1 to sa[i]
+		this.bwt = new char[this.n + 1];
+		this.bwt[0] = (this.n > 0) ? text.charAt(this.n - 1) : 0;
+		int markerRow = 0;
+		for (int i = 0; i < this.n; i++) {
+			if (sa[i] == 0) {
+				markerRow = i + 1;
+			} else {
+				this.bwt[i + 1] = text.charAt(sa[i] - 1);
+			}
+		}
+		this.endMarkerRow = markerRow;
+
+		this.sampledRows = new long[(this.n + 1 + 63) / 64];
+		int sampleCount = 0;
+		for (int row = 0; row <= this.n; row++) {
+			if (saValue(sa, row) % SA_SAMPLE_RATE == 0) {
+				this.sampledRows[row >>> 6] |= 1L << row;
+				sampleCount++;
+			}
+		}
+		this.samples = new int[sampleCount];
+		for (int row = 0, j = 0; row <= this.n; row++) {
+			if (saValue(sa, row) % SA_SAMPLE_RATE == 0)
+				this.samples[j++] = saValue(sa, row);
+		}
+
+		this.alphabet = alphabetOf(this.bwt, this.endMarkerRow);
+		this.firstRow = new int[this.alphabet.length];
+		this.occ = new int[((this.n + 1) / OCC_SAMPLE_RATE + 1) * this.alphabet.length];
+		this.sampledRowsRank = new int[this.sampledRows.length];
+		this.buildTables();
+	}
+
+	// constructor used when reading an index from disk
+	private FMIndex(int n, char[] bwt, int endMarkerRow, long[] sampledRows, int[] samples) {
+		this.n = n;
+		this.bwt = bwt;
+		this.endMarkerRow = endMarkerRow;
+		this.sampledRows = sampledRows;
+		this.samples = samples;
+		this.alphabet = alphabetOf(bwt, endMarkerRow);
+		this.firstRow = new int[this.alphabet.length];
+		this.occ = new int[((n + 1) / OCC_SAMPLE_RATE + 1) * this.alphabet.length];
+		this.sampledRowsRank = new int[sampledRows.length];
+		this.buildTables();
+	}
+
+	// returns the suffix array value of a row
+	private static int saValue(int[] sa, int row) {
+		return (row == 0) ? sa.length : sa[row - 1];
+	}
+
+	private static char[] alphabetOf(char[] bwt, int endMarkerRow) {
+		final boolean[] present = new boolean[Character.MAX_VALUE + 1];
+		int size = 0;
+		for (int row = 0; row < bwt.length; row++) {
+			if (row != endMarkerRow && !present[bwt[row]]) {
+				present[bwt[row]] = true;
+				size++;
+			}
+		}
+		final char[] alphabet = new char[size];
+		for (int c = 0, i = 0; c < present.length; c++)
+			if (present[c])
+				alphabet[i++] = (char) c;
+		return alphabet;
+	}
+
+	// fills firstRow, occ and sampledRowsRank from the transform and sampled rows
+	private void buildTables() {
+		final int sigma = this.alphabet.length;
+		final int[] counts = new int[sigma];
+		for (int row = 0; row < this.bwt.length; row++) {
+			if (row % OCC_SAMPLE_RATE == 0)
+				System.arraycopy(counts, 0, this.occ, (row / OCC_SAMPLE_RATE) * sigma, sigma);
+			if (row != this.endMarkerRow)
+				counts[Arrays.binarySearch(this.alphabet, this.bwt[row])]++;
+		}
+		if (this.bwt.length % OCC_SAMPLE_RATE == 0)
+			System.arraycopy(counts, 0, this.occ, (this.bwt.length / OCC_SAMPLE_RATE) * sigma, sigma);
+
+		// row 0 is taken by the end marker suffix
+		int sum = 1;
+		for (int c = 0; c < sigma; c++) {
+			this.firstRow[c] = sum;
+			sum += counts[c];
+		}
+
+		int rank = 0;
+		for (int i = 0; i < this.sampledRows.length; i++) {
+			this.sampledRowsRank[i] = rank;
+			rank += Long.bitCount(this.sampledRows[i]);
+		}
+	}
+
+	/**
+	 * @return The length of the indexed text
+	 */
+	public int getTextLength() {
+		return this.n;
+	}
+
+	/**
+	 * Counts the occurrences of the pattern in the text.
+	 *
+	 * @param pattern
+	 *            The pattern to look for
+	 * @return The amount of (possibly overlapping) occurrences
+	 */
+	public int count(CharSequence pattern) {
+		final int[] range = this.rowRange(pattern);
+		return (range == null) ? 0 : range[1] - range[0];
+	}
+
+	/**
+	 * Determines the start positions of the pattern's occurrences in the text.
+	 *
+	 * @param pattern
+	 *            The pattern to look for
+	 * @param max
+	 *            The maximum amount of positions to determine, negative for
+	 *            all of them
+	 * @return The positions in ascending order
+	 */
+	public int[] locate(CharSequence pattern, int max) {
+		final int[] range = this.rowRange(pattern);
+		if (range == null)
+			return new int[0];
+		int amount = range[1] - range[0];
+		if (max >= 0 && max < amount)
+			amount = max;
+		final int[] positions = new int[amount];
+		for (int i = 0; i < amount; i++)
+			positions[i] = this.suffixArrayValue(range[0] + i);
+		Arrays.sort(positions);
+		return positions;
+	}
+
+	/**
+	 * Backward search for the rows whose suffixes begin with the pattern.
+	 *
+	 * @param pattern
+	 *            The pattern
+	 * @return start (inclusive) and end (exclusive) row, null if there are none
+	 */
+	private int[] rowRange(CharSequence pattern) {
+		int start = 0;
+		int end = this.bwt.length;
+		for (int i = pattern.length() - 1; i >= 0 && start < end; i--) {
+			final int c = Arrays.binarySearch(this.alphabet, pattern.charAt(i));
+			if (c < 0)
+				return null;
+			start = this.firstRow[c] + this.rank(c, start);
+			end = this.firstRow[c] + this.rank(c, end);
+		}
+		return (start < end) ? new int[] { start, end } : null;
+	}
+
+	/**
+	 * @param c
+	 *            Index of a char in the alphabet
+	 * @param row
+	 *            A row
+	 * @return The amount of occurrences of the char in the rows before the given one
+	 */
+	private int rank(int c, int row) {
+		final char ch = this.alphabet[c];
+		final int checkpoint = row / OCC_SAMPLE_RATE;
+		int count = this.occ[checkpoint * this.alphabet.length + c];
+		for (int i = checkpoint * OCC_SAMPLE_RATE; i < row; i++) {
+			if (this.bwt[i] == ch && i != this.endMarkerRow)
+				count++;
+		}
+		return count;
+	}
+
+	// walks the LF-mapping back to a sampled row to determine a row's suffix array value
+	private int suffixArrayValue(int row) {
+		int steps = 0;
+		while ((this.sampledRows[row >>> 6] & (1L << row)) == 0) {
+			// the end marker row is always sampled (its value is 0)
+			final int c = Arrays.binarySearch(this.alphabet, this.bwt[row]);
+			row = this.firstRow[c] + this.rank(c, row);
+			steps++;
+		}
+		final long below = this.sampledRows[row >>> 6] & ((1L << row) - 1);
+		final int sample = this.samples[this.sampledRowsRank[row >>> 6] + Long.bitCount(below)];
+		return sample + steps;
+	}
+
+	/**
+	 * Writes the index to a file.
+	 *
+	 * @param file
+	 *            The file to write to
+	 * @throws IOException
+	 *             on error
+	 */
+	public void write(File file) throws IOException {
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeInt(FILE_MAGIC);
+			out.writeInt(FILE_VERSION);
+			out.writeInt(this.n);
+			out.writeInt(this.endMarkerRow);
+			for (char c : this.bwt)
+				out.writeChar(c);
+			out.writeInt(this.sampledRows.length);
+			for (long bits : this.sampledRows)
+				out.writeLong(bits);
+			out.writeInt(this.samples.length);
+			for (int sample : this.samples)
+				out.writeInt(sample);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads an index written by {@link #write(File)}.
+	 *
+	 * @param file
+	 *            The file to read from
+	 * @return The index
+	 * @throws IOException
+	 *             if the file cannot be read or is not an index file
+	 */
+	public static FMIndex read(File file) throws IOException {
+		final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (in.readInt() != FILE_MAGIC)
+				throw new IOException("Not an FM-index file: " + file);
+			final int version = in.readInt();
+			if (version != FILE_VERSION)
+				throw new IOException("Unsupported FM-index file version " + version + ": " + file);
+			final int n = in.readInt();
+			final int endMarkerRow = in.readInt();
+			final char[] bwt = new char[n + 1];
+			for (int i = 0; i < bwt.length; i++)
+				bwt[i] = in.readChar();
+			final long[] sampledRows = new long[in.readInt()];
+			for (int i = 0; i < sampledRows.length; i++)
+				sampledRows[i] = in.readLong();
+			final int[] samples = new int[in.readInt()];
+			for (int i = 0; i < samples.length; i++)
+				samples[i] = in.readInt();
+			return new FMIndex(n, bwt, endMarkerRow, sampledRows, samples);
+		} finally {
+			in.close();
+		}
+	}
+
+}
@@ -0,0 +1,152 @@
+package modules.basic_text_processing.burrows_wheeler;
+
+import java.io.File;
+import java.util.Properties;
+
+import base.workbench.ModuleRunner;
+import common.LineIterator;
+import common.parallelization.CallbackReceiver;
+import modules.CharPipe;
+import modules.InputPort;
+import modules.ModuleImpl;
+import modules.OutputPort;
+
+public class FMIndexModule extends ModuleImpl {
+
+	// Main method for stand-alone execution
+	public static void main(String[] args) throws Exception {
+		ModuleRunner.runStandAlone(FMIndexModule.class, args);
+	}
+
+	// Define property keys (every setting has to have a unique key to associate
+	// it with)
+	public static final String PROPERTYKEY_INDEX_FILE = "index file";
+	public static final String PROPERTYKEY_LOCATE = "locate";
+	public static final String PROPERTYKEY_MAX_LOCATIONS = "max locations";
+
+	// Define I/O IDs (must be unique for every input or output)
+	private static final String ID_INPUT_TEXT = "text";
+	private static final String ID_INPUT_QUERIES = "queries";
+	private static final String ID_OUTPUT = "output";
+
+	// Local variables
+	private String indexFile;
+	private boolean locate;
+	private int maxLocations;
+
+	public FMIndexModule(CallbackReceiver callbackReceiver, Properties properties) throws Exception {
+
+		// Call parent constructor
+		super(callbackReceiver, properties);
+
+		// Add module description
+		this.setDescription("Answers substring queries on a text using an FM-index built from its Burrows-Wheeler transform. "
+				+ "Reads one pattern per line and outputs the pattern, the amount of its occurrences and (optionally) their "
+				+ "positions, separated by tabs. If no text is connected, the index is read from the index file.");
+
+		// Add property descriptions (obligatory for every property!)
+		this.getPropertyDescriptions().put(PROPERTYKEY_INDEX_FILE,
+				"File to write the index to after building it, or to read it from if no text is connected; may be left empty.");
+		this.getPropertyDescriptions().put(PROPERTYKEY_LOCATE,
+				"Output the positions of the occurrences [true|false].");
+		this.getPropertyDescriptions().put(PROPERTYKEY_MAX_LOCATIONS,
+				"Maximum amount of positions to output per pattern (-1 for all).");
+
+		// Add property defaults (_should_ be provided for every property)
+		this.getPropertyDefaultValues().put(ModuleImpl.PROPERTYKEY_NAME, "FM-Index Search");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_INDEX_FILE, "");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_LOCATE, "true");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_MAX_LOCATIONS, "-1");
+
+		// Define I/O
+		InputPort textInputPort = new InputPort(ID_INPUT_TEXT, "Text to index (optional if an index file is given).", this);
+		textInputPort.addSupportedPipe(CharPipe.class);
+		InputPort queriesInputPort = new InputPort(ID_INPUT_QUERIES, "Patterns to search for, one per line.", this);
+		queriesInputPort.addSupportedPipe(CharPipe.class);
+		OutputPort outputPort = new OutputPort(ID_OUTPUT, "Tab separated pattern, count and comma separated positions.", this);
+		outputPort.addSupportedPipe(CharPipe.class);
+
+		// Add I/O ports to instance (don't forget...)
+		super.addInputPort(textInputPort);
+		super.addInputPort(queriesInputPort);
+		super.addOutputPort(outputPort);
+	}
+
+	@Override
+	public boolean process() throws Exception {
+
+		// Build the index or read it from disk
+		final InputPort textInputPort = this.getInputPorts().get(ID_INPUT_TEXT);
+		final FMIndex index;
+		if (textInputPort.isConnected()) {
+			index = new FMIndex(this.readStringFromInputPort(textInputPort));
+			if (!this.indexFile.isEmpty())
+				index.write(new File(this.indexFile));
+		} else if (!this.indexFile.isEmpty()) {
+			index = FMIndex.read(new File(this.indexFile));
+		} else {
+			this.closeAllOutputs();
+			throw new Exception("Either the text input has to be connected or an index file has to be given.");
+		}
+
+		// Answer the queries
+		final OutputPort outputPort = this.getOutputPorts().get(ID_OUTPUT);
+		final LineIterator patterns = this.readLinesFromInputPort(this.getInputPorts().get(ID_INPUT_QUERIES), true);
+		final StringBuilder line = new StringBuilder();
+		try {
+			for (String pattern : patterns) {
+
+				// Check for interrupt signal
+				if (Thread.interrupted()) {
+					this.closeAllOutputs();
+					throw new InterruptedException("Thread has been interrupted.");
+				}
+
+				line.setLength(0);
+				line.append(pattern).append('\t').append(index.count(pattern));
+				if (this.locate) {
+					line.append('\t');
+					final int[] positions = index.locate(pattern, this.maxLocations);
+					for (int i = 0; i < positions.length; i++) {
+						if (i > 0)
+							line.append(',');
+						line.append(positions[i]);
+					}
+				}
+				line.append('\n');
+				outputPort.outputToAllCharPipes(line.toString());
+			}
+		} finally {
+			patterns.close();
+		}
+
+		// Close outputs (important!)
+		this.closeAllOutputs();
+
+		// Done
+		return true;
+	}
+
+	@Override
+	public void applyProperties() throws Exception {
+
+		// Set defaults for properties not yet set
+		super.setDefaultsIfMissing();
+
+		// Apply own properties
+		this.indexFile = this.getProperties().getProperty(PROPERTYKEY_INDEX_FILE,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_INDEX_FILE)).trim();
+		String value = this.getProperties().getProperty(PROPERTYKEY_LOCATE,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_LOCATE));
+		if (value != null && !value.isEmpty())
+			this.locate = Boolean.parseBoolean(value);
+		value = this.getProperties().getProperty(PROPERTYKEY_MAX_LOCATIONS,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_MAX_LOCATIONS));
+		if (value != null && !value.isEmpty())
+			this.maxLocations = Integer.parseInt(value);
+
+		// Apply parent object's properties (just the name variable actually)
+		super.applyProperties();
+	}
+
+}
@@ -0,0 +1,207 @@
+package modules.basic_text_processing.burrows_wheeler;
+
+import java.util.Arrays;
+
+/**
+ * Linear time suffix array construction by induced sorting (SA-IS, see
+ * Nong, Zhang &amp; Chan: "Two Efficient Algorithms for Linear Time Suffix
+ * Array Construction", 2011).
+ */
+public class SuffixArray {
+
+	// only used statically
+	private SuffixArray() {
+	}
+
+	/**
+	 * Builds the suffix array of the given text.
+	 *
+	 * @param text
+	 *            The text
+	 * @return The start positions of the text's suffixes in lexicographical
+	 *         order (comparing chars by their numeric value; a suffix that is a
+	 *         prefix of another one comes first)
+	 */
+	public static int[] build(CharSequence text) {
+		final int n = text.length();
+		if (n == 0)
+			return new int[0];
+
+		// map the chars to a compact alphabet starting at 1, leaving 0 for the sentinel
+		final int[] ranks = new int[Character.MAX_VALUE + 1];
+		for (int i = 0; i < n; i++)
+			ranks[text.charAt(i)] = 1;
+		int alphabetSize = 1;
+		for (int c = 0; c < ranks.length; c++)
+			if (ranks[c] != 0)
+				ranks[c] = alphabetSize++;
+
+		final int[] s = new int[n + 1];
+		for (int i = 0; i < n; i++)
+			s[i] = ranks[text.charAt(i)];
+		s[n] = 0;
+
+		final int[] sa = new int[n + 1];
+		sais(s, sa, n + 1, alphabetSize);
+		// drop the sentinel suffix, which always comes first
+		return Arrays.copyOfRange(sa, 1, n + 1);
+	}
+
+	/**
+	 * Returns the order of the text's cyclic rotations, i.e. the rows of the
+	 * sorted rotation matrix used by the Burrows-Wheeler transform. Rotations
+	 * are identified by their start position in the text; equal rotations (of
+	 * periodic texts) may appear in any order.
+	 *
+	 * @param text
+	 *            The text
+	 * @return Start positions of the rotations in lexicographical order
+	 */
+	public static int[] sortedRotations(CharSequence text) {
+		final int n = text.length();
+		// Within the text concatenated with itself, the first n chars of every
+		// suffix starting in the first half are a rotation, and two different
+		// rotations always differ within these n chars.
+		final int[] sa = build(new StringBuilder(2 * n).append(text).append(text));
+		final int[] rotations = new int[n];
+		int j = 0;
+		for (int i = 0; i < sa.length; i++)
+			if (sa[i] < n)
+				rotations[j++] = sa[i];
+		return rotations;
+	}
+
+	/**
+	 * SA-IS on an integer text. The last symbol must be a unique sentinel
+	 * 0, all others must lie within [1, k).
+	 *
+	 * @param s
+	 *            The text
+	 * @param sa
+	 *            Array of at least length n to put the suffix array into
+	 * @param n
+	 *            Length of the text
+	 * @param k
+	 *            Size of the alphabet
+	 */
+	private static void sais(int[] s, int[] sa, int n, int k) {
+		// classify the suffixes: S-type (true) or L-type (false)
+		final boolean[] t = new boolean[n];
+		t[n - 1] = true;
+		for (int i = n - 2; i >= 0; i--)
+			t[i] = s[i] < s[i + 1] || (s[i] == s[i + 1] && t[i + 1]);
+
+		// stage 1: sort the LMS substrings by inducing from their unsorted positions
+		final int[] bucket = new int[k];
+		bucketEnds(s, bucket, n, k);
+		Arrays.fill(sa, 0, n, -1);
+		for (int i = 1; i < n; i++)
+			if (isLMS(t, i))
+				sa[--bucket[s[i]]] = i;
+		induceL(s, sa, t, bucket, n, k);
+		induceS(s, sa, t, bucket, n, k);
+
+		// move the sorted LMS substrings to the front of sa
+		int n1 = 0;
+		for (int i = 0; i < n; i++)
+			if (isLMS(t, sa[i]))
+				sa[n1++] = sa[i];
+
+		// name the LMS substrings; as LMS positions are at least two apart,
+		// the names fit into the back half of sa at pos / 2
+		Arrays.fill(sa, n1, n, -1);
+		int name = 0;
+		int prev = -1;
+		for (int i = 0; i < n1; i++) {
+			final int pos = sa[i];
+			boolean diff = false;
+			for (int d = 0; d < n; d++) {
+				if (prev == -1 || s[pos + d] != s[prev + d] || t[pos + d] != t[prev + d]) {
+					diff = true;
+					break;
+				} else if (d > 0 && (isLMS(t, pos + d) || isLMS(t, prev + d))) {
+					break;
+				}
+			}
+			if (diff) {
+				name++;
+				prev = pos;
+			}
+			sa[n1 + pos / 2] = name - 1;
+		}
+		final int[] s1 = new int[n1];
+		for (int i = n - 1, j = n1 - 1; i >= n1; i--)
+			if (sa[i] >= 0)
+				s1[j--] = sa[i];
+
+		// stage 2: sort the reduced problem, recursing if the names are not unique yet
+		final int[] sa1 = new int[n1];
+		if (name < n1) {
+			sais(s1, sa1, n1, name);
+		} else {
+			for (int i = 0; i < n1; i++)
+				sa1[s1[i]] = i;
+		}
+
+		// stage 3: induce the suffix array from the sorted LMS suffixes
+		for (int i = 1, j = 0; i < n; i++)
+			if (isLMS(t, i))
+				s1[j++] = i;
+		for (int i = 0; i < n1; i++)
+			sa1[i] = s1[sa1[i]];
+		Arrays.fill(sa, 0, n, -1);
+		bucketEnds(s, bucket, n, k);
+		for (int i = n1 - 1; i >= 0; i--) {
+			final int j = sa1[i];
+			sa[--bucket[s[j]]] = j;
+		}
+		induceL(s, sa, t, bucket, n, k);
+		induceS(s, sa, t, bucket, n, k);
+	}
+
+	private static boolean isLMS(boolean[] t, int i) {
+		return i > 0 && t[i] && !t[i - 1];
+	}
+
+	private static void bucketStarts(int[] s, int[] bucket, int n, int k) {
+		Arrays.fill(bucket, 0, k, 0);
+		for (int i = 0; i < n; i++)
+			bucket[s[i]]++;
+		int sum = 0;
+		for (int c = 0; c < k; c++) {
+			final int count = bucket[c];
+			bucket[c] = sum;
+			sum += count;
+		}
+	}
+
+	private static void bucketEnds(int[] s, int[] bucket, int n, int k) {
+		Arrays.fill(bucket, 0, k, 0);
+		for (int i = 0; i < n; i++)
+			bucket[s[i]]++;
+		int sum = 0;
+		for (int c = 0; c < k; c++) {
+			sum += bucket[c];
+			bucket[c] = sum;
+		}
+	}
+
+	private static void induceL(int[] s, int[] sa, boolean[] t, int[] bucket, int n, int k) {
+		bucketStarts(s, bucket, n, k);
+		for (int i = 0; i < n; i++) {
+			final int j = sa[i] - 1;
+			if (j >= 0 && !t[j])
+				sa[bucket[s[j]]++] = j;
+		}
+	}
+
+	private static void induceS(int[] s, int[] sa, boolean[] t, int[] bucket, int n, int k) {
+		bucketEnds(s, bucket, n, k);
+		for (int i = n - 1; i >= 0; i--) {
+			final int j = sa[i] - 1;
+			if (j >= 0 && t[j])
+				sa[--bucket[s[j]]] = j;
+		}
+	}
+
+}
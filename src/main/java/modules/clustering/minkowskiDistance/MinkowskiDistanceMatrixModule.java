@@ -7,12 +7,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
-import java.util.Scanner;
 import java.util.TreeMap;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
+import common.LineIterator;
 import common.StringUnescaper;
 import common.VectorCalculation;
 import common.parallelization.CallbackReceiver;
@@ -107,8 +107,7 @@ public class MinkowskiDistanceMatrixModule extends ModuleImpl {
 		Map<String, List<Double>> aberrationValuesMap = null;
 		
 		if (this.inputFormat.equals("csv")){
-			Scanner lineScanner = new Scanner(this.getInputPorts().get(ID_INPUT).getInputReader());
-			lineScanner.useDelimiter("\\R+");
+			LineIterator lineScanner = this.readLinesFromInputPort(this.getInputPorts().get(ID_INPUT), true);
 			
 			aberrationValuesMap = new TreeMap<String, List<Double>>();
 			
@@ -3,7 +3,6 @@ package modules.clustering.suffixTreeClusteringModuleWrapper;
 //java standard imports:
 import java.util.Properties;
 import java.util.List;
-import java.io.BufferedReader;
 import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -23,9 +22,11 @@ import modules.CharPipe;
 import modules.BytePipe;
 import modules.InputPort;
 import modules.ModuleImpl;
+import modules.ObjectPipe;
 import modules.OutputPort;
 import common.parallelization.CallbackReceiver;
 import models.NamedFieldMatrix;
+import modules.matrix.MatrixPortHelper;
 import modules.vectorization.suffixTreeVectorizationWrapper.SuffixTreeInfoSer;
 
 //google gson imports
@@ -127,6 +128,7 @@ public class SuffixTreeClusteringWrapperV2 extends ModuleImpl {
 		InputPort matrixInputPort = new InputPort(INPUT_MATRIX_ID,
 				"[text/csv] A csv representation of a NamedFieldMatrix to cluster", this);
 		matrixInputPort.addSupportedPipe(CharPipe.class);
+		matrixInputPort.addSupportedPipe(ObjectPipe.class);
 
 		OutputPort outputPort = new OutputPort(OUTPUTID, "[text] Plain text character output.", this);
 		outputPort.addSupportedPipe(CharPipe.class);
@@ -168,8 +170,7 @@ public class SuffixTreeClusteringWrapperV2 extends ModuleImpl {
 		}
 		// matrix input
 		else if (matrixInput.isConnected()) {
-			BufferedReader matrixInReader = new BufferedReader(matrixInput.getInputReader());
-			NamedFieldMatrix matrix = NamedFieldMatrix.parseCSV(matrixInReader, matrixCsvDelimiter);
+			NamedFieldMatrix matrix = MatrixPortHelper.readMatrix(matrixInput, matrixCsvDelimiter);
 
 			types = new ArrayList<>(matrix.getRowAmount());
 			int idCounter = 0;
@@ -4,9 +4,9 @@ import java.util.Calendar;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Properties;
-import java.util.Scanner;
 import java.util.TreeMap;
 
+import common.LineIterator;
 import common.parallelization.CallbackReceiver;
 import it.uniroma1.dis.wsngroup.gexf4j.core.Edge;
 import it.uniroma1.dis.wsngroup.gexf4j.core.EdgeType;
@@ -100,8 +100,7 @@ public class CSV2GEXFModule extends ModuleImpl {
 		 * Prepare input reading
 		 */
 		
-		Scanner lineScanner = new Scanner(this.getInputPorts().get(ID_INPUT).getInputReader());
-		lineScanner.useDelimiter("\\R+");
+		LineIterator lineScanner = this.readLinesFromInputPort(this.getInputPorts().get(ID_INPUT), true);
 		
 		if (! lineScanner.hasNext()){
 			lineScanner.close();
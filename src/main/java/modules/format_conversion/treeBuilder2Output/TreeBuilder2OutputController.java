@@ -1,6 +1,8 @@
 package modules.format_conversion.treeBuilder2Output;
 
+import java.io.IOException;
 import java.io.PipedReader;
+import java.io.Writer;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Properties;
@@ -13,8 +15,9 @@ import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
 import modules.OutputPort;
-import modules.Pipe;
+import modules.OutputPortWriter;
 import modules.tree_building.treeBuilder.Knoten;
+import modules.tree_building.treeBuilder.TrieJson;
 import modules.tree_editing.seqSuffixTrie2SuffixTree.SeqReducedTrieNode;
 import common.parallelization.CallbackReceiver;
 
@@ -36,7 +39,6 @@ public class TreeBuilder2OutputController extends ModuleImpl {
 	private final String INPUTID = "input";
 	private final String OUTPUTID = "output";
 	private Knoten mainNode;
-	private Gson gson;
 	private SeqReducedTrieNode rootNode;
 	
 	//end variables
@@ -84,9 +86,8 @@ public class TreeBuilder2OutputController extends ModuleImpl {
 	
 	//setters:
 	
-	public void setGson(PipedReader reader) {
-		gson = new Gson();
-		mainNode = gson.fromJson(reader, Knoten.class);
+	public void setGson(PipedReader reader) throws IOException {
+		mainNode = TrieJson.readKnoten(reader);
 	}
 	
 	//end setters
@@ -103,12 +104,11 @@ public class TreeBuilder2OutputController extends ModuleImpl {
 		//iterate over the tree and get parameters
 		this.iterateMainNode();
 			
-		// write JSON to output
+		// write JSON to output (serialised once for all pipes)
 		Gson gson = new GsonBuilder().setPrettyPrinting().create();
-		Iterator<Pipe> charPipes = this.getOutputPorts().get(OUTPUTID).getPipes(CharPipe.class).iterator();
-		while (charPipes.hasNext()){
-			gson.toJson(rootNode, ((CharPipe)charPipes.next()).getOutput());
-		}
+		Writer outputWriter = new OutputPortWriter(this.getOutputPorts().get(OUTPUTID));
+		gson.toJson(rootNode, outputWriter);
+		outputWriter.close();
 							
 		// Close outputs (important!)
 		this.closeAllOutputs();
@@ -1,6 +1,11 @@
 package modules.format_conversion.treeBuilder2Output;
 
+import java.io.IOException;
 import java.io.PipedReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Properties;
@@ -8,12 +13,14 @@ import java.util.Map.Entry;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
 import modules.OutputPort;
-import modules.Pipe;
+import modules.OutputPortWriter;
 import modules.format_conversion.seqNewickExporter.SeqNewickNodeV2;
 import modules.tree_editing.seqSuffixTrie2SuffixTree.SeqReducedTrieNode;
 import common.parallelization.CallbackReceiver;
@@ -32,10 +39,12 @@ public class TreeBuilder2OutputControllerV2 extends ModuleImpl {
 		
 	//variables:
 
+	// used for the values of node attributes only, which may be of any type
+	private static final Gson ATTRIBUTE_GSON = new Gson();
+	
 	private final String INPUTID = "input";
 	private final String OUTPUTID = "output";
 	private SeqNewickNodeV2 mainNode;
-	private Gson gson;
 	private SeqReducedTrieNode rootNode;
 	
 	//end variables
@@ -83,9 +92,83 @@ public class TreeBuilder2OutputControllerV2 extends ModuleImpl {
 	
 	//setters:
 	
-	public void setGson(PipedReader reader) {
-		gson = new Gson();
-		mainNode = gson.fromJson(reader, SeqNewickNodeV2.class);
+	public void setGson(PipedReader reader) throws IOException {
+		mainNode = readTree(reader);
+	}
+	
+	/**
+	 * Reads a JSON-encoded tree of ExtensibleTreeNode objects (as output by
+	 * TreeBuilderV3Module) into SeqNewickNodeV2 objects, without building an
+	 * intermediate representation.
+	 * @param reader Reader providing the JSON input
+	 * @return root node, null if the input holds null
+	 * @throws IOException on error or if the input is no valid tree
+	 */
+	private static SeqNewickNodeV2 readTree(Reader reader) throws IOException {
+		JsonReader in = new JsonReader(reader);
+		in.setLenient(true);
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		
+		// nodes on the path to the current one and whether their children are being read
+		Deque<SeqNewickNodeV2> nodes = new ArrayDeque<SeqNewickNodeV2>();
+		Deque<Boolean> inChildNodes = new ArrayDeque<Boolean>();
+		SeqNewickNodeV2 root = new SeqNewickNodeV2(null, 0);
+		in.beginObject();
+		nodes.push(root);
+		inChildNodes.push(false);
+		
+		while (!nodes.isEmpty()) {
+			SeqNewickNodeV2 node = nodes.peek();
+			if (inChildNodes.peek()) {
+				if (in.hasNext()) {
+					String key = in.nextName();
+					if (in.peek() == JsonToken.NULL) {
+						in.nextNull();
+						node.addNode(key, null);
+						continue;
+					}
+					SeqNewickNodeV2 child = new SeqNewickNodeV2(null, 0);
+					node.addNode(key, child);
+					in.beginObject();
+					nodes.push(child);
+					inChildNodes.push(false);
+				} else {
+					in.endObject();
+					inChildNodes.pop();
+					inChildNodes.push(false);
+				}
+			} else if (in.hasNext()) {
+				String field = in.nextName();
+				if (in.peek() == JsonToken.NULL) {
+					in.nextNull();
+				} else if (field.equals("nodeValue")) {
+					node.setNodeValue(in.nextString());
+				} else if (field.equals("nodeCounter")) {
+					node.setNodeCounter(in.nextInt());
+				} else if (field.equals("childNodes")) {
+					in.beginObject();
+					inChildNodes.pop();
+					inChildNodes.push(true);
+				} else if (field.equals("attributes")) {
+					in.beginObject();
+					while (in.hasNext()) {
+						String key = in.nextName();
+						node.getAttributes().put(key, ATTRIBUTE_GSON.fromJson(in, Object.class));
+					}
+					in.endObject();
+				} else {
+					in.skipValue();
+				}
+			} else {
+				in.endObject();
+				nodes.pop();
+				inChildNodes.pop();
+			}
+		}
+		return root;
 	}
 	
 	//end setters
@@ -102,12 +185,11 @@ public class TreeBuilder2OutputControllerV2 extends ModuleImpl {
 		//iterate over the tree and get parameters
 		this.iterateMainNode();
 			
-		// write JSON to output
+		// write JSON to output (serialised once for all pipes)
 		Gson gson = new GsonBuilder().setPrettyPrinting().create();
-		Iterator<Pipe> charPipes = this.getOutputPorts().get(OUTPUTID).getPipes(CharPipe.class).iterator();
-		while (charPipes.hasNext()){
-			gson.toJson(rootNode, ((CharPipe)charPipes.next()).getOutput());
-		}
+		Writer outputWriter = new OutputPortWriter(this.getOutputPorts().get(OUTPUTID));
+		gson.toJson(rootNode, outputWriter);
+		outputWriter.close();
 							
 		// Close outputs (important!)
 		this.closeAllOutputs();
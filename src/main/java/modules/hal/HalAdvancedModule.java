@@ -1,16 +1,24 @@
 package modules.hal;
 
 import java.io.BufferedReader;
-import java.util.Comparator;
-import java.util.Iterator;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
-import java.util.TreeMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
 import modules.OutputPort;
+import modules.OutputPortWriter;
 import common.parallelization.CallbackReceiver;
 
 import base.workbench.ModuleRunner;
@@ -28,6 +36,15 @@ public class HalAdvancedModule extends ModuleImpl {
 	public static final String PROPERTYKEY_WINDOWSIZE = "window size";
 	public static final String PROPERTYKEY_FIELDSEPARATOR = "field separator";
 	public static final String PROPERTYKEY_COOCCURRSEPARATOR = "cooccurrency separator";
+	public static final String PROPERTYKEY_OUTPUTFORMAT = "output format";
+	public static final String PROPERTYKEY_THREADS = "threads";
+
+	// Possible output formats
+	public static final String OUTPUTFORMAT_DENSE = "dense";
+	public static final String OUTPUTFORMAT_SPARSE = "sparse";
+
+	// Minimum amount of segments to count in one parallel thread
+	private static final int MIN_SHARD_LENGTH = 10000;
 
 	// Define I/O IDs (must be unique for every input or output)
 	private final String inputTextId = "text input";
@@ -37,6 +54,8 @@ public class HalAdvancedModule extends ModuleImpl {
 	private int windowSize;
 	private String fieldSeparator;
 	private String cooccurrencySeparator;
+	private boolean sparseOutput;
+	private int threads;
 
 	public HalAdvancedModule(CallbackReceiver callbackReceiver,
 			Properties properties) throws Exception {
@@ -58,6 +77,13 @@ public class HalAdvancedModule extends ModuleImpl {
 		// Add property descriptions (obligatory for every property!)
 		this.getPropertyDescriptions().put(PROPERTYKEY_COOCCURRSEPARATOR,
 				"Separator for the cooccurrency position numbers");
+		// Add property descriptions (obligatory for every property!)
+		this.getPropertyDescriptions().put(PROPERTYKEY_OUTPUTFORMAT,
+				"Output format: '" + OUTPUTFORMAT_DENSE + "' outputs the complete segment by segment matrix, '"
+						+ OUTPUTFORMAT_SPARSE + "' outputs one line (segment, cooccurring segment, position numbers) per pair of cooccurring segments only");
+		// Add property descriptions (obligatory for every property!)
+		this.getPropertyDescriptions().put(PROPERTYKEY_THREADS,
+				"Maximum number of threads to count cooccurrences in (default: 1)");
 
 		// Add property defaults (_should_ be provided for every property)
 		this.getPropertyDefaultValues().put(ModuleImpl.PROPERTYKEY_NAME,
@@ -66,6 +92,8 @@ public class HalAdvancedModule extends ModuleImpl {
 		this.getPropertyDefaultValues().put(PROPERTYKEY_WINDOWSIZE, "5");
 		this.getPropertyDefaultValues().put(PROPERTYKEY_FIELDSEPARATOR, "\t\t");
 		this.getPropertyDefaultValues().put(PROPERTYKEY_COOCCURRSEPARATOR, ",");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_OUTPUTFORMAT, OUTPUTFORMAT_DENSE);
+		this.getPropertyDefaultValues().put(PROPERTYKEY_THREADS, "1");
 
 		// Define I/O
 		/*
@@ -79,7 +107,7 @@ public class HalAdvancedModule extends ModuleImpl {
 				"Plain text character input, one segment per line.", this);
 		textInputPort.addSupportedPipe(CharPipe.class);
 		OutputPort outputPort = new OutputPort(outputCsvId,
-				"CSV tabular output.", this);
+				"CSV tabular output (dense matrix or sparse list of pairs).", this);
 		outputPort.addSupportedPipe(CharPipe.class);
 
 		// Add I/O ports to instance (don't forget...)
@@ -96,129 +124,64 @@ public class HalAdvancedModule extends ModuleImpl {
 		BufferedReader reader = new BufferedReader(this.getInputPorts()
 				.get(inputTextId).getInputReader());
 
-		// Define comparator
-		Comparator<String> alphabetOrderComparator = new Comparator<String>() {
-			@Override
-			public int compare(String o1, String o2) {
-				return o1.compareTo(o2);
-			}
-		};
-		// Define map for results
-		TreeMap<String, TreeMap<String, Integer[]>> sequenceMap = new TreeMap<String, TreeMap<String, Integer[]>>(
-				alphabetOrderComparator);
+		// Map segments to int ids, in order of their first occurrence
+		Map<String, Integer> segmentIds = new HashMap<String, Integer>();
+		List<String> segments = new ArrayList<String>();
 
-		// Queue that acts as input window (plus one element to operate on in
-		// each iteration)
-		LinkedBlockingQueue<String> sequenceQueue = new LinkedBlockingQueue<String>(
-				this.windowSize + 1);
+		// Sequence of segment ids read
+		int[] sequence = new int[1024];
+		int length = 0;
 
 		// Read input
 		String segment;
-		while ((segment = reader.readLine()) != null || !sequenceQueue.isEmpty()) {
-
-			if (segment != null){
-				
-				// If there is not yet a map entry for that segment, construct one
-				if (!sequenceMap.containsKey(segment)) {
-					sequenceMap.put(segment, new TreeMap<String, Integer[]>(alphabetOrderComparator));
-				}
-
-				// Add segment to queue
-				sequenceQueue.put(segment);
-				
-				// Reset segment
-				segment = null;
-
-				// If the queue is not yet full, skip the rest
-				if (sequenceQueue.size() < this.windowSize + 1)
-					continue;
+		while ((segment = reader.readLine()) != null) {
+
+			// Check for interrupt signal
+			if (Thread.interrupted()) {
+				this.closeAllOutputs();
+				throw new InterruptedException("Thread has been interrupted.");
 			}
 
-			// Split the first sequence from the queue
-			String firstSegment = sequenceQueue.poll();
-
-			// Determine line map for that segment
-			TreeMap<String, Integer[]> lineMap = sequenceMap.get(firstSegment);
-
-			// Iterate over the remaining sequences within the queue
-			Iterator<String> queueIterator = sequenceQueue.iterator();
-			int index = 0; // We will need to determine the index of each queue
-							// element
-			while (queueIterator.hasNext()) {
-				String queuedSegment = queueIterator.next();
-				
-				// Determine whether the two current segments (first in queue
-				// and the one the iterator is pointing to) already have an
-				// integer array associated.
-				Integer[] positionArray = lineMap.get(queuedSegment);
-				// Else, one will be instantiated
-				if (positionArray == null) {
-					positionArray = new Integer[this.windowSize];
-					for (int i=0; i<positionArray.length; i++){
-						positionArray[i] = new Integer(0);
-					}
-					lineMap.put(queuedSegment, positionArray);
-				}
-
-				// Update the integer array in the respective position
-				Integer cooccurrenceCounter = positionArray[index];
-				if (cooccurrenceCounter == null) {
-					cooccurrenceCounter = new Integer(1);
-					positionArray[index] = cooccurrenceCounter;
-				} else {
-					positionArray[index] += 1;
-				}
-
-				// Increase index
-				index++;
+			Integer segmentId = segmentIds.get(segment);
+			if (segmentId == null) {
+				segmentId = segments.size();
+				segmentIds.put(segment, segmentId);
+				segments.add(segment);
 			}
+			if (length == sequence.length)
+				sequence = Arrays.copyOf(sequence, 2 * length);
+			sequence[length++] = segmentId;
 		}
 
 		// reader is empty
 
-		// Output results (first head of CSV)
-		this.getOutputPorts().get(outputCsvId).outputToAllCharPipes("SEGMENT" + this.fieldSeparator);
-		Iterator<String> lineKeys = sequenceMap.keySet().iterator();
-		while (lineKeys.hasNext()) {
-			String lineKey = lineKeys.next();
-			this.getOutputPorts().get(outputCsvId)
-					.outputToAllCharPipes(lineKey + this.fieldSeparator);
+		// Count the cooccurrences of each segment with the segments following it
+		SparseCooccurrenceMatrix matrix;
+		try {
+			matrix = this.count(sequence, length);
+		} catch (InterruptedException e) {
+			this.closeAllOutputs();
+			throw e;
 		}
-		this.getOutputPorts().get(outputCsvId).outputToAllCharPipes("\n");
-		// Output results (data lines)
-		lineKeys = sequenceMap.keySet().iterator();
-		while (lineKeys.hasNext()) {
-			String lineKey = lineKeys.next();
-			this.getOutputPorts().get(outputCsvId)
-			.outputToAllCharPipes(lineKey + this.fieldSeparator);
-			Iterator<String> rowKeys = sequenceMap.keySet().iterator();
-			while (rowKeys.hasNext()) {
-				String rowKey = rowKeys.next();
-				Integer[] cooccurrencePositionArray = sequenceMap.get(lineKey)
-						.get(rowKey);
-				// Construct array if it should be nonexistent
-				if (cooccurrencePositionArray == null) {
-					cooccurrencePositionArray = new Integer[this.windowSize];
-					for (int i=0; i<cooccurrencePositionArray.length; i++){
-						cooccurrencePositionArray[i] = new Integer(0);
-					}
-				}
-
-				for (int i = 0; i < cooccurrencePositionArray.length; i++) {
-					this.getOutputPorts()
-								.get(outputCsvId)
-								.outputToAllCharPipes(
-										cooccurrencePositionArray[i].toString());
-					if (i + 1 < cooccurrencePositionArray.length)
-						this.getOutputPorts().get(outputCsvId)
-								.outputToAllCharPipes(this.cooccurrencySeparator);
-				}
-				this.getOutputPorts().get(outputCsvId)
-						.outputToAllCharPipes(this.fieldSeparator);
-			}
-			this.getOutputPorts().get(outputCsvId).outputToAllCharPipes("\n");
+
+		// Segments are output in alphabetical order
+		List<String> sortedSegments = new ArrayList<String>(segments);
+		Collections.sort(sortedSegments);
+		int[] sortedIds = new int[sortedSegments.size()];
+		int[] rank = new int[sortedSegments.size()];
+		for (int i = 0; i < sortedIds.length; i++) {
+			sortedIds[i] = segmentIds.get(sortedSegments.get(i));
+			rank[sortedIds[i]] = i;
 		}
 
+		// Output results
+		Writer output = new OutputPortWriter(this.getOutputPorts().get(outputCsvId));
+		if (this.sparseOutput)
+			this.outputSparse(matrix, segments, rank, output);
+		else
+			this.outputDense(matrix, segments, sortedIds, output);
+		output.close();
+
 		// Close outputs (important!)
 		this.closeAllOutputs();
 
@@ -226,6 +189,143 @@ public class HalAdvancedModule extends ModuleImpl {
 		return true;
 	}
 
+	/**
+	 * Counts the cooccurrences within the given sequence, splitting it into
+	 * shards that are counted in parallel if more than one thread is allowed.
+	 * @param sequence Sequence of segment ids
+	 * @param length Length of the sequence
+	 * @return Cooccurrence counters
+	 * @throws Exception Thrown if counting fails or is interrupted
+	 */
+	private SparseCooccurrenceMatrix count(final int[] sequence, final int length) throws Exception {
+		final int shards = Math.max(1, Math.min(this.threads, length / MIN_SHARD_LENGTH));
+		if (shards == 1) {
+			SparseCooccurrenceMatrix matrix = new SparseCooccurrenceMatrix(this.windowSize);
+			count(sequence, 0, length, length, matrix);
+			return matrix;
+		}
+
+		// Each shard counts the windows starting within its part of the
+		// sequence (they may reach into the next part)
+		ExecutorService executor = Executors.newFixedThreadPool(shards);
+		try {
+			List<Future<SparseCooccurrenceMatrix>> results = new ArrayList<Future<SparseCooccurrenceMatrix>>();
+			for (int shard = 0; shard < shards; shard++) {
+				final int from = (int) ((long) length * shard / shards);
+				final int to = (int) ((long) length * (shard + 1) / shards);
+				results.add(executor.submit(new Callable<SparseCooccurrenceMatrix>() {
+					@Override
+					public SparseCooccurrenceMatrix call() throws Exception {
+						SparseCooccurrenceMatrix matrix = new SparseCooccurrenceMatrix(windowSize);
+						count(sequence, from, to, length, matrix);
+						return matrix;
+					}
+				}));
+			}
+			SparseCooccurrenceMatrix matrix = results.get(0).get();
+			for (int shard = 1; shard < shards; shard++)
+				matrix.addAll(results.get(shard).get());
+			return matrix;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Counts the cooccurrences within the windows starting at the positions
+	 * [from, to) of the sequence.
+	 * @param sequence Sequence of segment ids
+	 * @param from Start position (inclusive)
+	 * @param to End position (exclusive)
+	 * @param length Length of the sequence
+	 * @param matrix Matrix to count in
+	 * @throws InterruptedException Thrown if the thread has been interrupted
+	 */
+	private static void count(int[] sequence, int from, int to, int length, SparseCooccurrenceMatrix matrix)
+			throws InterruptedException {
+		for (int i = from; i < to; i++) {
+
+			// Check for interrupt signal
+			if (Thread.interrupted())
+				throw new InterruptedException("Thread has been interrupted.");
+
+			int end = Math.min(length, i + 1 + matrix.getWindowSize());
+			for (int j = i + 1; j < end; j++)
+				matrix.increment(sequence[i], sequence[j], j - i - 1);
+		}
+	}
+
+	/**
+	 * Outputs the complete segment by segment matrix (including empty cells).
+	 * @param matrix Cooccurrence counters
+	 * @param segments Segments by id
+	 * @param sortedIds Segment ids in output order
+	 * @param output Writer to output to
+	 * @throws Exception Thrown if an error occurs
+	 */
+	private void outputDense(SparseCooccurrenceMatrix matrix, List<String> segments, int[] sortedIds, Writer output)
+			throws Exception {
+
+		// first head of CSV
+		output.write("SEGMENT" + this.fieldSeparator);
+		for (int lineId : sortedIds)
+			output.write(segments.get(lineId) + this.fieldSeparator);
+		output.write("\n");
+
+		// data lines
+		int[] cooccurrencePositionArray = new int[this.windowSize];
+		for (int lineId : sortedIds) {
+
+			// Check for interrupt signal
+			if (Thread.interrupted()) {
+				this.closeAllOutputs();
+				throw new InterruptedException("Thread has been interrupted.");
+			}
+
+			output.write(segments.get(lineId) + this.fieldSeparator);
+			for (int rowId : sortedIds) {
+				matrix.getCounters(lineId, rowId, cooccurrencePositionArray);
+				this.outputCounters(cooccurrencePositionArray, output);
+				output.write(this.fieldSeparator);
+			}
+			output.write("\n");
+		}
+	}
+
+	/**
+	 * Outputs one line per pair of cooccurring segments.
+	 * @param matrix Cooccurrence counters
+	 * @param segments Segments by id
+	 * @param rank Output rank of each segment id
+	 * @param output Writer to output to
+	 * @throws Exception Thrown if an error occurs
+	 */
+	private void outputSparse(SparseCooccurrenceMatrix matrix, List<String> segments, int[] rank, Writer output)
+			throws Exception {
+
+		// first head of CSV
+		output.write("SEGMENT" + this.fieldSeparator + "COOCCURRING SEGMENT" + this.fieldSeparator + "POSITIONS\n");
+
+		// data lines
+		int[] cooccurrencePositionArray = new int[this.windowSize];
+		for (long pair : matrix.sortedPairs(rank)) {
+			int lineId = SparseCooccurrenceMatrix.row(pair);
+			int rowId = SparseCooccurrenceMatrix.column(pair);
+			matrix.getCounters(lineId, rowId, cooccurrencePositionArray);
+			output.write(segments.get(lineId) + this.fieldSeparator + segments.get(rowId) + this.fieldSeparator);
+			this.outputCounters(cooccurrencePositionArray, output);
+			output.write("\n");
+		}
+	}
+
+	private void outputCounters(int[] cooccurrencePositionArray, Writer output) throws Exception {
+		for (int i = 0; i < cooccurrencePositionArray.length; i++) {
+			output.write(String.valueOf(cooccurrencePositionArray[i]));
+			if (i + 1 < cooccurrencePositionArray.length)
+				output.write(this.cooccurrencySeparator);
+		}
+	}
+
 	@Override
 	public void applyProperties() throws Exception {
 
@@ -242,6 +342,21 @@ public class HalAdvancedModule extends ModuleImpl {
 		
 		this.fieldSeparator = this.getProperties().getProperty(PROPERTYKEY_FIELDSEPARATOR);
 		this.cooccurrencySeparator = this.getProperties().getProperty(PROPERTYKEY_COOCCURRSEPARATOR);
+		
+		String outputFormat = this.getProperties().getProperty(PROPERTYKEY_OUTPUTFORMAT);
+		if (outputFormat == null || outputFormat.equalsIgnoreCase(OUTPUTFORMAT_DENSE))
+			this.sparseOutput = false;
+		else if (outputFormat.equalsIgnoreCase(OUTPUTFORMAT_SPARSE))
+			this.sparseOutput = true;
+		else
+			throw new Exception("Invalid value for property '" + PROPERTYKEY_OUTPUTFORMAT + "'.");
+		
+		try {
+			this.threads = Math.max(1, Integer.parseInt(this.getProperties().getProperty(
+					PROPERTYKEY_THREADS)));
+		} catch (Exception e) {
+			this.threads = 1;
+		}
 
 		// Apply parent object's properties (just the name variable actually)
 		super.applyProperties();
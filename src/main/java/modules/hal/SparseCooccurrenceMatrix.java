@@ -0,0 +1,222 @@
+package modules.hal;
+
+import java.util.Arrays;
+
+/**
+ * Sparse matrix of co-occurrence counters for pairs of int ids (e.g. of
+ * interned tokens), with one counter per position within the window. Only
+ * pairs that did co-occur take up space: they are kept in an open
+ * addressing hash table keyed by (row, column), the counters of all pairs
+ * in one flat int array.
+ */
+public class SparseCooccurrenceMatrix {
+
+	private static final int DEFAULT_CAPACITY = 1024;
+
+	// marks empty slots
+	private static final long NO_KEY = -1L;
+
+	private final int windowSize;
+
+	// hash table mapping (row, column) to the index of the pair's counters
+	private long[] keys;
+	private int[] entries;
+	private int size = 0;
+
+	// counters of the pairs, windowSize per pair, in order of insertion
+	private int[] counters;
+
+	/**
+	 * @param windowSize
+	 *            Amount of counters per pair
+	 */
+	public SparseCooccurrenceMatrix(int windowSize) {
+		this.windowSize = windowSize;
+		this.keys = new long[2 * DEFAULT_CAPACITY];
+		Arrays.fill(this.keys, NO_KEY);
+		this.entries = new int[2 * DEFAULT_CAPACITY];
+		this.counters = new int[DEFAULT_CAPACITY * windowSize];
+	}
+
+	/**
+	 * @return The amount of counters per pair
+	 */
+	public int getWindowSize() {
+		return this.windowSize;
+	}
+
+	/**
+	 * @return The amount of pairs with counters
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Increments the counter of the given pair at the given position.
+	 *
+	 * @param row
+	 *            Row id (&gt;= 0)
+	 * @param column
+	 *            Column id (&gt;= 0)
+	 * @param position
+	 *            Position within the window (0 &lt;= position &lt; window size)
+	 */
+	public void increment(int row, int column, int position) {
+		this.add(row, column, position, 1);
+	}
+
+	/**
+	 * Adds to the counter of the given pair at the given position.
+	 *
+	 * @param row
+	 *            Row id (&gt;= 0)
+	 * @param column
+	 *            Column id (&gt;= 0)
+	 * @param position
+	 *            Position within the window (0 &lt;= position &lt; window size)
+	 * @param amount
+	 *            Amount to add
+	 */
+	public void add(int row, int column, int position, int amount) {
+		// (the counters may be reallocated when adding the entry)
+		final int entry = this.getOrAddEntry(key(row, column));
+		this.counters[entry * this.windowSize + position] += amount;
+	}
+
+	/**
+	 * Copies the counters of the given pair into the target array.
+	 *
+	 * @param row
+	 *            Row id
+	 * @param column
+	 *            Column id
+	 * @param target
+	 *            Array of at least window size length
+	 * @return False (and the target filled with zeros) if the pair has no counters
+	 */
+	public boolean getCounters(int row, int column, int[] target) {
+		final int slot = this.slot(key(row, column));
+		if (this.keys[slot] == NO_KEY) {
+			Arrays.fill(target, 0, this.windowSize, 0);
+			return false;
+		}
+		System.arraycopy(this.counters, this.entries[slot] * this.windowSize, target, 0, this.windowSize);
+		return true;
+	}
+
+	/**
+	 * Adds all counters of the given matrix to this one.
+	 *
+	 * @param other
+	 *            Matrix with the same window size
+	 */
+	public void addAll(SparseCooccurrenceMatrix other) {
+		if (other.windowSize != this.windowSize)
+			throw new IllegalArgumentException("The window sizes differ.");
+		for (int slot = 0; slot < other.keys.length; slot++) {
+			if (other.keys[slot] == NO_KEY)
+				continue;
+			final int from = other.entries[slot] * this.windowSize;
+			final int to = this.getOrAddEntry(other.keys[slot]) * this.windowSize;
+			for (int i = 0; i < this.windowSize; i++)
+				this.counters[to + i] += other.counters[from + i];
+		}
+	}
+
+	/**
+	 * Returns the pairs with counters, sorted by the rank of their row and
+	 * then by the rank of their column.
+	 *
+	 * @param rank
+	 *            Rank of each id in the order to sort by (a permutation of 0..ids-1)
+	 * @return Pairs as (row &lt;&lt; 32 | column), see {@link #row(long)} and {@link #column(long)}
+	 */
+	public long[] sortedPairs(int[] rank) {
+		final long[] pairs = new long[this.size];
+		int n = 0;
+		for (int slot = 0; slot < this.keys.length; slot++)
+			if (this.keys[slot] != NO_KEY)
+				pairs[n++] = key(rank[row(this.keys[slot])], rank[column(this.keys[slot])]);
+		Arrays.sort(pairs);
+
+		// map the ranks back to ids
+		final int[] ids = new int[rank.length];
+		for (int id = 0; id < rank.length; id++)
+			ids[rank[id]] = id;
+		for (int i = 0; i < pairs.length; i++)
+			pairs[i] = key(ids[row(pairs[i])], ids[column(pairs[i])]);
+		return pairs;
+	}
+
+	/**
+	 * @param pair
+	 *            A pair as returned by {@link #sortedPairs(int[])}
+	 * @return Its row id
+	 */
+	public static int row(long pair) {
+		return (int) (pair >>> 32);
+	}
+
+	/**
+	 * @param pair
+	 *            A pair as returned by {@link #sortedPairs(int[])}
+	 * @return Its column id
+	 */
+	public static int column(long pair) {
+		return (int) pair;
+	}
+
+	private int getOrAddEntry(long key) {
+		int slot = this.slot(key);
+		if (this.keys[slot] != NO_KEY)
+			return this.entries[slot];
+
+		final int entry = this.size++;
+		if (this.size * this.windowSize > this.counters.length)
+			this.counters = Arrays.copyOf(this.counters, 2 * this.counters.length);
+
+		// keep the table at most half full
+		if (2 * this.size > this.keys.length) {
+			this.rehash(2 * this.keys.length);
+			slot = this.slot(key);
+		}
+		this.keys[slot] = key;
+		this.entries[slot] = entry;
+		return entry;
+	}
+
+	// returns the slot holding the key or the empty slot it would be put into
+	private int slot(long key) {
+		final int mask = this.keys.length - 1;
+		int slot = hash(key) & mask;
+		while (this.keys[slot] != NO_KEY && this.keys[slot] != key)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	private void rehash(int capacity) {
+		final long[] oldKeys = this.keys;
+		final int[] oldEntries = this.entries;
+		this.keys = new long[capacity];
+		Arrays.fill(this.keys, NO_KEY);
+		this.entries = new int[capacity];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] == NO_KEY)
+				continue;
+			final int slot = this.slot(oldKeys[i]);
+			this.keys[slot] = oldKeys[i];
+			this.entries[slot] = oldEntries[i];
+		}
+	}
+
+	private static long key(int row, int column) {
+		return ((long) row << 32) | (column & 0xffffffffL);
+	}
+
+	private static int hash(long key) {
+		key *= 0x9e3779b97f4a7c15L;
+		return (int) (key ^ (key >>> 32));
+	}
+
+}
@@ -3,9 +3,20 @@ package modules.kwip;
 //   
 //
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.logging.Logger;
 
@@ -14,27 +25,29 @@ import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
 import modules.OutputPort;
+import modules.OutputPortOutputStream;
+import modules.OutputPortWriter;
 
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.FieldType;
 import org.apache.lucene.document.IntField;
-import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.AtomicReader;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocsAndPositionsEnum;
 import org.apache.lucene.index.FieldInfo.IndexOptions;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.LogByteSizeMergePolicy;
 import org.apache.lucene.index.SlowCompositeReaderWrapper;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
-import org.apache.lucene.queryparser.classic.QueryParser;
-import org.apache.lucene.search.IndexSearcher;
-import org.apache.lucene.search.Query;
-import org.apache.lucene.search.ScoreDoc;
-import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
 import org.apache.lucene.store.RAMDirectory;
 import org.apache.lucene.util.Version;
 
@@ -50,22 +63,34 @@ public class KeyWordInPhraseModule extends ModuleImpl {
 	}
 
 
+	// Define property keys (every setting has to have a unique key to associate
+	// it with)
+	public static final String PROPERTYKEY_INDEXDIRECTORY = "Index directory";
+
 	/*
 	 * Various variables
 	 */
-	private static final String POSITION = "Position";
 	private static final String SOURCE = "Source";
 	private static final String TEXT = "Text";
-	private static final String CONTEXT = "Context";
-	private static final String LEFT_CONTEXT = "LeftContext";
-	private static final String RIGHT_CONTEXT = "RightContext";
+	// keys of the data stored with a persistent index
+	private static final String COMMITDATA_INPUTHASH = "InputHash";
+	private static final String COMMITDATA_FORMAT = "Format";
+	// to be changed whenever the layout of the index changes
+	private static final String INDEX_FORMAT = "1";
 
 	private static final Logger LOGGER = Logger.getGlobal();
 
 	private StandardAnalyzer analyzer;
+	// buffers for the output of the current entry, streamed to the outputs by flushBuffers()
 	private StringBuffer resultBuf;
 	private StringBuffer prettyBuf;
 	private StringBuffer xmlBuf;
+	private Writer plainWriter;
+	private OutputStream plainStream;
+	private Writer htmlWriter;
+	private Writer xmlWriter;
+	private OutputStream xmlStream;
+	private String indexDirectory = "";
 	
 	/*
 	 * Variables related to modularisation
@@ -93,8 +118,13 @@ public class KeyWordInPhraseModule extends ModuleImpl {
 		// Add module description
 		this.setDescription("KeyWord In Phrase Module.");
 		
+		// Add property descriptions
+		this.getPropertyDescriptions().put(PROPERTYKEY_INDEXDIRECTORY,
+				"Directory to keep the index in (memory-mapped); it is reused as long as the input does not change. Leave empty to build the index in memory.");
+		
 		// Add property defaults
 		this.getPropertyDefaultValues().put(ModuleImpl.PROPERTYKEY_NAME, "KWIP Module");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_INDEXDIRECTORY, "");
 
 		// Define I/O
 		InputPort inputPort1 = new InputPort(INPUT1ID,
@@ -130,85 +160,66 @@ public class KeyWordInPhraseModule extends ModuleImpl {
 	/**
 	 * Adds a document to lucene index
 	 * @param w index writer
-	 * @param token token
-	 * @param context context
+	 * @param context context (i.e. the sentence)
 	 * @param line line number
 	 * @throws IOException Thrown if an I/O error occurs
 	 */
-	private void addDoc(IndexWriter w, String token, String context,
-			int line) throws IOException {
+	private void addDoc(IndexWriter w, String context, int line)
+			throws IOException {
 		Document doc = new Document();
-		// A text field will be tokenized
+		// A text field will be tokenized; its postings keep the positions
+		// and offsets of all tokens, so the sentence is indexed only once
 		// ******************************************************************
 		FieldType fieldType = new FieldType();
 		fieldType.setIndexed(true);
+		fieldType.setTokenized(true);
 		fieldType
 				.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
 		fieldType.setStored(true);
-		fieldType.setStoreTermVectors(true);
-
-		fieldType.setStoreTermVectorPositions(true);
-		fieldType.setStoreTermVectorOffsets(true);
-		Field field = new Field(TEXT, token, fieldType);
+		Field field = new Field(TEXT, context, fieldType);
 		doc.add(field);
 		// ******************************************************************
-		doc.add(new StringField(CONTEXT, context, Field.Store.YES));
-		// ******************************************************************
 		// a field for source because not to be tokenized
 		doc.add(new IntField(SOURCE, line, Field.Store.YES));
 
-		// a field for the token's position in the text
-		int pos = context.toLowerCase().indexOf(token.toLowerCase());
-		doc.add(new IntField(POSITION, pos, Field.Store.YES));
-
-		String leftContext = getLeftContext(context, token);
-		doc.add(new StringField(LEFT_CONTEXT, leftContext, Field.Store.YES));
-
-		String rightContext = getRightContext(context, token);
-		doc.add(new StringField(RIGHT_CONTEXT, rightContext, Field.Store.YES));
-
 		w.addDocument(doc);
 	}
 
 	/**
 	 * Determine righthand context
 	 * @param text text
-	 * @param token token
+	 * @param endOffset offset of the token's end within the text
 	 * @return righthand context
 	 */
-	private String getRightContext(String text, String token) {
-		int pos = text.toLowerCase().indexOf(token.toLowerCase());
-		return text.substring(pos + token.length(), text.length());
+	private String getRightContext(String text, int endOffset) {
+		return text.substring(endOffset, text.length());
 	}
 
 	/**
 	 * Determine lefthand context
 	 * @param text text
-	 * @param token token
+	 * @param startOffset offset of the token's start within the text
 	 * @return lefthand context
 	 */
-	private String getLeftContext(String text, String token) {
-		int pos = text.toLowerCase().indexOf(token.toLowerCase());
-		return text.substring(0, pos);
+	private String getLeftContext(String text, int startOffset) {
+		return text.substring(0, startOffset);
 	}
 
 	/**
-	 * Generates a lucene index from the given input.
+	 * Generates a lucene index from the given input (one document per line),
+	 * replacing any index present in the directory.
 	 * @param bufreader Reader to obtain input from
-	 * @return lucene directory
+	 * @param index lucene directory to write to
+	 * @param commitData data to store with the index
 	 * @throws Exception Thrown if an error occurs
 	 */
-	private Directory generateIndex(BufferedReader bufreader) throws Exception {
-		Directory index = null;
-		// Specify the analyzer for tokenizing text.
-		// The same analyzer should be used for indexing and searching
-		analyzer = new StandardAnalyzer(Version.LUCENE_46);
-
-		// Code to create the index
-		index = new RAMDirectory();
-
+	private void generateIndex(BufferedReader bufreader, Directory index,
+			Map<String, String> commitData) throws Exception {
 		IndexWriterConfig config = new IndexWriterConfig(Version.LUCENE_46,
 				analyzer);
+		config.setOpenMode(OpenMode.CREATE);
+		// only merge adjacent segments, so document ids follow line order
+		config.setMergePolicy(new LogByteSizeMergePolicy());
 		IndexWriter w = new IndexWriter(index, config);
 		// ----------------------------------------------------------------------
 		int lineNr = 0;
@@ -218,24 +229,85 @@ public class KeyWordInPhraseModule extends ModuleImpl {
 			
 			// Check for interrupt signal
 			if (Thread.interrupted()) {
+				// keep the previous index (if any)
+				w.rollback();
 				this.closeAllOutputs();
 				throw new InterruptedException("Thread has been interrupted.");
 			}
 			
 			LOGGER.fine(String.valueOf(lineNr) + " " + line);
-			List<String> tokenList = TokenizeString.tokenizeString(analyzer,
-					line);
-			for (String token : tokenList) {
-				LOGGER.fine(token + "\t " + line);
 
-				// each token is one document
-				addDoc(w, token, line, lineNr);
-			}
+			// each line is one document
+			addDoc(w, line, lineNr);
 
 			lineNr++;
 		}
+		w.setCommitData(commitData);
 		w.close();
-		return index;
+	}
+
+	/**
+	 * Opens the index in the given directory if it was built from the same
+	 * input, otherwise (re-)builds it there.
+	 * @param input Reader to obtain input from
+	 * @param directory index directory
+	 * @return lucene directory
+	 * @throws Exception Thrown if an error occurs
+	 */
+	private Directory openIndex(Reader input, File directory) throws Exception {
+		// The input has to be read completely to determine its hash, so it is
+		// copied to a temporary file in the process
+		File inputCopy = File.createTempFile("kwip", ".txt");
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			Writer copyWriter = new OutputStreamWriter(new DigestOutputStream(
+					new FileOutputStream(inputCopy), digest), "UTF-8");
+			try {
+				char[] buffer = new char[8192];
+				int read;
+				while ((read = input.read(buffer)) != -1) {
+					
+					// Check for interrupt signal
+					if (Thread.interrupted()) {
+						this.closeAllOutputs();
+						throw new InterruptedException("Thread has been interrupted.");
+					}
+					
+					copyWriter.write(buffer, 0, read);
+				}
+			} finally {
+				copyWriter.close();
+			}
+			StringBuilder inputHash = new StringBuilder();
+			for (byte b : digest.digest())
+				inputHash.append(String.format("%02x", b));
+
+			Directory index = new MMapDirectory(directory);
+			if (DirectoryReader.indexExists(index)) {
+				DirectoryReader reader = DirectoryReader.open(index);
+				Map<String, String> userData = reader.getIndexCommit().getUserData();
+				reader.close();
+				if (INDEX_FORMAT.equals(userData.get(COMMITDATA_FORMAT))
+						&& inputHash.toString().equals(userData.get(COMMITDATA_INPUTHASH))) {
+					LOGGER.info("Input unchanged, reusing the index in " + directory);
+					return index;
+				}
+			}
+
+			Map<String, String> commitData = new HashMap<String, String>();
+			commitData.put(COMMITDATA_FORMAT, INDEX_FORMAT);
+			commitData.put(COMMITDATA_INPUTHASH, inputHash.toString());
+			BufferedReader copyReader = new BufferedReader(new InputStreamReader(
+					new FileInputStream(inputCopy), "UTF-8"));
+			try {
+				generateIndex(copyReader, index, commitData);
+			} finally {
+				copyReader.close();
+			}
+			return index;
+		} finally {
+			inputCopy.delete();
+		}
 	}
 
 	/**
@@ -248,15 +320,17 @@ public class KeyWordInPhraseModule extends ModuleImpl {
 		ArrayList<Integer> unitList = new ArrayList<Integer>();
 		ArrayList<String> typeList = new ArrayList<String>();
 		int units = 0;
-		Terms terms = SlowCompositeReaderWrapper.wrap(reader).terms(TEXT);
+		AtomicReader atomicReader = SlowCompositeReaderWrapper.wrap(reader);
+		Terms terms = atomicReader.terms(TEXT);
 		TermsEnum termEnum = null;
-		termEnum = terms.iterator(termEnum);
+		if (terms != null)
+			termEnum = terms.iterator(termEnum);
 
 		String tabs = "\t\t";
 		int len = 0;
 		int currentPos = 0;
 		int typeNr = 0;
-		while (termEnum.next() != null) {
+		while (termEnum != null && termEnum.next() != null) {
 			
 			// Check for interrupt signal
 			if (Thread.interrupted()) {
@@ -275,16 +349,17 @@ public class KeyWordInPhraseModule extends ModuleImpl {
 			else
 				len = 1;
 			LOGGER.finest("types type: " + type + tabs.substring(0, len)
-					+ "Freq.: " + termEnum.docFreq() + "\n");
+					+ "Freq.: " + termEnum.totalTermFreq() + "\n");
 			// exclude numbers and numberstrings
 			if ((type.charAt(0) < '0') || (type.charAt(0) > '9')) {
-				currentPos = tokens(reader, type, currentPos);
-				units = units + termEnum.docFreq();
+				currentPos = tokens(atomicReader, termEnum, type, currentPos);
+				units = units + (int) termEnum.totalTermFreq();
 				unitList.add(units);
 				typeList.add(type);
 				LOGGER.finest("units: " + units);
 			}
 			xmlBuf.append("\t</type>\n");
+			flushBuffers();
 			typeNr++;
 		}
 
@@ -293,34 +368,22 @@ public class KeyWordInPhraseModule extends ModuleImpl {
 	}
 
 	/**
-	 * Determine tokens
+	 * Determine tokens by walking the postings of the given type (in order of
+	 * their occurrence in the text)
 	 * @param reader index reader
-	 * @param querystr query string
+	 * @param termEnum terms enumeration positioned on the type
+	 * @param type type
 	 * @param currentPos current position
 	 * @return
 	 * @throws Exception Exception Thrown if an error occurs
 	 */
-	private int tokens(IndexReader reader, String querystr, int currentPos)
-			throws Exception {
-		int lastSource = -1;
-
-		int hitsPerPage = 100000;
-		IndexSearcher searcher = new IndexSearcher(reader);
-
-		// The \"title\" arg specifies the default field to use when no
-		// field is explicitly specified in the query
-		Query query = new QueryParser(Version.LUCENE_46, TEXT, analyzer)
-				.parse(querystr);
-
-		TopScoreDocCollector collector = TopScoreDocCollector.create(
-				hitsPerPage, true);
-
-		searcher.search(query, collector);
-		ScoreDoc[] hits = collector.topDocs().scoreDocs;
-
-		// Code to display the results of search
+	private int tokens(AtomicReader reader, TermsEnum termEnum, String type,
+			int currentPos) throws Exception {
+		DocsAndPositionsEnum postings = termEnum.docsAndPositions(
+				reader.getLiveDocs(), null, DocsAndPositionsEnum.FLAG_OFFSETS);
 
-		for (int i = 0; i < hits.length; ++i) {
+		int docId;
+		while ((docId = postings.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
 			
 			// Check for interrupt signal
 			if (Thread.interrupted()) {
@@ -328,45 +391,49 @@ public class KeyWordInPhraseModule extends ModuleImpl {
 				throw new InterruptedException("Thread has been interrupted.");
 			}
 			
-			xmlBuf.append("\t\t<token>\n");
-			int docId = hits[i].doc;
-			Document d = searcher.doc(docId);
-			StringBuffer context = new StringBuffer(d.get(CONTEXT));
-			xmlBuf.append("\t\t\t<context>").append(context)
-					.append("</context>\n");
-
-			int tokenPosition = d.getField(POSITION).numericValue().intValue();
-			LOGGER.fine("position of token in context: " + tokenPosition);
-
-			LOGGER.finer("tokens querystr: " + querystr + " context: "
-					+ context /* d.get("Context") */
-					+ " source: " + d.get(SOURCE));
-			xmlBuf.append("\t\t\t<contextStart>").append(currentPos)
-					.append("</contextStart>\n");
-			xmlBuf.append("\t\t\t<position>")
-					.append(currentPos + tokenPosition).append("</position>\n");
-			resultBuf.append(context+System.getProperty("line.separator"));// d.get("Context"));
-			currentPos += context.length();
-			xmlBuf.append("\t\t\t<contextEnd>").append(currentPos)
-					.append("</contextEnd>\n");
-			prettyBuf.append(pretty(context, querystr));
-
-			if (lastSource == Integer.parseInt(d.get(SOURCE))) {
-				// int i1= 10/0;
+			Document d = reader.document(docId);
+			String text = d.get(TEXT);
+			int source = d.getField(SOURCE).numericValue().intValue();
+
+			// One entry for each occurrence of the type within the sentence
+			int freq = postings.freq();
+			for (int i = 0; i < freq; i++) {
+				postings.nextPosition();
+				int startOffset = postings.startOffset();
+				int endOffset = postings.endOffset();
+
+				xmlBuf.append("\t\t<token>\n");
+				StringBuffer context = new StringBuffer(text);
+				xmlBuf.append("\t\t\t<context>").append(context)
+						.append("</context>\n");
+
+				LOGGER.fine("position of token in context: " + startOffset);
+
+				LOGGER.finer("tokens type: " + type + " context: "
+						+ context + " source: " + source);
+				xmlBuf.append("\t\t\t<contextStart>").append(currentPos)
+						.append("</contextStart>\n");
+				xmlBuf.append("\t\t\t<position>")
+						.append(currentPos + startOffset).append("</position>\n");
+				resultBuf.append(context+System.getProperty("line.separator"));
+				currentPos += context.length();
+				xmlBuf.append("\t\t\t<contextEnd>").append(currentPos)
+						.append("</contextEnd>\n");
+				prettyBuf.append(pretty(context, type));
+
+				xmlBuf.append("\t\t\t<source>").append(source)
+						.append("</source>\n");
+
+				String leftContext = getLeftContext(text, startOffset);
+				xmlBuf.append("\t\t\t<left>").append(leftContext)
+						.append("</left>\n");
+				String rightContext = getRightContext(text, endOffset);
+				xmlBuf.append("\t\t\t<right>").append(rightContext)
+						.append("</right>\n");
+
+				xmlBuf.append("\t\t</token>\n");
+				flushBuffers();
 			}
-
-			lastSource = Integer.parseInt(d.get(SOURCE));
-			xmlBuf.append("\t\t\t<source>").append(lastSource)
-					.append("</source>\n");
-
-			String leftContext = d.get(LEFT_CONTEXT);
-			xmlBuf.append("\t\t\t<left>").append(leftContext)
-					.append("</left>\n");
-			String rightContext = d.get(RIGHT_CONTEXT);
-			xmlBuf.append("\t\t\t<right>").append(rightContext)
-					.append("</right>\n");
-
-			xmlBuf.append("\t\t</token>\n");
 		}
 
 		return currentPos;
@@ -400,6 +467,24 @@ public class KeyWordInPhraseModule extends ModuleImpl {
 		return buf;
 	}
 
+	/**
+	 * Passes the buffered output on to the respective outputs and clears the
+	 * buffers.
+	 * @throws IOException Thrown if I/O error happens
+	 */
+	private void flushBuffers() throws IOException {
+		String plain = resultBuf.toString();
+		plainWriter.write(plain);
+		plainStream.write(plain.getBytes());
+		resultBuf.setLength(0);
+		htmlWriter.write(prettyBuf.toString());
+		prettyBuf.setLength(0);
+		String xml = xmlBuf.toString();
+		xmlWriter.write(xml);
+		xmlStream.write(xml.getBytes());
+		xmlBuf.setLength(0);
+	}
+
 	/**
 	 * Outputs the specified unit list.
 	 * @param unitList unit list
@@ -439,11 +524,17 @@ public class KeyWordInPhraseModule extends ModuleImpl {
 	@Override
 	public boolean process() throws Exception {
 		
-		// (re-)initialise variables
-		this.analyzer = null;
+		// (re-)initialise variables; the outputs are streamed, so the
+		// buffers only ever hold the current entry
+		this.analyzer = new StandardAnalyzer(Version.LUCENE_46);
 		this.resultBuf = new StringBuffer();
 		this.prettyBuf = new StringBuffer("<HTML><HEAD><meta charset=\"utf-8\"><TITLE> </TITLE></HEAD><BODY>");
 		this.xmlBuf = new StringBuffer("<?xml version=\"1.0\"?>\n<kwipInfo>\n");
+		this.plainWriter = new OutputPortWriter(this.getOutputPorts().get(OUTPUTPLAINID));
+		this.plainStream = new OutputPortOutputStream(this.getOutputPorts().get(OUTPUTPLAINID));
+		this.htmlWriter = new OutputPortWriter(this.getOutputPorts().get(OUTPUTHTMLID));
+		this.xmlWriter = new OutputPortWriter(this.getOutputPorts().get(OUTPUTXMLID));
+		this.xmlStream = new OutputPortOutputStream(this.getOutputPorts().get(OUTPUTXMLID));
 
 		// Check for interrupt signal
 		if (Thread.interrupted()) {
@@ -451,13 +542,21 @@ public class KeyWordInPhraseModule extends ModuleImpl {
 			throw new InterruptedException("Thread has been interrupted.");
 		}
 		
-		// Text to search
-		Directory index = generateIndex(new BufferedReader(this.getInputPorts().get(INPUT1ID).getInputReader()));
+		// Text to search (the same analyzer is used for indexing and searching)
+		Directory index;
+		if (this.indexDirectory.isEmpty()) {
+			index = new RAMDirectory();
+			generateIndex(new BufferedReader(this.getInputPorts().get(INPUT1ID).getInputReader()),
+					index, new HashMap<String, String>());
+		} else
+			index = openIndex(this.getInputPorts().get(INPUT1ID).getInputReader(),
+					new File(this.indexDirectory));
 		IndexReader reader = DirectoryReader.open(index);
 		types(index, reader);
 		// reader can only be closed if there is no need to access the
 		// documents any more
 		reader.close();
+		index.close();
 		
 		// Check for interrupt signal
 		if (Thread.interrupted()) {
@@ -465,37 +564,35 @@ public class KeyWordInPhraseModule extends ModuleImpl {
 			throw new InterruptedException("Thread has been interrupted.");
 		}
 		
-		// output plain text result
-		this.getOutputPorts().get(OUTPUTPLAINID).outputToAllCharPipes(resultBuf.toString());
-		this.getOutputPorts().get(OUTPUTPLAINID).outputToAllBytePipes(resultBuf.toString().getBytes());
-		this.getOutputPorts().get(OUTPUTPLAINID).close();
-		
-		// Check for interrupt signal
-		if (Thread.interrupted()) {
-			this.closeAllOutputs();
-			throw new InterruptedException("Thread has been interrupted.");
-		}
-
-		// output pretty html result
+		// finish outputs
 		prettyBuf.append("</BODY></HTML>");
-		this.getOutputPorts().get(OUTPUTHTMLID).outputToAllCharPipes(prettyBuf.toString());
-		this.getOutputPorts().get(OUTPUTHTMLID).close();
-		
-		// Check for interrupt signal
-		if (Thread.interrupted()) {
-			this.closeAllOutputs();
-			throw new InterruptedException("Thread has been interrupted.");
-		}
-
-		// output xml result
 		xmlBuf.append("</kwipInfo>");
-		this.getOutputPorts().get(OUTPUTXMLID).outputToAllCharPipes(xmlBuf.toString());
-		this.getOutputPorts().get(OUTPUTXMLID).outputToAllBytePipes(xmlBuf.toString().getBytes());
-		this.getOutputPorts().get(OUTPUTXMLID).close();
+		flushBuffers();
+		this.plainWriter.close();
+		this.plainStream.close();
+		this.htmlWriter.close();
+		this.xmlWriter.close();
+		this.xmlStream.close();
 		
-		// Close remaining outputs (if necessary)
+		// Close outputs
 		this.closeAllOutputs();
 		
 		return true;
 	}
-}
\ No newline at end of file
+
+	@Override
+	public void applyProperties() throws Exception {
+
+		// Set defaults for properties not yet set
+		super.setDefaultsIfMissing();
+
+		// Apply own properties
+		String indexDirectoryString = this.getProperties().getProperty(PROPERTYKEY_INDEXDIRECTORY,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_INDEXDIRECTORY));
+		if (indexDirectoryString != null)
+			this.indexDirectory = indexDirectoryString.trim();
+
+		// Apply parent object's properties (just the name variable actually)
+		super.applyProperties();
+	}
+}
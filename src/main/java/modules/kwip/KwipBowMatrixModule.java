@@ -2,7 +2,6 @@ package modules.kwip;
 
 import java.util.Iterator;
 import java.util.Properties;
-import java.util.Scanner;
 import java.util.Set;
 import java.util.TreeMap;
 
@@ -14,6 +13,7 @@ import modules.OutputPort;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.internal.LinkedTreeMap;
+import common.DelimitedTokenIterator;
 import common.parallelization.CallbackReceiver;
 
 import base.workbench.ModuleRunner;
@@ -85,10 +85,8 @@ public class KwipBowMatrixModule extends ModuleImpl {
 	public boolean process() throws Exception {
 		
 		// Construct scanner instances for input segmentation
-		Scanner kwipUnitScanner = new Scanner(this.getInputPorts().get(ID_INPUT_KWIPUNITS).getInputReader());
-		kwipUnitScanner.useDelimiter("\n");
-		Scanner kwipTypeScanner = new Scanner(this.getInputPorts().get(ID_INPUT_KWIPTYPES).getInputReader());
-		kwipTypeScanner.useDelimiter("\n");
+		DelimitedTokenIterator kwipUnitScanner = this.readTokensFromInputPort(this.getInputPorts().get(ID_INPUT_KWIPUNITS), "\n", true);
+		DelimitedTokenIterator kwipTypeScanner = this.readTokensFromInputPort(this.getInputPorts().get(ID_INPUT_KWIPTYPES), "\n", true);
 		
 		// Parse BoW input
 		Gson gson = new GsonBuilder().setPrettyPrinting().create();
@@ -21,7 +21,9 @@ import models.NamedFieldMatrix;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
+import modules.ObjectPipe;
 import modules.OutputPort;
+import modules.matrix.MatrixPortHelper;
 
 /**
  * DISCLAIMER: This is still work in progress. TODO Remove disclaimer after it
@@ -78,6 +80,7 @@ public class LFGroupBuildingModule extends ModuleImpl {
 		final InputPort inputSuccessorsMatrix = new InputPort(INPUT_SUCCESSOR_MATRIX_ID,
 				"A successors matrix from the Segment Matrix module", this);
 		inputSuccessorsMatrix.addSupportedPipe(CharPipe.class);
+		inputSuccessorsMatrix.addSupportedPipe(ObjectPipe.class);
 		this.addInputPort(inputSuccessorsMatrix);
 
 		final InputPort inputPairList = new InputPort(INPUT_PAIR_LIST_ID,
@@ -97,13 +100,12 @@ public class LFGroupBuildingModule extends ModuleImpl {
 		final OutputPort out = this.getOutputPorts().get(OUTPUT_ID);
 
 		boolean result = true;
-		PipedReader successorsMatrixReader = null;
+		final InputPort successorsMatrixIn = this.getInputPorts().get(INPUT_SUCCESSOR_MATRIX_ID);
 		PipedReader pairListReader = null;
 
 		try {
 			// read the successors matrix from input
-			successorsMatrixReader = this.getInputPorts().get(INPUT_SUCCESSOR_MATRIX_ID).getInputReader();
-			NamedFieldMatrix successors = NamedFieldMatrix.parseCSV(successorsMatrixReader, csvInputDelimiter);
+			NamedFieldMatrix successors = MatrixPortHelper.readMatrix(successorsMatrixIn, csvInputDelimiter);
 
 			// read the pair list from input
 			pairListReader = this.getInputPorts().get(INPUT_PAIR_LIST_ID).getInputReader();
@@ -215,8 +217,8 @@ public class LFGroupBuildingModule extends ModuleImpl {
 			throw e;
 		} finally {
 			closeAllOutputs();
-			if (successorsMatrixReader != null)
-				successorsMatrixReader.close();
+			if (successorsMatrixIn.isConnectedTo(CharPipe.class))
+				successorsMatrixIn.getInputReader().close();
 			if (pairListReader != null)
 				pairListReader.close();
 		}
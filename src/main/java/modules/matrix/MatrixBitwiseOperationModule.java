@@ -24,6 +24,7 @@ import models.NamedFieldMatrix;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
+import modules.ObjectPipe;
 import modules.OutputPort;
 //import modules.matrix.morph.RestructMorphologicalClasses;
 /**
@@ -535,6 +536,7 @@ public class MatrixBitwiseOperationModule extends ModuleImpl {
 		// setup i/o
 		InputPort input = new InputPort(INPUT_ID, INPUT_DESC, this);
 		input.addSupportedPipe(CharPipe.class);
+		input.addSupportedPipe(ObjectPipe.class);
 		super.addInputPort(input);
 		
 		InputPort inputCompetition = new InputPort(INPUTCompetition_ID, INPUTCompetition_DESC, this);
@@ -543,6 +545,7 @@ public class MatrixBitwiseOperationModule extends ModuleImpl {
 
 		OutputPort matrixOutput = new OutputPort(OUTPUT_MATRIX_ID, OUTPUT_MATRIX_DESC, this);
 		matrixOutput.addSupportedPipe(CharPipe.class);
+		matrixOutput.addSupportedPipe(ObjectPipe.class);
 		super.addOutputPort(matrixOutput);
 
 		OutputPort listOutput = new OutputPort(OUTPUT_LIST_ID, OUTPUT_LIST_DESC, this);
@@ -584,8 +587,8 @@ public class MatrixBitwiseOperationModule extends ModuleImpl {
 		//--------------JR----------
 		Best best=new Best();
 		//--------------End JR------
-		// a reader to read input line by line
-		BufferedReader inputReader = new BufferedReader(getInputPorts().get(INPUT_ID).getInputReader());
+		// the matrix input, either CSV or a matrix object
+		InputPort input = getInputPorts().get(INPUT_ID);
 
 		// set the bitsets member which will be used to store bitsets when
 		// created
@@ -594,7 +597,7 @@ public class MatrixBitwiseOperationModule extends ModuleImpl {
 		try {
 			// read the input matrix to operate on and determine whether row or
 			// column names will be operated on
-			inMatrix = NamedFieldMatrix.parseCSV(inputReader, inputSeparator);
+			inMatrix = MatrixPortHelper.readMatrix(input, inputSeparator);
 			Set<String> names;
 			if (useRows) {
 				names = inMatrix.getRowNames();
@@ -742,8 +745,8 @@ public class MatrixBitwiseOperationModule extends ModuleImpl {
 			result = false;
 			throw e;
 		} finally {
-			if (inputReader != null) {
-				inputReader.close();
+			if (input.isConnectedTo(CharPipe.class)) {
+				input.getInputReader().close();
 			}
 			this.closeAllOutputs();
 		}
@@ -811,10 +814,7 @@ public class MatrixBitwiseOperationModule extends ModuleImpl {
 	private static void writeMatrixOutput(NamedFieldMatrix matrix, OutputPort out, String separator)
 			throws IOException {
 		matrix.setDelimiter(separator);
-		out.outputToAllCharPipes(matrix.csvHeader());
-		for (int i = 0; i < matrix.getRowAmount(); i++) {
-			out.outputToAllCharPipes(matrix.csvLine(i));
-		}
+		MatrixPortHelper.writeMatrix(out, matrix);
 	}
 
 	private static void writeListOutput(NamedFieldMatrix matrix, OutputPort out) throws IOException {
@@ -10,7 +10,7 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.regex.Pattern;
 
-import base.workbench.ModuleWorkbenchController;
+import common.LineIterator;
 import common.parallelization.CallbackReceiver;
 import modules.CharPipe;
 import modules.InputPort;
@@ -78,8 +78,7 @@ public class MatrixFilterModule extends ModuleImpl {
 		Pattern pattern = Pattern.compile(this.regex);
 
 		// Construct scanner instances for input segmentation
-		Scanner lineScanner = new Scanner(this.getInputPorts().get(ID_INPUT).getInputReader());
-		lineScanner.useDelimiter(ModuleWorkbenchController.LINEBREAKREGEX);
+		LineIterator lineScanner = this.readLinesFromInputPort(this.getInputPorts().get(ID_INPUT), true);
 
 		// Variable for filtered matrix
 		Map<String,Map<String,String>> filteredMatrix = new TreeMap<String,Map<String,String>>();
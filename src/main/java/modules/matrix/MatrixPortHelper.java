@@ -0,0 +1,73 @@
+package modules.matrix;
+
+import java.io.IOException;
+
+import models.NamedFieldMatrix;
+import modules.CharPipe;
+import modules.InputPort;
+import modules.ObjectPipe;
+import modules.OutputPort;
+
+/**
+ * Helper class, contains static convenience methods to pass NamedFieldMatrix
+ * instances between module ports, either by reference (ObjectPipe) or as CSV
+ * (CharPipe).
+ */
+public class MatrixPortHelper {
+
+	// this should never be instantiated
+	private MatrixPortHelper() {
+	};
+
+	/**
+	 * Reads a matrix from the given port. If the port is connected through
+	 * an object pipe, the instance received is shared with the writing module
+	 * and any other receivers and must not be modified (use
+	 * NamedFieldMatrix.copy() for that).
+	 * 
+	 * @param in
+	 *            The port to read from
+	 * @param csvDelimiter
+	 *            The delimiter to split cells on if the input is CSV
+	 * @return The matrix read
+	 * @throws Exception
+	 *             If the input cannot be read or parsed
+	 */
+	public static NamedFieldMatrix readMatrix(InputPort in, String csvDelimiter) throws Exception {
+		if (in.isConnectedTo(ObjectPipe.class)) {
+			Object object = in.readObject();
+			if (!(object instanceof NamedFieldMatrix))
+				throw new IOException("Expected a matrix on port " + in + " but received: "
+						+ (object == null ? "nothing" : object.getClass().getSimpleName()));
+			return (NamedFieldMatrix) object;
+		}
+		return NamedFieldMatrix.parseCSV(in.getInputReader(), csvDelimiter);
+	}
+
+	/**
+	 * Writes the matrix to all object pipes of the given port and its CSV
+	 * representation (using the matrix' delimiter) to all char pipes. The
+	 * matrix must not be modified afterwards.
+	 * 
+	 * @param out
+	 *            The port to write to
+	 * @param matrix
+	 *            The matrix to write
+	 * @throws IOException
+	 *             If an I/O problem occurs
+	 */
+	public static void writeMatrix(OutputPort out, NamedFieldMatrix matrix) throws IOException {
+		if (out.isConnectedTo(ObjectPipe.class)) {
+			// contract now, so that receivers only ever read the matrix
+			matrix.contract();
+			out.outputToAllObjectPipes(matrix);
+		}
+		if (out.isConnectedTo(CharPipe.class)) {
+			out.outputToAllCharPipes(matrix.csvHeader());
+			for (int i = 0; i < matrix.getRowAmount(); i++) {
+				out.outputToAllCharPipes(matrix.csvLine(i));
+			}
+		}
+	}
+
+}
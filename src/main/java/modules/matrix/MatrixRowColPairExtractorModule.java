@@ -5,7 +5,7 @@ import java.util.Properties;
 import java.util.Scanner;
 import java.util.regex.Pattern;
 
-import base.workbench.ModuleWorkbenchController;
+import common.LineIterator;
 import common.StringUnescaper;
 import common.parallelization.CallbackReceiver;
 import modules.CharPipe;
@@ -87,8 +87,7 @@ public class MatrixRowColPairExtractorModule extends ModuleImpl {
 		Pattern pattern = Pattern.compile(this.regex);
 
 		// Construct scanner instances for input segmentation
-		Scanner lineScanner = new Scanner(this.getInputPorts().get(ID_INPUT).getInputReader());
-		lineScanner.useDelimiter(ModuleWorkbenchController.LINEBREAKREGEX);
+		LineIterator lineScanner = this.readLinesFromInputPort(this.getInputPorts().get(ID_INPUT), true);
 
 		// Array for header names
 		String[] headerNames = null;
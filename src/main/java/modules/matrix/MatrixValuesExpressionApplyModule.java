@@ -1,6 +1,5 @@
 package modules.matrix;
 
-import java.io.Reader;
 import java.util.Properties;
 
 import javax.script.ScriptEngine;
@@ -13,6 +12,7 @@ import models.NamedFieldMatrix;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
+import modules.ObjectPipe;
 import modules.OutputPort;
 
 public class MatrixValuesExpressionApplyModule extends ModuleImpl {
@@ -70,7 +70,9 @@ public class MatrixValuesExpressionApplyModule extends ModuleImpl {
 		InputPort in = new InputPort(INPUT_MATRIX_ID, "[text/csv] A NamedFieldMatrix to evaluate.", this);
 		OutputPort out = new OutputPort(OUTPUT_MATRIX_ID, "[text/csv] the evaluated NamedFieldMatrix", this);
 		in.addSupportedPipe(CharPipe.class);
+		in.addSupportedPipe(ObjectPipe.class);
 		out.addSupportedPipe(CharPipe.class);
+		out.addSupportedPipe(ObjectPipe.class);
 		super.addInputPort(in);
 		super.addOutputPort(out);
 	}
@@ -80,14 +82,19 @@ public class MatrixValuesExpressionApplyModule extends ModuleImpl {
 		boolean result = true;
 		
 		try {
-			// parse input
-			Reader inputReader = this.getInputPorts().get(INPUT_MATRIX_ID).getInputReader();
-			NamedFieldMatrix matrix = NamedFieldMatrix.parseCSV(inputReader, csvDelimiter);
+			// parse input (a matrix received by reference is shared and has to
+			// be copied before modification)
+			InputPort in = this.getInputPorts().get(INPUT_MATRIX_ID);
+			NamedFieldMatrix matrix = MatrixPortHelper.readMatrix(in, csvDelimiter);
+			if (in.isConnectedTo(ObjectPipe.class))
+				matrix = matrix.copy();
 			
 			// prepare output and write header as that will not change
 			OutputPort out = this.getOutputPorts().get(OUTPUT_MATRIX_ID);
+			boolean csvOutput = out.isConnectedTo(CharPipe.class);
 			matrix.setDelimiter(csvDelimiter);
-			out.outputToAllCharPipes(matrix.csvHeader());
+			if (csvOutput)
+				out.outputToAllCharPipes(matrix.csvHeader());
 			
 			// traverse matrix, apply expression and output the line in question
 			Double value;
@@ -97,7 +104,14 @@ public class MatrixValuesExpressionApplyModule extends ModuleImpl {
 					value = evaluateExpression(value, expression);
 					matrix.setValue(i, j, value);
 				}
-				out.outputToAllCharPipes(matrix.csvLine(i));
+				if (csvOutput)
+					out.outputToAllCharPipes(matrix.csvLine(i));
+			}
+			
+			// pass the evaluated matrix on by reference
+			if (out.isConnectedTo(ObjectPipe.class)) {
+				matrix.contract();
+				out.outputToAllObjectPipes(matrix);
 			}
 		} catch (Exception e) {
 			result = false;
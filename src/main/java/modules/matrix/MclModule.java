@@ -1,6 +1,5 @@
 package modules.matrix;
 
-import java.io.PipedReader;
 import java.util.Properties;
 import java.util.logging.Logger;
 
@@ -10,6 +9,7 @@ import models.NamedFieldMatrix;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
+import modules.ObjectPipe;
 import modules.OutputPort;
 
 import base.workbench.ModuleRunner;
@@ -66,8 +66,10 @@ public class MclModule extends ModuleImpl {
 		InputPort inputPort = new InputPort(ID_INPUT,
 				"[text/csv] (Named Field) Matrix to cluster. NOTE: x and y dimensions of the matrix must agree.", this);
 		inputPort.addSupportedPipe(CharPipe.class);
+		inputPort.addSupportedPipe(ObjectPipe.class);
 		OutputPort outputPort = new OutputPort(ID_OUTPUT, "[text/csv] Matrix clustered.", this);
 		outputPort.addSupportedPipe(CharPipe.class);
+		outputPort.addSupportedPipe(ObjectPipe.class);
 
 		// Add I/O ports to instance (don't forget...)
 		super.addInputPort(inputPort);
@@ -79,13 +81,13 @@ public class MclModule extends ModuleImpl {
 	public boolean process() throws Exception {
 
 		boolean result = true;
-		PipedReader inputReader = null;
+		InputPort in = this.getInputPorts().get(ID_INPUT);
 
 		try {
-			inputReader = this.getInputPorts().get(ID_INPUT).getInputReader();
-
-			// read the input into a NamedFieldMatrix
-			final NamedFieldMatrix nfMatrix = NamedFieldMatrix.parseCSV(inputReader, this.csvDelimiter);
+			// read the input into a NamedFieldMatrix (a matrix received by
+			// reference is shared and has to be copied before modification)
+			NamedFieldMatrix inMatrix = MatrixPortHelper.readMatrix(in, this.csvDelimiter);
+			final NamedFieldMatrix nfMatrix = in.isConnectedTo(ObjectPipe.class) ? inMatrix.copy() : inMatrix;
 
 			// The JAMA matrix is initialised from the named field matrix'
 			// values and will operate on them directly, avoiding some
@@ -106,16 +108,13 @@ public class MclModule extends ModuleImpl {
 			nfMatrix.setValues(matrix.getArray());
 			OutputPort out = this.getOutputPorts().get(ID_OUTPUT);
 			nfMatrix.setDelimiter(this.csvDelimiter);
-			out.outputToAllCharPipes(nfMatrix.csvHeader());
-			for (int i = 0; i < nfMatrix.getRowAmount(); i++) {
-				out.outputToAllCharPipes(nfMatrix.csvLine(i));
-			}
+			MatrixPortHelper.writeMatrix(out, nfMatrix);
 		} catch (Exception e) {
 			result = false;
 			throw e;
 		} finally {
-			if (inputReader != null) {
-				inputReader.close();
+			if (in.isConnectedTo(CharPipe.class)) {
+				in.getInputReader().close();
 			}
 			this.closeAllOutputs();
 		}
@@ -1,7 +1,6 @@
 package modules.matrix;
 
 import java.io.BufferedReader;
-import java.io.Reader;
 import java.util.Map;
 import java.util.Properties;
 import java.util.logging.Logger;
@@ -12,6 +11,7 @@ import models.NamedFieldMatrix;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
+import modules.ObjectPipe;
 import modules.OutputPort;
 
 public class SegmentMatrixAnalyzeModule extends ModuleImpl {
@@ -61,6 +61,7 @@ public class SegmentMatrixAnalyzeModule extends ModuleImpl {
 		InputPort distanceMatrixIn = new InputPort(INPUT_SEGMENT_MATRIX_ID,
 				"[text/csv] NamedFieldMatrix from SegmentMatrixModule", this);
 		distanceMatrixIn.addSupportedPipe(CharPipe.class);
+		distanceMatrixIn.addSupportedPipe(ObjectPipe.class);
 		super.addInputPort(distanceMatrixIn);
 
 		InputPort segmentationCandidatesIn = new InputPort(INPUT_SEGMENTATION_CANDIDATES_ID,
@@ -137,9 +138,7 @@ public class SegmentMatrixAnalyzeModule extends ModuleImpl {
 
 	private NamedFieldMatrix readSegmentMatrix() throws Exception {
 		InputPort matrixIn = this.getInputPorts().get(INPUT_SEGMENT_MATRIX_ID);
-		Reader matrixReader = matrixIn.getInputReader();
-
-		return NamedFieldMatrix.parseCSV(matrixReader, this.inputCsvDelim);
+		return MatrixPortHelper.readMatrix(matrixIn, this.inputCsvDelim);
 	}
 	
 	// TO DO get row name
@@ -1,6 +1,5 @@
 package modules.matrix.distanceModule;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.Properties;
 
@@ -10,7 +9,9 @@ import models.NamedFieldMatrix;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
+import modules.ObjectPipe;
 import modules.OutputPort;
+import modules.matrix.MatrixPortHelper;
 import base.workbench.ModuleRunner;
 
 public class DistanceMatrixModule extends ModuleImpl {
@@ -64,9 +65,11 @@ public class DistanceMatrixModule extends ModuleImpl {
 		InputPort matrixInputPort = new InputPort(INPUT_MATRIX_ID,
 				"[text/csv] A csv representation of a NamedFieldMatrix to cluster", this);
 		matrixInputPort.addSupportedPipe(CharPipe.class);
+		matrixInputPort.addSupportedPipe(ObjectPipe.class);
 		
 		OutputPort outputPort = new OutputPort(SV_OUTPUT, "CSV Type Matrix output.", this);
 		outputPort.addSupportedPipe(CharPipe.class);
+		outputPort.addSupportedPipe(ObjectPipe.class);
 		
 		// Add I/O ports to instance (don't forget...)
 		super.addInputPort(matrixInputPort);
@@ -82,8 +85,7 @@ public class DistanceMatrixModule extends ModuleImpl {
 		// matrix input
 		if (matrixInput.isConnected()) {
 			System.out.println("MatrixInput is connected!");
-			BufferedReader matrixInReader = new BufferedReader(matrixInput.getInputReader());
-			NamedFieldMatrix matrix = NamedFieldMatrix.parseCSV(matrixInReader, inputMatrixCsvDelimiter);
+			NamedFieldMatrix matrix = MatrixPortHelper.readMatrix(matrixInput, inputMatrixCsvDelimiter);
 			NamedFieldMatrix distanceMatrix = null;
 			switch (distanceType) {
 			case "ED":
@@ -100,9 +102,16 @@ public class DistanceMatrixModule extends ModuleImpl {
 				break;
 			}
 
-			this.getOutputPorts().get(SV_OUTPUT).outputToAllCharPipes(distanceMatrix.csvHeader());
-			for (int i = 0; i < distanceMatrix.getRowNames().size(); i++) {
-				this.getOutputPorts().get(SV_OUTPUT).outputToAllCharPipes(distanceMatrix.csvLine(i).replaceAll(";;", ";" + new Double(0.0) + ";"));
+			OutputPort out = this.getOutputPorts().get(SV_OUTPUT);
+			if (out.isConnectedTo(ObjectPipe.class)) {
+				distanceMatrix.contract();
+				out.outputToAllObjectPipes(distanceMatrix);
+			}
+			if (out.isConnectedTo(CharPipe.class)) {
+				out.outputToAllCharPipes(distanceMatrix.csvHeader());
+				for (int i = 0; i < distanceMatrix.getRowNames().size(); i++) {
+					out.outputToAllCharPipes(distanceMatrix.csvLine(i).replaceAll(";;", ";" + new Double(0.0) + ";"));
+				}
 			}
 			
 		}
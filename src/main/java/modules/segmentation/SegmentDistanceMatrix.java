@@ -1,8 +1,12 @@
 package modules.segmentation;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
-import java.util.BitSet;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,41 +18,58 @@ public class SegmentDistanceMatrix {
 
 	// An object to map a single segment to a row/col index, e.g. for "Buch" =>
 	// 1, the index 1 will be the position of "Buch" in the segments array as
-	// well as the position of the "Buch" row in the rows list and the index of
-	// the bit representing the "Buch" column in any BitSet of a row
+	// well as the index of the "Buch" row and column
 	private Map<String, Integer> segmentsToIndices;
 
-	// rows of the matrix are saved in a bitset view to be able to quickly check
-	// for rows with matching entries
-	private List<BitSet> rows;
+	// Distances noted since the matrix was last compacted, as records of row,
+	// column and distance in the order of noting, e.g. "Buch|kauft" => -2
+	private int[] recordRows;
+	private int[] recordColumns;
+	private short[] recordDistances;
+	private int recordsAmount;
 
-	// An object to map a segment combinattion to a list of distances, e.g.
-	// "Buch|kauft" => [-2,-3]
-	private Map<String, List<Short>> fields;
+	// Whether all noted distances are in the compressed sparse rows
+	private boolean compacted;
 
-	// the initial number of segments this matrix will map
-	private int initialDimenstions;
+	// The compacted matrix in compressed sparse rows: the fields set in each
+	// row (rowStarts), the column of each field (ascending within a row) and
+	// the distances noted for it (fieldStarts), e.g. "Buch|kauft" => [-2,-3]
+	private int[] rowStarts;
+	private int[] fieldColumns;
+	private int[] fieldStarts;
+	private short[] distances;
 
-	// a single char used to construct the keys for the field map
-	private static final char KEY_CONNECTOR = '|';
+	// rows with many fields set are additionally kept as bit sets over the
+	// columns to quickly compare them, the others are null
+	private long[][] rowBits;
+
+	private static final int INITIAL_RECORDS_CAPACITY = 1024;
 
 	public SegmentDistanceMatrix() {
 		this(1000);
 	}
 
 	public SegmentDistanceMatrix(int initialDimensions) {
-		this.initialDimenstions = initialDimensions;
-
 		this.segments = new ArrayList<>(initialDimensions);
-		this.rows = new ArrayList<>(initialDimensions);
 		this.segmentsToIndices = new HashMap<>();
-		this.fields = new HashMap<>();
+
+		this.recordRows = new int[INITIAL_RECORDS_CAPACITY];
+		this.recordColumns = new int[INITIAL_RECORDS_CAPACITY];
+		this.recordDistances = new short[INITIAL_RECORDS_CAPACITY];
+		this.recordsAmount = 0;
+
+		this.rowStarts = new int[1];
+		this.fieldColumns = new int[0];
+		this.fieldStarts = new int[1];
+		this.distances = new short[0];
+		this.rowBits = new long[0][];
+		this.compacted = true;
 	}
 
 	/**
 	 * Add an array of segments to the matrix. The segments' distances will be
 	 * computed and added to the distances present in the matrix already.
-	 * 
+	 *
 	 * @param segments
 	 *            The segments in order of succession.
 	 */
@@ -56,37 +77,41 @@ public class SegmentDistanceMatrix {
 		// keep an array of indices to reduce lookups
 		int[] indices = new int[segments.length];
 
-		String segmentOne;
-		String segmentTwo;
+		for (int i = 0; i < segments.length; i++) {
+			indices[i] = addSegment(segments[i]);
 
-		for (short i = 0; i < segments.length; i++) {
-			segmentOne = segments[i];
-			indices[i] = addSegment(segmentOne);
-
-			for (short j = 0; j < i; j++) {
-				segmentTwo = segments[j];
-				markCombinationPresent(indices[i], indices[j]);
+			for (int j = 0; j < i; j++) {
 				// casts necessary due to javas implicit conversion in
 				// operations
-				addDistance(segmentTwo, segmentOne, (short) (i - j));
-				addDistance(segmentOne, segmentTwo, (short) ((i - j) * -1));
+				addDistance(indices[j], indices[i], (short) (i - j));
+				addDistance(indices[i], indices[j], (short) ((i - j) * -1));
 			}
 		}
+		compacted = false;
 	}
 
 	/**
 	 * Produce an unmodifiable copy of the distances that are mapped to the
 	 * segment combination.
-	 * 
+	 *
 	 * @param one
 	 *            One segment of the combination
 	 * @param two
 	 *            The other segment of the combination
-	 * @return An unmmodifiable copy of the distances noted for the combination.
+	 * @return An unmmodifiable copy of the distances noted for the combination
+	 *         (empty if the combination is not present).
 	 */
 	public List<Short> getDistances(String one, String two) {
-		List<Short> distances = fields.get(makeDistancesKey(one, two));
-		return Collections.unmodifiableList(distances);
+		int field = getField(one, two);
+		if (field < 0) {
+			return Collections.emptyList();
+		}
+
+		List<Short> result = new ArrayList<>(fieldStarts[field + 1] - fieldStarts[field]);
+		for (int i = fieldStarts[field]; i < fieldStarts[field + 1]; i++) {
+			result.add(distances[i]);
+		}
+		return Collections.unmodifiableList(result);
 	}
 
 	// add a segment and return it's position (row/col) in the indices. If the
@@ -97,20 +122,15 @@ public class SegmentDistanceMatrix {
 		// Test if the segment is already present
 		if (index == null) {
 			segments.add(segment);
-			rows.add(new BitSet(initialDimenstions));
-
 			index = segments.size() - 1;
-
 			segmentsToIndices.put(segment, index);
-
-			consistencyCheck();
 		}
 		return index;
 	}
 
 	/**
 	 * Check if a combination is present in the matrix.
-	 * 
+	 *
 	 * @param one
 	 *            One segment of the combination
 	 * @param two
@@ -119,21 +139,12 @@ public class SegmentDistanceMatrix {
 	 *         the matrix.
 	 */
 	public boolean hasCombination(String one, String two) {
-		boolean result = false;
-
-		Integer idx1 = segmentsToIndices.get(one);
-		Integer idx2 = segmentsToIndices.get(two);
-
-		if (idx1 != null && idx2 != null) {
-			result = rows.get(idx1).get(idx2);
-		}
-
-		return result;
+		return getField(one, two) >= 0;
 	}
 
 	/**
 	 * Get a list of segments currently in the matrix.
-	 * 
+	 *
 	 * @return A List of String representing the segments noted in the matrix.
 	 */
 	public List<String> getSegments() {
@@ -143,68 +154,234 @@ public class SegmentDistanceMatrix {
 	/**
 	 * The amount of segments noted for the matrix. (Equal to it's
 	 * x/y-dimenstions)
-	 * 
+	 *
 	 * @return The size of segments noted for this matrix.
 	 */
 	public int getSegmentsAmount() {
 		return segments.size();
 	}
 
-	// mark a combination as present by setting the appropriate bit in the
-	// appropriate rows
-	private void markCombinationPresent(int indexOne, int indexTwo) {
-		BitSet row = rows.get(indexOne);
-		row.set(indexTwo);
+	/**
+	 * Get the columns set in a row, i.e. the segments that have been noted in
+	 * combination with the row's segment.
+	 *
+	 * @param row
+	 *            idx of the row (the position of its segment in
+	 *            {@link #getSegments()})
+	 * @return The indices of the columns set, ascending
+	 */
+	public int[] getRowColumns(int row) {
+		compact();
+		return Arrays.copyOfRange(fieldColumns, rowStarts[row], rowStarts[row + 1]);
+	}
 
-		row = rows.get(indexTwo);
-		row.set(indexOne);
+	/**
+	 * Get the distances noted for a combination without boxing them.
+	 *
+	 * @param row
+	 *            idx of one segment of the combination
+	 * @param column
+	 *            idx of the other segment of the combination
+	 * @return A copy of the distances noted for the combination (empty if the
+	 *         combination is not present).
+	 */
+	public short[] getDistances(int row, int column) {
+		int field = getField(row, column);
+		if (field < 0) {
+			return new short[0];
+		}
+		return Arrays.copyOfRange(distances, fieldStarts[field], fieldStarts[field + 1]);
 	}
 
-	// add a distance to the distances recorded for these strings
-	private void addDistance(String one, String two, short distance) {
-		final String key = makeDistancesKey(one, two);
+	// the field of the segments' combination, -1 if it is not present
+	private int getField(String one, String two) {
+		Integer idx1 = segmentsToIndices.get(one);
+		Integer idx2 = segmentsToIndices.get(two);
 
-		final List<Short> distances = fields.getOrDefault(key.toString(), new ArrayList<Short>());
-		distances.add(distance);
-		fields.put(key.toString(), distances);
+		if (idx1 == null || idx2 == null) {
+			return -1;
+		}
+		return getField(idx1.intValue(), idx2.intValue());
 	}
 
-	private String makeDistancesKey(String one, String two) {
-		StringBuilder key = new StringBuilder();
-		key.append(one);
-		key.append(KEY_CONNECTOR);
-		key.append(two);
-		return key.toString();
+	private int getField(int row, int column) {
+		compact();
+		int field = Arrays.binarySearch(fieldColumns, rowStarts[row], rowStarts[row + 1], column);
+		return (field < 0) ? -1 : field;
 	}
 
-	private void consistencyCheck() {
-		// Check if all objects are consistent. This is meant for testing and
-		// may later be removed.
-		if ((segments.size() != rows.size()) || (segments.size() != segmentsToIndices.keySet().size())) {
-			throw new IllegalStateException("Inconsistent state. Segments: " + segments.size() + ", rows: "
-					+ rows.size() + ", segKeys: " + segmentsToIndices.keySet().size());
+	// note a distance for these segments
+	private void addDistance(int one, int two, short distance) {
+		if (recordsAmount == recordRows.length) {
+			recordRows = Arrays.copyOf(recordRows, 2 * recordsAmount);
+			recordColumns = Arrays.copyOf(recordColumns, 2 * recordsAmount);
+			recordDistances = Arrays.copyOf(recordDistances, 2 * recordsAmount);
 		}
+		recordRows[recordsAmount] = one;
+		recordColumns[recordsAmount] = two;
+		recordDistances[recordsAmount] = distance;
+		recordsAmount++;
 	}
 
-	// actually compute the hamming distance between two rows using the amount
-	// of bits set in an XOR of both rows
+	// merge the records noted since the last compaction into the compressed
+	// sparse rows (if there are any)
+	private void compact() {
+		if (compacted) {
+			return;
+		}
+		final int rowsAmount = segments.size();
+
+		// the distances compacted before precede the new records
+		final int total = distances.length + recordsAmount;
+		int[] rows = new int[total];
+		int[] columns = new int[total];
+		short[] values = new short[total];
+		int k = 0;
+		for (int row = 0; row < rowStarts.length - 1; row++) {
+			for (int field = rowStarts[row]; field < rowStarts[row + 1]; field++) {
+				for (int i = fieldStarts[field]; i < fieldStarts[field + 1]; i++) {
+					rows[k] = row;
+					columns[k] = fieldColumns[field];
+					values[k] = distances[i];
+					k++;
+				}
+			}
+		}
+		System.arraycopy(recordRows, 0, rows, k, recordsAmount);
+		System.arraycopy(recordColumns, 0, columns, k, recordsAmount);
+		System.arraycopy(recordDistances, 0, values, k, recordsAmount);
+		recordRows = new int[INITIAL_RECORDS_CAPACITY];
+		recordColumns = new int[INITIAL_RECORDS_CAPACITY];
+		recordDistances = new short[INITIAL_RECORDS_CAPACITY];
+		recordsAmount = 0;
+
+		// order the records by row and column, keeping the order of the
+		// distances of each field (two stable counting sorts)
+		int[] order = new int[total];
+		for (int i = 0; i < total; i++) {
+			order[i] = i;
+		}
+		order = countingSort(columns, rowsAmount, order);
+		order = countingSort(rows, rowsAmount, order);
+
+		// count the fields
+		int fieldsAmount = 0;
+		for (int i = 0; i < total; i++) {
+			if (i == 0 || rows[order[i]] != rows[order[i - 1]] || columns[order[i]] != columns[order[i - 1]]) {
+				fieldsAmount++;
+			}
+		}
+
+		// fill the compressed sparse rows
+		rowStarts = new int[rowsAmount + 1];
+		fieldColumns = new int[fieldsAmount];
+		fieldStarts = new int[fieldsAmount + 1];
+		distances = new short[total];
+		int field = -1;
+		for (int i = 0; i < total; i++) {
+			int record = order[i];
+			if (i == 0 || rows[record] != rows[order[i - 1]] || columns[record] != columns[order[i - 1]]) {
+				field++;
+				fieldColumns[field] = columns[record];
+				fieldStarts[field] = i;
+				rowStarts[rows[record] + 1]++;
+			}
+			distances[i] = values[record];
+		}
+		fieldStarts[fieldsAmount] = total;
+		for (int row = 0; row < rowsAmount; row++) {
+			rowStarts[row + 1] += rowStarts[row];
+		}
+
+		// keep rows as bit sets where these are smaller than the columns
+		rowBits = new long[rowsAmount][];
+		for (int row = 0; row < rowsAmount; row++) {
+			if ((long) (rowStarts[row + 1] - rowStarts[row]) * Integer.SIZE >= rowsAmount) {
+				long[] bits = new long[(rowsAmount + Long.SIZE - 1) / Long.SIZE];
+				for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++) {
+					bits[fieldColumns[i] >>> 6] |= 1L << fieldColumns[i];
+				}
+				rowBits[row] = bits;
+			}
+		}
+
+		compacted = true;
+	}
+
+	// stable counting sort of the given order of records by their keys
+	private static int[] countingSort(int[] keys, int keysAmount, int[] order) {
+		int[] starts = new int[keysAmount + 1];
+		for (int record : order) {
+			starts[keys[record] + 1]++;
+		}
+		for (int key = 0; key < keysAmount; key++) {
+			starts[key + 1] += starts[key];
+		}
+		int[] sorted = new int[order.length];
+		for (int record : order) {
+			sorted[starts[keys[record]]++] = record;
+		}
+		return sorted;
+	}
+
+	// actually compute the hamming distance between two rows as the amount of
+	// columns set in exactly one of them
 	private int getRowsHammingDistance(int row1, int row2) {
 		if (row1 == row2)
 			return 0;
-		// one BitSet needs to be a clone because it's values will be changed by
-		// the XOR-operation
-		BitSet bitsRow1 = (BitSet) rows.get(row1).clone();
-		BitSet bitsRow2 = rows.get(row2);
+		compact();
+
+		int size1 = rowStarts[row1 + 1] - rowStarts[row1];
+		int size2 = rowStarts[row2 + 1] - rowStarts[row2];
 
 		// the Hamming distance is the number of bits set after the XOR
-		bitsRow1.xor(bitsRow2);
-		return bitsRow1.cardinality();
+		if (rowBits[row1] != null && rowBits[row2] != null) {
+			long[] bits1 = rowBits[row1];
+			long[] bits2 = rowBits[row2];
+			int distance = 0;
+			for (int i = 0; i < bits1.length; i++) {
+				distance += Long.bitCount(bits1[i] ^ bits2[i]);
+			}
+			return distance;
+		}
+
+		// otherwise count the columns both rows have in common, looking up
+		// those of a sparse row in the other one
+		if (rowBits[row1] != null) {
+			int row = row1;
+			row1 = row2;
+			row2 = row;
+		}
+		int common = 0;
+		if (rowBits[row2] != null) {
+			long[] bits2 = rowBits[row2];
+			for (int i = rowStarts[row1]; i < rowStarts[row1 + 1]; i++) {
+				if ((bits2[fieldColumns[i] >>> 6] & (1L << fieldColumns[i])) != 0) {
+					common++;
+				}
+			}
+		} else {
+			int i = rowStarts[row1];
+			int j = rowStarts[row2];
+			while (i < rowStarts[row1 + 1] && j < rowStarts[row2 + 1]) {
+				if (fieldColumns[i] < fieldColumns[j]) {
+					i++;
+				} else if (fieldColumns[i] > fieldColumns[j]) {
+					j++;
+				} else {
+					common++;
+					i++;
+					j++;
+				}
+			}
+		}
+		return size1 + size2 - 2 * common;
 	}
 
 	/**
 	 * Compute the Hamming distance between two rows (only regarding the fields
 	 * set in the rows not the actual fields' values)
-	 * 
+	 *
 	 * @param row1
 	 *            idx of one row to check
 	 * @param row2
@@ -216,62 +393,133 @@ public class SegmentDistanceMatrix {
 		Integer idx2 = segmentsToIndices.get(row2);
 
 		if (!(idx1 == null || idx2 == null)) {
-			return getRowsHammingDistance(idx1, idx2);
+			return getRowsHammingDistance(idx1.intValue(), idx2.intValue());
 		} else {
 			throw new IllegalArgumentException("One of these rows does not exist: " + row1 + ", " + row2);
 		}
 	}
 
+	/**
+	 * Compute the Hamming distances between one row and all rows (only
+	 * regarding the fields set in the rows not the actual fields' values)
+	 *
+	 * @param row
+	 *            idx of the row to check
+	 * @return The amount of fields set in the row but not in the other one or
+	 *         vice versa, by the other row's idx
+	 */
+	public int[] getRowHammingDistances(int row) {
+		compact();
+
+		// count the columns each row has in common with this one by going
+		// through the rows set in these columns (the matrix is symmetrical)
+		int[] result = new int[segments.size()];
+		for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++) {
+			int column = fieldColumns[i];
+			for (int j = rowStarts[column]; j < rowStarts[column + 1]; j++) {
+				result[fieldColumns[j]]--;
+			}
+		}
+		int size = rowStarts[row + 1] - rowStarts[row];
+		for (int other = 0; other < result.length; other++) {
+			result[other] = size + (rowStarts[other + 1] - rowStarts[other]) + 2 * result[other];
+		}
+		result[row] = 0;
+		return result;
+	}
+
 	/**
 	 * Print a matrix (csv) representation using the provided field delimiter.
 	 * This includes column and row headings
-	 * 
+	 *
 	 * @param delim
 	 *            The delimiter to use to separate field
 	 * @return A String that is a csv representation of this matrix
 	 */
 	public String print(String delim) {
-		List<String> sorted = new ArrayList<String>(segments);
-		sorted.sort(String::compareToIgnoreCase);
+		StringWriter writer = new StringWriter();
+		try {
+			print(delim, writer);
+		} catch (IOException e) {
+			// not thrown by a StringWriter
+			throw new IllegalStateException(e);
+		}
+		return writer.toString();
+	}
 
-		StringBuilder sb = new StringBuilder();
+	/**
+	 * Write a matrix (csv) representation using the provided field delimiter.
+	 * This includes column and row headings
+	 *
+	 * @param delim
+	 *            The delimiter to use to separate field
+	 * @param out
+	 *            The writer to write the csv representation to
+	 * @throws IOException
+	 *             If writing fails
+	 */
+	public void print(String delim, Writer out) throws IOException {
+		compact();
+
+		// the segments' indices sorted by the segments (stable, so equal
+		// segments keep their order) and the position of each index
+		Integer[] sorted = new Integer[segments.size()];
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = i;
+		}
+		Arrays.sort(sorted, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer one, Integer two) {
+				return segments.get(one).compareToIgnoreCase(segments.get(two));
+			}
+		});
+		int[] positions = new int[sorted.length];
+		for (int i = 0; i < sorted.length; i++) {
+			positions[sorted[i]] = i;
+		}
 
 		// print header
-		sb.append(delim);
-		for (int i = 0; i < sorted.size(); i++) {
-			sb.append(sorted.get(i));
-			sb.append(delim);
+		out.write(delim);
+		for (int i = 0; i < sorted.length; i++) {
+			out.write(segments.get(sorted[i]));
+			out.write(delim);
 		}
-		sb.append("\n");
-
-		// print all rows
-		BitSet row;
-		List<Short> distances;
-		int idx1, idx2;
-		for (int i = 0; i < sorted.size(); i++) {
-			idx1 = segmentsToIndices.get(sorted.get(i));
-
-			sb.append(segments.get(idx1));
-			sb.append(delim);
-
-			row = rows.get(idx1);
-			for (int j = 0; j < sorted.size(); j++) {
-				idx2 = segmentsToIndices.get(sorted.get(j));
-
-				if (row.get(idx2)) {
-					distances = getDistances(segments.get(idx1), segments.get(idx2));
-					for (short distance : distances) {
-						sb.append(distance);
-						sb.append(',');
+		out.write("\n");
+
+		// print all rows, each with its fields ordered by column position
+		long[] rowFieldsByPosition = new long[sorted.length];
+		for (int i = 0; i < sorted.length; i++) {
+			int row = sorted[i];
+
+			out.write(segments.get(row));
+			out.write(delim);
+
+			int rowSize = rowStarts[row + 1] - rowStarts[row];
+			for (int j = 0; j < rowSize; j++) {
+				int field = rowStarts[row] + j;
+				rowFieldsByPosition[j] = ((long) positions[fieldColumns[field]] << 32) | field;
+			}
+			Arrays.sort(rowFieldsByPosition, 0, rowSize);
+
+			int position = 0;
+			for (int j = 0; j < rowSize; j++) {
+				int fieldPosition = (int) (rowFieldsByPosition[j] >>> 32);
+				int field = (int) rowFieldsByPosition[j];
+				for (; position < fieldPosition; position++) {
+					out.write(delim);
+				}
+				for (int d = fieldStarts[field]; d < fieldStarts[field + 1]; d++) {
+					if (d > fieldStarts[field]) {
+						out.write(',');
 					}
-					sb.setLength(sb.length() - 1);
+					out.write(Short.toString(distances[d]));
 				}
-				sb.append(delim);
 			}
-			sb.append("\n");
+			for (; position < sorted.length; position++) {
+				out.write(delim);
+			}
+			out.write("\n");
 		}
-
-		return sb.toString();
 	}
 
 }
@@ -1,6 +1,7 @@
 package modules.segmentation;
 
 import java.io.BufferedReader;
+import java.io.Writer;
 import java.util.List;
 import java.util.Properties;
 import java.util.logging.Logger;
@@ -10,7 +11,10 @@ import models.NamedFieldMatrix;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
+import modules.ObjectPipe;
 import modules.OutputPort;
+import modules.OutputPortWriter;
+import modules.matrix.MatrixPortHelper;
 
 import base.workbench.ModuleRunner;
 
@@ -66,6 +70,7 @@ public class SegmentDistanceMatrixModule extends ModuleImpl {
 		OutputPort outputPort2 = new OutputPort(ID_OUTPUT_HAMMING_DISTANCES,
 				"CSV output of the hamming distances between rows of the distance matrix", this);
 		outputPort2.addSupportedPipe(CharPipe.class);
+		outputPort2.addSupportedPipe(ObjectPipe.class);
 
 		// Add I/O ports to instance (don't forget...)
 		super.addInputPort(inputPort);
@@ -98,14 +103,13 @@ public class SegmentDistanceMatrixModule extends ModuleImpl {
 			OutputPort hdOut = getOutputPorts().get(ID_OUTPUT_HAMMING_DISTANCES);
 
 			if (dmOut.isConnected()) {
-				dmOut.outputToAllCharPipes(matrix.print(outputdelimiter_csv));
+				Writer dmWriter = new OutputPortWriter(dmOut);
+				matrix.print(outputdelimiter_csv, dmWriter);
+				dmWriter.close();
 			}
 			if (hdOut.isConnected()) {
 				NamedFieldMatrix hammingMatrix = buildHammingDistancesMatrix(matrix);
-				hdOut.outputToAllCharPipes(hammingMatrix.csvHeader());
-				for (int i = 0; i < hammingMatrix.getRowAmount(); i++) {
-					hdOut.outputToAllCharPipes(hammingMatrix.csvLine(i));
-				}
+				MatrixPortHelper.writeMatrix(hdOut, hammingMatrix);
 			}
 		} catch (Exception e) {
 			result = false;
@@ -127,8 +131,10 @@ public class SegmentDistanceMatrixModule extends ModuleImpl {
 		String segOne;
 		String segTwo;
 		double distance;
+		int[] rowDistances;
 		for (int i = 0; i < segments.size(); i++) {
 			segOne = segments.get(i);
+			rowDistances = input.getRowHammingDistances(i);
 
 			// note the setting of j. iterate from there because previous
 			// combinations have been checked before. (We could do j = i + 1,
@@ -137,7 +143,7 @@ public class SegmentDistanceMatrixModule extends ModuleImpl {
 			for (int j = i; j < segments.size(); j++) {
 				segTwo = segments.get(j);
 
-				distance = (double) input.getRowsHammingDistance(segOne, segTwo);
+				distance = (double) rowDistances[j];
 				result.setValue(segOne, segTwo, distance);
 				result.setValue(segTwo, segOne, distance);
 			}
@@ -1,6 +1,7 @@
 package modules.segmentation;
 
 import java.io.BufferedReader;
+import java.io.OutputStream;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -8,10 +9,12 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 
 import common.parallelization.CallbackReceiver;
+import modules.BytePipe;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
 import modules.OutputPort;
+import modules.OutputPortOutputStream;
 import modules.transitionNetwork.TransitionNetworkArray;
 
 import base.workbench.ModuleRunner;
@@ -26,6 +29,7 @@ public class SegmentsTransitionNetworkModule extends ModuleImpl {
 
 	private static final String ID_INPUT = "input";
 	private static final String ID_OUTPUT = "output";
+	private static final String ID_OUTPUT_BINARY = "binary";
 
 	public SegmentsTransitionNetworkModule(CallbackReceiver callbackReceiver, Properties properties) throws Exception {
 		super(callbackReceiver, properties);
@@ -42,10 +46,14 @@ public class SegmentsTransitionNetworkModule extends ModuleImpl {
 		inputPort.addSupportedPipe(CharPipe.class);
 		OutputPort outputPort = new OutputPort(ID_OUTPUT, "CSV output.", this);
 		outputPort.addSupportedPipe(CharPipe.class);
+		OutputPort binaryOutputPort = new OutputPort(ID_OUTPUT_BINARY,
+				"Transition network in binary format (see TransitionNetworkArray.read()).", this);
+		binaryOutputPort.addSupportedPipe(BytePipe.class);
 
 		// Add I/O ports to instance (don't forget...)
 		super.addInputPort(inputPort);
 		super.addOutputPort(outputPort);
+		super.addOutputPort(binaryOutputPort);
 	}
 
 	@Override
@@ -57,6 +65,7 @@ public class SegmentsTransitionNetworkModule extends ModuleImpl {
 		BufferedReader reader = null;
 		final InputPort in = this.getInputPorts().get(ID_INPUT);
 		final OutputPort out = this.getOutputPorts().get(ID_OUTPUT);
+		final OutputPort binaryOut = this.getOutputPorts().get(ID_OUTPUT_BINARY);
 		String line;
 
 		try {
@@ -95,27 +104,22 @@ public class SegmentsTransitionNetworkModule extends ModuleImpl {
 			
 			
 			// make a network and fill it
-			TransitionNetworkArray network = new TransitionNetworkArray(100, 100);
+			TransitionNetworkArray network = new TransitionNetworkArray();
 			
 			for (String string : stringSplits.keySet()) {
 				splits = stringSplits.get(string);
 				String[] splitted = splitString(string, splits);
-				
-				System.out.print(string + ": " + splits + "(");
-				for (String s : splitted) {
-					System.out.print(s + "-");
-				}
-				System.out.println(")");
-				
 				network.addPath(splitted);
 			}
 
-			String s = network.print();
-			out.outputToAllCharPipes(s);
-			
-			// DONT COMMIT
-			System.out.println(s);
-			
+			if (out.isConnected()) {
+				out.outputToAllCharPipes(network.print());
+			}
+			if (binaryOut.isConnected()) {
+				OutputStream binaryStream = new OutputPortOutputStream(binaryOut);
+				network.write(binaryStream);
+				binaryStream.close();
+			}
 
 		} catch (Exception e) {
 			result = false;
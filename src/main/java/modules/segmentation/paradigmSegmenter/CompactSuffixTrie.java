@@ -0,0 +1,161 @@
+package modules.segmentation.paradigmSegmenter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import models.ExtensibleTreeNode;
+
+/**
+ * Kompakte, unveraenderliche Darstellung eines Suffixbaumes (siehe
+ * {@link ExtensibleTreeNode}) fuer die Segmentierung.
+ *
+ * Symbole werden als ints kodiert (ihr Rang in der sortierten Menge aller
+ * Symbole des Baumes), Knoten ebenfalls (in Breitensuchreihenfolge, die Wurzel
+ * ist 0). Die Kindknoten eines Knotens sind dadurch aufeinanderfolgend und nach
+ * Symbol sortiert, sodass sie per Binaersuche gefunden werden. Die Bewertung
+ * des Uebergangs zu jedem Knoten (ohne Abfall, siehe
+ * {@link SymbolRater#grundbewertung(int, int, int, int)}) wird beim Aufbau
+ * einmalig errechnet.
+ *
+ * Instanzen koennen von mehreren Threads zugleich verwendet werden.
+ */
+public class CompactSuffixTrie {
+
+	/**
+	 * Wurzelknoten
+	 */
+	public static final int WURZEL = 0;
+
+	/**
+	 * Nicht vorhandener Knoten bzw. unbekanntes Symbol
+	 */
+	public static final int KEIN_KNOTEN = -1;
+
+	// Symbole nach ihrer Kodierung und umgekehrt
+	private final String[] symbole;
+	private final Map<String, Integer> symbolKodierungen;
+	// Kodierungen der Symbole aus einem Zeichen, nach Zeichen
+	private final int[] zeichenKodierungen;
+
+	// pro Knoten: Index des ersten Kindknotens (der letzte Eintrag zaehlt alle Knoten)
+	private final int[] ersteKinder;
+	// pro Knoten: Symbol des Uebergangs vom Elternknoten
+	private final int[] uebergangsSymbole;
+	// pro Knoten: Bewertung des Uebergangs vom Elternknoten
+	private final double[] bewertungen;
+	// Kindknoten der Wurzel nach Symbol
+	private final int[] wurzelKinder;
+
+	/**
+	 * Erstellt die kompakte Darstellung des Suffixbaumes.
+	 * @param suffixbaumWurzelknoten Wurzel des Suffixbaumes
+	 * @param symbolBewerter Bewerter fuer die Uebergaenge
+	 */
+	public CompactSuffixTrie(ExtensibleTreeNode suffixbaumWurzelknoten, SymbolRater symbolBewerter) {
+		// Knoten in Breitensuchreihenfolge und alle Symbole sammeln
+		List<ExtensibleTreeNode> knoten = new ArrayList<ExtensibleTreeNode>();
+		TreeSet<String> symbolMenge = new TreeSet<String>();
+		knoten.add(suffixbaumWurzelknoten);
+		for (int i = 0; i < knoten.size(); i++) {
+			symbolMenge.addAll(knoten.get(i).getChildNodes().keySet());
+			knoten.addAll(knoten.get(i).getChildNodes().values());
+		}
+
+		// Symbole kodieren
+		this.symbole = symbolMenge.toArray(new String[symbolMenge.size()]);
+		this.symbolKodierungen = new HashMap<String, Integer>(2 * this.symbole.length);
+		this.zeichenKodierungen = new int[Character.MAX_VALUE + 1];
+		Arrays.fill(this.zeichenKodierungen, KEIN_KNOTEN);
+		for (int symbol = 0; symbol < this.symbole.length; symbol++) {
+			this.symbolKodierungen.put(this.symbole[symbol], symbol);
+			if (this.symbole[symbol].length() == 1)
+				this.zeichenKodierungen[this.symbole[symbol].charAt(0)] = symbol;
+		}
+
+		// Uebergaenge und ihre Bewertungen ermitteln (die Kindknoten liegen in
+		// der Reihenfolge der sortierten Symbole hintereinander)
+		this.ersteKinder = new int[knoten.size() + 1];
+		this.uebergangsSymbole = new int[knoten.size()];
+		this.bewertungen = new double[knoten.size()];
+		this.uebergangsSymbole[WURZEL] = KEIN_KNOTEN;
+		this.bewertungen[WURZEL] = Double.MAX_VALUE;
+		int naechstesKind = 1;
+		for (int i = 0; i < knoten.size(); i++) {
+			ExtensibleTreeNode elternKnoten = knoten.get(i);
+			this.ersteKinder[i] = naechstesKind;
+			for (Map.Entry<String, ExtensibleTreeNode> kind : elternKnoten.getChildNodes().entrySet()) {
+				this.uebergangsSymbole[naechstesKind] = this.symbolKodierungen.get(kind.getKey());
+				this.bewertungen[naechstesKind] = symbolBewerter.grundbewertung(elternKnoten.getNodeCounter(),
+						kind.getValue().getNodeCounter(), elternKnoten.getChildNodes().size(),
+						kind.getValue().getChildNodes().size());
+				naechstesKind++;
+			}
+		}
+		this.ersteKinder[knoten.size()] = naechstesKind;
+
+		this.wurzelKinder = new int[this.symbole.length];
+		Arrays.fill(this.wurzelKinder, KEIN_KNOTEN);
+		for (int kind = this.ersteKinder[WURZEL]; kind < this.ersteKinder[WURZEL + 1]; kind++)
+			this.wurzelKinder[this.uebergangsSymbole[kind]] = kind;
+	}
+
+	/**
+	 * @return Anzahl der Symbole
+	 */
+	public int getSymbolAnzahl() {
+		return this.symbole.length;
+	}
+
+	/**
+	 * @param symbol Kodiertes Symbol
+	 * @return Das Symbol
+	 */
+	public String getSymbol(int symbol) {
+		return this.symbole[symbol];
+	}
+
+	/**
+	 * @param symbol Symbol
+	 * @return Kodierung des Symbols, {@link #KEIN_KNOTEN} falls es im Suffixbaum nicht vorkommt
+	 */
+	public int kodieren(String symbol) {
+		Integer kodierung = this.symbolKodierungen.get(symbol);
+		return (kodierung == null) ? KEIN_KNOTEN : kodierung;
+	}
+
+	/**
+	 * @param zeichen Symbol aus einem Zeichen
+	 * @return Kodierung des Symbols, {@link #KEIN_KNOTEN} falls es im Suffixbaum nicht vorkommt
+	 */
+	public int kodieren(char zeichen) {
+		return this.zeichenKodierungen[zeichen];
+	}
+
+	/**
+	 * @param knoten Knoten (oder {@link #KEIN_KNOTEN})
+	 * @param symbol Kodiertes Symbol (unbekannte Symbole sind zulaessig)
+	 * @return Kindknoten unter dem Symbol, {@link #KEIN_KNOTEN} falls es keinen gibt
+	 */
+	public int getKindKnoten(int knoten, int symbol) {
+		if (knoten == KEIN_KNOTEN || symbol < 0 || symbol >= this.symbole.length)
+			return KEIN_KNOTEN;
+		if (knoten == WURZEL)
+			return this.wurzelKinder[symbol];
+		int index = Arrays.binarySearch(this.uebergangsSymbole, this.ersteKinder[knoten],
+				this.ersteKinder[knoten + 1], symbol);
+		return (index < 0) ? KEIN_KNOTEN : index;
+	}
+
+	/**
+	 * @param knoten Knoten ausser der Wurzel
+	 * @return Bewertung des Uebergangs vom Elternknoten zu diesem Knoten (ohne Abfall)
+	 */
+	public double getBewertung(int knoten) {
+		return this.bewertungen[knoten];
+	}
+
+}
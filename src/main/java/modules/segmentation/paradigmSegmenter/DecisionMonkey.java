@@ -1,105 +1,244 @@
 package modules.segmentation.paradigmSegmenter;
 
-import java.util.List;
-
-import models.ExtensibleTreeNode;
+import java.util.Arrays;
 
+/**
+ * Ermittelt den Weg des geringsten Widerstands durch einen Entscheidungsbaum
+ * ueber eine kodierte Zeichenkette (siehe {@link CompactSuffixTrie}).
+ *
+ * Jeder Knoten des Entscheidungsbaumes steht fuer ein Symbol der Zeichenkette
+ * und hat (sobald er erweitert wurde) zwei Kindknoten: das naechste Symbol
+ * verbinden (join) oder abtrennen (split). Die Knoten werden als ints in
+ * parallelen Arrays gehalten; Knoten, die beim Stutzen des Baumes wegfallen,
+ * werden fuer spaetere Erweiterungen wiederverwendet.
+ *
+ * Instanzen duerfen nur von einem Thread zugleich verwendet werden.
+ */
 public class DecisionMonkey {
 
-	public static boolean debug = false;
-	private SymbolRater symbolBewerter;
-	private SplitDecisionNode aktuellerEntscheidungsKnoten;
-	private ExtensibleTreeNode suffixbaumWurzelknoten;
-	private ExtensibleTreeNode aktuellerKnoten;
+	/**
+	 * Nicht vorhandener Entscheidungsknoten
+	 */
+	public static final int KEIN_KNOTEN = -1;
+
+	private static final int ANFANGSKAPAZITAET = 64;
+
+	private final SymbolRater symbolBewerter;
+	private final CompactSuffixTrie suffixTrie;
+
+	// Entscheidungsknoten
+	private double[] bewertungen = new double[ANFANGSKAPAZITAET];
+	private double[] aktivierungsPotentiale = new double[ANFANGSKAPAZITAET];
+	private int[] splits = new int[ANFANGSKAPAZITAET];
+	private int[] joins = new int[ANFANGSKAPAZITAET];
+	private int[] elternKnoten = new int[ANFANGSKAPAZITAET];
+	private int[] suffixTrieKindKnoten = new int[ANFANGSKAPAZITAET];
+	private int knotenAnzahl = 0;
+
+	// Wiederverwendbare Knoten
+	private int[] freieKnoten = new int[ANFANGSKAPAZITAET];
+	private int freieKnotenAnzahl = 0;
+
+	// Stapel zum Freigeben von Teilbaeumen
+	private int[] stapel = new int[ANFANGSKAPAZITAET];
 
-	public DecisionMonkey(SymbolRater symbolBewerter, ExtensibleTreeNode suffixbaumWurzelknoten) {
+	public DecisionMonkey(SymbolRater symbolBewerter, CompactSuffixTrie suffixTrie) {
 		super();
 		this.symbolBewerter = symbolBewerter;
-		this.suffixbaumWurzelknoten = suffixbaumWurzelknoten;
+		this.suffixTrie = suffixTrie;
 	}
 
 	/**
-	 * Erstellt einen Entscheidungsbaum anhand der uebergebenen Zeichenkette und gibt den Weg des geringsten Widerstands zurueck.
-	 * @param zeichenkette String
-	 * @param entscheidungsbaumWurzelknoten Decision tree root node
+	 * Erstellt einen neuen Entscheidungsbaum fuer das erste Symbol einer Zeichenkette.
+	 * @param symbol Kodiertes Symbol
+	 * @return Wurzelknoten des Entscheidungsbaumes
+	 */
+	public int erstelleWurzelknoten(int symbol) {
+		return this.neuerKnoten(0d, this.suffixTrie.getKindKnoten(CompactSuffixTrie.WURZEL, symbol), KEIN_KNOTEN);
+	}
+
+	/**
+	 * Erweitert den Entscheidungsbaum anhand der uebergebenen Zeichenkette und gibt den Weg des geringsten Widerstands zurueck.
+	 * @param zeichenkette Kodierte Symbole
+	 * @param laenge Anzahl der Symbole
+	 * @param entscheidungsbaumWurzelknoten Decision tree root node (steht fuer das erste Symbol)
 	 * @return Blatt am Ende des Weges des geringsten Widerstands
 	 * @throws Exception Thrown if something goes wrong
 	 */
-	public SplitDecisionNode konstruiereEntscheidungsbaum(List<String> zeichenkette, SplitDecisionNode entscheidungsbaumWurzelknoten) throws Exception {
+	public int konstruiereEntscheidungsbaum(int[] zeichenkette, int laenge, int entscheidungsbaumWurzelknoten) throws Exception {
 		// Rueckkehr zur Wurzel des Entscheidungsbaumes
-		if (debug && aktuellerEntscheidungsKnoten != null)
-			aktuellerEntscheidungsKnoten.setNotiz(null);
-		aktuellerEntscheidungsKnoten = entscheidungsbaumWurzelknoten;
-		if (debug) aktuellerEntscheidungsKnoten.setNotiz(" {A}");
-		aktuellerKnoten = aktuellerEntscheidungsKnoten.getSuffixTrieKindKnoten();
+		int aktuellerEntscheidungsKnoten = entscheidungsbaumWurzelknoten;
 		double letzteBewertung = Double.MAX_VALUE;
-		
+
 		// Schleife ueber alle Zeichen (das erste ist bereits im Entscheidungsbaumwurzelknoten hinterlegt)
-		for (int index=1; index<zeichenkette.size();){
+		for (int index=1; index<laenge;){
+			int split = this.splits[aktuellerEntscheidungsKnoten];
+			int join = this.joins[aktuellerEntscheidungsKnoten];
+
 			// Pruefen, ob der aktuelle Entscheidungsknoten bereits Kindelemente hat
-			if (aktuellerEntscheidungsKnoten.getSplit() != null && aktuellerEntscheidungsKnoten.getJoin() != null){
-				
+			if (split != KEIN_KNOTEN && join != KEIN_KNOTEN){
+
 				// Kindelement mit dem geringsten Widerstand auswaehlen
-				if (aktuellerEntscheidungsKnoten.getSplit().getAktivierungsPotential()<aktuellerEntscheidungsKnoten.getJoin().getAktivierungsPotential()){
-					letzteBewertung = aktuellerEntscheidungsKnoten.getSplit().getBewertung();
-					if (debug) aktuellerEntscheidungsKnoten.setNotiz(null);
-					aktuellerEntscheidungsKnoten = aktuellerEntscheidungsKnoten.getSplit();
-					if (debug) aktuellerEntscheidungsKnoten.setNotiz(" {A}");
-					aktuellerKnoten = aktuellerEntscheidungsKnoten.getSuffixTrieKindKnoten();
-				} else {
-					letzteBewertung = aktuellerEntscheidungsKnoten.getJoin().getBewertung();
-					if (debug) aktuellerEntscheidungsKnoten.setNotiz(null);
-					aktuellerEntscheidungsKnoten = aktuellerEntscheidungsKnoten.getJoin();
-					if (debug) aktuellerEntscheidungsKnoten.setNotiz(" {A}");
-					aktuellerKnoten = aktuellerEntscheidungsKnoten.getSuffixTrieKindKnoten();
-				}
-				
+				if (this.aktivierungsPotentiale[split]<this.aktivierungsPotentiale[join])
+					aktuellerEntscheidungsKnoten = split;
+				else
+					aktuellerEntscheidungsKnoten = join;
+				letzteBewertung = this.bewertungen[aktuellerEntscheidungsKnoten];
+
 				index++;
-				
+
 			} else {
 				// Der aktuelle Entscheidungsbaumknoten hat noch KEINE Kindelemente, daher muessen zunaechst die Bewertungen ermittelt werden
-				double bewertungVerbinde = symbolBewerter.symbolBewerten(zeichenkette.get(index), aktuellerKnoten, letzteBewertung);
-				double bewertungTrenne = symbolBewerter.symbolBewerten(zeichenkette.get(index), suffixbaumWurzelknoten, Double.MAX_VALUE);
-				if (aktuellerKnoten == null)
+				int aktuellerKnoten = this.suffixTrieKindKnoten[aktuellerEntscheidungsKnoten];
+				if (aktuellerKnoten == CompactSuffixTrie.KEIN_KNOTEN)
 					throw new Exception("The segmenter seems to have encountered an unknown symbol and cannot continue -- please make sure the suffix trie contains all symbols used within the segmentation input.");
-				SplitDecisionNode entscheidungsknotenVerbinde = new SplitDecisionNode(bewertungVerbinde, aktuellerKnoten, aktuellerKnoten.getChildNodes().get(zeichenkette.get(index)), aktuellerEntscheidungsKnoten, zeichenkette.get(index));
-				SplitDecisionNode entscheidungsknotenTrenne = new SplitDecisionNode(bewertungTrenne, suffixbaumWurzelknoten, suffixbaumWurzelknoten.getChildNodes().get(zeichenkette.get(index)), aktuellerEntscheidungsKnoten, zeichenkette.get(index));
-				aktuellerEntscheidungsKnoten.setJoin(entscheidungsknotenVerbinde);
-				aktuellerEntscheidungsKnoten.setSplit(entscheidungsknotenTrenne);
-				
+				int symbol = zeichenkette[index];
+				int kindVerbinde = this.suffixTrie.getKindKnoten(aktuellerKnoten, symbol);
+				int kindTrenne = this.suffixTrie.getKindKnoten(CompactSuffixTrie.WURZEL, symbol);
+				double bewertungVerbinde = this.symbolBewerten(kindVerbinde, letzteBewertung);
+				double bewertungTrenne = this.symbolBewerten(kindTrenne, Double.MAX_VALUE);
+				int entscheidungsknotenVerbinde = this.neuerKnoten(bewertungVerbinde, kindVerbinde, aktuellerEntscheidungsKnoten);
+				int entscheidungsknotenTrenne = this.neuerKnoten(bewertungTrenne, kindTrenne, aktuellerEntscheidungsKnoten);
+				this.joins[aktuellerEntscheidungsKnoten] = entscheidungsknotenVerbinde;
+				this.splits[aktuellerEntscheidungsKnoten] = entscheidungsknotenTrenne;
 
 				/*
 				 *  Rueckkehr zum naechsten Ahnenelement des Entscheidungsbaumes, dessen Aktivierungspotential sich
 				 *  durch den hinzugekommenen Wert nicht aendert, um von dort aus erneut den Weg des geringsten
 				 *  Widerstands zu ermitteln.
 				 */
-				boolean aktivierungsPotentialVeraendert = true;
-				while(aktivierungsPotentialVeraendert){
-					// Knotenpotential auf das minimal notwendige Niveau anheben und ermitteln, ob es sich dadurch aendert
-					aktivierungsPotentialVeraendert = aktuellerEntscheidungsKnoten.hebeAktivierungsPotentialAufMinimumAn();
-					
-					// Abbrechen, falls wir bereits den Wurzelknoten des Entscheidungsbaumes erreicht haben
-					if (aktuellerEntscheidungsKnoten.equals(entscheidungsbaumWurzelknoten) || !aktivierungsPotentialVeraendert)
-						break;
-					// Elternknoten im Entscheidungs- und Suffixbaum ermitteln
-					if (debug) aktuellerEntscheidungsKnoten.setNotiz(null);
-					aktuellerEntscheidungsKnoten = aktuellerEntscheidungsKnoten.getElternKnoten();
-					if (debug) aktuellerEntscheidungsKnoten.setNotiz(" {A}");
-					aktuellerKnoten = aktuellerEntscheidungsKnoten.getSuffixTrieElternKnoten();
-					
+				while (this.hebeAktivierungsPotentialAufMinimumAn(aktuellerEntscheidungsKnoten)
+						&& aktuellerEntscheidungsKnoten != entscheidungsbaumWurzelknoten) {
+					aktuellerEntscheidungsKnoten = this.elternKnoten[aktuellerEntscheidungsKnoten];
+
 					// Index der Position im Zeichenpuffer reduzieren
 					index--;
 				}
-				
-				
-				
-				
 			}
-			
-			
 		}
 		// Wenn die Schleife bis zum Ende der Zeichenkette durchlaeuft, ist der beste Weg gefunden
 		return aktuellerEntscheidungsKnoten;
 	}
 
+	/*
+	 * Bewertet den Uebergang zum angegebenen Knoten des Suffixbaumes, die
+	 * maximal moegliche Huerde falls es ihn nicht gibt.
+	 */
+	private double symbolBewerten(int kindKnoten, double letzteBewertung) {
+		if (kindKnoten == CompactSuffixTrie.KEIN_KNOTEN)
+			return Double.MAX_VALUE;
+		return this.symbolBewerter.abfallEinbeziehen(this.suffixTrie.getBewertung(kindKnoten), letzteBewertung);
+	}
+
+	/*
+	 * Hebt das Aktivierungspotential des Entscheidungsknotens auf den minimal
+	 * notwenigen Wert, um das Niveau eines der Kindelemente zu erreichen.
+	 * Gibt false zurueck, falls sich das Aktivierungspotential nicht aendert.
+	 */
+	private boolean hebeAktivierungsPotentialAufMinimumAn(int knoten) {
+		int split = this.splits[knoten];
+		int join = this.joins[knoten];
+		if (split != KEIN_KNOTEN && join != KEIN_KNOTEN) {
+			double minimalwert = Math.max(Math.min(this.aktivierungsPotentiale[join], this.aktivierungsPotentiale[split]), this.bewertungen[knoten]);
+
+			// Falls der Wert sich nicht erhoeht, wird die Rekursion abgebrochen
+			if (minimalwert <= this.aktivierungsPotentiale[knoten])
+				return false;
+			this.aktivierungsPotentiale[knoten] = minimalwert;
+		}
+		return true;
+	}
+
+	/**
+	 * Stutzt den Entscheidungsbaum auf einen seiner Teilbaeume; alle uebrigen Knoten werden freigegeben.
+	 * @param wurzelknoten Bisheriger Wurzelknoten
+	 * @param neuerWurzelknoten Wurzelknoten des zu behaltenden Teilbaumes
+	 * @return Der neue Wurzelknoten
+	 */
+	public int stutzen(int wurzelknoten, int neuerWurzelknoten) {
+		int stapelGroesse = 0;
+		this.stapel[stapelGroesse++] = wurzelknoten;
+		while (stapelGroesse > 0) {
+			int knoten = this.stapel[--stapelGroesse];
+			if (knoten == neuerWurzelknoten)
+				continue;
+			if (this.splits[knoten] != KEIN_KNOTEN) {
+				if (stapelGroesse + 2 > this.stapel.length)
+					this.stapel = Arrays.copyOf(this.stapel, 2 * this.stapel.length);
+				this.stapel[stapelGroesse++] = this.splits[knoten];
+				this.stapel[stapelGroesse++] = this.joins[knoten];
+			}
+			if (this.freieKnotenAnzahl == this.freieKnoten.length)
+				this.freieKnoten = Arrays.copyOf(this.freieKnoten, 2 * this.freieKnoten.length);
+			this.freieKnoten[this.freieKnotenAnzahl++] = knoten;
+		}
+		this.elternKnoten[neuerWurzelknoten] = KEIN_KNOTEN;
+		return neuerWurzelknoten;
+	}
+
+	/**
+	 * Gibt alle Knoten frei.
+	 */
+	public void zuruecksetzen() {
+		this.knotenAnzahl = 0;
+		this.freieKnotenAnzahl = 0;
+	}
+
+	/**
+	 * @param knoten Entscheidungsknoten
+	 * @return Elternknoten, {@link #KEIN_KNOTEN} fuer die Wurzel
+	 */
+	public int getElternKnoten(int knoten) {
+		return this.elternKnoten[knoten];
+	}
+
+	/**
+	 * @param knoten Entscheidungsknoten
+	 * @return Kindknoten fuer das Abtrennen des naechsten Symbols, {@link #KEIN_KNOTEN} falls der Knoten nicht erweitert wurde
+	 */
+	public int getSplit(int knoten) {
+		return this.splits[knoten];
+	}
+
+	/**
+	 * @param knoten Entscheidungsknoten
+	 * @return Kindknoten fuer das Verbinden des naechsten Symbols, {@link #KEIN_KNOTEN} falls der Knoten nicht erweitert wurde
+	 */
+	public int getJoin(int knoten) {
+		return this.joins[knoten];
+	}
+
+	/**
+	 * @param knoten Entscheidungsknoten
+	 * @return Aktivierungspotential des Knotens
+	 */
+	public double getAktivierungsPotential(int knoten) {
+		return this.aktivierungsPotentiale[knoten];
+	}
+
+	private int neuerKnoten(double bewertung, int suffixTrieKindKnoten, int elternKnoten) {
+		int knoten;
+		if (this.freieKnotenAnzahl > 0) {
+			knoten = this.freieKnoten[--this.freieKnotenAnzahl];
+		} else {
+			if (this.knotenAnzahl == this.bewertungen.length) {
+				int kapazitaet = 2 * this.knotenAnzahl;
+				this.bewertungen = Arrays.copyOf(this.bewertungen, kapazitaet);
+				this.aktivierungsPotentiale = Arrays.copyOf(this.aktivierungsPotentiale, kapazitaet);
+				this.splits = Arrays.copyOf(this.splits, kapazitaet);
+				this.joins = Arrays.copyOf(this.joins, kapazitaet);
+				this.elternKnoten = Arrays.copyOf(this.elternKnoten, kapazitaet);
+				this.suffixTrieKindKnoten = Arrays.copyOf(this.suffixTrieKindKnoten, kapazitaet);
+			}
+			knoten = this.knotenAnzahl++;
+		}
+		this.bewertungen[knoten] = bewertung;
+		this.aktivierungsPotentiale[knoten] = bewertung;
+		this.splits[knoten] = KEIN_KNOTEN;
+		this.joins[knoten] = KEIN_KNOTEN;
+		this.elternKnoten[knoten] = elternKnoten;
+		this.suffixTrieKindKnoten[knoten] = suffixTrieKindKnoten;
+		return knoten;
+	}
+
 }
@@ -1,20 +1,31 @@
 package modules.segmentation.paradigmSegmenter;
 
+import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import models.ExtensibleTreeNode;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
 import modules.OutputPort;
+import modules.OutputPortWriter;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -41,6 +52,13 @@ public class ParadigmSegmenterModule extends ModuleImpl {
 	public static final String PROPERTYKEY_INCLUDESCORING = "Include scoring value in output";
 	public static final String PROPERTYKEY_INPUTTOKENDIVIDER = "Input token divider";
 	public static final String PROPERTYKEY_INPUTDOCUMENTDIVIDER = "Input document divider";
+	public static final String PROPERTYKEY_THREADS = "Threads";
+
+	// Size of the buffer for reading the input
+	private static final int READBUFFERSIZE = 4096;
+
+	// Amount of documents per thread that may be segmented ahead of output
+	private static final int PENDINGDOCUMENTSPERTHREAD = 16;
 
 	// Local variables
 	private final String TEXTINPUTID = "text";
@@ -54,6 +72,7 @@ public class ParadigmSegmenterModule extends ModuleImpl {
 	private Character inputTokenDivider = null;
 	private String outputTokenDivider = "\t";
 	private String outputDocumentDivider = "\n";
+	private int threads = 1;
 
 	public ParadigmSegmenterModule(CallbackReceiver callbackReceiver,
 			Properties properties) throws Exception {
@@ -97,6 +116,10 @@ public class ParadigmSegmenterModule extends ModuleImpl {
 				.put(PROPERTYKEY_OUTPUTDOCUMENTDIVIDER,
 						"Divider that will be used to mark the document borders in the output, if applicable.");
 
+		this.getPropertyDescriptions()
+				.put(PROPERTYKEY_THREADS,
+						"Maximum number of threads to segment documents in (only used if there is an input document divider; defaults to the number of available processors).");
+
 		// Add default values
 		this.getPropertyDefaultValues().put(ModuleImpl.PROPERTYKEY_NAME,
 				"Paradigm Segmenter");
@@ -113,6 +136,8 @@ public class ParadigmSegmenterModule extends ModuleImpl {
 				"\\t");
 		this.getPropertyDefaultValues().put(PROPERTYKEY_OUTPUTDOCUMENTDIVIDER,
 				"\\n");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_THREADS,
+				String.valueOf(Runtime.getRuntime().availableProcessors()));
 
 		// Add module description
 		this.setDescription("Reads contents from a JSON-encoded¹ atomic suffix tree (AST²) "
@@ -147,206 +172,270 @@ public class ParadigmSegmenterModule extends ModuleImpl {
 		ExtensibleTreeNode suffixbaumWurzelknoten = gson.fromJson(trieReader,
 				ExtensibleTreeNode.class);
 
+		// Symbolbewerter instanziieren
+		SymbolRater symbolRater = new SymbolRater(
+				this.minimalCostPerSymbolLayer, this.scoringDecreaseFactor);
+
+		// Kompakte Darstellung des Suffixbaumes erstellen (der urspruengliche
+		// wird danach nicht mehr benoetigt)
+		CompactSuffixTrie suffixTrie = new CompactSuffixTrie(suffixbaumWurzelknoten, symbolRater);
+		suffixbaumWurzelknoten = null;
+
+		// Ausgabe (gepuffert)
+		Writer output = new OutputPortWriter(this.getOutputPorts().get(OUTPUTID));
+
 		/*
 		 * Segmentierung des Eingabedatenstroms
 		 */
 
-		if (this.inputDocumentDivider != null
-				&& !this.inputDocumentDivider.isEmpty()) {
-			// Initialise input scanner
-			Scanner inputScanner = new Scanner(this.getInputPorts()
-					.get(TEXTINPUTID).getInputReader());
-			inputScanner.useDelimiter(this.inputDocumentDivider);
-			while (inputScanner.hasNext()) {
-				String document = inputScanner.next();
-				Reader documentReader = new StringReader(document);
-				this.segmentString(documentReader, suffixbaumWurzelknoten);
-				documentReader.close();
-				this.getOutputPorts().get(OUTPUTID)
-						.outputToAllCharPipes(this.outputDocumentDivider);
-			}
-			inputScanner.close();
+		try {
+			if (this.inputDocumentDivider != null
+					&& !this.inputDocumentDivider.isEmpty()) {
+				// Initialise input scanner
+				Scanner inputScanner = new Scanner(this.getInputPorts()
+						.get(TEXTINPUTID).getInputReader());
+				inputScanner.useDelimiter(this.inputDocumentDivider);
+				if (this.threads > 1) {
+					this.segmentDocumentsInParallel(inputScanner, suffixTrie, symbolRater, output);
+				} else {
+					// DecisionMonkey initialisieren
+					DecisionMonkey monkey = new DecisionMonkey(symbolRater, suffixTrie);
+					while (inputScanner.hasNext()) {
+						String document = inputScanner.next();
+						Reader documentReader = new StringReader(document);
+						this.segmentString(documentReader, suffixTrie, monkey, output);
+						documentReader.close();
+						output.write(this.outputDocumentDivider);
+					}
+				}
+				inputScanner.close();
 
-		} else {
-			this.segmentString(this.getInputPorts().get(TEXTINPUTID)
-					.getInputReader(), suffixbaumWurzelknoten);
+			} else {
+				// DecisionMonkey initialisieren
+				DecisionMonkey monkey = new DecisionMonkey(symbolRater, suffixTrie);
+				this.segmentString(this.getInputPorts().get(TEXTINPUTID)
+						.getInputReader(), suffixTrie, monkey, output);
+			}
+		} catch (InterruptedException e) {
+			// Ausgaben werden nur von diesem Thread geschlossen (nicht von den
+			// Threads, die Dokumente parallel segmentieren)
+			this.closeAllOutputs();
+			throw e;
 		}
 
 		// Close relevant I/O instances
+		output.close();
 		this.closeAllOutputs();
 		// Success
 		return true;
 	}
 
-	private void segmentString(Reader input,
-			ExtensibleTreeNode atomicSuffixTreeRootNode) throws Exception {
+	/*
+	 * Segments the documents in a pool of threads, each with its own
+	 * DecisionMonkey (the suffix trie is shared). The segmented documents are
+	 * output in input order; at most PENDINGDOCUMENTSPERTHREAD documents per
+	 * thread are read ahead of the first one not yet output.
+	 */
+	private void segmentDocumentsInParallel(Scanner inputScanner,
+			final CompactSuffixTrie suffixTrie, final SymbolRater symbolRater,
+			Writer output) throws Exception {
+		final ThreadLocal<DecisionMonkey> monkeys = new ThreadLocal<DecisionMonkey>() {
+			@Override
+			protected DecisionMonkey initialValue() {
+				return new DecisionMonkey(symbolRater, suffixTrie);
+			}
+		};
+		final Deque<Future<String>> pendingDocuments = new ArrayDeque<Future<String>>();
+		final int maxPendingDocuments = PENDINGDOCUMENTSPERTHREAD * this.threads;
+		final ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+		try {
+			while (inputScanner.hasNext()) {
+				// Check for interrupt signal
+				if (Thread.interrupted()) {
+					throw new InterruptedException("Thread has been interrupted.");
+				}
 
-		// Symbolbewerter instanziieren
-		SymbolRater symbolRater = new SymbolRater(
-				this.minimalCostPerSymbolLayer, this.scoringDecreaseFactor);
+				final String document = inputScanner.next();
+				pendingDocuments.addLast(executor.submit(new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						StringWriter documentWriter = new StringWriter(document.length() * 2);
+						segmentString(new StringReader(document), suffixTrie, monkeys.get(), documentWriter);
+						return documentWriter.toString();
+					}
+				}));
 
-		// DecisionMonkey initialisieren
-		DecisionMonkey monkey = new DecisionMonkey(
-				symbolRater, atomicSuffixTreeRootNode);
-		DecisionMonkey.debug = true;
+				// output the documents done so far, wait for the first one if
+				// too many are pending
+				while (!pendingDocuments.isEmpty() && (pendingDocuments.size() >= maxPendingDocuments
+						|| pendingDocuments.peekFirst().isDone()))
+					this.outputDocument(pendingDocuments.removeFirst(), output);
+			}
+			while (!pendingDocuments.isEmpty())
+				this.outputDocument(pendingDocuments.removeFirst(), output);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
 
-		// Variable for input char code
-		int charCode;
+	// waits for a segmented document and outputs it
+	private void outputDocument(Future<String> segmentedDocument, Writer output) throws Exception {
+		try {
+			output.write(segmentedDocument.get());
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception)
+				throw (Exception) e.getCause();
+			throw e;
+		}
+		output.write(this.outputDocumentDivider);
+	}
+
+	private void segmentString(Reader input, CompactSuffixTrie suffixTrie,
+			DecisionMonkey monkey, Writer output) throws Exception {
 
 		// Entscheidungsbaum starten
-		SplitDecisionNode decisionTreeRootNode = null;
+		monkey.zuruecksetzen();
+		int decisionTreeRootNode = DecisionMonkey.KEIN_KNOTEN;
 
-		// Eingabepuffer initialisieren
-		Deque<String> buffer = new ArrayDeque<String>();
+		// Eingabepuffer initialisieren (kodierte Symbole)
+		int[] buffer = new int[Math.max(1, this.bufferSize)];
+		int bufferLength = 0;
 
 		// Initialise buffer for chars to build up to a token
-		StringBuffer charBuffer = new StringBuffer();
+		StringBuilder charBuffer = new StringBuilder();
 
 		// Sekundaeren Eingabepuffer fuer nicht segmentierbare Zeichenketten
 		// initialisieren
-		List<String> secondaryBuffer = new ArrayList<String>();
+		int[] secondaryBuffer = new int[buffer.length];
+		int secondaryBufferLength = 0;
+
+		// Symbole, die im Suffixbaum nicht vorkommen (kodiert im Anschluss an
+		// dessen Symbole)
+		UnknownSymbols unknownSymbols = new UnknownSymbols(suffixTrie);
 
-		// HashMap zur Zwischenspeicherung von Ergebnisbaumzweigen
-		// Map<Character,SplitDecisionNode> entscheidungsBaumZweige = new HashMap<Character,SplitDecisionNode>();
+		// Puffer fuer die gelesenen Zeichen
+		char[] readBuffer = new char[READBUFFERSIZE];
+		int readLength = 0;
+		int readPosition = 0;
 
 		// Daten Zeichen fuer Zeichen einlesen
 		while (true) {
 
-			// Read next char
-			charCode = input.read();
-
-			// Check for interrupt signal
-			if (Thread.interrupted()) {
-				this.closeAllOutputs();
-				throw new InterruptedException("Thread has been interrupted.");
+			// Read next chars
+			if (readPosition == readLength) {
+				// Check for interrupt signal
+				if (Thread.interrupted()) {
+					throw new InterruptedException("Thread has been interrupted.");
+				}
+				readLength = input.read(readBuffer, 0, readBuffer.length);
+				readPosition = 0;
 			}
+			boolean endOfInput = readLength == -1;
 
 			// Check whether there was still input to read
-			if (charCode != -1) {
+			if (!endOfInput) {
 				// Zeichen einlesen
-				Character symbol = Character.valueOf((char) charCode);
+				char symbol = readBuffer[readPosition++];
+				int symbolCode;
 				// Check whether the read symbol is an input divider
-				if (this.inputTokenDivider == null
-						|| symbol.equals(this.inputTokenDivider)) {
-					if (this.inputTokenDivider == null) {
-						buffer.add(symbol.toString());
-					} else {
-						// Append char buffer to token buffer
-						buffer.add(charBuffer.toString());
-						charBuffer = new StringBuffer();
-					}
+				if (this.inputTokenDivider == null) {
+					symbolCode = suffixTrie.kodieren(symbol);
+					if (symbolCode == CompactSuffixTrie.KEIN_KNOTEN)
+						symbolCode = unknownSymbols.kodieren(String.valueOf(symbol));
+				} else if (symbol == this.inputTokenDivider.charValue()) {
+					// Append char buffer to token buffer
+					String token = charBuffer.toString();
+					charBuffer.setLength(0);
+					symbolCode = suffixTrie.kodieren(token);
+					if (symbolCode == CompactSuffixTrie.KEIN_KNOTEN)
+						symbolCode = unknownSymbols.kodieren(token);
 				} else {
 					// Append symbol to char buffer
 					charBuffer.append(symbol);
 					continue;
 				}
+				if (bufferLength == buffer.length)
+					buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+				buffer[bufferLength++] = symbolCode;
 			}
 
 			// Puffergroesse pruefen (if there is no more input the buffer size
 			// is ignored here)
-			if (buffer.size() == this.bufferSize || charCode == -1) {
+			if (bufferLength == this.bufferSize || (endOfInput && bufferLength > 0)) {
 				// Ggf. Entscheidungsbaum beginnen
-				if (decisionTreeRootNode == null) {
-					decisionTreeRootNode = new SplitDecisionNode(0d,
-							atomicSuffixTreeRootNode, atomicSuffixTreeRootNode
-									.getChildNodes().get(buffer.peekFirst()),
-							null, buffer.peekFirst());
-					// entscheidungsBaumZweige.put(symbol,
-					// entscheidungsbaumWurzelknoten);
+				if (decisionTreeRootNode == DecisionMonkey.KEIN_KNOTEN) {
+					decisionTreeRootNode = monkey.erstelleWurzelknoten(buffer[0]);
 				}
 
 				// Wenn der Eingabepuffer die erforderliche Groesse erreicht
 				// hat, wird er segmentiert
-				List<String> bufferList = new ArrayList<String>(buffer.size());
-				bufferList.addAll(buffer); // TODO: Ugly conversion. Find better
-											// way to do this.
-				SplitDecisionNode blattBesterWeg = monkey
-						.konstruiereEntscheidungsbaum(bufferList,
-								decisionTreeRootNode);
+				int blattBesterWeg = monkey.konstruiereEntscheidungsbaum(
+						buffer, bufferLength, decisionTreeRootNode);
 
 				// Erstes Segment (erster Entscheidungsknoten, der trennt)
 				// ermitteln, Entscheidungsbaum stutzen, Puffer kuerzen
 
-				// Zuletzt trennenden Entscheidungsbaumknoten ermitteln
-				SplitDecisionNode letzteTrennstelle = null;
-				SplitDecisionNode letztesBlatt = blattBesterWeg;
+				// Zuletzt trennenden Entscheidungsbaumknoten ermitteln (und
+				// seinen Abstand zum Blatt)
+				int letzteTrennstelle = DecisionMonkey.KEIN_KNOTEN;
+				int letzteTrennstelleAbstand = 0;
+				int letztesBlatt = blattBesterWeg;
+				int abstand = 0;
 				double letzteTrennstellenBewertung = 0d;
-				while (letztesBlatt.getElternKnoten() != null) {
-					letztesBlatt = letztesBlatt.getElternKnoten();
-					double trennstellenBewertung = letztesBlatt.getJoin()
-							.getAktivierungsPotential()
-							- letztesBlatt.getSplit()
-									.getAktivierungsPotential();
+				while (monkey.getElternKnoten(letztesBlatt) != DecisionMonkey.KEIN_KNOTEN) {
+					letztesBlatt = monkey.getElternKnoten(letztesBlatt);
+					abstand++;
+					double trennstellenBewertung = monkey.getAktivierungsPotential(monkey.getJoin(letztesBlatt))
+							- monkey.getAktivierungsPotential(monkey.getSplit(letztesBlatt));
 					if (trennstellenBewertung > 0) {
 						letzteTrennstelle = letztesBlatt;
+						letzteTrennstelleAbstand = abstand;
 						letzteTrennstellenBewertung = trennstellenBewertung;
 					}
 				}
 
 				// Pruefen, ob eine Trennstelle gefunden wurde
-				if (letzteTrennstelle == null) {
+				if (letzteTrennstelle == DecisionMonkey.KEIN_KNOTEN) {
 					// Wenn gar keine Trennstelle gefunden wurde, wird der
 					// Puffer mit Ausnahme des letzten Zeichens in den
 					// Sekundaerpuffer uebertragen
-
-					secondaryBuffer.addAll(buffer);
-					buffer.clear();
-					buffer.add(secondaryBuffer.remove(secondaryBuffer.size() - 1));
+					if (secondaryBufferLength + bufferLength > secondaryBuffer.length)
+						secondaryBuffer = Arrays.copyOf(secondaryBuffer,
+								Math.max(2 * secondaryBuffer.length, secondaryBufferLength + bufferLength));
+					System.arraycopy(buffer, 0, secondaryBuffer, secondaryBufferLength, bufferLength - 1);
+					secondaryBufferLength += bufferLength - 1;
+					buffer[0] = buffer[bufferLength - 1];
+					bufferLength = 1;
 					// Entscheidungsbaum stutzen
-					decisionTreeRootNode = blattBesterWeg;
-					decisionTreeRootNode.setElternKnoten(null);
+					decisionTreeRootNode = monkey.stutzen(decisionTreeRootNode, blattBesterWeg);
 				} else {
 
 					// Trennstelle gefunden, Segment abloesen und ausgeben
 
-					// Tiefe der letzten Trennstelle ermitteln
-					int tiefe = 1;
-					SplitDecisionNode entscheidungsbaumKnoten = letzteTrennstelle;
-					while (entscheidungsbaumKnoten.getElternKnoten() != null) {
-						entscheidungsbaumKnoten = entscheidungsbaumKnoten
-								.getElternKnoten();
-						tiefe++;
-					}
+					// Tiefe der letzten Trennstelle ermitteln (die Wurzel hat
+					// die Tiefe 1)
+					int tiefe = abstand - letzteTrennstelleAbstand + 1;
 
-					// Segment ermitteln (Sekundaerpuffer + Puffer bis zur
+					// Segment ausgeben (Sekundaerpuffer + Puffer bis zur
 					// ermittelten Tiefe)
-					List<String> segment = new ArrayList<String>();
-					segment.addAll(secondaryBuffer);
-					for (int i = 0; i < tiefe; i++) {
-						// append the first symbol in the input buffer to the
-						// segment (and remove it from the buffer in one go)
-						segment.add(buffer.removeFirst());
-					}
+					for (int i = 0; i < secondaryBufferLength; i++)
+						this.outputSymbol(secondaryBuffer[i], suffixTrie, unknownSymbols, output);
+					for (int i = 0; i < tiefe; i++)
+						this.outputSymbol(buffer[i], suffixTrie, unknownSymbols, output);
+					output.write(this.outputTokenDivider);
 
-					// Sekundaerpuffer loeschen
-					secondaryBuffer.clear();
+					if (includeScoringInOutput)
+						output.write(letzteTrennstellenBewertung
+								+ this.outputTokenDivider);
 
-					// Entscheidungsbaum stutzen
-					decisionTreeRootNode = letzteTrennstelle
-							.getSplit();
-					if (decisionTreeRootNode != null)
-						decisionTreeRootNode.setElternKnoten(null);
-
-					// Segment ausgeben
-					Iterator<String> segmentStrings = segment.iterator();
-					while (segmentStrings.hasNext()) {
-						this.getOutputPorts().get(OUTPUTID)
-								.outputToAllCharPipes(segmentStrings.next());
-						if (this.inputTokenDivider != null)
-							this.getOutputPorts()
-									.get(OUTPUTID)
-									.outputToAllCharPipes(
-											this.inputTokenDivider.toString());
-					}
-					this.getOutputPorts().get(OUTPUTID)
-							.outputToAllCharPipes(this.outputTokenDivider);
+					// Puffer kuerzen, Sekundaerpuffer loeschen
+					System.arraycopy(buffer, tiefe, buffer, 0, bufferLength - tiefe);
+					bufferLength -= tiefe;
+					secondaryBufferLength = 0;
 
-					if (includeScoringInOutput)
-						this.getOutputPorts()
-								.get(OUTPUTID)
-								.outputToAllCharPipes(
-										letzteTrennstellenBewertung
-												+ this.outputTokenDivider);
+					// Entscheidungsbaum stutzen
+					decisionTreeRootNode = monkey.stutzen(decisionTreeRootNode,
+							monkey.getSplit(letzteTrennstelle));
 				}
 
 			}
@@ -358,21 +447,14 @@ public class ParadigmSegmenterModule extends ModuleImpl {
 			 */
 
 			// Check whether last read input is invalid
-			if (charCode == -1) {
+			if (endOfInput) {
 				// Output secondary (backlog) buffer
-				Iterator<String> secondaryBufferIterator = secondaryBuffer
-						.iterator();
-				while (secondaryBufferIterator.hasNext())
-					this.getOutputPorts()
-							.get(OUTPUTID)
-							.outputToAllCharPipes(
-									secondaryBufferIterator.next());
+				for (int i = 0; i < secondaryBufferLength; i++)
+					output.write(this.getSymbol(secondaryBuffer[i], suffixTrie, unknownSymbols));
 
 				// Output primary buffer
-				Iterator<String> bufferIterator = buffer.iterator();
-				while (bufferIterator.hasNext())
-					this.getOutputPorts().get(OUTPUTID)
-							.outputToAllCharPipes(bufferIterator.next());
+				for (int i = 0; i < bufferLength; i++)
+					output.write(this.getSymbol(buffer[i], suffixTrie, unknownSymbols));
 
 				// End input read and segmentation loop
 				break;
@@ -381,6 +463,53 @@ public class ParadigmSegmenterModule extends ModuleImpl {
 		}
 	}
 
+	// outputs a symbol of a segment, followed by the input token divider (if any)
+	private void outputSymbol(int symbolCode, CompactSuffixTrie suffixTrie,
+			UnknownSymbols unknownSymbols, Writer output) throws IOException {
+		output.write(this.getSymbol(symbolCode, suffixTrie, unknownSymbols));
+		if (this.inputTokenDivider != null)
+			output.write(this.inputTokenDivider.charValue());
+	}
+
+	private String getSymbol(int symbolCode, CompactSuffixTrie suffixTrie,
+			UnknownSymbols unknownSymbols) {
+		if (symbolCode < suffixTrie.getSymbolAnzahl())
+			return suffixTrie.getSymbol(symbolCode);
+		return unknownSymbols.getSymbol(symbolCode);
+	}
+
+	/*
+	 * Kodierung der Symbole, die im Suffixbaum nicht vorkommen (ihre Codes
+	 * schliessen an die des Suffixbaumes an).
+	 */
+	private static class UnknownSymbols {
+		private final int offset;
+		private Map<String, Integer> codes = null;
+		private List<String> symbols = null;
+
+		UnknownSymbols(CompactSuffixTrie suffixTrie) {
+			this.offset = suffixTrie.getSymbolAnzahl();
+		}
+
+		int kodieren(String symbol) {
+			if (this.codes == null) {
+				this.codes = new HashMap<String, Integer>();
+				this.symbols = new ArrayList<String>();
+			}
+			Integer code = this.codes.get(symbol);
+			if (code == null) {
+				code = this.offset + this.symbols.size();
+				this.codes.put(symbol, code);
+				this.symbols.add(symbol);
+			}
+			return code;
+		}
+
+		String getSymbol(int code) {
+			return this.symbols.get(code - this.offset);
+		}
+	}
+
 	@Override
 	public void applyProperties() throws Exception {
 		super.setDefaultsIfMissing();
@@ -419,6 +548,10 @@ public class ParadigmSegmenterModule extends ModuleImpl {
 					.getProperties().getProperty(
 							PROPERTYKEY_SCORINGDECREASEFACTOR));
 
+		if (this.getProperties().containsKey(PROPERTYKEY_THREADS))
+			this.threads = Math.max(1, Integer.parseInt(this.getProperties()
+					.getProperty(PROPERTYKEY_THREADS)));
+
 		if (this.getProperties().containsKey(PROPERTYKEY_INCLUDESCORING))
 			this.includeScoringInOutput = Boolean.parseBoolean(this
 					.getProperties().getProperty(PROPERTYKEY_INCLUDESCORING));
@@ -60,30 +60,50 @@ public class SymbolRater {
 			// Knoten ermitteln
 			ExtensibleTreeNode kindKnoten = elternKnoten.getChildNodes().get(symbol);
 			
-			// Ermitteln, welchen Wert der aktuelle Knoten hat
-			int gesamtwert = elternKnoten.getNodeCounter();
-			
-			// Ermitteln, welchen Wert der Kindknoten hat
-			int teilwert = kindKnoten.getNodeCounter();
-			
-			// Anteil des Kindknotenzaehlers am Zaehler seines Elternknoten ermitteln
-			double anteil = new Double(teilwert)/new Double(gesamtwert); // 0 < anteil <= 1
-			
 			// Bewertung fuer diesen Kindknoten errechnen
-			bewertung = (1d/anteil)-1d+this.mindestKostenProSymbolschritt;
+			bewertung = this.grundbewertung(elternKnoten.getNodeCounter(), kindKnoten.getNodeCounter(),
+					elternKnoten.getChildNodes().size(), kindKnoten.getChildNodes().size());
 			
-			// Anstieg in der Anzahl der Kindknoten miteinbeziehen
-			double elternKnotenChildrenAmount = elternKnoten.getChildNodes().size();
-			double childNodeChildrenAmount = kindKnoten.getChildNodes().size();
-			bewertung = bewertung * (childNodeChildrenAmount/elternKnotenChildrenAmount);
-			
-			// Abfall in der Bewertung miteinbeziehen (deutet auf paradigmatische Grenze hin)
-			if (this.bewertungsAbfallFaktor>0 && letzteBewertung<bewertung)
-				bewertung = bewertung * (bewertung/letzteBewertung) * this.bewertungsAbfallFaktor;
+			// Abfall in der Bewertung miteinbeziehen
+			bewertung = this.abfallEinbeziehen(bewertung, letzteBewertung);
 			
 		}
 		
 		// Ergebnis zurueckgeben
 		return bewertung;
 	}
+
+	/**
+	 * Bewertet den Uebergang von einem Knoten des Suffixbaumes zu einem seiner Kindknoten, ohne den Abfall
+	 * gegenueber der vorigen Bewertung (siehe {@link #abfallEinbeziehen(double, double)}).
+	 * @param gesamtwert Zaehler des Elternknotens
+	 * @param teilwert Zaehler des Kindknotens
+	 * @param elternKnotenKinder Anzahl der Kindknoten des Elternknotens
+	 * @param kindKnotenKinder Anzahl der Kindknoten des Kindknotens
+	 * @return bewertung (kleiner bedeutet geringere Uebergangshuerde)
+	 */
+	public double grundbewertung(int gesamtwert, int teilwert, int elternKnotenKinder, int kindKnotenKinder){
+		// Anteil des Kindknotenzaehlers am Zaehler seines Elternknoten ermitteln
+		double anteil = (double) teilwert / (double) gesamtwert; // 0 < anteil <= 1
+		
+		// Bewertung fuer diesen Kindknoten errechnen
+		double bewertung = (1d/anteil)-1d+this.mindestKostenProSymbolschritt;
+		
+		// Anstieg in der Anzahl der Kindknoten miteinbeziehen
+		double elternKnotenChildrenAmount = elternKnotenKinder;
+		double childNodeChildrenAmount = kindKnotenKinder;
+		return bewertung * (childNodeChildrenAmount/elternKnotenChildrenAmount);
+	}
+
+	/**
+	 * Bezieht den Abfall einer Bewertung gegenueber der vorigen mit ein (deutet auf paradigmatische Grenze hin).
+	 * @param bewertung Bewertung nach {@link #grundbewertung(int, int, int, int)}
+	 * @param letzteBewertung Prior rating
+	 * @return bewertung
+	 */
+	public double abfallEinbeziehen(double bewertung, double letzteBewertung){
+		if (this.bewertungsAbfallFaktor>0 && letzteBewertung<bewertung)
+			return bewertung * (bewertung/letzteBewertung) * this.bewertungsAbfallFaktor;
+		return bewertung;
+	}
 }
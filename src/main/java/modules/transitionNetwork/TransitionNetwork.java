@@ -1,10 +1,14 @@
 package modules.transitionNetwork;
 
 import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import modules.OutputPort;
+import modules.OutputPortWriter;
 import modules.transitionNetwork.List.TNArrayList;
-import modules.transitionNetwork.elements.comparator.StateComparator;
 import modules.transitionNetwork.elements.StateElement;
 import modules.transitionNetwork.elements.StateTransitionElement;
 import modules.transitionNetwork.elements.comparator.SuffixComparator;
@@ -14,7 +18,6 @@ public class TransitionNetwork {
 
 	public TNArrayList<StateElement> states = null;
 	public TNArrayList<SuffixElement> suffixes = null;
-	private StateComparator stateComparator;
 	private SuffixComparator suffixComparator;
 	private char[] text;
 	private boolean inverted;
@@ -27,13 +30,24 @@ public class TransitionNetwork {
 	// the id of the root state may be set by the user.
 	private Integer rootStateId = null;
 
+	// index of the states by their state number, for all states up to
+	// indexedStates (states may be added to the public list directly)
+	private final Map<Integer, Integer> stateIndices = new HashMap<Integer, Integer>();
+	private int indexedStates = 0;
+
+	// open addressing hash table of suffix ids (-1 if empty), hashed by the
+	// text of their spans; the hash of each suffix up to indexedSuffixes
+	private int[] suffixTable = new int[1024];
+	private int[] suffixHashes = new int[512];
+	private int indexedSuffixes = 0;
+
 	public TransitionNetwork(char[] text, boolean inverted) {
 		this.states = new TNArrayList<StateElement>();
 		this.suffixes = new TNArrayList<SuffixElement>();
-		this.stateComparator = new StateComparator();
 		this.suffixComparator = new SuffixComparator(text);
 		this.text = text;
 		this.inverted = inverted;
+		Arrays.fill(this.suffixTable, -1);
 	}
 
 	public int addStateElement(StateElement stateElement) {
@@ -51,16 +65,194 @@ public class TransitionNetwork {
 			return this.finalStateId;
 		}
 
-		return this.states.find(stateElement, this.stateComparator);
+		this.indexStates();
+		Integer index = this.stateIndices.get(stateElement.state);
+		return index == null ? -1 : index;
 	}
 
 	public int addSuffixElement(SuffixElement suffixElement) {
-		int index = this.suffixes.find(suffixElement, this.suffixComparator);
-		if (index < 0) {
-			this.suffixes.add(suffixElement);
-			index = this.suffixes.size() - 1;
+		this.indexSuffixes();
+		int hash = this.spanHash(suffixElement);
+		int mask = this.suffixTable.length - 1;
+		for (int slot = hash & mask; this.suffixTable[slot] >= 0; slot = (slot + 1) & mask) {
+			int id = this.suffixTable[slot];
+			if (this.suffixHashes[id] == hash
+					&& this.suffixComparator.compare(this.suffixes.get(id), suffixElement) == 0) {
+				return id;
+			}
+		}
+		this.suffixes.add(suffixElement);
+		this.indexSuffixes();
+		return this.suffixes.size() - 1;
+	}
+
+	// adds the states not yet indexed to the index, keeping the first of
+	// several states with the same number (as a linear search would find it)
+	private void indexStates() {
+		for (; this.indexedStates < this.states.size(); this.indexedStates++) {
+			StateElement state = this.states.get(this.indexedStates);
+			if (!this.stateIndices.containsKey(state.state)) {
+				this.stateIndices.put(state.state, this.indexedStates);
+			}
+		}
+	}
+
+	// adds the suffixes not yet indexed to the hash table
+	private void indexSuffixes() {
+		for (; this.indexedSuffixes < this.suffixes.size(); this.indexedSuffixes++) {
+			int id = this.indexedSuffixes;
+			if (id == this.suffixHashes.length) {
+				this.suffixHashes = Arrays.copyOf(this.suffixHashes, 2 * id);
+			}
+			this.suffixHashes[id] = this.spanHash(this.suffixes.get(id));
+
+			// keep the table at most half full
+			if (2 * (id + 1) > this.suffixTable.length) {
+				this.suffixTable = new int[2 * this.suffixTable.length];
+				Arrays.fill(this.suffixTable, -1);
+				for (int other = 0; other < id; other++) {
+					this.insertSuffix(other);
+				}
+			}
+			this.insertSuffix(id);
+		}
+	}
+
+	// puts the suffix into the hash table, unless an equal one is there
+	private void insertSuffix(int id) {
+		int mask = this.suffixTable.length - 1;
+		int slot = this.suffixHashes[id] & mask;
+		for (; this.suffixTable[slot] >= 0; slot = (slot + 1) & mask) {
+			int other = this.suffixTable[slot];
+			if (this.suffixHashes[other] == this.suffixHashes[id]
+					&& this.suffixComparator.compare(this.suffixes.get(other), this.suffixes.get(id)) == 0) {
+				return;
+			}
+		}
+		this.suffixTable[slot] = id;
+	}
+
+	// hash of the text the suffix spans
+	private int spanHash(SuffixElement suffixElement) {
+		int hash = 0;
+		for (int i = suffixElement.start; i < suffixElement.end; i++) {
+			hash = 31 * hash + this.text[i];
+		}
+		// spread the bits, as the table is indexed by the lower ones
+		hash *= 0x9e3779b9;
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Merges equivalent states, i.e. states from which the same suffixes lead
+	 * to equivalent states. The equivalence classes are found by partition
+	 * refinement: starting from a single class, states are split by the
+	 * classes their transitions lead to until no class splits any more.
+	 * 
+	 * Each class is kept as its first state, with the transitions of that
+	 * state leading to the kept states. The ids of the states change
+	 * accordingly, StateElements obtained before are not part of the network
+	 * any more.
+	 * 
+	 * @return the amount of states removed
+	 */
+	public int minimize() {
+		final int n = this.states.size();
+		int[] classes = new int[n];
+		int classCount = 1;
+
+		while (true) {
+			// signature of each state: its class and the (suffix, class)
+			// pairs of its transitions, the final state being class -1
+			Map<Signature, Integer> signatureClasses = new HashMap<Signature, Integer>();
+			int[] refined = new int[n];
+			for (int i = 0; i < n; i++) {
+				TNArrayList<StateTransitionElement> transitions = this.states.get(i).toStateTransitions;
+				long[] pairs = new long[transitions.size()];
+				for (int j = 0; j < pairs.length; j++) {
+					StateTransitionElement transition = transitions.get(j);
+					int toClass = transition.toStateElement == this.finalStateId ? -1
+							: classes[transition.toStateElement];
+					pairs[j] = ((long) transition.toSuffixElement << 32) | (toClass & 0xffffffffL);
+				}
+				Arrays.sort(pairs);
+				Signature signature = new Signature(classes[i], pairs);
+				Integer refinedClass = signatureClasses.get(signature);
+				if (refinedClass == null) {
+					refinedClass = signatureClasses.size();
+					signatureClasses.put(signature, refinedClass);
+				}
+				refined[i] = refinedClass;
+			}
+			classes = refined;
+			if (signatureClasses.size() == classCount) {
+				break;
+			}
+			classCount = signatureClasses.size();
+		}
+
+		// the classes are numbered in order of their first state
+		int[] firstStates = new int[classCount];
+		Arrays.fill(firstStates, -1);
+		for (int i = 0; i < n; i++) {
+			if (firstStates[classes[i]] < 0) {
+				firstStates[classes[i]] = i;
+			}
+		}
+
+		TNArrayList<StateElement> minimized = new TNArrayList<StateElement>();
+		for (int c = 0; c < classCount; c++) {
+			StateElement first = this.states.get(firstStates[c]);
+			StateElement state = new StateElement(first.state);
+			for (StateTransitionElement transition : first.toStateTransitions) {
+				StateTransitionElement newTransition = new StateTransitionElement();
+				newTransition.toSuffixElement = transition.toSuffixElement;
+				newTransition.toStateElement = transition.toStateElement == this.finalStateId ? this.finalStateId
+						: classes[transition.toStateElement];
+				state.toStateTransitions.add(newTransition);
+			}
+			minimized.add(state);
+		}
+
+		// the root state is the one kept for its class
+		if (this.rootStateId != null) {
+			this.indexStates();
+			Integer root = this.stateIndices.get(this.rootStateId);
+			if (root != null) {
+				this.rootStateId = minimized.get(classes[root]).state;
+			}
+		}
+
+		this.states = minimized;
+		this.stateIndices.clear();
+		this.indexedStates = 0;
+		return n - classCount;
+	}
+
+	// key for the classes of states during minimization
+	private static class Signature {
+		private final int stateClass;
+		private final long[] transitions;
+		private final int hash;
+
+		private Signature(int stateClass, long[] transitions) {
+			this.stateClass = stateClass;
+			this.transitions = transitions;
+			this.hash = 31 * stateClass + Arrays.hashCode(transitions);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Signature))
+				return false;
+			Signature other = (Signature) obj;
+			return this.stateClass == other.stateClass && Arrays.equals(this.transitions, other.transitions);
 		}
-		return index;
 	}
 
 	public SuffixElement getSuffixElement(int id) {
@@ -92,10 +284,16 @@ public class TransitionNetwork {
 	}
 
 	public void writeSuffixes(OutputPort out) throws IOException {
-		out.outputToAllCharPipes("writeSuffixes\n");
+		Writer writer = new OutputPortWriter(out);
+		this.writeSuffixes(writer);
+		writer.close();
+	}
+
+	private void writeSuffixes(Writer out) throws IOException {
+		out.write("writeSuffixes\n");
 		for (int i = 0; i < this.suffixes.size(); i++) {
 			SuffixElement e = (SuffixElement) this.suffixes.get(i);
-			out.outputToAllCharPipes(e.writeSuffix(text, this.inverted) + "\n");
+			out.write(e.writeSuffix(text, this.inverted) + "\n");
 		}
 
 	}
@@ -105,20 +303,21 @@ public class TransitionNetwork {
 			return;
 		}
 
-		out.outputToAllCharPipes("writeTN\n");
-		this.writeSuffixes(out);
-		out.outputToAllCharPipes("writeStates\n");
+		Writer writer = new OutputPortWriter(out);
+		writer.write("writeTN\n");
+		this.writeSuffixes(writer);
+		writer.write("writeStates\n");
 		for (int i = 0; i < this.states.size(); i++) {
 			StateElement stateElement = this.states.get(i);
-			out.outputToAllCharPipes("Line: " + i + "  " + "State(Element)(Node): " + stateElement.state + "\n");
+			writer.write("Line: " + i + "  " + "State(Element)(Node): " + stateElement.state + "\n");
 			for (int j = 0; j < stateElement.toStateTransitions.size(); j++) {
 				StateTransitionElement stateTransitionElement = stateElement.toStateTransitions.get(j);
-				out.outputToAllCharPipes(
-						"		StateTransitionElement: " + stateTransitionElement.toStateElement + "  ");
+				writer.write("		StateTransitionElement: " + stateTransitionElement.toStateElement + "  ");
 				SuffixElement suffixElement = this.suffixes.get(stateTransitionElement.toSuffixElement);
-				out.outputToAllCharPipes(suffixElement.writeSuffix(text, this.inverted) + "\n");
+				writer.write(suffixElement.writeSuffix(text, this.inverted) + "\n");
 			}
 		}
+		writer.close();
 	}
 
 	public void writeRows() {
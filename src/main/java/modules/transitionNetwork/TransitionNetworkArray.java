@@ -1,18 +1,47 @@
 package modules.transitionNetwork;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.TreeMap;
 
 /**
- * A class that implements a transition network as a 2-dimensional array over
- * states and labels.
+ * A class that implements a transition network over states and labels.
+ *
+ * Only the transitions that exist are stored: each state keeps the ids of the
+ * labels it has transitions for in ascending order, together with the target
+ * states of these transitions, so that a transition is looked up by binary
+ * search. The rows of the states grow as transitions are added, so the network
+ * can be built incrementally without knowing its size in advance.
+ *
+ * A path ends by a transition to the final state. If a path ends at a state
+ * that other paths lead through (e.g. "geh" besides "geh|en"), the state is
+ * marked as accepting instead.
+ *
+ * Networks can be written to and read from a compact binary format (see
+ * {@link #write(OutputStream)}), that stores the transitions in compressed
+ * sparse rows.
  */
 public class TransitionNetworkArray {
 
-	private final int[][] network;
+	// identifies the binary format
+	private static final int MAGIC = 0x544e4132; // "TNA2"
 
-	private final String[] transitions;
+	private static final int INITIAL_CAPACITY = 16;
+
+	// per state: ids of the labels with transitions (ascending) and targets
+	private int[][] rowLabels;
+	private int[][] rowTargets;
+	private int[] rowLengths;
+
+	// per state: whether paths end at the state
+	private boolean[] accepting;
+
+	private String[] transitions;
 
 	private final Map<String, Integer> transitionIndices;
 
@@ -28,17 +57,38 @@ public class TransitionNetworkArray {
 
 	private static final int INVALID_STATE = -1;
 
+	/**
+	 * Creates a network without limits on the amount of states and labels.
+	 */
+	public TransitionNetworkArray() {
+		this(FINAL_STATE - 1, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Creates a network with limits on the amount of states and labels. The
+	 * memory needed depends on the transitions actually added, not on the
+	 * limits.
+	 *
+	 * @param maxStates
+	 *            Maximum amount of states besides the initial and final state
+	 * @param maxTransitions
+	 *            Maximum amount of distinct labels
+	 */
 	public TransitionNetworkArray(int maxStates, int maxTransitions) {
 		if (maxStates < 1 || maxTransitions < 1) {
 			throw new IllegalArgumentException("Dimensions of states or labels must be > 0");
 		}
-
-		// intialize the main network's array to the invalid state
-		this.network = new int[maxStates][maxTransitions];
-		for (int i = 0; i < maxStates; i++) {
-			Arrays.fill(network[i], INVALID_STATE);
+		if (maxStates >= FINAL_STATE) {
+			throw new IllegalArgumentException("Dimension of states must be < " + FINAL_STATE);
 		}
-		this.transitions = new String[maxTransitions];
+
+		// rows are allocated as states get transitions
+		int capacity = Math.min(INITIAL_CAPACITY, maxStates + 1);
+		this.rowLabels = new int[capacity][];
+		this.rowTargets = new int[capacity][];
+		this.rowLengths = new int[capacity];
+		this.accepting = new boolean[capacity];
+		this.transitions = new String[Math.min(INITIAL_CAPACITY, maxTransitions)];
 
 		// keep max values for bound's checks
 		this.maxStates = maxStates;
@@ -49,30 +99,76 @@ public class TransitionNetworkArray {
 		this.transitionsAmount = 0;
 
 		// keep a register of transition strings to their index
-		this.transitionIndices = new TreeMap<>();
+		this.transitionIndices = new HashMap<>();
 	}
 
+	/**
+	 * Adds a transition to a new state. If the transition led to the final
+	 * state before, the new state is accepting.
+	 *
+	 * @param fromState
+	 *            The state to add the transition to
+	 * @param transition
+	 *            The label of the transition
+	 * @return The new state
+	 */
 	public int addTransitionToNewState(int fromState, String transition) {
-		if (!stateExists(fromState)) {
+		if (!stateExists(fromState) || fromState == FINAL_STATE) {
 			throw new IllegalArgumentException("State " + fromState + " does not exist.");
 		}
 
 		int transitionIdx = getOrAddTransitionIndex(transition);
+		boolean ended = (getTransition(fromState, transitionIdx) == FINAL_STATE);
 		int toState = incrementStatesAmount();
-		network[fromState][transitionIdx] = toState;
+		setTransition(fromState, transitionIdx, toState);
+		if (ended) {
+			setAccepting(toState);
+		}
 
 		return toState;
 	}
 
+	/**
+	 * Adds a transition to the final state. If the transition already leads to
+	 * another state, that state becomes accepting instead.
+	 *
+	 * @param fromState
+	 *            The state to add the transition to
+	 * @param transition
+	 *            The label of the transition
+	 * @return The state the transition leads to
+	 */
 	public int addTransitionToFinalState(int fromState, String transition) {
-		if (!stateExists(fromState)) {
+		if (!stateExists(fromState) || fromState == FINAL_STATE) {
 			throw new IllegalArgumentException("State " + fromState + " does not exist.");
 		}
 
 		int transitionIdx = getOrAddTransitionIndex(transition);
-		network[fromState][transitionIdx] = FINAL_STATE;
+		int toState = getTransition(fromState, transitionIdx);
+		if (toState == INVALID_STATE || toState == FINAL_STATE) {
+			setTransition(fromState, transitionIdx, FINAL_STATE);
+			return FINAL_STATE;
+		}
+		setAccepting(toState);
 
-		return FINAL_STATE;
+		return toState;
+	}
+
+	/**
+	 * @param state
+	 *            A state
+	 * @return Whether paths end at the state (always true for the final state)
+	 */
+	public boolean isAccepting(int state) {
+		if (!stateExists(state)) {
+			throw new IllegalArgumentException("State does not exist: " + state);
+		}
+		return state == FINAL_STATE || (state < accepting.length && accepting[state]);
+	}
+
+	private void setAccepting(int state) {
+		ensureStateCapacity(state + 1);
+		accepting[state] = true;
 	}
 
 	public void addPath(String[] path) {
@@ -80,19 +176,21 @@ public class TransitionNetworkArray {
 		Integer transitionIdx;
 		int idx = 0;
 
-		// follow the path as long as possible
-		for (; idx < path.length; idx++) {
+		// follow the path as long as possible (the last element always leads
+		// to the final state)
+		for (; idx < path.length - 1; idx++) {
 			transitionIdx = transitionIndices.get(path[idx]);
+			int next = (transitionIdx == null) ? INVALID_STATE : getTransition(state, transitionIdx);
 
-			if (transitionIdx == null || network[state][transitionIdx] == INVALID_STATE) {
+			if (next == INVALID_STATE || next == FINAL_STATE) {
 				break;
 			} else {
-				state = network[state][transitionIdx];
-				idx += 1;
+				state = next;
 			}
 		}
 
-		// for the rest of the path (minus the last element) add new transitions
+		// for the rest of the path (minus the last element) add new transitions,
+		// a transition to the final state is continued by an accepting state
 		for (; idx < path.length - 1; idx++) {
 			state = addTransitionToNewState(state, path[idx]);
 		}
@@ -101,10 +199,82 @@ public class TransitionNetworkArray {
 		addTransitionToFinalState(state, path[path.length - 1]);
 	}
 
+	/**
+	 * @param state
+	 *            A state
+	 * @param transition
+	 *            A label
+	 * @return The state reached from the given one by the label, the invalid
+	 *         state if there is no such transition
+	 */
+	public int getTransition(int state, String transition) {
+		if (!stateExists(state)) {
+			throw new IllegalArgumentException("State does not exist: " + state);
+		}
+		Integer transitionIdx = transitionIndices.get(transition);
+		return (transitionIdx == null) ? INVALID_STATE : getTransition(state, transitionIdx);
+	}
+
+	// the target of the transition, INVALID_STATE if there is none
+	private int getTransition(int state, int transitionIdx) {
+		if (state == FINAL_STATE || state >= rowLengths.length) {
+			return INVALID_STATE;
+		}
+		int pos = findTransition(state, transitionIdx);
+		return (pos < 0) ? INVALID_STATE : rowTargets[state][pos];
+	}
+
+	// position of the label in the state's row as by Arrays.binarySearch()
+	private int findTransition(int state, int transitionIdx) {
+		if (rowLengths[state] == 0) {
+			return -1;
+		}
+		return Arrays.binarySearch(rowLabels[state], 0, rowLengths[state], transitionIdx);
+	}
+
+	// sets (or replaces) the target of a transition, keeping the row sorted
+	private void setTransition(int state, int transitionIdx, int toState) {
+		ensureStateCapacity(state + 1);
+		int pos = findTransition(state, transitionIdx);
+		if (pos >= 0) {
+			rowTargets[state][pos] = toState;
+			return;
+		}
+		pos = -(pos + 1);
+
+		int length = rowLengths[state];
+		if (rowLabels[state] == null) {
+			rowLabels[state] = new int[2];
+			rowTargets[state] = new int[2];
+		} else if (length == rowLabels[state].length) {
+			rowLabels[state] = Arrays.copyOf(rowLabels[state], 2 * length);
+			rowTargets[state] = Arrays.copyOf(rowTargets[state], 2 * length);
+		}
+		System.arraycopy(rowLabels[state], pos, rowLabels[state], pos + 1, length - pos);
+		System.arraycopy(rowTargets[state], pos, rowTargets[state], pos + 1, length - pos);
+		rowLabels[state][pos] = transitionIdx;
+		rowTargets[state][pos] = toState;
+		rowLengths[state] = length + 1;
+	}
+
+	private void ensureStateCapacity(int capacity) {
+		if (capacity > rowLengths.length) {
+			int newCapacity = (int) Math.min((long) maxStates + 1, Math.max(capacity, 2L * rowLengths.length));
+			rowLabels = Arrays.copyOf(rowLabels, newCapacity);
+			rowTargets = Arrays.copyOf(rowTargets, newCapacity);
+			rowLengths = Arrays.copyOf(rowLengths, newCapacity);
+			accepting = Arrays.copyOf(accepting, newCapacity);
+		}
+	}
+
 	private int getOrAddTransitionIndex(String transition) {
 		Integer idx = transitionIndices.get(transition);
 		if (idx == null) {
 			idx = incrementTransitionsAmount() - 1;
+			if (idx == transitions.length) {
+				transitions = Arrays.copyOf(transitions,
+						(int) Math.min((long) maxTransitions, 2L * transitions.length));
+			}
 			transitions[idx] = transition;
 			transitionIndices.put(transition, idx);
 		}
@@ -146,18 +316,19 @@ public class TransitionNetworkArray {
 		if (!stateExists(state)) {
 			throw new IllegalArgumentException("State does not exist: " + state);
 		}
-		int result = 0;
-		
-		for (int i = 0; i < transitionsAmount; i++) {
-			switch (network[state][i]) {
-			case INVALID_STATE:
-				break;
-			case FINAL_STATE:
+		// the final state has no transitions
+		if (state == FINAL_STATE || state >= rowLengths.length) {
+			return 0;
+		}
+
+		// a path ending at the state counts like a transition to the final state
+		int result = accepting[state] ? 1 : 0;
+		for (int i = 0; i < rowLengths[state]; i++) {
+			int target = rowTargets[state][i];
+			if (target == FINAL_STATE) {
 				result += 1;
-				break;
-			default:
-				result += countSubStates(network[state][i]);
-				break;
+			} else {
+				result += countSubStates(target);
 			}
 		}
 
@@ -177,18 +348,20 @@ public class TransitionNetworkArray {
 		for (int i = 0; i <= statesAmount; i++) {
 			sb.append('S');
 			sb.append(i);
+			if (i < accepting.length && accepting[i]) {
+				sb.append('*');
+			}
 			sb.append(": ");
-			for (int j = 0; j < transitionsAmount; j++) {
-				if (network[i][j] != INVALID_STATE) {
-					sb.append(transitions[j]);
-					sb.append(" => S");
-					if (network[i][j] == FINAL_STATE) {
-						sb.append('F');
-					} else {
-						sb.append(network[i][j]);
-					}
-					sb.append(", ");
+			int length = (i < rowLengths.length) ? rowLengths[i] : 0;
+			for (int j = 0; j < length; j++) {
+				sb.append(transitions[rowLabels[i][j]]);
+				sb.append(" => S");
+				if (rowTargets[i][j] == FINAL_STATE) {
+					sb.append('F');
+				} else {
+					sb.append(rowTargets[i][j]);
 				}
+				sb.append(", ");
 			}
 			sb.setLength(sb.length() - 2);
 			sb.append('\n');
@@ -197,6 +370,149 @@ public class TransitionNetworkArray {
 		return sb.toString();
 	}
 
+	/**
+	 * Writes the network in a binary format: the labels, followed by the
+	 * transitions of all states as compressed sparse rows (the offset of each
+	 * state's row, then the label ids and target states of all rows) and the
+	 * accepting states. The stream is not closed.
+	 *
+	 * @param out
+	 *            Stream to write to
+	 * @throws IOException
+	 *             If writing fails
+	 * @see #read(InputStream)
+	 */
+	public void write(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(maxStates);
+		data.writeInt(maxTransitions);
+
+		data.writeInt(transitionsAmount);
+		for (int i = 0; i < transitionsAmount; i++) {
+			data.writeUTF(transitions[i]);
+		}
+
+		data.writeInt(statesAmount);
+		int offset = 0;
+		for (int i = 0; i <= statesAmount; i++) {
+			data.writeInt(offset);
+			offset += (i < rowLengths.length) ? rowLengths[i] : 0;
+		}
+		data.writeInt(offset);
+		for (int i = 0; i <= statesAmount && i < rowLengths.length; i++) {
+			for (int j = 0; j < rowLengths[i]; j++) {
+				data.writeInt(rowLabels[i][j]);
+			}
+		}
+		for (int i = 0; i <= statesAmount && i < rowLengths.length; i++) {
+			for (int j = 0; j < rowLengths[i]; j++) {
+				data.writeInt(rowTargets[i][j]);
+			}
+		}
+		int acceptingAmount = 0;
+		for (int i = 0; i <= statesAmount && i < accepting.length; i++) {
+			acceptingAmount += accepting[i] ? 1 : 0;
+		}
+		data.writeInt(acceptingAmount);
+		for (int i = 0; i <= statesAmount && i < accepting.length; i++) {
+			if (accepting[i]) {
+				data.writeInt(i);
+			}
+		}
+		data.flush();
+	}
+
+	/**
+	 * Reads a network written by {@link #write(OutputStream)}. The stream is
+	 * not closed.
+	 *
+	 * @param in
+	 *            Stream to read from
+	 * @return The network
+	 * @throws IOException
+	 *             If reading fails or the data is not a valid network
+	 */
+	public static TransitionNetworkArray read(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		int magic = data.readInt();
+		if (magic != MAGIC) {
+			throw new IOException("Not a transition network.");
+		}
+		TransitionNetworkArray network;
+		try {
+			network = new TransitionNetworkArray(data.readInt(), data.readInt());
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid dimensions of the transition network.", e);
+		}
+
+		int transitionsAmount = data.readInt();
+		if (transitionsAmount < 0 || transitionsAmount > network.maxTransitions) {
+			throw new IOException("Invalid amount of labels: " + transitionsAmount);
+		}
+		network.transitions = new String[Math.max(1, transitionsAmount)];
+		for (int i = 0; i < transitionsAmount; i++) {
+			String transition = data.readUTF();
+			network.transitions[i] = transition;
+			network.transitionIndices.put(transition, i);
+		}
+		network.transitionsAmount = transitionsAmount;
+
+		int statesAmount = data.readInt();
+		if (statesAmount < 0 || statesAmount > network.maxStates) {
+			throw new IOException("Invalid amount of states: " + statesAmount);
+		}
+		int[] offsets = new int[statesAmount + 2];
+		for (int i = 0; i < offsets.length; i++) {
+			offsets[i] = data.readInt();
+			if (offsets[i] < (i == 0 ? 0 : offsets[i - 1])) {
+				throw new IOException("Invalid offset of state " + i + ": " + offsets[i]);
+			}
+		}
+		int[] labels = new int[offsets[statesAmount + 1]];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = data.readInt();
+			if (labels[i] < 0 || labels[i] >= transitionsAmount) {
+				throw new IOException("Invalid label id: " + labels[i]);
+			}
+		}
+		int[] targets = new int[labels.length];
+		for (int i = 0; i < targets.length; i++) {
+			targets[i] = data.readInt();
+			if (targets[i] != FINAL_STATE && (targets[i] <= INITIAL_STATE || targets[i] > statesAmount)) {
+				throw new IOException("Invalid target state: " + targets[i]);
+			}
+		}
+
+		network.statesAmount = statesAmount;
+		network.ensureStateCapacity(statesAmount + 1);
+		for (int i = 0; i <= statesAmount; i++) {
+			int length = offsets[i + 1] - offsets[i];
+			// rows without transitions are allocated once they get some
+			network.rowLabels[i] = (length == 0) ? null : Arrays.copyOfRange(labels, offsets[i], offsets[i + 1]);
+			network.rowTargets[i] = (length == 0) ? null : Arrays.copyOfRange(targets, offsets[i], offsets[i + 1]);
+			network.rowLengths[i] = length;
+			for (int j = 1; j < length; j++) {
+				if (network.rowLabels[i][j - 1] >= network.rowLabels[i][j]) {
+					throw new IOException("Labels of state " + i + " are not sorted.");
+				}
+			}
+		}
+
+		int acceptingAmount = data.readInt();
+		if (acceptingAmount < 0 || acceptingAmount > statesAmount + 1) {
+			throw new IOException("Invalid amount of accepting states: " + acceptingAmount);
+		}
+		for (int i = 0; i < acceptingAmount; i++) {
+			int state = data.readInt();
+			if (state < INITIAL_STATE || state > statesAmount) {
+				throw new IOException("Invalid accepting state: " + state);
+			}
+			network.accepting[state] = true;
+		}
+		return network;
+	}
+
 	public int getStatesAmount() {
 		return statesAmount;
 	}
@@ -254,12 +570,34 @@ public class TransitionNetworkArray {
 
 		void helpCompare(int stateOne, int stateTwo) {
 
-			int transOne;
-			int transTwo;
+			// paths ending at the states count like transitions to the final
+			// state
+			boolean acceptingOne = stateOne != FINAL_STATE && isAccepting(stateOne);
+			boolean acceptingTwo = stateTwo != FINAL_STATE && isAccepting(stateTwo);
+			if (acceptingOne && acceptingTwo) {
+				match += 2;
+			} else if (acceptingOne || acceptingTwo) {
+				noMatch += 1;
+			}
 
-			for (int i = 0; i < transitionsAmount; i++) {
-				transOne = network[stateOne][i];
-				transTwo = network[stateTwo][i];
+			int lengthOne = rowLength(stateOne);
+			int lengthTwo = rowLength(stateTwo);
+			int i = 0;
+			int j = 0;
+
+			// merge the sorted rows of both states, labels missing in a row
+			// count as transitions to the invalid state
+			while (i < lengthOne || j < lengthTwo) {
+				int labelOne = (i < lengthOne) ? rowLabels[stateOne][i] : Integer.MAX_VALUE;
+				int labelTwo = (j < lengthTwo) ? rowLabels[stateTwo][j] : Integer.MAX_VALUE;
+				int transOne = INVALID_STATE;
+				int transTwo = INVALID_STATE;
+				if (labelOne <= labelTwo) {
+					transOne = rowTargets[stateOne][i++];
+				}
+				if (labelTwo <= labelOne) {
+					transTwo = rowTargets[stateTwo][j++];
+				}
 
 				if (transOne != transTwo) {
 					// if the transitions do not match simply count their
@@ -274,12 +612,9 @@ public class TransitionNetworkArray {
 					}
 				} else {
 					// in case of a match, check what the match consist in.
-					// Invalid States do not count towards anything. Final
-					// states count and terminate the search. Other matches
-					// count and let the search recurse.
+					// Final states count and terminate the search. Other
+					// matches count and let the search recurse.
 					switch (transOne) {
-					case INVALID_STATE:
-						break;
 					case FINAL_STATE:
 						match += 2;
 						break;
@@ -291,6 +626,10 @@ public class TransitionNetworkArray {
 				}
 			}
 		}
+
+		int rowLength(int state) {
+			return (state == FINAL_STATE || state >= rowLengths.length) ? 0 : rowLengths[state];
+		}
 	}
 
 }
@@ -29,11 +29,21 @@ public class BaseSuffixTree {
 	
 	int active_node, active_length, active_edge;
 	
-	// An end to keep track of all node's end positions while setting a single
-	// text when this is used as a generalised suffix tree.
-	private NodePositionEnd end;
+	// Ends to keep track of all node's end positions while setting a single
+	// text when this is used as a generalised suffix tree, one for each text.
+	// Nodes reference them by index (see getOpenEndRef()).
+	private List<NodePositionEnd> ends = new ArrayList<NodePositionEnd>();
 	
+	// Initial text capacity used if the input length is not known in advance
+	public static final int DEFAULT_CAPACITY = 1024;
+	
+	public BaseSuffixTree() {
+		this(DEFAULT_CAPACITY);
+	}
+	
+	// length is the expected input length; text and nodes grow on demand if it is exceeded
 	public BaseSuffixTree(int length) {
+		length = Math.max(length, 1);
 		nodes = new Node[2 * length + 2];
 		text = new char[length];
 		root = active_node = newNode(-1, -1, 0, NO_TYPE_CONTEXT);
@@ -42,6 +52,9 @@ public class BaseSuffixTree {
 	}
 	
 	int newNode(int start, int end, int nrText, int typeContextNr) {
+		if (currentNode + 1 >= nodes.length) {
+			nodes = Arrays.copyOf(nodes, 2 * nodes.length);
+		}
 		nodes[++currentNode] = new Node(start, end, nrText, typeContextNr, this);
 		return currentNode;
 	}
@@ -76,11 +89,11 @@ public class BaseSuffixTree {
 		for (int i=position-remainder+1;i<=position;i++){
 			pos=i;
 			while (pos<=position) {
-				if (!nodes[next].next.containsKey(this.text[pos]))  {
+				if (nodes[next].child(this.text[pos]) < 0)  {
 					throw new IllegalStateException("addRemaining Error");
 				}
 				else {
-					next = nodes[next].next.get(this.text[pos]);
+					next = nodes[next].child(this.text[pos]);
 					pos+=nodes[next].edgeLength(this);
 				}
 			
@@ -92,16 +105,35 @@ public class BaseSuffixTree {
 		}// for
 	}
 
+	// append a char to the text without inserting its suffixes, used by the GST
+	// for chars already contained in the tree via longestPath()
+	void appendText(char ch) {
+		if (position + 1 >= text.length) {
+			text = Arrays.copyOf(text, 2 * text.length);
+		}
+		text[++position] = ch;
+	}
+	
+	// release the capacity reserved beyond the text and nodes actually used
+	void trimToSize() {
+		if (text.length > position + 1) {
+			text = Arrays.copyOf(text, position + 1);
+		}
+		if (nodes.length > currentNode + 1) {
+			nodes = Arrays.copyOf(nodes, currentNode + 1);
+		}
+	}
+
 	public void addChar(char ch, int nrText) throws Exception {
-		this.text[++position] = ch;
+		appendText(ch);
 		needSuffixLink = -1;
 		remainder++;
 		while (remainder > 0) {
 			if (active_length == 0)
 				active_edge = position;
-			if (!nodes[active_node].next.containsKey(active_edge())) {
+			if (nodes[active_node].child(active_edge()) < 0) {
 				int leaf = newNode(position, oo, nrText, currentTypeContext);
-				nodes[active_node].next.put(active_edge(), leaf);
+				nodes[active_node].putChild(active_edge(), leaf);
 				addSuffixLink(active_node);  
 				/* rule 2:
 				If we create a new internal node OR make an inserter from an internal node, 
@@ -109,7 +141,7 @@ public class BaseSuffixTree {
 				then we link the previous SUCH node with THIS one through a suffix link.
 				*/
 			} else {
-				int next = nodes[active_node].next.get(active_edge());
+				int next = nodes[active_node].child(active_edge());
 				if (walkDown(next)) {
 					continue; /* observation 2:
 						If at some point active_length is greater or equal to the length of 
@@ -143,13 +175,13 @@ public class BaseSuffixTree {
 					break;
 				}
 				int split = newNode(nodes[next].getStart(0), nodes[next].getStart(0) + active_length, nrText, currentTypeContext);
-				nodes[active_node].next.put(active_edge(), split);
+				nodes[active_node].putChild(active_edge(), split);
 
 				int leaf = newNode(position, oo, nrText, currentTypeContext);
-				nodes[split].next.put(ch, leaf);
+				nodes[split].putChild(ch, leaf);
 				nodes[next].updateStartPositions(active_length);
 
-				nodes[split].next.put(this.text[nodes[next].getStart(0)], next);
+				nodes[split].putChild(this.text[nodes[next].getStart(0)], next);
 				addSuffixLink(split); 
 				/* rule 2:
 				 If we create a new internal node OR make an inserter from an internal node, 
@@ -215,8 +247,8 @@ public class BaseSuffixTree {
 		int localActiveEdge=0;int i=0;
 		for (i=0;i<nextText.length();i++){
 			// find edge
-			if (nodes[node].next.containsKey(nextText.charAt(i))){
-				int child_node = this.nodes[node].next.get(nextText.charAt(i));
+			int child_node = this.nodes[node].child(nextText.charAt(i));
+			if (child_node >= 0){
 				localActiveEdge=0;
 				// compare edge
 				int pos=i+1;// pos is index for position in nextText
@@ -429,15 +461,38 @@ public class BaseSuffixTree {
 	 * @return the NodePositionEnd created as the new end.
 	 */
 	protected NodePositionEnd newEnd() {
-		this.end = new NodePositionEnd(BaseSuffixTree.oo);
-		return this.end;
+		final NodePositionEnd end = new NodePositionEnd(BaseSuffixTree.oo);
+		this.ends.add(end);
+		return end;
 	}
 	
 	/**
 	 * @return The NodePositionEnd used to set multiple node's ends when this is used as a GST.
 	 */
 	protected NodePositionEnd getEnd() {
-		return this.end;
+		return this.ends.isEmpty() ? null : this.ends.get(this.ends.size() - 1);
+	}
+	
+	/**
+	 * Returns the value nodes store as their end to refer to the current
+	 * NodePositionEnd. As real end values are never below -1, references
+	 * are encoded as negative values starting at -2.
+	 * 
+	 * @return the encoded reference or oo if no NodePositionEnd was created
+	 */
+	int getOpenEndRef() {
+		return this.ends.isEmpty() ? BaseSuffixTree.oo : -(this.ends.size() + 1);
+	}
+	
+	/**
+	 * Resolves an end value stored by a node.
+	 * 
+	 * @param end
+	 *            the stored end value, possibly a reference from getOpenEndRef()
+	 * @return the actual end value
+	 */
+	int resolveEnd(int end) {
+		return (end < -1) ? this.ends.get(-end - 2).val : end;
 	}
 
 } // class st	
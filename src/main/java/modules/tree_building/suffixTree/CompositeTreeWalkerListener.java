@@ -0,0 +1,64 @@
+package modules.tree_building.suffixTree;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Dispatches the TreeWalker's actions to several listeners, so that all of
+ * them can be served by a single traversal of the tree. On every node the
+ * listeners are called in the order they were added.
+ *
+ * Listeners based on AbstractResultNodeStackListener annotate the nodes
+ * (path length, leaves) while walking. As every such listener writes the
+ * same values, they may be combined freely.
+ */
+public class CompositeTreeWalkerListener implements ITreeWalkerListener {
+
+	private final List<ITreeWalkerListener> listeners = new ArrayList<ITreeWalkerListener>();
+
+	/**
+	 * Adds a listener to be called on every node.
+	 *
+	 * @param listener
+	 *            the listener to add
+	 * @return this composite, for chaining
+	 */
+	public CompositeTreeWalkerListener add(ITreeWalkerListener listener) {
+		if (listener == null) {
+			throw new NullPointerException("Cannot add null as a tree walker listener.");
+		}
+		this.listeners.add(listener);
+		return this;
+	}
+
+	/**
+	 * @return The listeners added, read-only.
+	 */
+	public List<ITreeWalkerListener> getListeners() {
+		return Collections.unmodifiableList(this.listeners);
+	}
+
+	/**
+	 * @return Whether no listener has been added.
+	 */
+	public boolean isEmpty() {
+		return this.listeners.isEmpty();
+	}
+
+	@Override
+	public void entryaction(int nodeNr, int level) throws IOException {
+		for (ITreeWalkerListener listener : this.listeners) {
+			listener.entryaction(nodeNr, level);
+		}
+	}
+
+	@Override
+	public void exitaction(int nodeNr, int level) throws IOException {
+		for (ITreeWalkerListener listener : this.listeners) {
+			listener.exitaction(nodeNr, level);
+		}
+	}
+
+}
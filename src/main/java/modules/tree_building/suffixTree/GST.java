@@ -3,6 +3,7 @@ package modules.tree_building.suffixTree;
 import java.io.*;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 
 public class GST {
@@ -10,15 +11,6 @@ public class GST {
 	// class should not be instantiated
 	private GST() {};
 	
-	//jr
-	private static int findChar(String str, int start, char wanted) {
-		for (int i = start; i < str.length(); i++) {
-			if (str.charAt(i) == wanted)
-				return i;
-		}
-		return -1;
-	}
-
 	// 
 	
 	public static SuffixTree buildGSTTEST(BufferedReader in, List<Integer> typeContextEndIndices) throws Exception {
@@ -46,22 +38,14 @@ public class GST {
 	}
 	
 	public static SuffixTree buildGST(BufferedReader in, List<Integer> typeContextEndIndices) throws Exception {
-		//JR test 16-09-29
-		System.out.println("SuffixTree");
 		
 		int nrText = 0;
-		 
-		String line,inText="",nextinText;		
-	   // BufferedReader in = new BufferedReader(inputReader);
-	    inText=in.readLine();
-	    while ((line=in.readLine())!=null) {
-	    	System.out.println("buildGST: "+line);
-	    	if(line.charAt(line.length()-1)=='$')inText=inText+line; else inText=inText+" "+line;
-	    }
-	    in.close();
-	    
-	   
-		SuffixTree st = new SuffixTree(inText.length());
+		
+		// the input is assembled while the tree is built, with the lookahead
+		// of one text needed after each '$'
+		final InputText inText = new InputText(in);
+		
+		SuffixTree st = new SuffixTree();
 		NodePositionEnd oo = st.newEnd();// end value for leaves; is changed if final '$' is reached
 									  // generate new st.OO for next text
 
@@ -75,14 +59,11 @@ public class GST {
 	    	st.incrementTypeContext();
 	    }
 		
-		for (int i = 0; i < inText.length(); i++) {
-			//JR test 16-09-29
-			//System.out.print(inText.charAt(i));
-			st.addChar(inText.charAt(i), nrText);
+		for (int i = 0; inText.hasNext(); i++) {
+			char ch = inText.next();
+			st.addChar(ch, nrText);
 			// while loop as completely repeated texts are possible
-			while(inText.charAt(i) == '$') {
-				//JR test  16-09-29
-				//System.out.println();
+			while(ch == '$') {
 				// set value for end in leaves
 				oo.val=i+1;
 				// generate new element for next text
@@ -90,7 +71,7 @@ public class GST {
 
 				nrText++;
 				// note the beginning of the whole next text in the tree
-				if (i != inText.length() - 1) {
+				if (inText.hasNext()) {
 					st.setTextBegin(nrText, i + 1);
 				}
 
@@ -99,29 +80,29 @@ public class GST {
 					incrementTypeContexts(st, typeContextEndIndices, nrText);
 				}
 
-				int end = findChar(inText, i + 1, '$');
+				String nextinText = inText.peekText();
 				// inText end not reached
-				if (end > i) {
-					nextinText = inText.substring(i + 1, end + 1);
+				if (nextinText != null) {
 					int res=st.longestPath(nextinText,st.root);
 					st.remainder=res; // see addChar, remainder corresponds 
 					//					 to longest length of label to implicit node
 					// chars from inText must be copied to st.text (=array of char) for identical longest path
-					for (int j=i+1;j<=i+res;j++)st.text[++st.position]=inText.charAt(j);
-					// print out for control
+					for (int j=0;j<res;j++)st.appendText(inText.next());
 					i=i+res;
 					
 					// res must be greater 0; otherwise endless while loop
-					if((res!=0)&& (inText.charAt(i)=='$')) {
+					if((res!=0)&& (nextinText.charAt(res-1)=='$')) {
 					// next text is completely contained in suffix tree (i.e. it is a complete repeat of a
 					// precedent text). In this case, addChar won't be called
 						st.addRemaining(nrText);
 					}else break;
 
-				} else break;// if end > i; inText end reached
+				} else break;// if nextinText != null; inText end reached
 			}// while
 
-		}// for (int i = 0; i < inText.length(); i++)
+		}// for (int i = 0; inText.hasNext(); i++)
+		in.close();
+		st.trimToSize();
 		
 		if(typeContextEndIndices != null && !typeContextEndIndices.isEmpty()) {
 			throw new IllegalStateException(
@@ -135,13 +116,11 @@ public class GST {
 
 	// Convenience method to build a GST for a String with the specified contexts. Multiple inputs should be separated by '$'. 
 	public static SuffixTree buildGST(String input, List<Integer> typeContextEndIndices) throws Exception {
-		System.out.println("SuffixTree buildGST 1");
 		return buildGST(new BufferedReader(new StringReader(input)), typeContextEndIndices);
 	}
 	
 	// Convenience method to build a GST for a String. Multiple inputs should be separated by '$'. 
 	public static SuffixTree buildGST(String input) throws Exception {
-		System.out.println("SuffixTree buildGST 2");
 		return buildGST(new BufferedReader(new StringReader(input)), null);
 	}
 	
@@ -160,6 +139,72 @@ public class GST {
 	}
 	
 	
+	/**
+	 * Assembles the input text line by line while it is consumed: Lines not
+	 * ending on '$' are joined to their predecessor by a blank. Only the part
+	 * of the input not yet consumed is held in memory.
+	 */
+	private static class InputText {
+		
+		private final BufferedReader in;
+		private final StringBuilder pending = new StringBuilder();
+		private int pendingPos = 0;
+		private boolean firstLine = true;
+		private boolean endReached = false;
+		
+		InputText(BufferedReader in) {
+			this.in = in;
+		}
+		
+		boolean hasNext() throws IOException {
+			while (this.pendingPos == this.pending.length()) {
+				if (!this.readLine())
+					return false;
+			}
+			return true;
+		}
+		
+		char next() throws IOException {
+			if (!this.hasNext())
+				throw new NoSuchElementException();
+			return this.pending.charAt(this.pendingPos++);
+		}
+		
+		// returns the unconsumed input up to and including the next '$' without
+		// consuming it or null if there is no further '$'
+		String peekText() throws IOException {
+			int searchPos = this.pendingPos;
+			while (true) {
+				for (; searchPos < this.pending.length(); searchPos++) {
+					if (this.pending.charAt(searchPos) == '$')
+						return this.pending.substring(this.pendingPos, searchPos + 1);
+				}
+				if (!this.readLine())
+					return null;
+			}
+		}
+		
+		private boolean readLine() throws IOException {
+			if (this.endReached)
+				return false;
+			final String line = this.in.readLine();
+			if (line == null) {
+				this.endReached = true;
+				return false;
+			}
+			// drop consumed input once it makes up most of the buffer
+			if (this.pendingPos > 8192 && this.pendingPos > this.pending.length() / 2) {
+				this.pending.delete(0, this.pendingPos);
+				this.pendingPos = 0;
+			}
+			if (!this.firstLine && (line.isEmpty() || line.charAt(line.length() - 1) != '$'))
+				this.pending.append(' ');
+			this.pending.append(line);
+			this.firstLine = false;
+			return true;
+		}
+	}
+	
 	public static void main(String... args) throws Exception {
 		BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
 	    System.out.print("Enter file name : ");
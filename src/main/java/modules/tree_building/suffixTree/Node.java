@@ -1,11 +1,14 @@
 package modules.tree_building.suffixTree;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.TreeMap;
 
 public class Node {
 
@@ -13,22 +16,42 @@ public class Node {
 	 * There is no need to create an "Edge" class. Information about the
 	 * edge is stored right in the node. [start; end) interval specifies
 	 * the edge, by which the node is connected to its parent node.
+	 *
+	 * To keep the memory footprint of large trees low, all data is held in
+	 * primitive fields and arrays: The first position is stored inline, any
+	 * further positions (of terminal nodes) in a packed int array. Children
+	 * are kept in two parallel arrays sorted by their edge's first char.
 	 */
 
+	// amount of ints used per position in morePositions
+	private static final int POSITION_FIELDS = 4;
+
 	int link;
 
-	// List that contains either the position of this node in one single text (inner node) or all
-	// positions of this node (terminal node)
-	private List<NodePosition> positions;
-	
-	// the edges to the next nodes (represented by a node nr in the tree)
-	TreeMap<Character, Integer> next = new TreeMap<Character, Integer>();
-	
+	// the tree this node belongs to, needed to resolve open ends
+	private final BaseSuffixTree tree;
+
+	// The first position of this node. If this is a terminal node, further
+	// positions are packed into morePositions as (start, end, textNr, typeContext).
+	// Ends below -1 reference the tree's open ends that are shared by all
+	// leaves of a text (see BaseSuffixTree.getOpenEndRef())
+	private int start;
+	private int end;
+	private int textNr;
+	private int typeContextNr;
+	private int[] morePositions = null;
+	private int positionsAmount = 0;
+
+	// the edges to the next nodes (represented by a node nr in the tree), sorted by edge begin
+	private char[] childChars = null;
+	private int[] childNodes = null;
+
 	// A data field that may be used by clients to link a node to all it's leaf nodes.
 	// This field is never used in the construction of the suffix tree and can
 	// be ignored for the simple purpose of building and using a suffix tree in a normal way.
-	private Set<Node> leaves = new HashSet<Node>();
-	
+	// Allocated on first access.
+	private Set<Node> leaves = null;
+
 	// A data field that may be used to set the length of the path up to this node.
 	// This field is never used in the construction of the suffix tree and can
 	// be ignored for the simple purpose of building and using a suffix tree in a normal way.
@@ -36,70 +59,106 @@ public class Node {
 
 	// cstr
 	public Node(int start, int end, int nr, int typeContextNr, BaseSuffixTree tree) {
-		this.positions=new ArrayList<NodePosition>(1);
+		this.tree = tree;
 		this.addPos(start, end, nr, typeContextNr, tree);
 	}// Node
-	
+
 	public boolean isTerminal() {
-		return ((this.next==null) || (this.next.size()==0));
+		return this.childChars == null;
 	}
-	
+
 	// How positions are kept track of is hidden from the client. This methods adds new
-	// NodePosition elements and decides what End the current position should be set to
+	// positions and decides what End the current position should be set to
 	void addPos(int start,int end, int textNr, int typeContext, BaseSuffixTree tree){
 		// make sure that the position added is never equal to the last position set
 		if (this.getPositionsAmount() > 0){
 			int lastPos = this.getPositionsAmount() - 1;
-			if ((this.getStart(lastPos) == start) && (this.getEnd(lastPos) == end) 
+			if ((this.getStart(lastPos) == start) && (this.getEnd(lastPos) == end)
 					&& (this.getTextNr(lastPos) == textNr)) {
 				throw new IllegalStateException("addPos equal entry start: " + start + " end: " + end + " textNr: " + textNr);
 			}
 		}
-		// decied which end value is to be used
-		final NodePositionEnd endPosition;
+		// decide which end value is to be used
+		final int endValue;
 		if (end==BaseSuffixTree.oo) {
-			endPosition = tree.getEnd();
+			endValue = tree.getOpenEndRef();
 		} else {
-			endPosition = new NodePositionEnd(end);
+			endValue = end;
 		}
 		// actually add the position
-		this.positions.add(new NodePosition(start, endPosition, textNr, typeContext));
+		if (this.positionsAmount == 0) {
+			this.start = start;
+			this.end = endValue;
+			this.textNr = textNr;
+			this.typeContextNr = typeContext;
+		} else {
+			int offset = (this.positionsAmount - 1) * POSITION_FIELDS;
+			if (this.morePositions == null) {
+				this.morePositions = new int[POSITION_FIELDS];
+			} else if (offset == this.morePositions.length) {
+				this.morePositions = Arrays.copyOf(this.morePositions, 2 * this.morePositions.length);
+			}
+			this.morePositions[offset] = start;
+			this.morePositions[offset + 1] = endValue;
+			this.morePositions[offset + 2] = textNr;
+			this.morePositions[offset + 3] = typeContext;
+		}
+		this.positionsAmount++;
 	}
-	
+
 	// getter methods for start, end and textNr
 	public int getStart(int pos) {
-		return this.positions.get(pos).getStart();
+		return (pos == 0) ? this.start : this.morePositions[this.offset(pos)];
 	}
-	
+
 	public int getEnd(int pos) {
-		return this.positions.get(pos).getEnd();
+		return this.tree.resolveEnd((pos == 0) ? this.end : this.morePositions[this.offset(pos) + 1]);
 	}
-	
+
 	public int getTextNr(int pos) {
-		return this.positions.get(pos).getTextNr();
+		return (pos == 0) ? this.textNr : this.morePositions[this.offset(pos) + 2];
 	}
-	
+
 	public int getTypeContext(int pos) {
-		return this.positions.get(pos).getTypeContextNr();
+		return (pos == 0) ? this.typeContextNr : this.morePositions[this.offset(pos) + 3];
 	}
-	
+
 	// setter methods for start, end and textNr
 	void setStart(int pos, int val){
-		this.positions.get(pos).setStart(val);
+		if (pos == 0)
+			this.start = val;
+		else
+			this.morePositions[this.offset(pos)] = val;
 	}
-	
+
 	void setEnd(int pos, int val){
-		this.positions.get(pos).setEnd(new NodePositionEnd(val));
+		if (pos == 0)
+			this.end = val;
+		else
+			this.morePositions[this.offset(pos) + 1] = val;
 	}
-	
+
 	void setTextNr(int pos, int val) {
-		this.positions.get(pos).setTextNr(val);
+		if (pos == 0)
+			this.textNr = val;
+		else
+			this.morePositions[this.offset(pos) + 2] = val;
 	}
-	
+
 	void setTypeContextNr(int pos, int val) {
-		this.positions.get(pos).setTypeContextNr(val);
+		if (pos == 0)
+			this.typeContextNr = val;
+		else
+			this.morePositions[this.offset(pos) + 3] = val;
+	}
+
+	// returns the offset of the position in morePositions, checking the bounds
+	private int offset(int pos) {
+		if (pos < 0 || pos >= this.positionsAmount)
+			throw new IndexOutOfBoundsException("Position: " + pos + ", amount: " + this.positionsAmount);
+		return (pos - 1) * POSITION_FIELDS;
 	}
-	
+
 	// if a node is split and if it represents more than one text, all start positions in
 	// the position list of a node must be updated by active_length
 	void updateStartPositions(int active_length) {
@@ -110,41 +169,133 @@ public class Node {
 
 	// Returns the number of positions noted for this node
 	public int getPositionsAmount() {
-		return this.positions.size();
+		return this.positionsAmount;
 	}
 
 	// return the edge length of the node in the tree
 	public int edgeLength(BaseSuffixTree tree) {
-		return Math.min(this.getEnd(0),tree.position + 1) - this.getStart(0);
+		return Math.min(this.getEnd(0),tree.position + 1) - this.start;
+	}
+
+	// returns the index of the child for edgeBegin in the child arrays,
+	// or (-(insertion point) - 1) if there is none
+	private int childIndex(char edgeBegin) {
+		if (this.childChars == null)
+			return -1;
+		return Arrays.binarySearch(this.childChars, edgeBegin);
+	}
+
+	// return the node nr reached by following the edge that begins with edgeBegin, -1 if none
+	int child(char edgeBegin) {
+		int index = this.childIndex(edgeBegin);
+		return (index < 0) ? -1 : this.childNodes[index];
 	}
-	
+
+	// set the node nr reached by following the edge that begins with edgeBegin
+	void putChild(char edgeBegin, int nodeNr) {
+		int index = this.childIndex(edgeBegin);
+		if (index >= 0) {
+			this.childNodes[index] = nodeNr;
+			return;
+		}
+		// the arrays are kept at their exact size as most nodes only have few children
+		index = -index - 1;
+		int size = this.getChildAmount();
+		char[] chars = new char[size + 1];
+		int[] nodes = new int[size + 1];
+		if (size > 0) {
+			System.arraycopy(this.childChars, 0, chars, 0, index);
+			System.arraycopy(this.childNodes, 0, nodes, 0, index);
+			System.arraycopy(this.childChars, index, chars, index + 1, size - index);
+			System.arraycopy(this.childNodes, index, nodes, index + 1, size - index);
+		}
+		chars[index] = edgeBegin;
+		nodes[index] = nodeNr;
+		this.childChars = chars;
+		this.childNodes = nodes;
+	}
+
+	// return the amount of edges starting at this node
+	int getChildAmount() {
+		return (this.childChars == null) ? 0 : this.childChars.length;
+	}
+
+	// return the node nr of the i-th child in the order of the edge begins
+	int getChildAt(int i) {
+		return this.childNodes[i];
+	}
+
 	// return the beginnings of edges starting at this node
 	public Set<Character> getEdgeBegins() {
-		return this.next.keySet();
+		return new AbstractSet<Character>() {
+			@Override
+			public Iterator<Character> iterator() {
+				return new Iterator<Character>() {
+					private int i = 0;
+
+					@Override
+					public boolean hasNext() {
+						return i < getChildAmount();
+					}
+
+					@Override
+					public Character next() {
+						if (!this.hasNext())
+							throw new NoSuchElementException();
+						return childChars[i++];
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return getChildAmount();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return (o instanceof Character) && childIndex((Character) o) >= 0;
+			}
+		};
 	}
-	
+
 	// return the node index of the node reached by following the edge
 	// that begins with edgeBegin, return null if no such node exists
 	public Integer getNext(char edgeBegin) {
-		return this.next.get(edgeBegin);
+		int child = this.child(edgeBegin);
+		return (child < 0) ? null : child;
 	}
-	
+
 	/**
 	 * Publicly the list of positions of a node is exposed read-only.
-	 * 
+	 *
 	 * @return An unmodifiable view on the positions of this node.
 	 */
 	public List<NodePosition> getPositions() {
-		return Collections.unmodifiableList(this.positions);
+		return Collections.unmodifiableList(new AbstractList<NodePosition>() {
+			@Override
+			public NodePosition get(int index) {
+				return new NodePosition(getStart(index), new NodePositionEnd(getEnd(index)), getTextNr(index),
+						getTypeContext(index));
+			}
+
+			@Override
+			public int size() {
+				return getPositionsAmount();
+			}
+		});
 	}
-	
+
 	/**
 	 * @return The leaves set for this node or an empty set if none were set.
 	 */
 	public Set<Node> getLeaves() {
+		if (this.leaves == null) {
+			this.leaves = new HashSet<Node>();
+		}
 		return this.leaves;
 	}
-	
+
 	/**
 	 * Set the path length up to this node to the specified value.
 	 * @param length path length
@@ -1,9 +1,11 @@
 package modules.tree_building.suffixTree;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.util.Stack;
 
 import modules.OutputPort;
+import modules.OutputPortWriter;
 
 public class ResultEdgeSegmentsListener implements ITreeWalkerListener {
 
@@ -12,11 +14,22 @@ public class ResultEdgeSegmentsListener implements ITreeWalkerListener {
 
 	private final BaseSuffixTree tree;
 
-	private final OutputPort out;
+	private final Writer out;
 
 	private final Stack<String> edges;
 
 	public ResultEdgeSegmentsListener(BaseSuffixTree tree, OutputPort out) {
+		this(tree, new OutputPortWriter(out));
+	}
+
+	/**
+	 * @param tree
+	 *            the tree to output the edge segments of
+	 * @param out
+	 *            the writer to write the edge segments to, flushed and closed
+	 *            by {@link #finishWriting()}
+	 */
+	public ResultEdgeSegmentsListener(BaseSuffixTree tree, Writer out) {
 		this.tree = tree;
 		this.out = out;
 		this.edges = new Stack<String>();
@@ -75,7 +88,7 @@ public class ResultEdgeSegmentsListener implements ITreeWalkerListener {
 				// starting node's begin
 				if (path.equals(tree.getInputText(node.getTextNr(i)))) {
 					// actually write the output
-					out.outputToAllCharPipes(String.join(SEPARATOR, edges) + System.lineSeparator());
+					out.write(String.join(SEPARATOR, edges) + System.lineSeparator());
 					break;
 				}
 			}
@@ -84,6 +97,17 @@ public class ResultEdgeSegmentsListener implements ITreeWalkerListener {
 		edges.pop();
 	}
 
+	/**
+	 * Writes out everything buffered and closes the writer (an output port
+	 * written to is left open).
+	 * 
+	 * @throws IOException
+	 *             on error
+	 */
+	public void finishWriting() throws IOException {
+		out.close();
+	}
+
 	/**
 	 * Allows to check if processing of the tree has finished. (Simply checks if
 	 * each edge that was pushed to the stack was popped as well.)
@@ -1,46 +1,41 @@
 package modules.tree_building.suffixTree;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.util.List;
-import java.util.logging.Logger;
 
 import com.google.gson.stream.JsonWriter;
 
 import modules.OutputPort;
+import modules.OutputPortWriter;
 
 public class ResultToJsonListener extends AbstractResultNodeStackListener {
 
-	private static final Logger LOGGER = Logger.getLogger(ResultToJsonListener.class.getName());
-
-	private static final String ENCODING = java.nio.charset.StandardCharsets.UTF_8.name();
-
-	// the OutputPort to write to
-	private final OutputPort outputPort;
-
 	// the suffix tree this will work on
 	private final BaseSuffixTree tree;
 
-	// variables needed internally to write the Json representation
-	private final ByteArrayOutputStream outputStream;
-	private JsonWriter writer;
+	// variables needed internally to write the Json representation, which is
+	// streamed into the writer (e.g. the output port's pipes) as it is written
+	private final JsonWriter writer;
 	private boolean wroteBegin = false;
 
 	public ResultToJsonListener(BaseSuffixTree suffixTree, OutputPort outputPort) {
+		this(suffixTree, new OutputPortWriter(outputPort));
+	}
+
+	/**
+	 * @param suffixTree
+	 *            the suffix tree to write
+	 * @param writer
+	 *            the writer to write the Json representation to, closed by
+	 *            {@link #finishWriting()}
+	 */
+	public ResultToJsonListener(BaseSuffixTree suffixTree, Writer writer) {
 		super(suffixTree);
 
 		this.tree = suffixTree;
-		this.outputPort = outputPort;
-
-		this.outputStream = new ByteArrayOutputStream();
-		try {
-			this.writer = new JsonWriter(new OutputStreamWriter(this.outputStream, ENCODING));
-		} catch (UnsupportedEncodingException e) {
-			LOGGER.severe("Encoding " + ENCODING + "not supported.");
-			e.printStackTrace();
-		}
+
+		this.writer = new JsonWriter(writer);
 		this.writer.setIndent("  ");
 	}
 
@@ -85,10 +80,8 @@ public class ResultToJsonListener extends AbstractResultNodeStackListener {
 
 		writer.name("frequency").value(frequency);
 
-		// end writing of the NodeRepresentation and flush everything to the
-		// output port
+		// end writing of the NodeRepresentation
 		writer.endObject();
-		this.flushOutput();
 	}
 
 	private void writePatternInfo(Node leaf, NodePosition position) throws IOException {
@@ -105,8 +98,8 @@ public class ResultToJsonListener extends AbstractResultNodeStackListener {
 	}
 
 	/**
-	 * Finalises writing of the SuffixTreeRepresentation, closes all ports
-	 * connected and/or used internally.
+	 * Finalises writing of the SuffixTreeRepresentation and closes the writer
+	 * (an output port written to is left open).
 	 * 
 	 * @throws IOException
 	 *             on error
@@ -116,13 +109,8 @@ public class ResultToJsonListener extends AbstractResultNodeStackListener {
 		this.writer.endArray();
 		this.writer.endObject();
 
-		// write everything out
-		this.flushOutput();
-
-		// close all opened streams and ports
-		this.outputStream.close();
+		// write everything out and close the writer
 		this.writer.close();
-		this.outputPort.close();
 	}
 
 	/**
@@ -143,22 +131,8 @@ public class ResultToJsonListener extends AbstractResultNodeStackListener {
 		writer.name("nodeCount").value(tree.getNodeAmount());
 		writer.name("nodes");
 		writer.beginArray();
-		flushOutput();
 
 		wroteBegin = true;
 	}
 
-	/**
-	 * used internally to output changes in the writer's stream to the
-	 * outputPort
-	 * 
-	 * @throws IOException
-	 */
-	private void flushOutput() throws IOException {
-		writer.flush();
-		final String jsonOut = outputStream.toString(ENCODING);
-		outputPort.outputToAllCharPipes(jsonOut);
-		outputStream.reset();
-	}
-
 }
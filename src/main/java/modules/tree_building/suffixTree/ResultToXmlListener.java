@@ -1,5 +1,6 @@
 package modules.tree_building.suffixTree;
 
+import java.io.IOException;
 import java.util.List;
 
 import common.XmlPrintWriter;
@@ -137,10 +138,17 @@ public class ResultToXmlListener extends AbstractResultNodeStackListener {
 
 	/**
 	 * Closes all tags as well as the provided writer.
+	 * 
+	 * @throws IOException
+	 *             if writing to the underlying writer failed at any point
 	 */
-	public void finishWriting() {
+	public void finishWriting() throws IOException {
 		out.printTag("output", false, 0, true);
 		out.close();
+		// the PrintWriter swallows exceptions, so check for them once at the end
+		if (out.checkError()) {
+			throw new IOException("Error writing the XML representation of the tree.");
+		}
 	}
 
 }
@@ -6,6 +6,10 @@ import java.io.PrintWriter;
 // Here print methods are added
 public class SuffixTree extends BaseSuffixTree {
 	
+	public SuffixTree() {
+		super();
+	}
+	
 	public SuffixTree(int length) {
 		super(length);
 	}
@@ -30,7 +34,7 @@ public class SuffixTree extends BaseSuffixTree {
 	}
 
 	private void printLeaves(int x, final PrintWriter out) {
-		if (nodes[x].next.size() == 0){
+		if (nodes[x].isTerminal()){
 			String positionlabel="";
 			for (int i = 0 ; i< nodes[x].getPositionsAmount() ; i++) {
 				// textNr
@@ -44,22 +48,23 @@ public class SuffixTree extends BaseSuffixTree {
 		}
 			
 		else 
-			for (int child : nodes[x].next.values())
-				printLeaves(child, out);
+			for (int i = 0; i < nodes[x].getChildAmount(); i++)
+				printLeaves(nodes[x].getChildAt(i), out);
 		
 	}
 
 	private void printInternalNodes(int x, final PrintWriter out) {
-		if (x != root && nodes[x].next.size() > 0)
+		if (x != root && !nodes[x].isTerminal())
 			out.println("\tnode" + x
 					+ " [label=\""+x+"\",style=filled,fillcolor=lightgrey,shape=circle,width=.07,height=.07]");
 
-		for (int child : nodes[x].next.values())
-			printInternalNodes(child, out);
+		for (int i = 0; i < nodes[x].getChildAmount(); i++)
+			printInternalNodes(nodes[x].getChildAt(i), out);
 	}
 
 	private void printEdges(int x, final PrintWriter out) {
-		for (int child : nodes[x].next.values()) {
+		for (int i = 0; i < nodes[x].getChildAmount(); i++) {
+			int child = nodes[x].getChildAt(i);
 			out.println("\tnode" + x + " -> node" + child + "[label=\"" + edgeString(child) + "\",weight=3]");
 			printEdges(child, out);
 		}
@@ -68,8 +73,8 @@ public class SuffixTree extends BaseSuffixTree {
 	private void printSLinks(int x, final PrintWriter out) {
 		if (nodes[x].link > 0)
 			out.println("\tnode" + x + " -> node" + nodes[x].link + " [label=\"\",weight=1,style=dotted]");
-		for (int child : nodes[x].next.values())
-			printSLinks(child, out);
+		for (int i = 0; i < nodes[x].getChildAmount(); i++)
+			printSLinks(nodes[x].getChildAt(i), out);
 	}
 
 	
@@ -1,6 +1,7 @@
 package modules.tree_building.suffixTree;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import modules.tree_building.suffixTree.BaseSuffixTree;;
 
@@ -11,8 +12,12 @@ public class TreeWalker {
 	}
 
 	/**
-	 * Walks the tree's nodes recursively (depth-first) and executes the
-	 * listener's actions for each node.
+	 * Walks the tree's nodes depth-first and executes the listener's actions
+	 * for each node. The walk is iterative, so the depth of the tree is not
+	 * limited by the thread's stack size.
+	 * 
+	 * To run several listeners in a single traversal, combine them in a
+	 * CompositeTreeWalkerListener.
 	 * 
 	 * @param startNodeNr
 	 *            The start with
@@ -23,28 +28,35 @@ public class TreeWalker {
 	 * @throws IOException on error
 	 */
 	public static void walk(int startNodeNr, BaseSuffixTree suffixTree, ITreeWalkerListener listener) throws IOException {
-		walk(startNodeNr, suffixTree, listener, 0/*level*/);
-	}
-
-	/**
-	 * Walks the tree's nodes recursively (depth-first) and executes the
-	 * listener's actions for each node.
-	 * @param startNodeNr The start with
-	 * @param suffixTree The SuffixTree to walk on
-	 * @param listener The listener defining the actions to take on each node
-	 * @param level level
-	 * @throws IOException on error
-	 */
-	
-	private static void walk(int startNodeNr, BaseSuffixTree suffixTree, ITreeWalkerListener listener, int level)
-			throws IOException {
-		listener.entryaction(startNodeNr, level);
-
-		for (int childNodeNr : suffixTree.nodes[startNodeNr].next.values()) {
-			walk(childNodeNr, suffixTree, listener, level + 1);
+		// the path from the start node to the current node and, for each node
+		// on it, the index of the child to visit next
+		int[] path = new int[64];
+		int[] nextChild = new int[64];
+		int level = 0;
+
+		path[0] = startNodeNr;
+		nextChild[0] = 0;
+		listener.entryaction(startNodeNr, 0);
+
+		while (level >= 0) {
+			final Node node = suffixTree.nodes[path[level]];
+			if (nextChild[level] < node.getChildAmount()) {
+				// descend to the next child
+				final int childNodeNr = node.getChildAt(nextChild[level]++);
+				level++;
+				if (level == path.length) {
+					path = Arrays.copyOf(path, 2 * path.length);
+					nextChild = Arrays.copyOf(nextChild, 2 * nextChild.length);
+				}
+				path[level] = childNodeNr;
+				nextChild[level] = 0;
+				listener.entryaction(childNodeNr, level);
+			} else {
+				// all children done, ascend
+				listener.exitaction(path[level], level);
+				level--;
+			}
 		}
-
-		listener.exitaction(startNodeNr, level);
 	}
 
 }
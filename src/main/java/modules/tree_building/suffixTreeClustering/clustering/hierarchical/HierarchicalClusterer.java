@@ -1,20 +1,31 @@
 package modules.tree_building.suffixTreeClustering.clustering.hierarchical;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import modules.tree_building.suffixTreeClustering.data.Type;
 
 public class HierarchicalClusterer {
 
+	private static final Logger LOGGER = Logger.getLogger(HierarchicalClusterer.class.getName());
+
 	private List<Type> documents;
 	private List<HierarchicalCluster> clusters;
 	int N; // number of Types/Documents
 	private int currentNumberOfClusters;
 	private SimilarityMeasure s;
-	private Map<TypePair, Double> vectorDistances;
+
+	/*
+	 * Condensed matrix of the distances of the current clusters, indexed by
+	 * the position of their first document (see index()). For AVERAGE_LINK
+	 * the sums of all distances between the members are kept instead.
+	 */
+	private double[] clusterDistances;
+
+	// the largest array size that can be allocated safely
+	private static final long MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
 
 	/**
 	 * Constructor. Initializes documents to cluster and similarity measure.
@@ -23,11 +34,23 @@ public class HierarchicalClusterer {
 	 *            - List of documents to cluster.
 	 */
 	public HierarchicalClusterer(List<Type> types) {
+		this(types, SimilarityMeasure.AVERAGE_LINK);
+	}
+
+	/**
+	 * Constructor. Initializes documents to cluster and similarity measure.
+	 * 
+	 * @param types
+	 *            - List of documents to cluster.
+	 * @param measure
+	 *            - Similarity measure to combine clusters by.
+	 */
+	public HierarchicalClusterer(List<Type> types, SimilarityMeasure measure) {
 		this.documents = types;
 		N = this.documents.size();
 		this.clusters = new ArrayList<HierarchicalCluster>();
 
-		s = SimilarityMeasure.AVERAGE_LINK;
+		s = measure;
 	}
 
 	/**
@@ -35,8 +58,6 @@ public class HierarchicalClusterer {
 	 */
 	public void analyze() {
 
-		this.vectorDistances = new HashMap<TypePair, Double>();
-
 		/*
 		 * in the beginning, each document constitutes 1 cluster
 		 */
@@ -55,115 +76,165 @@ public class HierarchicalClusterer {
 	/*
 	 * Clustering Method. As long as more than 1 Cluster is left (halting
 	 * criterion), combine nearest (according to similarity measure) clusters.
+	 *
+	 * Each cluster is kept at the position of its first document; a combined
+	 * cluster takes the position of the first of its parts, so the order of
+	 * positions is the order of the cluster list. For each position the
+	 * nearest cluster at a later position is remembered, which only needs to
+	 * be searched for anew if that cluster was combined with another.
 	 */
 	private void cluster() {
+		if (currentNumberOfClusters < 2) {
+			return;
+		}
+		getVectorDistances();
+
+		HierarchicalCluster[] current = clusters.toArray(new HierarchicalCluster[N]);
+		int[] sizes = new int[N];
+		int[] nearest = new int[N];
+		double[] nearestDistance = new double[N];
+		for (int i = 0; i < N; i++) {
+			sizes[i] = 1;
+		}
+		for (int i = 0; i < N; i++) {
+			findNearest(i, current, sizes, nearest, nearestDistance);
+		}
+
 		while (currentNumberOfClusters > 1) {
-			if (currentNumberOfClusters == documents.size()) {
-				getVectorDistances();
+			// the 2 nearest clusters (the first pair if there are several)
+			double smallestClusterDist = Double.POSITIVE_INFINITY;
+			int c1 = -1;
+			for (int i = 0; i < N; i++) {
+				if (current[i] != null && nearest[i] >= 0 && nearestDistance[i] < smallestClusterDist) {
+					smallestClusterDist = nearestDistance[i];
+					c1 = i;
+				}
 			}
+			int c2 = nearest[c1];
 
-			combineNearestCluster();
+			if (LOGGER.isLoggable(Level.FINE)) {
+				LOGGER.fine("combine: " + current[c1] + " and " + current[c2]);
+			}
+			HierarchicalCluster newCluster = new HierarchicalCluster(current[c1], current[c2]);
 
+			// Lance-Williams update of the distances to the combined cluster
+			for (int k = 0; k < N; k++) {
+				if (current[k] != null && k != c1 && k != c2) {
+					int toC1 = index(c1, k);
+					int toC2 = index(c2, k);
+					switch (s) {
+					case SINGLE_LINK:
+						clusterDistances[toC1] = Math.min(clusterDistances[toC1], clusterDistances[toC2]);
+						break;
+					case COMPLETE_LINK:
+						clusterDistances[toC1] = Math.max(clusterDistances[toC1], clusterDistances[toC2]);
+						break;
+					case AVERAGE_LINK:
+						clusterDistances[toC1] += clusterDistances[toC2];
+						break;
+					default:
+						throw new RuntimeException("invalid similarity measure");
+					}
+				}
+			}
+			current[c1] = newCluster;
+			current[c2] = null;
+			sizes[c1] += sizes[c2];
 			currentNumberOfClusters--;
+
+			// update the nearest clusters of the positions before c2
+			for (int i = 0; i < c2; i++) {
+				if (current[i] == null || i == c1) {
+					continue;
+				}
+				if (nearest[i] == c2) {
+					findNearest(i, current, sizes, nearest, nearestDistance);
+				} else if (i < c1) {
+					double dist = getClusterDistance(i, c1, sizes);
+					if (nearest[i] == c1) {
+						if (dist <= nearestDistance[i])
+							nearestDistance[i] = dist;
+						else
+							findNearest(i, current, sizes, nearest, nearestDistance);
+					} else if (dist < nearestDistance[i] || (dist == nearestDistance[i] && c1 < nearest[i])) {
+						nearest[i] = c1;
+						nearestDistance[i] = dist;
+					}
+				}
+			}
+			findNearest(c1, current, sizes, nearest, nearestDistance);
+		}
+
+		clusters.clear();
+		for (HierarchicalCluster cluster : current) {
+			if (cluster != null) {
+				clusters.add(cluster);
+			}
 		}
+		clusterDistances = null;
 	}
 
 	/*
 	 * Set up vector distances to be used for clustering.
 	 */
 	private void getVectorDistances() {
+		long size = (long) N * (N - 1) / 2;
+		if (size > MAX_ARRAY_SIZE) {
+			throw new IllegalArgumentException("Too many documents to cluster: the distances of " + N
+					+ " documents do not fit into a single array (" + size + " > " + MAX_ARRAY_SIZE + ").");
+		}
+		clusterDistances = new double[(int) size];
 		for (int i = 0; i < documents.size() - 1; i++) {
 			for (int j = i + 1; j < documents.size(); j++) {
 				Type type1 = documents.get(i);
 				Type type2 = documents.get(j);
-				Double dist = type1.getVector().distance(type2.getVector());
-				TypePair pair = new TypePair(type1, type2);
-				Double put = vectorDistances.put(pair, dist);
-				if (put != null) {
-					System.err.println("Map already contained key " + pair);
-				}
+				clusterDistances[index(i, j)] = type1.getVector().distance(type2.getVector());
 			}
 		}
 	}
 
 	/*
-	 * Combine the 2 nearest clusters. Add combined cluster to set of clusters
-	 * and delete the 2 clusters.
+	 * Searches the nearest cluster at a later position than i (the first one
+	 * if there are several), -1 if there is none.
 	 */
-	private void combineNearestCluster() {
-		Double smallestClusterDist = Double.POSITIVE_INFINITY;
-		int c1 = 0;
-		int c2 = 0;
-		for (int i = 0; i < clusters.size() - 1; i++) {
-			HierarchicalCluster cluster1 = clusters.get(i);
-			for (int j = i + 1; j < clusters.size(); j++) {
-				HierarchicalCluster cluster2 = clusters.get(j);
-				Double clusterDist = getClusterDistance(cluster1, cluster2);
-				if (clusterDist < smallestClusterDist) {
-					smallestClusterDist = clusterDist;
-					c1 = i;
-					c2 = j;
+	private void findNearest(int i, HierarchicalCluster[] current, int[] sizes, int[] nearest,
+			double[] nearestDistance) {
+		nearest[i] = -1;
+		nearestDistance[i] = Double.POSITIVE_INFINITY;
+		for (int j = i + 1; j < N; j++) {
+			if (current[j] != null) {
+				double dist = getClusterDistance(i, j, sizes);
+				if (nearest[i] < 0 || dist < nearestDistance[i]) {
+					nearest[i] = j;
+					nearestDistance[i] = dist;
 				}
 			}
 		}
-		System.out.println("combine: " + clusters.get(c1) + " and "
-				+ clusters.get(c2));
-		HierarchicalCluster newCluster = new HierarchicalCluster(
-				clusters.get(c1), clusters.get(c2));
-		clusters.remove(c2);
-		clusters.set(c1, newCluster);
 	}
 
 	/*
-	 * Calculate the cluster distance between 2 clusters according to given
-	 * similarity measure.
+	 * Calculate the cluster distance between the clusters at 2 positions
+	 * according to given similarity measure.
 	 */
-	private Double getClusterDistance(HierarchicalCluster c1,
-			HierarchicalCluster c2) {
-		List<Type> vecsInC1 = c1.getAllTypes();
-		List<Type> vecsInc2 = c2.getAllTypes();
-		Double minDist = Double.POSITIVE_INFINITY;
-		Double maxDist = 0d;
-		Double averageDist = 0d;
-
-		for (int i = 0; i < vecsInC1.size(); i++) {
-			Type vecID1 = vecsInC1.get(i);
-			for (int j = 0; j < vecsInc2.size(); j++) {
-				Type vecID2 = vecsInc2.get(j);
-				Double dist = 0d;
-				TypePair pair;
-
-				if (vecID2.getID() < vecID1.getID()) {
-					pair = new TypePair(vecID2, vecID1);
-				} else {
-					pair = new TypePair(vecID1, vecID2);
-				}
-
-				if (!vectorDistances.containsKey(pair))
-					System.out.println("VectorDistances does not contain key "
-							+ pair);
-
-				dist = vectorDistances.get(pair);
-				averageDist += dist;
-				if (dist < minDist) {
-					minDist = dist;
-				}
-				if (dist > maxDist) {
-					maxDist = dist;
-				}
-			}
+	private double getClusterDistance(int c1, int c2, int[] sizes) {
+		double dist = clusterDistances[index(c1, c2)];
+		if (s == SimilarityMeasure.AVERAGE_LINK) {
+			dist /= (sizes[c1] + sizes[c2]);
 		}
-		switch (s) {
-		case SINGLE_LINK:
-			return minDist;
-		case COMPLETE_LINK:
-			return maxDist;
-		case AVERAGE_LINK:
-			averageDist /= (vecsInC1.size() + vecsInc2.size());
-			return averageDist;
-		default:
-			throw new RuntimeException("invalid similarity measure");
+		return dist;
+	}
+
+	/*
+	 * Index of the pair of positions i and j (i != j) in the condensed
+	 * distance matrix (which is checked to fit an array when it is set up).
+	 */
+	private int index(int i, int j) {
+		if (j < i) {
+			int t = i;
+			i = j;
+			j = t;
 		}
+		return (int) ((long) i * (2L * N - i - 1) / 2 + (j - i - 1));
 	}
 
 	/**
@@ -206,4 +277,4 @@ public class HierarchicalClusterer {
 	public List<HierarchicalCluster> getClusters() {
 		return clusters;
 	}
-}
\ No newline at end of file
+}
@@ -1,8 +1,15 @@
 package modules.tree_building.suffixTreeClustering.clustering.neighborjoin;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 import com.google.gson.JsonElement;
@@ -11,18 +18,38 @@ import com.google.gson.JsonParser;
 import modules.tree_building.suffixTree.TreeWalker;
 import modules.tree_building.suffixTreeClustering.data.Type;
 
+/**
+ * Neighbor Joining following RapidNJ (Simonsen, Mailund, Pedersen 2008): the
+ * distances of each cluster to the others are kept sorted, so the search for
+ * the next pair to join can stop scanning a row as soon as the bound
+ * D_ij - r_i - max(r) exceeds the best value found. The row sums are updated
+ * with each join instead of being recomputed.
+ */
 public class NeighborJoining {
 
 	private static final String LOG_TAG = NeighborJoining.class.getSimpleName();
 	private Logger logger;
 
+	/**
+	 * Amount of quadruples of taxa the additivity of the matrix is checked for
+	 * by {@link #NeighborJoining(List)}.
+	 */
+	public static final int DEFAULT_ADDITIVITY_SAMPLES = 100000;
+
+	// below this amount of clusters, rows are scanned in one thread only
+	private static final int MIN_PARALLEL_CLUSTERS = 256;
+
+	// at most this amount of clusters, row sums are recomputed instead of
+	// updated
+	private static final int EXACT_SUMS_CLUSTERS = 16;
+
 	private List<Type> documents;
 	private double[][] distanceMatrix;
 	private int numCluster;
 	private Map<Integer, String> aliasNames;
 	private int[] alias; // merkt sich die urspruenglichen Indizes aus der
 	// Distanzmatrix
-	private double[] r; // Netto-Divergenzen
+	private double[] r; // Netto-Divergenzen (nach Index in der Distanzmatrix)
 	private int newIndex;
 
 	private NJNode root;
@@ -30,8 +57,50 @@ public class NeighborJoining {
 	private int best_j;
 	private int aliasBesti;
 
+	private final int threads;
+
+	// Zeilensummen der Distanzmatrix (nur fuer aktive Cluster gueltig)
+	private double[] sums;
+	// Schritt, in dem der Cluster am jeweiligen Index entstanden ist
+	private int[] birth;
+	private boolean[] removed;
+	private int step;
+
+	// je Index: die Indizes der aelteren Cluster, aufsteigend nach Distanz
+	// sortiert, samt dieser Distanzen; Eintraege vor rowStart sind veraltet
+	private int[][] sortedColumns;
+	private double[][] sortedDistances;
+	private int[] rowStart;
+	private int[] rowLength;
+
+	/**
+	 * Prepares Neighbor Joining of the given types, checking the additivity of
+	 * their distance matrix for {@link #DEFAULT_ADDITIVITY_SAMPLES} random
+	 * quadruples and using as many threads as there are processors.
+	 * 
+	 * @param types
+	 *            Types to cluster
+	 */
 	public NeighborJoining(List<Type> types) {
+		this(types, DEFAULT_ADDITIVITY_SAMPLES, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Prepares Neighbor Joining of the given types.
+	 * 
+	 * @param types
+	 *            Types to cluster
+	 * @param additivitySamples
+	 *            Amount of random quadruples of taxa to check the additivity of
+	 *            the distance matrix for (a warning is logged if it does not
+	 *            hold); 0 skips the check, a negative value checks all
+	 *            quadruples
+	 * @param threads
+	 *            Amount of threads to compute distances and search pairs in
+	 */
+	public NeighborJoining(List<Type> types, int additivitySamples, int threads) {
 		this.logger = Logger.getLogger(LOG_TAG);
+		this.threads = Math.max(1, threads);
 
 		this.documents = types;
 		createDistanceMatrix();
@@ -39,10 +108,7 @@ public class NeighborJoining {
 		if (distanceMatrix.length < 3) {
 			throw new IllegalArgumentException("ZU WENIGE TAXA IN DER MATRIX!");
 		}
-		if (!isSymmetric(distanceMatrix)) {
-			throw new IllegalArgumentException("MATRIX IST UNSYMMETRISCH!");
-		}
-		if (!isAdditive(distanceMatrix)) {
+		if (!isAdditive(distanceMatrix, additivitySamples)) {
 			// throw new IllegalArgumentException("MATRIX IST NICHT ADDITIV!");
 			logger.warning("Matrix ist nicht additiv");
 		}
@@ -72,27 +138,54 @@ public class NeighborJoining {
 		}
 
 		r = new double[numCluster];
+
+		sums = new double[numCluster];
+		for (int i = 0; i < numCluster; i++) {
+			for (int j = 0; j < numCluster; j++) {
+				sums[i] += distanceMatrix[i][j];
+			}
+		}
+		birth = new int[numCluster];
+		removed = new boolean[numCluster];
+		step = 0;
 	}
 
-	private boolean isAdditive(double[][] matrix) {
-		boolean holds = false;
-		for (int i = 0; i < matrix.length; i++) {
-			for (int j = 0; j < matrix.length; j++) {
-				for (int k = 0; k < matrix.length; k++) {
-					for (int l = 0; l < matrix.length; l++) {
-						if (i != j && i != k && i != l && j != k && j != l && k != l) {
-							holds = isSame(matrix[i][k] + matrix[j][l], matrix[i][l] + matrix[j][k])
-									&& isGreaterOrEqual(matrix[i][k] + matrix[j][l], matrix[i][j] + matrix[k][l]);
-							if (!holds)
-								return false;
+	private boolean isAdditive(double[][] matrix, int samples) {
+		if (samples < 0) {
+			for (int i = 0; i < matrix.length; i++) {
+				for (int j = 0; j < matrix.length; j++) {
+					for (int k = 0; k < matrix.length; k++) {
+						for (int l = 0; l < matrix.length; l++) {
+							if (i != j && i != k && i != l && j != k && j != l && k != l) {
+								if (!holdsFourPoint(matrix, i, j, k, l))
+									return false;
+							}
 						}
 					}
 				}
 			}
+		} else if (matrix.length >= 4) {
+			// fester Seed, damit die Pruefung reproduzierbar ist
+			Random random = new Random(matrix.length);
+			for (int sample = 0; sample < samples; sample++) {
+				int i = random.nextInt(matrix.length);
+				int j = random.nextInt(matrix.length);
+				int k = random.nextInt(matrix.length);
+				int l = random.nextInt(matrix.length);
+				if (i != j && i != k && i != l && j != k && j != l && k != l) {
+					if (!holdsFourPoint(matrix, i, j, k, l))
+						return false;
+				}
+			}
 		}
 		return true;
 	}
 
+	private boolean holdsFourPoint(double[][] matrix, int i, int j, int k, int l) {
+		return isSame(matrix[i][k] + matrix[j][l], matrix[i][l] + matrix[j][k])
+				&& isGreaterOrEqual(matrix[i][k] + matrix[j][l], matrix[i][j] + matrix[k][l]);
+	}
+
 	private boolean isGreaterOrEqual(double d1, double d2) {
 		return Double.compare(d1, d2) == 0;
 	}
@@ -101,75 +194,181 @@ public class NeighborJoining {
 		return Double.compare(d1, d2) >= 0;
 	}
 
-	private boolean isSymmetric(double[][] matrix) {
-		if (matrix.length != matrix[0].length) {
-			System.err.println("Matrix is not symmetric!");
-			return false;
-		} else {
-			for (int i = 0; i < matrix.length; i++) {
-				for (int j = 0; j < matrix[i].length; j++) {
-					if (!(matrix[i][j] == (matrix[j][i]))) {
-						System.out.printf("Values of matrix[%s][%s]=%s and matrix[%s][%s]=%s are not the same", i, j,
-								matrix[i][j], j, i, matrix[j][i]);
-						return false;
-					}
-					if (i == j && !(matrix[i][j] == (new Double(0.0)))) {
-						System.out.printf("Value of matrix[%s][%s]=%s is not 0", i, j, matrix[i][j]);
-						return false;
-					}
-				}
-			}
-		}
-		return true;
-	}
-
 	public void start() {
 		logger.info("Start NJ...");
 
-		while (true) {
-			findNextPair();
-			newBranchLengths();
-			if (numCluster == 3) {
-				break;
+		ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+		try {
+			initRows(executor);
+			while (true) {
+				findNextPair(executor);
+				newBranchLengths();
+				if (numCluster == 3) {
+					break;
+				}
+				join();
 			}
-			join();
+		} finally {
+			if (executor != null)
+				executor.shutdownNow();
 		}
 
 		finish();
 	}
 
-	private void findNextPair() {
+	/*
+	 * Sortiert fuer jeden Index die Distanzen zu allen kleineren Indizes.
+	 */
+	private void initRows(ExecutorService executor) {
+		sortedColumns = new int[numCluster][];
+		sortedDistances = new double[numCluster][];
+		rowStart = new int[numCluster];
+		rowLength = new int[numCluster];
+
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			final int offset = t;
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					for (int a = offset; a < numCluster; a += threads) {
+						int[] columns = new int[a];
+						double[] distances = new double[a];
+						for (int b = 0; b < a; b++) {
+							columns[b] = b;
+							distances[b] = distanceMatrix[a][b];
+						}
+						sortRow(distances, columns, 0, a);
+						sortedColumns[a] = columns;
+						sortedDistances[a] = distances;
+						rowLength[a] = a;
+					}
+					return null;
+				}
+			});
+		}
+		runAll(tasks, executor);
+	}
+
+	private void findNextPair(final ExecutorService executor) {
+		// bei wenigen Clustern die Zeilensummen exakt neu berechnen: bei drei
+		// Clustern sind alle M_ij gleich, die Wahl haengt nur von der Rundung ab
+		if (numCluster <= EXACT_SUMS_CLUSTERS) {
+			for (int i = 0; i < numCluster; i++) {
+				double sum = 0.0f;
+				for (int j = 0; j < numCluster; j++) {
+					sum += getDistance(i, j);
+				}
+				sums[alias[i]] = sum;
+			}
+		}
+
 		// r_i = sum(d_ij) / (N-2) for all j=1 to N
+		double rMax = Double.NEGATIVE_INFINITY;
 		for (int i = 0; i < numCluster; i++) {
-			r[i] = 0.0f;
-			for (int j = 0; j < numCluster; j++) {
-				r[i] += getDistance(i, j);
-			}
-			r[i] /= (numCluster - 2);
+			int a = alias[i];
+			r[a] = sums[a] / (numCluster - 2);
+			rMax = Math.max(rMax, r[a]);
 		}
 
-		best_i = 0;
-		best_j = 0;
+		// position of each index in alias
+		final int[] position = new int[distanceMatrix.length];
+		for (int i = 0; i < numCluster; i++) {
+			position[alias[i]] = i;
+		}
 
-		double min = Double.POSITIVE_INFINITY;
+		// search the rows, in parallel if there are enough of them
+		final int tasks = (executor != null && numCluster >= MIN_PARALLEL_CLUSTERS) ? threads : 1;
+		final double bound = rMax;
+		List<Callable<PairCandidate>> searches = new ArrayList<>();
+		for (int t = 0; t < tasks; t++) {
+			final int offset = t;
+			searches.add(new Callable<PairCandidate>() {
+				@Override
+				public PairCandidate call() {
+					PairCandidate best = new PairCandidate();
+					for (int i = offset; i < numCluster; i += tasks) {
+						searchRow(alias[i], bound, position, best);
+					}
+					return best;
+				}
+			});
+		}
 
-		// calculate M and simultaniously, store the cell with smallest value
-		for (int i = 0; i < numCluster - 1; i++) {
-			for (int j = i + 1; j < numCluster; j++) {
-				// M_ij = D_ij - r_i - r_j
-				double M_ij = getDistance(i, j) - r[i] - r[j];
+		// if there are multiple smallest values, the first pair (in order of
+		// alias) is stored
+		PairCandidate best = new PairCandidate();
+		for (PairCandidate candidate : runAll(searches, tasks > 1 ? executor : null)) {
+			best.offer(candidate.q, candidate.i, candidate.j);
+		}
+		best_i = best.i;
+		best_j = best.j;
+		aliasBesti = alias[best_i];
+	}
 
-				if (M_ij < min) {
-					// if there are multiple smallest values, the first pair
-					// will be stored...
+	/*
+	 * Durchsucht die sortierte Zeile des Index a nach dem Paar mit dem
+	 * kleinsten M_ab = D_ab - r_a - r_b, bis die Schranke D_ab - r_a - rMax
+	 * den bisher besten Wert uebersteigt.
+	 */
+	private void searchRow(int a, double rMax, int[] position, PairCandidate best) {
+		int[] columns = sortedColumns[a];
+		double[] distances = sortedDistances[a];
+		int stale = 0;
+		for (int k = rowStart[a]; k < rowLength[a]; k++) {
+			if (distances[k] - r[a] - rMax > best.q) {
+				break;
+			}
+			int b = columns[k];
+			if (removed[b] || birth[b] > birth[a]) {
+				// veralteter Eintrag
+				if (k == rowStart[a])
+					rowStart[a]++;
+				else
+					stale++;
+				continue;
+			}
+			// M_ij = D_ij - r_i - r_j
+			double M_ab = distances[k] - r[a] - r[b];
+			int i = position[a];
+			int j = position[b];
+			best.offer(M_ab, Math.min(i, j), Math.max(i, j));
+		}
+		if (stale > 0 && stale * 16 >= rowLength[a] - rowStart[a]) {
+			compactRow(a);
+		}
+	}
 
-					min = M_ij;
-					best_i = i;
-					best_j = j;
-				}
+	private void compactRow(int a) {
+		int[] columns = sortedColumns[a];
+		double[] distances = sortedDistances[a];
+		int n = 0;
+		for (int k = rowStart[a]; k < rowLength[a]; k++) {
+			int b = columns[k];
+			if (!removed[b] && birth[b] <= birth[a]) {
+				columns[n] = b;
+				distances[n++] = distances[k];
+			}
+		}
+		rowStart[a] = 0;
+		rowLength[a] = n;
+	}
+
+	/*
+	 * Bestes bisher gefundenes Paar (Positionen in alias, i < j).
+	 */
+	private static class PairCandidate {
+		private double q = Double.POSITIVE_INFINITY;
+		private int i = 0;
+		private int j = 0;
+
+		private void offer(double q, int i, int j) {
+			if (q < this.q || (q == this.q && (i < this.i || (i == this.i && j < this.j)))) {
+				this.q = q;
+				this.i = i;
+				this.j = j;
 			}
 		}
-		aliasBesti = alias[best_i];
 	}
 
 	private double getDistance(int i, int j) {
@@ -183,7 +382,7 @@ public class NeighborJoining {
 		// new branch lengths
 		double dij = getDistance(best_i, best_j);
 		// L_iu = (D_ij/2) + ((r_i - r_j) / 2)
-		double liu = ((dij) / 2) + ((r[best_i] - r[best_j]) / 2);
+		double liu = ((dij) / 2) + ((r[alias[best_i]] - r[alias[best_j]]) / 2);
 		double lju = ((dij) - liu);
 
 		child1.setBranchLength(liu);
@@ -191,14 +390,22 @@ public class NeighborJoining {
 	}
 
 	private void join() {
-		// Update distances
+		// Update distances and row sums
+		int aliasBestj = alias[best_j];
+		double sumU = 0.0;
 		for (int k = 0; k < numCluster; k++) {
 			if (k != best_i && k != best_j) {
 				int ak = alias[k];
-				distanceMatrix[ak][aliasBesti] = distanceMatrix[aliasBesti][ak] = updatedDistance(best_i, best_j, k);
+				double d = updatedDistance(best_i, best_j, k);
+				sums[ak] += d - distanceMatrix[ak][aliasBesti] - distanceMatrix[ak][aliasBestj];
+				sumU += d;
+				distanceMatrix[ak][aliasBesti] = distanceMatrix[aliasBesti][ak] = d;
 			}
 		}
 		distanceMatrix[aliasBesti][aliasBesti] = 0.0;
+		sums[aliasBesti] = sumU;
+		removed[aliasBestj] = true;
+		birth[aliasBesti] = ++step;
 
 		joinChilds(this.root, best_i, best_j);
 
@@ -208,6 +415,73 @@ public class NeighborJoining {
 		}
 
 		numCluster--;
+
+		// the new cluster's row holds all others
+		int[] columns = new int[numCluster - 1];
+		double[] distances = new double[numCluster - 1];
+		int n = 0;
+		for (int k = 0; k < numCluster; k++) {
+			int ak = alias[k];
+			if (ak != aliasBesti) {
+				columns[n] = ak;
+				distances[n++] = distanceMatrix[aliasBesti][ak];
+			}
+		}
+		sortRow(distances, columns, 0, n);
+		sortedColumns[aliasBesti] = columns;
+		sortedDistances[aliasBesti] = distances;
+		rowStart[aliasBesti] = 0;
+		rowLength[aliasBesti] = n;
+		sortedColumns[aliasBestj] = null;
+		sortedDistances[aliasBestj] = null;
+	}
+
+	/*
+	 * Sortiert die Distanzen [from, to) aufsteigend, die Spalten entsprechend.
+	 */
+	private static void sortRow(double[] distances, int[] columns, int from, int to) {
+		while (to - from > 16) {
+			// median of three as pivot
+			int mid = (from + to) >>> 1;
+			if (distances[mid] < distances[from])
+				swap(distances, columns, mid, from);
+			if (distances[to - 1] < distances[from])
+				swap(distances, columns, to - 1, from);
+			if (distances[to - 1] < distances[mid])
+				swap(distances, columns, to - 1, mid);
+			double pivot = distances[mid];
+			int lo = from;
+			int hi = to - 1;
+			while (lo <= hi) {
+				while (distances[lo] < pivot)
+					lo++;
+				while (distances[hi] > pivot)
+					hi--;
+				if (lo <= hi)
+					swap(distances, columns, lo++, hi--);
+			}
+			// recurse into the smaller part only
+			if (hi - from < to - lo) {
+				sortRow(distances, columns, from, hi + 1);
+				from = lo;
+			} else {
+				sortRow(distances, columns, lo, to);
+				to = hi + 1;
+			}
+		}
+		for (int k = from + 1; k < to; k++) {
+			for (int l = k; l > from && distances[l] < distances[l - 1]; l--)
+				swap(distances, columns, l, l - 1);
+		}
+	}
+
+	private static void swap(double[] distances, int[] columns, int k, int l) {
+		double distance = distances[k];
+		distances[k] = distances[l];
+		distances[l] = distance;
+		int column = columns[k];
+		columns[k] = columns[l];
+		columns[l] = column;
 	}
 
 	private void joinChilds(NJNode root, int n1, int n2) {
@@ -252,16 +526,70 @@ public class NeighborJoining {
 	}
 
 	private void createDistanceMatrix() {
-		double[][] temp = new double[documents.size()][documents.size()];
-
+		final double[][] temp = new double[documents.size()][documents.size()];
+
+		// die Distanz ist symmetrisch, berechnet wird daher nur das untere
+		// Dreieck (zeilenweise auf die Threads verteilt)
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			final int offset = t;
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					for (int i = offset; i < temp.length; i += threads) {
+						temp[i][i] = computeDistance(documents.get(i), documents.get(i));
+						for (int j = 0; j < i; j++) {
+							temp[i][j] = computeDistance(documents.get(i), documents.get(j));
+						}
+					}
+					return null;
+				}
+			});
+		}
+		ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+		try {
+			runAll(tasks, executor);
+		} finally {
+			if (executor != null)
+				executor.shutdownNow();
+		}
 		for (int i = 0; i < temp.length; i++) {
-			for (int j = 0; j < temp.length; j++) {
-				temp[i][j] = computeDistance(documents.get(i), documents.get(j));
+			for (int j = 0; j < i; j++) {
+				temp[j][i] = temp[i][j];
 			}
 		}
 		this.distanceMatrix = temp;
 	}
 
+	/*
+	 * Fuehrt die Aufgaben aus (ohne Executor im aktuellen Thread) und gibt
+	 * ihre Ergebnisse in derselben Reihenfolge zurueck.
+	 */
+	private static <T> List<T> runAll(List<Callable<T>> tasks, ExecutorService executor) {
+		List<T> results = new ArrayList<>(tasks.size());
+		try {
+			if (executor == null) {
+				for (Callable<T> task : tasks)
+					results.add(task.call());
+			} else {
+				for (Future<T> future : executor.invokeAll(tasks))
+					results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Neighbor Joining has been interrupted.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+		return results;
+	}
+
 	private Double computeDistance(Type type1, Type type2) {
 		Double distance = type1.getVector().distance(type2.getVector());
 		return distance;
@@ -2,8 +2,9 @@ package modules.tree_building.suffixTreeModuleWrapper;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -18,7 +19,9 @@ import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
 import modules.OutputPort;
+import modules.OutputPortOutputStream;
 import modules.transitionNetwork.TransitionNetwork;
+import modules.tree_building.suffixTree.CompositeTreeWalkerListener;
 import modules.tree_building.suffixTree.GST;
 import modules.tree_building.suffixTree.ResultEdgeSegmentsListener;
 import modules.tree_building.suffixTree.ResultLabelListListener;
@@ -69,6 +72,12 @@ public class GeneralisedSuffixTreeModule extends modules.ModuleImpl {
 	private static final String OUTPUT_FOR_TN_ID = "tn";
 	private static final String OUTPUT_FOR_TN_DESC = "[bytestream] A forTN representation of the tree build, suitable for clustering.";
 
+	// Property to merge equivalent states of the transition network
+	private static final String PROPERTYKEY_MINIMIZE_TN = "Minimize transition network";
+	private static final String DESCRIPTION_MINIMIZE_TN = "Merge equivalent states of the transition network before writing it.";
+	private static final String DEFAULT_MINIMIZE_TN = "false";
+	private boolean minimizeTransitionNetwork = false;
+
 	// Main method for stand-alone execution
 	public static void main(String[] args) throws Exception {
 		ModuleRunner.runStandAlone(GeneralisedSuffixTreeModule.class, args);
@@ -92,6 +101,10 @@ public class GeneralisedSuffixTreeModule extends modules.ModuleImpl {
 		this.getPropertyDefaultValues().put(ModuleImpl.PROPERTYKEY_NAME, MODULE_NAME);
 		this.setDescription(MODULE_DESCRIPTION);
 
+		// Setup properties
+		this.getPropertyDescriptions().put(PROPERTYKEY_MINIMIZE_TN, DESCRIPTION_MINIMIZE_TN);
+		this.getPropertyDefaultValues().put(PROPERTYKEY_MINIMIZE_TN, DEFAULT_MINIMIZE_TN);
+
 		// Add module category
 
 		// Setup I/O, reads from char input produced by KWIP.
@@ -136,17 +149,6 @@ public class GeneralisedSuffixTreeModule extends modules.ModuleImpl {
 					this.getInputPorts().get(INPUT_TEXT_ID).getInputReader());
 			final SuffixTree suffixTree = GST.buildGST(textReader, contextNrs);
 
-			// output a simple list of labels
-			final OutputPort labelsOut = this.getOutputPorts().get(OUTPUT_LIST_ID);
-			if (labelsOut.isConnected()) {
-				final ResultLabelListListener listener = new ResultLabelListListener(suffixTree);
-				TreeWalker.walk(suffixTree.getRoot(), suffixTree, listener);
-
-				for (String label : listener.getLabels()) {
-					labelsOut.outputToAllCharPipes(label + System.lineSeparator());
-				}
-			}
-
 			// output a graphical representation as a graphviz .dot file
 			final OutputPort dotOut = this.getOutputPorts().get(OUTPUT_DOT_FILE_ID);
 			if (dotOut.isConnected()) {
@@ -156,53 +158,117 @@ public class GeneralisedSuffixTreeModule extends modules.ModuleImpl {
 				dotOut.close();
 			}
 
-			// output a list of edge segments
+			final OutputPort labelsOut = this.getOutputPorts().get(OUTPUT_LIST_ID);
 			final OutputPort edgeSegmentsOut = this.getOutputPorts().get(OUTPUT_EDGE_SEGMENTS_ID);
+			final OutputPort transitionNetworkOut = this.getOutputPorts().get(OUTPUT_FOR_TN_ID);
+			final OutputPort xmlOut = this.getOutputPorts().get(OUTPUT_XML_ID);
+			final OutputPort jsonOut = this.getOutputPorts().get(OUTPUT_JSON_ID);
+			final OutputPort labelDataOut = this.getOutputPorts().get(OUTPUT_LABEL_DATA_ID);
+
+			// Only the output written out first may be streamed into its pipes
+			// while walking the tree. The other outputs streamed (edge segments,
+			// xml, json) get a walk of their own when it is their turn. Thus the
+			// outputs can be read one after another without a walk stalling on
+			// the full pipe of an output not read yet.
+			final OutputPort streamedOut = firstConnected(labelsOut, edgeSegmentsOut, transitionNetworkOut, xmlOut,
+					jsonOut, labelDataOut);
+
+			// set up a listener for every connected output collecting its data,
+			// such that all of them are served by a single walk over the tree
+			final CompositeTreeWalkerListener listeners = new CompositeTreeWalkerListener();
+
+			ResultLabelListListener labelsListener = null;
+			if (labelsOut.isConnected()) {
+				labelsListener = new ResultLabelListListener(suffixTree);
+				listeners.add(labelsListener);
+			}
+
+			ResultEdgeSegmentsListener edgeSegmentsListener = null;
+			if (edgeSegmentsOut.isConnected() && edgeSegmentsOut == streamedOut) {
+				edgeSegmentsListener = new ResultEdgeSegmentsListener(suffixTree, edgeSegmentsOut);
+				listeners.add(edgeSegmentsListener);
+			}
+
+			ResultToFiniteStateMachineListener transitionNetworkListener = null;
+			if (transitionNetworkOut.isConnected()) {
+				transitionNetworkListener = new ResultToFiniteStateMachineListener(suffixTree);
+				listeners.add(transitionNetworkListener);
+			}
+
+			ResultToXmlListener xmlListener = null;
+			if (xmlOut.isConnected() && xmlOut == streamedOut) {
+				xmlListener = xmlListener(suffixTree, xmlOut);
+				listeners.add(xmlListener);
+			}
+
+			ResultToJsonListener jsonListener = null;
+			if (jsonOut.isConnected() && jsonOut == streamedOut) {
+				jsonListener = new ResultToJsonListener(suffixTree, jsonOut);
+				listeners.add(jsonListener);
+			}
+
+			ResultToGstLabelDataListener labelDataListener = null;
+			if (labelDataOut.isConnected()) {
+				labelDataListener = new ResultToGstLabelDataListener(suffixTree);
+				listeners.add(labelDataListener);
+			}
+
+			if (!listeners.isEmpty()) {
+				TreeWalker.walk(suffixTree.getRoot(), suffixTree, listeners);
+			}
+
+			// output a simple list of labels
+			if (labelsListener != null) {
+				for (String label : labelsListener.getLabels()) {
+					labelsOut.outputToAllCharPipes(label + System.lineSeparator());
+				}
+			}
+
+			// output a list of edge segments
 			if (edgeSegmentsOut.isConnected()) {
-				final ResultEdgeSegmentsListener listener = new ResultEdgeSegmentsListener(suffixTree, edgeSegmentsOut);
-				TreeWalker.walk(suffixTree.getRoot(), suffixTree, listener);
-				if (!listener.hasCompleted()) {
+				if (edgeSegmentsListener == null) {
+					edgeSegmentsListener = new ResultEdgeSegmentsListener(suffixTree, edgeSegmentsOut);
+					TreeWalker.walk(suffixTree.getRoot(), suffixTree, edgeSegmentsListener);
+				}
+				edgeSegmentsListener.finishWriting();
+				if (!edgeSegmentsListener.hasCompleted()) {
 					throw new IllegalStateException("Listener did not finish correctly. Result may be wrong.");
 				}
 				edgeSegmentsOut.close();
 			}
 
 			// output the transition network
-			final OutputPort transitionNetworkOut = this.getOutputPorts().get(OUTPUT_FOR_TN_ID);
-			if (transitionNetworkOut.isConnected()) {
-				final ResultToFiniteStateMachineListener listener = new ResultToFiniteStateMachineListener(suffixTree);
-				TreeWalker.walk(suffixTree.getRoot(), suffixTree, listener);
-				TransitionNetwork tn = listener.getTN();
+			if (transitionNetworkListener != null) {
+				TransitionNetwork tn = transitionNetworkListener.getTN();
+				if (this.minimizeTransitionNetwork) {
+					tn.minimize();
+				}
 				tn.writeTN(transitionNetworkOut);
 				transitionNetworkOut.close();
 			}
-			
-			
+
 			// output an XML-Representation of the tree
-			final OutputPort xmlOut = this.getOutputPorts().get(OUTPUT_XML_ID);
 			if (xmlOut.isConnected()) {
-				final StringWriter sw = new StringWriter();
-				final ResultToXmlListener listener = new ResultToXmlListener(suffixTree, new XmlPrintWriter(sw));
-				TreeWalker.walk(suffixTree.getRoot(), suffixTree, listener);
-				listener.finishWriting();
-				xmlOut.outputToAllBytePipes(sw.toString().getBytes());
+				if (xmlListener == null) {
+					xmlListener = xmlListener(suffixTree, xmlOut);
+					TreeWalker.walk(suffixTree.getRoot(), suffixTree, xmlListener);
+				}
+				xmlListener.finishWriting();
 				xmlOut.close();
 			}
 
-			final OutputPort jsonOut = this.getOutputPorts().get(OUTPUT_JSON_ID);
 			if (jsonOut.isConnected()) {
-				final ResultToJsonListener listener = new ResultToJsonListener(suffixTree, jsonOut);
-				TreeWalker.walk(suffixTree.getRoot(), suffixTree, listener);
-				listener.finishWriting();
+				if (jsonListener == null) {
+					jsonListener = new ResultToJsonListener(suffixTree, jsonOut);
+					TreeWalker.walk(suffixTree.getRoot(), suffixTree, jsonListener);
+				}
+				jsonListener.finishWriting();
 				jsonOut.close();
 			}
 
 			// output the label data csv table
-			final OutputPort labelDataOut = this.getOutputPorts().get(OUTPUT_LABEL_DATA_ID);
-			if (labelDataOut.isConnected()) {
-				final ResultToGstLabelDataListener listener = new ResultToGstLabelDataListener(suffixTree);
-				TreeWalker.walk(suffixTree.getRoot(), suffixTree, listener);
-				writeGstLabelData(listener.getLabelsToGstData().values(), labelDataOut);
+			if (labelDataListener != null) {
+				writeGstLabelData(labelDataListener.getLabelsToGstData().values(), labelDataOut);
 				labelDataOut.close();
 			}
 
@@ -216,6 +282,18 @@ public class GeneralisedSuffixTreeModule extends modules.ModuleImpl {
 		return result;
 	}
 
+	@Override
+	public void applyProperties() throws Exception {
+		super.setDefaultsIfMissing();
+
+		if (this.getProperties().containsKey(PROPERTYKEY_MINIMIZE_TN)) {
+			this.minimizeTransitionNetwork = Boolean
+					.parseBoolean(this.getProperties().getProperty(PROPERTYKEY_MINIMIZE_TN));
+		}
+
+		super.applyProperties();
+	}
+
 	// this is normally done in the constructor, but was moved here to
 	// remove clutter from it
 	private void setupOutputPorts() {
@@ -278,4 +356,20 @@ public class GeneralisedSuffixTreeModule extends modules.ModuleImpl {
 		}
 	}
 
+	// a listener streaming the xml document into the output port's pipes
+	private static ResultToXmlListener xmlListener(SuffixTree suffixTree, OutputPort xmlOut) {
+		final Writer xmlWriter = new OutputStreamWriter(new OutputPortOutputStream(xmlOut));
+		return new ResultToXmlListener(suffixTree, new XmlPrintWriter(xmlWriter));
+	}
+
+	// the first of the given output ports that is connected, null if none is
+	private static OutputPort firstConnected(OutputPort... outputPorts) {
+		for (OutputPort outputPort : outputPorts) {
+			if (outputPort.isConnected()) {
+				return outputPort;
+			}
+		}
+		return null;
+	}
+
 }
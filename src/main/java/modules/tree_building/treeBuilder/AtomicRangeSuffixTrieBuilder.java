@@ -1,7 +1,8 @@
 package modules.tree_building.treeBuilder;
 
+import java.io.BufferedReader;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Properties;
 import java.util.TreeSet;
 
@@ -9,10 +10,9 @@ import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
 import modules.OutputPort;
-import modules.Pipe;
+import modules.OutputPortWriter;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
 import common.parallelization.CallbackReceiver;
 
 import base.workbench.ModuleRunner;
@@ -28,12 +28,14 @@ public class AtomicRangeSuffixTrieBuilder extends ModuleImpl {
 	// Property keys
 	public static final String PROPERTYKEY_MAXLENGTH = "Maximum length of branches";
 	public static final String PROPERTYKEY_REVERSE = "Reverse the trie";
+	public static final String PROPERTYKEY_PRETTYPRINT = "Pretty print output";
 
 	// Local variables
 	private final String INPUTID = "input";
 	private final String OUTPUTID = "output";
 	private int maxLaenge; // Maximale Laenge des zu bauenden Baums
 	private boolean umgekehrt; // Maximale Laenge des zu bauenden Baums
+	private boolean formatieren; // Zeigt an, ob die JSON-Ausgabe eingerueckt werden soll
 
 	public AtomicRangeSuffixTrieBuilder(CallbackReceiver callbackReceiver, Properties properties)
 			throws Exception {
@@ -50,11 +52,13 @@ public class AtomicRangeSuffixTrieBuilder extends ModuleImpl {
 		// Add description for properties
 		this.getPropertyDescriptions().put(PROPERTYKEY_MAXLENGTH,"Define the maximum length of any branch of the trie. Set to -1 for no constraint");
 		this.getPropertyDescriptions().put(PROPERTYKEY_REVERSE,"Reverse the building of the trie (results in a prefix trie).");
+		this.getPropertyDescriptions().put(PROPERTYKEY_PRETTYPRINT,"Indent the JSON output; set to false for compact output.");
 		
 		// Add default values
 		this.getPropertyDefaultValues().put(ModuleImpl.PROPERTYKEY_NAME, "AtomicRangeSuffixTrieBuilder");
 		this.getPropertyDefaultValues().put(PROPERTYKEY_MAXLENGTH, "10");
 		this.getPropertyDefaultValues().put(PROPERTYKEY_REVERSE, "false");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_PRETTYPRINT, "true");
 		
 		// Add module description
 		this.setDescription("Iterates over a raw and unsegmented string input, building a suffix trie from the data of limited range with each step. Keeps track of how often each node of the suffix trie gets triggered.");
@@ -65,13 +69,20 @@ public class AtomicRangeSuffixTrieBuilder extends ModuleImpl {
 	@Override
 	public boolean process() throws Exception {
 		
-		// Wurzelknoten des zu erstellenden Baumes erstellen
-		Knoten wurzelKnoten = new Knoten("^");
+		// Zu erstellenden Baum mit Wurzelknoten anlegen
+		CountingTrie trie = new CountingTrie("^");
 		
-		LinkedList<Character> buffer = new LinkedList<Character>();
+		// Puffer fuer das Fenster der zuletzt gelesenen Zeichen [anfang, ende); wird
+		// nur dann umkopiert, wenn das Fenster das Pufferende erreicht
+		char[] puffer = new char[Math.max(16, 2 * this.maxLaenge)];
+		int anfang = 0;
+		int ende = 0;
+		
+		// Eingabe puffern
+		BufferedReader eingabe = new BufferedReader(this.getInputPorts().get(INPUTID).getInputReader());
 		
 		// Read first characters
-		int charCode = this.getInputPorts().get(INPUTID).getInputReader().read();
+		int charCode = eingabe.read();
 
 		// Loop until no more data can be read
 		while (charCode != -1) {
@@ -82,36 +93,44 @@ public class AtomicRangeSuffixTrieBuilder extends ModuleImpl {
 				throw new InterruptedException("Thread has been interrupted.");
 			}
 
+			// Make room at the end of the buffer if necessary
+			if (ende == puffer.length) {
+				if (2 * (ende - anfang) > puffer.length)
+					puffer = Arrays.copyOfRange(puffer, anfang, anfang + 2 * puffer.length);
+				else
+					System.arraycopy(puffer, anfang, puffer, 0, ende - anfang);
+				ende -= anfang;
+				anfang = 0;
+			}
+			
 			// Add read char code to buffer
-			buffer.add(Character.valueOf((char) charCode));
+			puffer[ende++] = (char) charCode;
 			
 			// If the buffer exceeds the set maximum length, remove the oldest (first) element
-			if (this.maxLaenge >= 0 && buffer.size()>this.maxLaenge)
-				buffer.removeFirst();
+			if (this.maxLaenge >= 0 && ende - anfang > this.maxLaenge)
+				anfang++;
 			
 			// Construct trie from buffer and attach it to the root node (skip this until the buffer is full)
-			if (buffer.size()==this.maxLaenge)
-				this.baueTrie(buffer, wurzelKnoten, this.umgekehrt, -1);
+			if (ende - anfang == this.maxLaenge)
+				trie.addPath(puffer, anfang, ende, this.umgekehrt, -1);
 			
 			// Read next char
-			charCode = this.getInputPorts().get(INPUTID).getInputReader().read();
+			charCode = eingabe.read();
 		}
 		
 		// Read remaining buffer
-		if (!buffer.isEmpty() && buffer.size()==this.maxLaenge)
-			buffer.removeFirst();
-		while (!buffer.isEmpty()){
+		if (ende > anfang && ende - anfang == this.maxLaenge)
+			anfang++;
+		while (ende > anfang){
 			// Construct trie from buffer and attach it to the root node
-			this.baueTrie(buffer, wurzelKnoten, this.umgekehrt, -1);
-			buffer.removeFirst();
+			trie.addPath(puffer, anfang, ende, this.umgekehrt, -1);
+			anfang++;
 		}
 		
-		// Letztlich wird der Wurzelknoten (und damit der gesamte erstellte Baum) in JSON umgewandelt und ausgegeben
-		Gson gson = new GsonBuilder().setPrettyPrinting().create();
-		Iterator<Pipe> charPipes = this.getOutputPorts().get(OUTPUTID).getPipes(CharPipe.class).iterator();
-		while (charPipes.hasNext()){
-			gson.toJson(wurzelKnoten, ((CharPipe)charPipes.next()).getOutput());
-		}
+		// Letztlich wird der gesamte erstellte Baum in JSON umgewandelt und (einmal fuer alle Ausgabekanaele) ausgegeben
+		JsonWriter jsonWriter = TrieJson.createWriter(new OutputPortWriter(this.getOutputPorts().get(OUTPUTID)), this.formatieren);
+		TrieJson.write(trie, jsonWriter);
+		jsonWriter.close();
 		
 		// Ausgabekanaele schliessen
 		this.closeAllOutputs();
@@ -131,81 +150,11 @@ public class AtomicRangeSuffixTrieBuilder extends ModuleImpl {
 			this.maxLaenge = Integer.parseInt(this.getProperties().getProperty(PROPERTYKEY_MAXLENGTH));
 		if (this.getProperties().containsKey(PROPERTYKEY_REVERSE))
 			this.umgekehrt = Boolean.parseBoolean(this.getProperties().getProperty(PROPERTYKEY_REVERSE));
+		if (this.getProperties().containsKey(PROPERTYKEY_PRETTYPRINT))
+			this.formatieren = Boolean.parseBoolean(this.getProperties().getProperty(PROPERTYKEY_PRETTYPRINT));
 		super.applyProperties();
 	}
 	
-    /**
-     * Erzeugt einen Suffixtrie im uebergebenen Knoten anhand der uebergebenen Token.
-     * Inkrementiert die Zaehlvariable eines jeden Knotens um eins fuer jede "Beruehrung".
-     * @param token LinkedList mit Token
-     * @param rootnode Startknoten Wurzelknoten des zu konstruierenden Baumes
-     * @param umgekehrt Zeigt an, ob der Baum umgekehrt erstellt werden soll (quasi als "Praefixbaum")
-     * @param maxLaenge Die maximale Anzahl an Token, die dem Trie hinzugefuegt werden soll (&lt;0 = ignorieren).
-     * @return Die Anzahl der neu erstellten Knoten
-     */
-    public int baueTrie(LinkedList<Character> token, Knoten rootnode, boolean umgekehrt, int maxLaenge) {
-
-    	// Variable zum Mitzaehlen der erstellten Knoten
-		int knotenerstellt = 0;
-		
-		// "Beruehrung" des Knotens mitzaehlen
-		rootnode.setZaehler(rootnode.getZaehler() + 1);
-
-		// Wenn keine Token mehr vorhanden sind bzw. die maximal hinzuzufuegende Anzahl an Token ueberschritten wird, wird abgebrochen
-		if (token == null || token.size() == 0 || maxLaenge==0) {
-			return knotenerstellt;
-		}
-
-		// Index des als naechstes zu vergleichenden Tokens ermitteln
-		int vergleichsTokenIndex = 0;
-		if (umgekehrt) {
-			vergleichsTokenIndex = token.size() - 1;
-		}
-
-		// Variable fuer Kindknoten definieren
-		Knoten kindKnoten;
-
-		// Ggf. neuen Knoten erstellen
-		if (!rootnode.getKinder().containsKey(String.valueOf(token.get(vergleichsTokenIndex)))) {
-			// passender Knoten NICHT vorhanden - neuen erstellen
-			kindKnoten = new Knoten();
-			
-			// Zaehler fuer erstellte Knoten inkrementieren
-			knotenerstellt++;
-			
-			// Den Namen der Kante in der Node speichern .. um spaeter bei Bedarf die Knoten geordnet ausgeben zu koennen (debug)
-			kindKnoten.setName(String.valueOf(token.get(vergleichsTokenIndex)));
-			
-			// Kind dem Elternknoten anfuegen
-			rootnode.getKinder().put(String.valueOf(token.get(vergleichsTokenIndex)), kindKnoten);
-
-		} else {
-			// passender Knoten vorhanden
-			kindKnoten = rootnode.getKinder().get(String.valueOf(token.get(vergleichsTokenIndex)));
-		}
-
-		// Eingabeliste klonen (da sie im weiteren Schritt gekuerzt wird)
-		@SuppressWarnings("unchecked")
-		LinkedList<Character> restListe = (LinkedList<Character>)token.clone();
-		
-		// Pruefen, ob der Baum "umgekehrt" erstellt werden soll
-		if (umgekehrt) {
-			// Rekursiver Aufruf mit Token 0 bis n-1
-			restListe.removeLast();
-			knotenerstellt += this.baueTrie( restListe,
-					kindKnoten, umgekehrt, maxLaenge-1);
-		} else {
-			// Rekursiver Aufruf mit Token 1 bis n
-			restListe.removeFirst();
-			knotenerstellt += this.baueTrie( restListe,
-					kindKnoten, umgekehrt, maxLaenge-1);
-		}
-
-		// Anzahl der neu erstellten Knoten zurueckgeben
-		return knotenerstellt;
-
-    }
-
 	/**
 	 * Gibt eine Kopie des uebergebenen Baumes zurueck, aber ohne die Knoten, die nicht als Treffer
 	 * markiert waren.
@@ -0,0 +1,298 @@
+package modules.tree_building.treeBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trie that counts how often each of its nodes is touched while paths are
+ * added. Nodes are identified by ints and kept in primitive arrays, the edge
+ * to a child is found via a hash table keyed by the parent and the edge
+ * label. Labels (chars or tokens) are interned, so adding a path does not
+ * allocate anything once the nodes exist.
+ *
+ * Every node is created after its parent, so iterating over the node ids in
+ * ascending order visits parents before their children.
+ */
+public class CountingTrie {
+
+	private static final int DEFAULT_CAPACITY = 1024;
+
+	// marks empty slots in the child table
+	private static final long NO_KEY = -1L;
+
+	private final String rootName;
+
+	// per node: counter, label id and parent (-1 for the root)
+	private int[] counters;
+	private int[] labels;
+	private int[] parents;
+	private int size;
+
+	// open addressing hash table mapping (parent, label) to the child node
+	private long[] childKeys;
+	private int[] childNodes;
+
+	// interned labels; single chars are additionally cached by their value
+	private final List<String> labelNames = new ArrayList<String>();
+	private final Map<String, Integer> labelIds = new HashMap<String, Integer>();
+	private int[] charLabelIds = null;
+
+	/**
+	 * Creates a trie consisting of the root node only.
+	 *
+	 * @param rootName
+	 *            Name to give to the root node on conversion
+	 */
+	public CountingTrie(String rootName) {
+		this.rootName = rootName;
+		this.counters = new int[DEFAULT_CAPACITY];
+		this.labels = new int[DEFAULT_CAPACITY];
+		this.parents = new int[DEFAULT_CAPACITY];
+		this.childKeys = new long[2 * DEFAULT_CAPACITY];
+		Arrays.fill(this.childKeys, NO_KEY);
+		this.childNodes = new int[2 * DEFAULT_CAPACITY];
+		this.labels[0] = -1;
+		this.parents[0] = -1;
+		this.size = 1;
+	}
+
+	/**
+	 * @return The root node
+	 */
+	public int getRoot() {
+		return 0;
+	}
+
+	/**
+	 * @return The amount of nodes, including the root
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @param node
+	 *            A node
+	 * @return How often the node was touched
+	 */
+	public int getCounter(int node) {
+		return this.counters[node];
+	}
+
+	/**
+	 * Increments the node's counter by one.
+	 *
+	 * @param node
+	 *            A node
+	 */
+	public void incrementCounter(int node) {
+		this.counters[node]++;
+	}
+
+	/**
+	 * @param node
+	 *            A node
+	 * @return The label of the edge leading to the node, the root name for the root
+	 */
+	public String getLabel(int node) {
+		return (node == 0) ? this.rootName : this.labelNames.get(this.labels[node]);
+	}
+
+	/**
+	 * @param node
+	 *            A node
+	 * @return The node's parent, -1 for the root
+	 */
+	public int getParent(int node) {
+		return this.parents[node];
+	}
+
+	/**
+	 * @param node
+	 *            A node
+	 * @param label
+	 *            An edge label
+	 * @return The child reached via the label, -1 if there is none
+	 */
+	public int getChild(int node, String label) {
+		final Integer labelId = this.labelIds.get(label);
+		if (labelId == null)
+			return -1;
+		final int slot = this.slot(node, labelId);
+		return (this.childKeys[slot] == NO_KEY) ? -1 : this.childNodes[slot];
+	}
+
+	/**
+	 * Returns the child reached via the label, creating it if necessary.
+	 * Counters are not touched.
+	 *
+	 * @param node
+	 *            A node
+	 * @param label
+	 *            An edge label
+	 * @return The child
+	 */
+	public int getOrAddChild(int node, String label) {
+		return this.getOrAddChildByLabelId(node, this.labelId(label));
+	}
+
+	/**
+	 * Adds the path of chars text[from, to) below the root (or the path
+	 * text[to-1] ... text[from] if reverse is set). The root and every node on
+	 * the path have their counters incremented by one.
+	 *
+	 * @param text
+	 *            Chars
+	 * @param from
+	 *            Start index (inclusive)
+	 * @param to
+	 *            End index (exclusive)
+	 * @param reverse
+	 *            Whether to add the chars from last to first (to build a prefix trie)
+	 * @param maxLength
+	 *            Maximum amount of chars to add (&lt;0 = all)
+	 * @return The amount of nodes created
+	 */
+	public int addPath(char[] text, int from, int to, boolean reverse, int maxLength) {
+		final int length = (maxLength < 0) ? to - from : Math.min(maxLength, to - from);
+		final int sizeBefore = this.size;
+		int node = 0;
+		this.counters[node]++;
+		for (int i = 0; i < length; i++) {
+			final char c = reverse ? text[to - 1 - i] : text[from + i];
+			node = this.getOrAddChildByLabelId(node, this.labelId(c));
+			this.counters[node]++;
+		}
+		return this.size - sizeBefore;
+	}
+
+	/**
+	 * Adds the path of tokens tokens[from, to) below the root (or the path
+	 * tokens[to-1] ... tokens[from] if reverse is set). The root and every node
+	 * on the path have their counters incremented by one.
+	 *
+	 * @param tokens
+	 *            Tokens
+	 * @param from
+	 *            Start index (inclusive)
+	 * @param to
+	 *            End index (exclusive)
+	 * @param reverse
+	 *            Whether to add the tokens from last to first (to build a prefix trie)
+	 * @param maxLength
+	 *            Maximum amount of tokens to add (&lt;0 = all)
+	 * @return The amount of nodes created
+	 */
+	public int addPath(String[] tokens, int from, int to, boolean reverse, int maxLength) {
+		final int length = (maxLength < 0) ? to - from : Math.min(maxLength, to - from);
+		final int sizeBefore = this.size;
+		int node = 0;
+		this.counters[node]++;
+		for (int i = 0; i < length; i++) {
+			final String token = reverse ? tokens[to - 1 - i] : tokens[from + i];
+			node = this.getOrAddChildByLabelId(node, this.labelId(token));
+			this.counters[node]++;
+		}
+		return this.size - sizeBefore;
+	}
+
+	/**
+	 * Converts the trie into linked Knoten (e.g. for serialisation).
+	 *
+	 * @return The root Knoten
+	 */
+	public Knoten toKnoten() {
+		final Knoten[] knoten = new Knoten[this.size];
+		for (int node = 0; node < this.size; node++) {
+			knoten[node] = new Knoten(this.getLabel(node));
+			knoten[node].setZaehler(this.counters[node]);
+			if (node > 0)
+				knoten[this.parents[node]].getKinder().put(knoten[node].getName(), knoten[node]);
+		}
+		return knoten[0];
+	}
+
+	private int labelId(String label) {
+		Integer id = this.labelIds.get(label);
+		if (id == null) {
+			id = this.labelNames.size();
+			this.labelNames.add(label);
+			this.labelIds.put(label, id);
+		}
+		return id;
+	}
+
+	private int labelId(char c) {
+		if (this.charLabelIds == null) {
+			this.charLabelIds = new int[Character.MAX_VALUE + 1];
+			Arrays.fill(this.charLabelIds, -1);
+		}
+		int id = this.charLabelIds[c];
+		if (id < 0) {
+			id = this.labelId(String.valueOf(c));
+			this.charLabelIds[c] = id;
+		}
+		return id;
+	}
+
+	private int getOrAddChildByLabelId(int node, int labelId) {
+		int slot = this.slot(node, labelId);
+		if (this.childKeys[slot] != NO_KEY)
+			return this.childNodes[slot];
+
+		if (this.size == this.counters.length) {
+			final int capacity = 2 * this.counters.length;
+			this.counters = Arrays.copyOf(this.counters, capacity);
+			this.labels = Arrays.copyOf(this.labels, capacity);
+			this.parents = Arrays.copyOf(this.parents, capacity);
+		}
+		final int child = this.size++;
+		this.labels[child] = labelId;
+		this.parents[child] = node;
+
+		// keep the table at most half full
+		if (2 * this.size > this.childKeys.length) {
+			this.rehash(2 * this.childKeys.length);
+			slot = this.slot(node, labelId);
+		}
+		this.childKeys[slot] = key(node, labelId);
+		this.childNodes[slot] = child;
+		return child;
+	}
+
+	// returns the slot holding the key or the empty slot it would be put into
+	private int slot(int node, int labelId) {
+		final long key = key(node, labelId);
+		final int mask = this.childKeys.length - 1;
+		int slot = hash(key) & mask;
+		while (this.childKeys[slot] != NO_KEY && this.childKeys[slot] != key)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	private void rehash(int capacity) {
+		this.childKeys = new long[capacity];
+		Arrays.fill(this.childKeys, NO_KEY);
+		this.childNodes = new int[capacity];
+		// every node but the root is the child of exactly one entry; the node
+		// created last is put into the table by the caller
+		for (int child = 1; child < this.size - 1; child++) {
+			final int slot = this.slot(this.parents[child], this.labels[child]);
+			this.childKeys[slot] = key(this.parents[child], this.labels[child]);
+			this.childNodes[slot] = child;
+		}
+	}
+
+	private static long key(int node, int labelId) {
+		return ((long) node << 32) | (labelId & 0xffffffffL);
+	}
+
+	private static int hash(long key) {
+		key *= 0x9e3779b97f4a7c15L;
+		return (int) (key ^ (key >>> 32));
+	}
+
+}
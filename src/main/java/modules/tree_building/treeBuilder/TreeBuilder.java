@@ -12,11 +12,12 @@ import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
 import modules.OutputPort;
-import modules.Pipe;
+import modules.OutputPortWriter;
 import modules.parser.oanc.WortAnnotationTupel;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
 
 import common.parallelization.CallbackReceiver;
 
@@ -34,6 +35,7 @@ public class TreeBuilder extends ModuleImpl {
 	public static final String PROPERTYKEY_BUILDTRIE = "Build trie instead of tree";
 	public static final String PROPERTYKEY_MAXLENGTH = "Maximum length of branches";
 	public static final String PROPERTYKEY_REVERSE = "Reverse order";
+	public static final String PROPERTYKEY_PRETTYPRINT = "Pretty print output";
 
 	// Local variables
 	private final String INPUTID = "input";
@@ -41,6 +43,7 @@ public class TreeBuilder extends ModuleImpl {
 	private boolean baueTrie; // Zeigt an, ob ein Trie oder ein Tree gebaut werden soll
 	private int maxLaenge; // Maximale Laenge des zu bauenden Baums
 	private boolean umgekehrt; // Zeigt an, ob der Baum umgekehrt (als Praefix-Baum) konstruiert werden soll
+	private boolean formatieren; // Zeigt an, ob die JSON-Ausgabe eingerueckt werden soll
 
 	public TreeBuilder(CallbackReceiver callbackReceiver, Properties properties)
 			throws Exception {
@@ -58,12 +61,14 @@ public class TreeBuilder extends ModuleImpl {
 		this.getPropertyDescriptions().put(PROPERTYKEY_BUILDTRIE,"Set to true if you want to construct a trie instead of a tree.");
 		this.getPropertyDescriptions().put(PROPERTYKEY_MAXLENGTH,"Define the maximum length of any branch of the tree.");
 		this.getPropertyDescriptions().put(PROPERTYKEY_REVERSE,"Reverse the order, construct a prefix-tree.");
+		this.getPropertyDescriptions().put(PROPERTYKEY_PRETTYPRINT,"Indent the JSON output; set to false for compact output.");
 		
 		// Add default values
 		this.getPropertyDefaultValues().put(ModuleImpl.PROPERTYKEY_NAME, "Treebuilder");
 		this.getPropertyDefaultValues().put(PROPERTYKEY_BUILDTRIE, "true");
 		this.getPropertyDefaultValues().put(PROPERTYKEY_MAXLENGTH, "-1");
 		this.getPropertyDefaultValues().put(PROPERTYKEY_REVERSE, "false");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_PRETTYPRINT, "true");
 		
 		// Add module description
 		this.setDescription("Builds a suffixtree from the JSON output of OANCXMLParser (expects annotated JSON, one object per line). Can be configured to build other forms.");
@@ -75,12 +80,8 @@ public class TreeBuilder extends ModuleImpl {
 	@Override
 	public boolean process() throws Exception {
 		
-		// Wurzelknoten des zu erstellenden Baumes erstellen
-		Knoten wurzelKnoten = new Knoten();
-		if (this.umgekehrt)
-			wurzelKnoten.setName("$");
-		else
-			wurzelKnoten.setName("^");
+		// Zu erstellenden Baum mit Wurzelknoten anlegen
+		CountingTrie trie = new CountingTrie(this.umgekehrt ? "$" : "^");
 		
 		// JSON-Parser instanziieren
 		Gson gson = new GsonBuilder().setPrettyPrinting().create();
@@ -114,9 +115,9 @@ public class TreeBuilder extends ModuleImpl {
 				
 				// Mit dem ermittelten Satz wird der Baum weiter konstruiert
 				if (this.baueTrie)
-					this.baueTrie(satzArray, wurzelKnoten, this.umgekehrt, this.maxLaenge);
+					trie.addPath(satzArray, 0, satzArray.length, this.umgekehrt, this.maxLaenge);
 				else
-					this.baueBaum(satzArray, wurzelKnoten, this.umgekehrt, this.maxLaenge);
+					this.baueBaum(satzArray, trie, this.umgekehrt, this.maxLaenge);
 				
 			}
 			
@@ -125,11 +126,10 @@ public class TreeBuilder extends ModuleImpl {
 			
 		}
 		
-		// Letztlich wird der Wurzelknoten (und damit der gesamte erstellte Baum) in JSON umgewandelt und ausgegeben
-		Iterator<Pipe> charPipes = this.getOutputPorts().get(OUTPUTID).getPipes(CharPipe.class).iterator();
-		while (charPipes.hasNext()){
-			gson.toJson(wurzelKnoten, ((CharPipe)charPipes.next()).getOutput());
-		}
+		// Letztlich wird der gesamte erstellte Baum in JSON umgewandelt und (einmal fuer alle Ausgabekanaele) ausgegeben
+		JsonWriter jsonWriter = TrieJson.createWriter(new OutputPortWriter(this.getOutputPorts().get(OUTPUTID)), this.formatieren);
+		TrieJson.write(trie, jsonWriter);
+		jsonWriter.close();
 		
 		// Ausgabekanaele schliessen
 		this.closeAllOutputs();
@@ -151,6 +151,8 @@ public class TreeBuilder extends ModuleImpl {
 			this.maxLaenge = Integer.parseInt(this.getProperties().getProperty(PROPERTYKEY_MAXLENGTH));
 		if (this.getProperties().containsKey(PROPERTYKEY_REVERSE))
 			this.umgekehrt = Boolean.parseBoolean(this.getProperties().getProperty(PROPERTYKEY_REVERSE));
+		if (this.getProperties().containsKey(PROPERTYKEY_PRETTYPRINT))
+			this.formatieren = Boolean.parseBoolean(this.getProperties().getProperty(PROPERTYKEY_PRETTYPRINT));
 		super.applyProperties();
 	}
 	
@@ -192,7 +194,7 @@ public class TreeBuilder extends ModuleImpl {
 			}
 			
 			// Naechsten Trie in Baum einfuegen
-			knotenEingefuegt += this.baueTrie(Arrays.copyOfRange(token, von, bis), rootnode, umgekehrt, maxLaenge);
+			knotenEingefuegt += this.baueTrie(token, von, bis, rootnode, umgekehrt, maxLaenge);
 			
 		}
 		
@@ -201,6 +203,27 @@ public class TreeBuilder extends ModuleImpl {
 		
 	}
 	
+	/**
+     * Erzeugt einen Suffixbaum im uebergebenen Trie anhand der uebergebenen Token.
+     * Inkrementiert die Zaehlvariable eines jeden Knotens um eins fuer jede "Beruehrung".
+     * Die Suffixe werden ueber Indexbereiche eingefuegt, ohne das Tokenarray zu kopieren.
+     * @param token String-Array mit Token (Woerter, Buchstaben, Symbole, ... egal was)
+     * @param trie Der zu konstruierende Baum
+     * @param umgekehrt Zeigt an, ob der Baum umgekehrt erstellt werden soll (quasi als "Praefixbaum")
+     * @param maxLaenge Die maximale Anzahl an Token je eingefuegtem Suffix (&lt;0 = ignorieren)
+     * @return Die Anzahl der neu erstellten Knoten
+     */
+	public int baueBaum(String[] token, CountingTrie trie, boolean umgekehrt, int maxLaenge) {
+		int knotenEingefuegt = 0;
+		for (int i=0; i<token.length; i++){
+			if (umgekehrt)
+				knotenEingefuegt += trie.addPath(token, 0, token.length - i, true, maxLaenge);
+			else
+				knotenEingefuegt += trie.addPath(token, i, token.length, false, maxLaenge);
+		}
+		return knotenEingefuegt;
+	}
+	
     /**
      * Erzeugt einen Suffixtrie im uebergebenen Knoten anhand der uebergebenen Token.
      * Inkrementiert die Zaehlvariable eines jeden Knotens um eins fuer jede "Beruehrung".
@@ -223,57 +246,53 @@ public class TreeBuilder extends ModuleImpl {
      * @return Die Anzahl der neu erstellten Knoten
      */
     public int baueTrie(String[] token, Knoten rootnode, boolean umgekehrt, int maxLaenge) {
+    	if (token == null) {
+    		rootnode.setZaehler(rootnode.getZaehler() + 1);
+    		return 0;
+    	}
+    	return this.baueTrie(token, 0, token.length, rootnode, umgekehrt, maxLaenge);
+    }
+
+    /**
+     * Erzeugt einen Suffixtrie im uebergebenen Knoten anhand der Token im Bereich [von, bis).
+     * Inkrementiert die Zaehlvariable eines jeden Knotens um eins fuer jede "Beruehrung".
+     * @param token String-Array mit Token (Woerter, Buchstaben, Symbole, ... egal was)
+     * @param von Index des ersten Tokens (inklusive)
+     * @param bis Index des letzten Tokens (exklusive)
+     * @param rootnode Startknoten Wurzelknoten des zu konstruierenden Baumes
+     * @param umgekehrt Zeigt an, ob der Baum umgekehrt erstellt werden soll (quasi als "Praefixbaum")
+     * @param maxLaenge Die maximale Anzahl an Token, die dem Trie hinzugefuegt werden soll (&lt;0 = ignorieren).
+     * @return Die Anzahl der neu erstellten Knoten
+     */
+    private int baueTrie(String[] token, int von, int bis, Knoten rootnode, boolean umgekehrt, int maxLaenge) {
 
     	// Variable zum Mitzaehlen der erstellten Knoten
 		int knotenerstellt = 0;
-		
-		// "Beruehrung" des Knotens mitzaehlen
-		rootnode.setZaehler(rootnode.getZaehler() + 1);
-
-		// Wenn keine Token mehr vorhanden sind bzw. die maximal hinzuzufuegende Anzahl an Token ueberschritten wird, wird abgebrochen
-		if (token == null || token.length == 0 || maxLaenge==0) {
-			return knotenerstellt;
-		}
 
-		// Index des als naechstes zu vergleichenden Tokens ermitteln
-		int vergleichsTokenIndex = 0;
-		if (umgekehrt) {
-			vergleichsTokenIndex = token.length - 1;
-		}
-
-		// Variable fuer Kindknoten definieren
-		Knoten kindKnoten;
-
-		// Ggf. neuen Knoten erstellen
-		if (!rootnode.getKinder().containsKey(token[vergleichsTokenIndex])) {
-			// passender Knoten NICHT vorhanden - neuen erstellen
-			kindKnoten = new Knoten();
-			
-			// Zaehler fuer erstellte Knoten inkrementieren
-			knotenerstellt++;
-			
-			// Den Namen der Kante in der Node speichern .. um spaeter bei Bedarf die Knoten geordnet ausgeben zu koennen (debug)
-			kindKnoten.setName(token[vergleichsTokenIndex]);
-			
-			// Kind dem Elternknoten anfuegen
-			rootnode.getKinder().put(token[vergleichsTokenIndex], kindKnoten);
+		// "Beruehrung" des Wurzelknotens mitzaehlen
+		rootnode.setZaehler(rootnode.getZaehler() + 1);
 
-		} else {
-			// passender Knoten vorhanden
-			kindKnoten = rootnode.getKinder().get(token[vergleichsTokenIndex]);
-		}
+		// Anzahl der hinzuzufuegenden Token ermitteln
+		int laenge = bis - von;
+		if (maxLaenge >= 0 && maxLaenge < laenge)
+			laenge = maxLaenge;
+
+		// Token der Reihe nach (bzw. umgekehrt von hinten) in den Baum einfuegen
+		Knoten knoten = rootnode;
+		for (int i = 0; i < laenge; i++) {
+			String vergleichsToken = umgekehrt ? token[bis - 1 - i] : token[von + i];
+			Knoten kindKnoten = knoten.getKinder().get(vergleichsToken);
+
+			// Ggf. neuen Knoten erstellen
+			if (kindKnoten == null) {
+				kindKnoten = new Knoten(vergleichsToken);
+				knoten.getKinder().put(vergleichsToken, kindKnoten);
+				knotenerstellt++;
+			}
 
-		// Pruefen, ob der Baum "umgekehrt" erstellt werden soll
-		if (umgekehrt) {
-			// Rekursiver Aufruf mit Token 0 bis n-1
-			knotenerstellt += this.baueTrie(
-					Arrays.copyOfRange(token, 0, token.length - 1),
-					kindKnoten, umgekehrt, maxLaenge-1);
-		} else {
-			// Rekursiver Aufruf mit Token 1 bis n
-			knotenerstellt += this.baueTrie(
-					Arrays.copyOfRange(token, 1, token.length),
-					kindKnoten, umgekehrt, maxLaenge-1);
+			// "Beruehrung" des Knotens mitzaehlen
+			kindKnoten.setZaehler(kindKnoten.getZaehler() + 1);
+			knoten = kindKnoten;
 		}
 
 		// Anzahl der neu erstellten Knoten zurueckgeben
@@ -102,6 +102,15 @@ public class TreeBuilderV2Module extends ModuleImpl {
 		Scanner inputScanner = new Scanner(this.getInputPorts().get(ID_INPUT).getInputReader());
 		inputScanner.useDelimiter(this.inputDelimiter);
 		
+		// Atomic tries are built on a counting trie instead of linked nodes
+		if (!compactTree){
+			ParentRelationTreeNode rootNode = this.buildAtomicTree(inputScanner);
+			this.writeTree(rootNode);
+			inputScanner.close();
+			this.closeAllOutputs();
+			return true;
+		}
+		
 		// Initialise trie root node
 		ParentRelationTreeNode rootNode = new ParentRelationTreeNodeImpl("^", null);
 		if (inputScanner.hasNext()) // Root node counter has to be set to one from start if there is any input 
@@ -314,6 +323,98 @@ public class TreeBuilderV2Module extends ModuleImpl {
 			}
 		}
 		
+		// Write to outputs
+		this.writeTree(rootNode);
+		
+		// Close input scanner
+		inputScanner.close();
+		
+		// Close outputs (important!)
+		this.closeAllOutputs();
+		
+		// Done
+		return true;
+	}
+	
+	/**
+	 * Builds the atomic suffix trie of the segments read. Every segment is
+	 * attached to the root and to the end of every suffix read so far (within
+	 * the max depth constraint). Each node's counter is set to the amount of
+	 * leaves below it (one for leaves).
+	 * @param inputScanner Scanner yielding the segments
+	 * @return Root node of the trie (without parent relations)
+	 * @throws Exception If the thread has been interrupted
+	 */
+	private ParentRelationTreeNode buildAtomicTree(Scanner inputScanner) throws Exception {
+		
+		CountingTrie trie = new CountingTrie("^");
+		
+		// Nodes to attach the next segment to, starting with the root node
+		int[] leafList = new int[16];
+		int[] nextLeafList = new int[16];
+		int leafAmount = 1;
+		leafList[0] = trie.getRoot();
+		
+		// Input read loop
+		while (inputScanner.hasNext()){
+			
+			// Check for interrupt signal
+			if (Thread.interrupted()) {
+				inputScanner.close();
+				this.closeAllOutputs();
+				throw new InterruptedException("Thread has been interrupted.");
+			}
+			
+			String inputSegment = inputScanner.next();
+			
+			if (nextLeafList.length <= leafAmount)
+				nextLeafList = new int[2 * (leafAmount + 1)];
+			int nextLeafAmount = 0;
+			nextLeafList[nextLeafAmount++] = trie.getRoot();
+			for (int i=0; i<leafAmount; i++){
+				int childNode = trie.getOrAddChild(leafList[i], inputSegment);
+				// Apply max depth constraint if specified
+				if (this.maxDepth < 0 || nextLeafAmount <= this.maxDepth)
+					nextLeafList[nextLeafAmount++] = childNode;
+			}
+			
+			// Swap lists
+			int[] swap = leafList;
+			leafList = nextLeafList;
+			nextLeafList = swap;
+			leafAmount = nextLeafAmount;
+		}
+		
+		// Count the leaves below each node (children always have higher numbers than their parents)
+		int[] leafCounts = new int[trie.size()];
+		for (int node = trie.size() - 1; node > trie.getRoot(); node--){
+			if (leafCounts[node] == 0)
+				leafCounts[node] = 1;
+			leafCounts[trie.getParent(node)] += leafCounts[node];
+		}
+		
+		// Convert into tree nodes
+		ParentRelationTreeNode[] treeNodes = new ParentRelationTreeNode[trie.size()];
+		treeNodes[trie.getRoot()] = new ParentRelationTreeNodeImpl(trie.getLabel(trie.getRoot()), null);
+		treeNodes[trie.getRoot()].setNodeCounter(leafCounts[trie.getRoot()]);
+		for (int node = trie.getRoot() + 1; node < trie.size(); node++){
+			treeNodes[node] = new ParentRelationTreeNodeImpl(null);
+			if (!omitRedundantInformation)
+				treeNodes[node].setNodeValue(trie.getLabel(node));
+			treeNodes[node].setNodeCounter(leafCounts[node]);
+			treeNodes[trie.getParent(node)].getChildNodes().put(trie.getLabel(node), treeNodes[node]);
+		}
+		
+		return treeNodes[trie.getRoot()];
+	}
+	
+	/**
+	 * Writes the tree JSON-encoded to all char pipes of the output.
+	 * @param rootNode Root node of the tree
+	 * @throws Exception If the output cannot be written
+	 */
+	private void writeTree(ParentRelationTreeNode rootNode) throws Exception {
+		
 		// Initialise JSON serialiser
 		GsonBuilder gsonBuilder = new GsonBuilder();
 		//gsonBuilder.registerTypeAdapter(ModuleNetwork.class, new ParentRelationTreeNodeSerialiser());
@@ -325,15 +426,6 @@ public class TreeBuilderV2Module extends ModuleImpl {
 			CharPipe outputPipe = (CharPipe) outputPipes.next();
 			gson.toJson(rootNode, outputPipe.getOutput());
 		}
-		
-		// Close input scanner
-		inputScanner.close();
-		
-		// Close outputs (important!)
-		this.closeAllOutputs();
-		
-		// Done
-		return true;
 	}
 	
 	@Override
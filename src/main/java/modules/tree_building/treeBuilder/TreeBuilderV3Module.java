@@ -2,18 +2,15 @@ package modules.tree_building.treeBuilder;
 
 import java.io.StringReader;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Objects;
 import java.util.Properties;
 import java.util.Scanner;
-import java.util.SortedMap;
+import java.util.Set;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
 
 import base.workbench.ModuleRunner;
 import common.parallelization.CallbackReceiver;
@@ -22,7 +19,7 @@ import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
 import modules.OutputPort;
-import modules.Pipe;
+import modules.OutputPortWriter;
 
 public class TreeBuilderV3Module extends ModuleImpl {
 
@@ -34,6 +31,7 @@ public class TreeBuilderV3Module extends ModuleImpl {
 	public static final String PROPERTYKEY_MAXDEPTH = "Tree depth";
 	public static final String PROPERTYKEY_OMITREDUNDANTINFO = "Omit redundant info";
 	public static final String PROPERTYKEY_STRUCTURE = "Compact or atomic?";
+	public static final String PROPERTYKEY_PRETTYPRINT = "Pretty print output";
 	// public static final String PROPERTYKEY_MAXTHREADS = "Max. threads";
 
 	// Define I/O IDs (must be unique for every input or output)
@@ -47,6 +45,7 @@ public class TreeBuilderV3Module extends ModuleImpl {
 	private int maxDepth = -1;
 	private boolean omitRedundantInformation;
 	private boolean compactTree;
+	private boolean prettyPrint;
 
 	// private int maxThreads;
 	
@@ -96,6 +95,9 @@ public class TreeBuilderV3Module extends ModuleImpl {
 		this.getPropertyDescriptions()
 				.put(PROPERTYKEY_STRUCTURE,
 						"Type of suffix tree to output; possible values are 'compact' and 'atomic'.");
+		this.getPropertyDescriptions()
+				.put(PROPERTYKEY_PRETTYPRINT,
+						"Indent the JSON output; set to false for compact output.");
 
 		// Add property defaults (_should_ be provided for every property)
 		this.getPropertyDefaultValues().put(ModuleImpl.PROPERTYKEY_NAME, "TreeBuilder v3 Module");
@@ -105,6 +107,7 @@ public class TreeBuilderV3Module extends ModuleImpl {
 		this.getPropertyDefaultValues().put(PROPERTYKEY_MAXDEPTH, "-1");
 		this.getPropertyDefaultValues().put(PROPERTYKEY_OMITREDUNDANTINFO, "true");
 		this.getPropertyDefaultValues().put(PROPERTYKEY_STRUCTURE, "compact");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_PRETTYPRINT, "true");
 
 		// Define I/O
 		/*
@@ -136,10 +139,6 @@ public class TreeBuilderV3Module extends ModuleImpl {
 		ExtensibleTreeNode rootNode = new ExtensibleTreeNode("^");
 		rootNode.setNodeCounter(1);
 		
-		// Initialise parent relation map
-		Map<ExtensibleTreeNode,ExtensibleTreeNode> childParentRelationMap = new HashMap<ExtensibleTreeNode,ExtensibleTreeNode>();
-		childParentRelationMap.put(rootNode, null);
-
 		// Instantiate outer input scanner
 		Scanner outerInputScanner = new Scanner(this.getInputPorts()
 				.get(ID_INPUT).getInputReader());
@@ -192,6 +191,9 @@ public class TreeBuilderV3Module extends ModuleImpl {
 				List<ExtensibleTreeNode> nextLeafList = new ArrayList<ExtensibleTreeNode>(
 						leafList.size() + 1);
 				nextLeafList.add(rootNode);
+				// Same contents as the list, for constant time lookups
+				Set<ExtensibleTreeNode> nextLeafSet = new HashSet<ExtensibleTreeNode>();
+				nextLeafSet.add(rootNode);
 
 				Iterator<ExtensibleTreeNode> leaves = leafList.iterator();
 				while (leaves.hasNext()) {
@@ -201,16 +203,15 @@ public class TreeBuilderV3Module extends ModuleImpl {
 					// Get child node for the read segment
 					ExtensibleTreeNode childNode = null;
 					if (compactTree) {
-						// Determine all child nodes that start with the read
+						// Determine the child node that starts with the read
 						// segment (amount can only be one or zero)
-						SortedMap<String, ExtensibleTreeNode> childNodesThatStartWithSegment = node
-								.getChildNodes().subMap(inputSegment,
-										inputSegment + Character.MAX_VALUE);
-						if (!childNodesThatStartWithSegment.isEmpty()) {
-							String childNodeValue = childNodesThatStartWithSegment
-									.firstKey();
-							childNode = (ExtensibleTreeNode) childNodesThatStartWithSegment
-									.get(childNodeValue);
+						Entry<String, ExtensibleTreeNode> childNodeThatStartsWithSegment = node
+								.getChildNodes().ceilingEntry(inputSegment);
+						if (childNodeThatStartsWithSegment != null
+								&& childNodeThatStartsWithSegment.getKey().startsWith(inputSegment)) {
+							String childNodeValue = childNodeThatStartsWithSegment
+									.getKey();
+							childNode = childNodeThatStartsWithSegment.getValue();
 							// If the child node's value is longer than the
 							// input segment, we have to insert a split (i.e. a
 							// new node)
@@ -220,21 +221,13 @@ public class TreeBuilderV3Module extends ModuleImpl {
 								String childNodeValueSuffix = childNodeValue
 										.substring(inputSegment.length());
 
-								// Determine parent node value
+								// Determine parent node value (the value might
+								// only be present as a map key)
 								String parentNodeValue = (String) node
 										.getNodeValue();
-								// If the value is only present as a map key, we
-								// have to search it first
 								if (omitRedundantInformation
-										&& !node.equals(rootNode)) {
-									for (Entry<String, ExtensibleTreeNode> entry : childParentRelationMap.get(node).getChildNodes().entrySet()) {
-										if (Objects.equals(node,
-												entry.getValue())) {
-											parentNodeValue = entry.getKey();
-											break;
-										}
-									}
-								}
+										&& !node.equals(rootNode))
+									parentNodeValue = node.getKeyInParent();
 
 								// Clip read segment from child node
 								if (!omitRedundantInformation)
@@ -242,7 +235,7 @@ public class TreeBuilderV3Module extends ModuleImpl {
 											.setNodeValue(childNodeValueSuffix);
 								// Detach child node (will be re-attached with
 								// only the suffix as key)
-								node.getChildNodes().remove(childNodeValue);
+								node.removeChildNode(childNodeValue);
 
 								// Check whether the child node was an only
 								// child
@@ -253,17 +246,13 @@ public class TreeBuilderV3Module extends ModuleImpl {
 										node.setNodeValue(parentNodeValue
 												+ inputSegment);
 									// Update grandparent map key
-									childParentRelationMap.get(node)
-											.getChildNodes().remove(
-													parentNodeValue);
-									childParentRelationMap.get(node)
-											.getChildNodes().put(
-													parentNodeValue
-															+ inputSegment,
-													node);
+									ExtensibleTreeNode grandParentNode = node.getParentNode();
+									grandParentNode.removeChildNode(node.getKeyInParent());
+									grandParentNode.putChildNode(parentNodeValue
+											+ inputSegment, node);
 									// Re-attach child node
-									node.getChildNodes().put(
-											childNodeValueSuffix, childNode);
+									node.putChildNode(childNodeValueSuffix,
+											childNode);
 
 									// Update child node reference (because the
 									// child node will be added to next
@@ -277,13 +266,10 @@ public class TreeBuilderV3Module extends ModuleImpl {
 									if (!omitRedundantInformation)
 										newNode.setNodeValue(inputSegment);
 									// Attach new node to parent node
-									node.getChildNodes().put(inputSegment,
-											newNode);
-									childParentRelationMap.put(newNode, node);
+									node.putChildNode(inputSegment, newNode);
 									// Re-attach child node
-									newNode.getChildNodes().put(
-											childNodeValueSuffix, childNode);
-									childParentRelationMap.put(childNode, newNode);
+									newNode.putChildNode(childNodeValueSuffix,
+											childNode);
 
 									// Update child node reference (because the
 									// child node will be added to next
@@ -304,27 +290,17 @@ public class TreeBuilderV3Module extends ModuleImpl {
 						// Merge with parent or construct separate child node
 						if (compactTree && !node.equals(rootNode)
 								&& node.getChildNodes().size() == 0
-								&& !nextLeafList.contains(node)) {
+								&& !nextLeafSet.contains(node)) {
 
-							// Determine node value
+							// Determine node value (the value might only be
+							// present as a map key)
 							String nodeValue = node.getNodeValue();
-							// If the value is only present as a map key, we
-							// have to search it first
-							if (omitRedundantInformation) {
-
-								for (Entry<String, ExtensibleTreeNode> entry : childParentRelationMap.get(node)
-										.getChildNodes().entrySet()) {
-									if (Objects.equals(node, entry.getValue())) {
-										nodeValue = entry.getKey();
-										break;
-									}
-								}
-							}
-							childParentRelationMap.get(node)
-									.getChildNodes().values().remove(node);
-							childParentRelationMap.get(node)
-									.getChildNodes().put(
-											nodeValue + inputSegment, node);
+							if (omitRedundantInformation)
+								nodeValue = node.getKeyInParent();
+							ExtensibleTreeNode parentNode = node.getParentNode();
+							parentNode.removeChildNode(node.getKeyInParent());
+							parentNode.putChildNode(nodeValue + inputSegment,
+									node);
 							if (!omitRedundantInformation)
 								node.setNodeValue(nodeValue + inputSegment);
 							node.getChildNodes().clear();
@@ -332,10 +308,9 @@ public class TreeBuilderV3Module extends ModuleImpl {
 
 						} else {
 							childNode = new ExtensibleTreeNode();
-							childParentRelationMap.put(childNode, node);
 							if (!omitRedundantInformation)
 								childNode.setNodeValue(inputSegment);
-							node.getChildNodes().put(inputSegment, childNode);
+							node.putChildNode(inputSegment, childNode);
 
 							// Increment child node counter
 							childNode
@@ -348,7 +323,7 @@ public class TreeBuilderV3Module extends ModuleImpl {
 								while (ancestor != null) {
 									ancestor.setNodeCounter(ancestor
 											.getNodeCounter() + 1);
-									ancestor = childParentRelationMap.get(ancestor);
+									ancestor = ancestor.getParentNode();
 								}
 						}
 					} else {
@@ -356,59 +331,35 @@ public class TreeBuilderV3Module extends ModuleImpl {
 						if (compactTree && !node.equals(rootNode)
 								&& node.getChildNodes().size() == 1
 								&& !node.equals(childNode)
-								&& !nextLeafList.contains(node)) {
+								&& !nextLeafSet.contains(node)) {
 
-							// Determine node value
+							// Determine node and child node values (the values
+							// might only be present as map keys)
 							String nodeValue = node.getNodeValue();
-							// If the value is only present as a map key, we
-							// have to
-							// search it first
-							if (omitRedundantInformation) {
-
-								for (Entry<String, ExtensibleTreeNode> entry : childParentRelationMap.get(node)
-										.getChildNodes().entrySet()) {
-									if (Objects.equals(node, entry.getValue())) {
-										nodeValue = entry.getKey();
-										break;
-									}
-								}
-							}
-							// Determine child node value
 							String childNodeValue = childNode.getNodeValue();
-							// If the value is only present as a map key, we
-							// have to
-							// search it first
 							if (omitRedundantInformation) {
-
-								for (Entry<String, ExtensibleTreeNode> entry : node
-										.getChildNodes().entrySet()) {
-									if (Objects.equals(childNode,
-											entry.getValue())) {
-										childNodeValue = entry.getKey();
-										break;
-									}
-								}
+								nodeValue = node.getKeyInParent();
+								childNodeValue = childNode.getKeyInParent();
 							}
-							childParentRelationMap.get(node)
-									.getChildNodes().values().remove(node);
-							childParentRelationMap.get(node)
-									.getChildNodes().put(
-											nodeValue + childNodeValue,
-											childNode);
+							ExtensibleTreeNode parentNode = node.getParentNode();
+							parentNode.removeChildNode(node.getKeyInParent());
+							node.removeChildNode(childNode.getKeyInParent());
+							parentNode.putChildNode(nodeValue + childNodeValue,
+									childNode);
 							if (!omitRedundantInformation)
 								childNode.setNodeValue(nodeValue
 										+ childNodeValue);
-							node.getChildNodes().clear();
-							childParentRelationMap.put(childNode, childParentRelationMap.get(node));
 						}
 					}
 
 					// Apply max depth constraint if specified
 					if (this.maxDepth < 0
-							|| nextLeafList.size() <= this.maxDepth)
+							|| nextLeafList.size() <= this.maxDepth) {
 
 						// Append child node to next loop's leaf list
 						nextLeafList.add(childNode);
+						nextLeafSet.add(childNode);
+					}
 				}
 
 				// Update list reference
@@ -433,20 +384,12 @@ public class TreeBuilderV3Module extends ModuleImpl {
 		 * )))); } }
 		 */
 
-		// Initialise JSON serialiser
-		GsonBuilder gsonBuilder = new GsonBuilder();
-		// gsonBuilder.registerTypeAdapter(ModuleNetwork.class, new
-		// ParentRelationTreeNodeSerialiser());
-		Gson gson = gsonBuilder.setPrettyPrinting().create();
-
-		// Write to outputs // TODO Not sure if this is really the best
-		// performing method. Needs testing.
-		Iterator<Pipe> outputPipes = this.getOutputPorts().get(ID_OUTPUT)
-				.getPipes(CharPipe.class).iterator();
-		while (outputPipes.hasNext()) {
-			CharPipe outputPipe = (CharPipe) outputPipes.next();
-			gson.toJson(rootNode, outputPipe.getOutput());
-		}
+		// Serialise the tree once, writing to all outputs at the same time
+		JsonWriter jsonWriter = TrieJson.createWriter(
+				new OutputPortWriter(this.getOutputPorts().get(ID_OUTPUT)),
+				this.prettyPrint);
+		TrieJson.write(rootNode, jsonWriter);
+		jsonWriter.close();
 
 		// Close outputs (important!)
 		this.closeAllOutputs();
@@ -507,6 +450,12 @@ public class TreeBuilderV3Module extends ModuleImpl {
 				throw new Exception("Invalid value for property '"
 						+ PROPERTYKEY_STRUCTURE + "'.");
 
+		String prettyPrintString = this.getProperties().getProperty(
+				PROPERTYKEY_PRETTYPRINT,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_PRETTYPRINT));
+		if (prettyPrintString != null)
+			this.prettyPrint = Boolean.parseBoolean(prettyPrintString);
+
 		// this.maxThreads =
 		// Integer.parseInt(this.getProperties().getProperty(PROPERTYKEY_MAXTHREADS,
 		// this.getPropertyDefaultValues().get(PROPERTYKEY_MAXTHREADS)));
@@ -0,0 +1,304 @@
+package modules.tree_building.treeBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import models.ExtensibleTreeNode;
+
+/**
+ * Streaming JSON serialisation of tries without reflection. The output is
+ * the same as Gson's for the respective node classes, so it can be read by
+ * any consumer of these. Trees are walked iteratively, so their depth is not
+ * limited by the stack size.
+ */
+public class TrieJson {
+
+	// used for the values of ExtensibleTreeNode attributes only, which may be of any type
+	private static final Gson ATTRIBUTE_GSON = new Gson();
+
+	// only used statically
+	private TrieJson() {
+	}
+
+	/**
+	 * Creates a JsonWriter set up like the one Gson uses.
+	 *
+	 * @param writer
+	 *            The writer to write to
+	 * @param prettyPrint
+	 *            Whether to indent the output (as GsonBuilder.setPrettyPrinting() does)
+	 * @return The JsonWriter
+	 */
+	public static JsonWriter createWriter(Writer writer, boolean prettyPrint) {
+		final JsonWriter out = new JsonWriter(writer);
+		if (prettyPrint)
+			out.setIndent("  ");
+		out.setHtmlSafe(true);
+		out.setLenient(true);
+		out.setSerializeNulls(false);
+		return out;
+	}
+
+	/**
+	 * Writes the trie in the format of its conversion to Knoten (see
+	 * {@link CountingTrie#toKnoten()}), without converting it.
+	 *
+	 * @param trie
+	 *            The trie
+	 * @param out
+	 *            The writer to write to
+	 * @throws IOException
+	 *             on error
+	 */
+	public static void write(CountingTrie trie, JsonWriter out) throws IOException {
+		// collect the children of each node, in the order of their creation
+		final int size = trie.size();
+		final int[] childStart = new int[size + 1];
+		for (int node = 1; node < size; node++)
+			childStart[trie.getParent(node) + 1]++;
+		for (int node = 0; node < size; node++)
+			childStart[node + 1] += childStart[node];
+		final int[] children = new int[Math.max(size - 1, 0)];
+		final int[] fill = new int[size];
+		for (int node = 1; node < size; node++) {
+			final int parent = trie.getParent(node);
+			children[childStart[parent] + fill[parent]++] = node;
+		}
+
+		// walk the trie, noting the next child to visit of every node on the path
+		final int[] path = new int[size];
+		final int[] nextChild = new int[size];
+		int depth = 0;
+		path[0] = trie.getRoot();
+		nextChild[0] = childStart[trie.getRoot()];
+		beginKnoten(trie.getCounter(trie.getRoot()), trie.getLabel(trie.getRoot()), true, out);
+		while (depth >= 0) {
+			final int node = path[depth];
+			if (nextChild[depth] < childStart[node + 1]) {
+				final int child = children[nextChild[depth]++];
+				out.name(trie.getLabel(child));
+				beginKnoten(trie.getCounter(child), trie.getLabel(child), true, out);
+				depth++;
+				path[depth] = child;
+				nextChild[depth] = childStart[child];
+			} else {
+				endKnoten(true, false, out);
+				depth--;
+			}
+		}
+	}
+
+	/**
+	 * Writes the tree below the given Knoten.
+	 *
+	 * @param root
+	 *            Root of the tree
+	 * @param out
+	 *            The writer to write to
+	 * @throws IOException
+	 *             on error
+	 */
+	public static void write(Knoten root, JsonWriter out) throws IOException {
+		final Deque<Knoten> nodes = new ArrayDeque<Knoten>();
+		final Deque<Iterator<Entry<String, Knoten>>> children = new ArrayDeque<Iterator<Entry<String, Knoten>>>();
+		beginKnoten(root.getZaehler(), root.getName(), root.getKinder() != null, out);
+		nodes.push(root);
+		children.push(childrenOf(root));
+		while (!nodes.isEmpty()) {
+			final Iterator<Entry<String, Knoten>> iterator = children.peek();
+			if (iterator.hasNext()) {
+				final Entry<String, Knoten> entry = iterator.next();
+				final Knoten child = entry.getValue();
+				out.name(entry.getKey());
+				if (child == null) {
+					out.nullValue();
+					continue;
+				}
+				beginKnoten(child.getZaehler(), child.getName(), child.getKinder() != null, out);
+				nodes.push(child);
+				children.push(childrenOf(child));
+			} else {
+				final Knoten node = nodes.pop();
+				children.pop();
+				endKnoten(node.getKinder() != null, node.isMatch(), out);
+			}
+		}
+	}
+
+	/**
+	 * Writes the tree below the given ExtensibleTreeNode.
+	 *
+	 * @param root
+	 *            Root of the tree
+	 * @param out
+	 *            The writer to write to
+	 * @throws IOException
+	 *             on error
+	 */
+	public static void write(ExtensibleTreeNode root, JsonWriter out) throws IOException {
+		final Deque<ExtensibleTreeNode> nodes = new ArrayDeque<ExtensibleTreeNode>();
+		final Deque<Iterator<Entry<String, ExtensibleTreeNode>>> children = new ArrayDeque<Iterator<Entry<String, ExtensibleTreeNode>>>();
+		beginExtensibleTreeNode(root, out);
+		nodes.push(root);
+		children.push(childrenOf(root));
+		while (!nodes.isEmpty()) {
+			final Iterator<Entry<String, ExtensibleTreeNode>> iterator = children.peek();
+			if (iterator.hasNext()) {
+				final Entry<String, ExtensibleTreeNode> entry = iterator.next();
+				final ExtensibleTreeNode child = entry.getValue();
+				out.name(entry.getKey());
+				if (child == null) {
+					out.nullValue();
+					continue;
+				}
+				beginExtensibleTreeNode(child, out);
+				nodes.push(child);
+				children.push(childrenOf(child));
+			} else {
+				children.pop();
+				endExtensibleTreeNode(nodes.pop(), out);
+			}
+		}
+	}
+
+	/**
+	 * Reads a tree of Knoten as written by {@link #write(Knoten, JsonWriter)}
+	 * or by Gson. Unknown fields are skipped.
+	 *
+	 * @param reader
+	 *            The reader to read from
+	 * @return Root of the tree, null if the input holds null
+	 * @throws IOException
+	 *             on error or if the input is no valid tree
+	 */
+	public static Knoten readKnoten(Reader reader) throws IOException {
+		final JsonReader in = new JsonReader(reader);
+		in.setLenient(true);
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+
+		// nodes on the path to the current one and whether their children are being read
+		final Deque<Knoten> nodes = new ArrayDeque<Knoten>();
+		final Deque<Boolean> inKinder = new ArrayDeque<Boolean>();
+		final Knoten root = new Knoten();
+		in.beginObject();
+		nodes.push(root);
+		inKinder.push(false);
+
+		while (!nodes.isEmpty()) {
+			final Knoten node = nodes.peek();
+			if (inKinder.peek()) {
+				if (in.hasNext()) {
+					final String key = in.nextName();
+					if (in.peek() == JsonToken.NULL) {
+						in.nextNull();
+						node.getKinder().put(key, null);
+						continue;
+					}
+					final Knoten child = new Knoten();
+					node.getKinder().put(key, child);
+					in.beginObject();
+					nodes.push(child);
+					inKinder.push(false);
+				} else {
+					in.endObject();
+					inKinder.pop();
+					inKinder.push(false);
+				}
+			} else if (in.hasNext()) {
+				final String field = in.nextName();
+				if (in.peek() == JsonToken.NULL) {
+					in.nextNull();
+					if (field.equals("kinder"))
+						node.setKinder(null);
+				} else if (field.equals("zaehler")) {
+					node.setZaehler(in.nextInt());
+				} else if (field.equals("name")) {
+					node.setName(in.nextString());
+				} else if (field.equals("match")) {
+					node.setMatch(in.nextBoolean());
+				} else if (field.equals("kinder")) {
+					in.beginObject();
+					inKinder.pop();
+					inKinder.push(true);
+				} else {
+					in.skipValue();
+				}
+			} else {
+				in.endObject();
+				nodes.pop();
+				inKinder.pop();
+			}
+		}
+		return root;
+	}
+
+	private static void beginKnoten(int zaehler, String name, boolean hasKinder, JsonWriter out) throws IOException {
+		out.beginObject();
+		out.name("zaehler").value(zaehler);
+		if (name != null)
+			out.name("name").value(name);
+		if (hasKinder)
+			out.name("kinder").beginObject();
+	}
+
+	private static void endKnoten(boolean hasKinder, boolean match, JsonWriter out) throws IOException {
+		if (hasKinder)
+			out.endObject();
+		out.name("match").value(match);
+		out.endObject();
+	}
+
+	private static Iterator<Entry<String, Knoten>> childrenOf(Knoten node) {
+		if (node.getKinder() == null)
+			return Collections.<String, Knoten>emptyMap().entrySet().iterator();
+		return node.getKinder().entrySet().iterator();
+	}
+
+	private static void beginExtensibleTreeNode(ExtensibleTreeNode node, JsonWriter out) throws IOException {
+		out.beginObject();
+		if (node.getNodeValue() != null)
+			out.name("nodeValue").value(node.getNodeValue());
+		out.name("nodeCounter").value(node.getNodeCounter());
+		if (node.getChildNodes() != null)
+			out.name("childNodes").beginObject();
+	}
+
+	private static void endExtensibleTreeNode(ExtensibleTreeNode node, JsonWriter out) throws IOException {
+		if (node.getChildNodes() != null)
+			out.endObject();
+		final Map<String, Object> attributes = node.getAttributes();
+		if (attributes != null) {
+			out.name("attributes").beginObject();
+			for (Entry<String, Object> attribute : attributes.entrySet()) {
+				if (attribute.getValue() == null)
+					continue;
+				out.name(String.valueOf(attribute.getKey()));
+				ATTRIBUTE_GSON.toJson(attribute.getValue(), attribute.getValue().getClass(), out);
+			}
+			out.endObject();
+		}
+		out.endObject();
+	}
+
+	private static Iterator<Entry<String, ExtensibleTreeNode>> childrenOf(ExtensibleTreeNode node) {
+		if (node.getChildNodes() == null)
+			return Collections.<String, ExtensibleTreeNode>emptyMap().entrySet().iterator();
+		return node.getChildNodes().entrySet().iterator();
+	}
+
+}
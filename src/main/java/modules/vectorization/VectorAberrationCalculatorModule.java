@@ -4,9 +4,9 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Properties;
-import java.util.Scanner;
 
 import common.DoubleComparator;
+import common.LineIterator;
 import common.StringUnescaper;
 import common.parallelization.CallbackReceiver;
 import modules.CharPipe;
@@ -88,8 +88,7 @@ public class VectorAberrationCalculatorModule extends ModuleImpl {
 	public boolean process() throws Exception {
 
 		// Construct scanner instances for input segmentation
-		Scanner inputScanner = new Scanner(this.getInputPorts().get(ID_INPUT).getInputReader());
-		inputScanner.useDelimiter("\\R+");
+		LineIterator inputScanner = this.readLinesFromInputPort(this.getInputPorts().get(ID_INPUT), true);
 		
 		// Read csv header line (except when we will sort the output anyway)
 		if (!this.sort) {
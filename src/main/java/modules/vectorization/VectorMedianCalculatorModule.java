@@ -6,12 +6,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.Scanner;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 import common.DoubleComparator;
+import common.LineIterator;
 import common.parallelization.CallbackReceiver;
 import modules.CharPipe;
 import modules.InputPort;
@@ -69,8 +69,7 @@ public class VectorMedianCalculatorModule extends ModuleImpl {
 	public boolean process() throws Exception {
 
 		// Construct scanner instances for input segmentation
-		Scanner inputScanner = new Scanner(this.getInputPorts().get(ID_INPUT).getInputReader());
-		inputScanner.useDelimiter("\\R+");
+		LineIterator inputScanner = this.readLinesFromInputPort(this.getInputPorts().get(ID_INPUT), true);
 		
 		// Skip csv head (we will sort the data lines individually anyway, so no sense in keeping track of the edge labels)
 		if (inputScanner.hasNext()){
@@ -0,0 +1,61 @@
+package bagOfWords;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import modules.bag_of_words.BagOfWordsDistanceIndex;
+import modules.bag_of_words.BagOfWordsDistanceIndex.Row;
+import modules.bag_of_words.BagOfWordsDistanceIndex.Scratch;
+import modules.bag_of_words.BagOfWordsHelper;
+
+public class BagOfWordsDistanceIndexTest {
+
+	@Test
+	public void distancesMatchHelper() {
+		Random random = new Random(11);
+		List<Map<String, Integer>> bags = new ArrayList<Map<String, Integer>>();
+		for (int i = 0; i < 200; i++) {
+			Map<String, Integer> bag = new TreeMap<String, Integer>();
+			int size = 1 + random.nextInt(8);
+			for (int j = 0; j < size; j++)
+				bag.put("w" + random.nextInt(30), 1 + random.nextInt(3));
+			bags.add(bag);
+		}
+
+		for (boolean normalize : new boolean[] { false, true }) {
+			BagOfWordsDistanceIndex index = new BagOfWordsDistanceIndex(bags, normalize);
+			Scratch scratch = index.createScratch();
+			float threshold = normalize ? 0.6f : 3f;
+			int[] disjointCandidates = index.disjointCandidates(threshold);
+
+			for (int bag = 0; bag < bags.size(); bag++) {
+				Row all = index.distances(bag, scratch);
+				Row close = index.distances(bag, threshold, disjointCandidates, scratch);
+				assertEquals(bags.size() - 1, all.getColumns().length);
+
+				int closeIndex = 0;
+				for (int i = 0; i < all.getColumns().length; i++) {
+					int other = all.getColumns()[i];
+					float expected = normalize
+							? BagOfWordsHelper.normalizedLevenshteinDistance(bags.get(bag), bags.get(other))
+							: BagOfWordsHelper.levenshteinDistance(bags.get(bag), bags.get(other));
+					assertEquals(expected, all.getDistances()[i], 0f);
+					if (expected < threshold) {
+						assertEquals(other, close.getColumns()[closeIndex]);
+						assertEquals(expected, close.getDistances()[closeIndex], 0f);
+						closeIndex++;
+					}
+				}
+				assertEquals(closeIndex, close.getColumns().length);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,64 @@
+package bagOfWords;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import modules.bag_of_words.BagOfWordsMinHash;
+
+public class BagOfWordsMinHashTest {
+
+	@Test
+	public void similarityEstimatesJaccard() {
+		BagOfWordsMinHash minHash = new BagOfWordsMinHash(40, 5, 1);
+		Set<String> a = new HashSet<String>();
+		Set<String> b = new HashSet<String>();
+		for (int i = 0; i < 100; i++)
+			a.add("w" + i);
+		for (int i = 50; i < 150; i++)
+			b.add("w" + i);
+		int[] signatures = new int[2 * minHash.getSignatureLength()];
+		minHash.signature(a, signatures, 0);
+		minHash.signature(b, signatures, 1);
+
+		// Jaccard similarity of 50 / 150
+		assertEquals(1f / 3f, minHash.similarity(signatures, 0, 1), 0.1f);
+		assertEquals(1f, minHash.similarity(signatures, 0, 0), 0f);
+	}
+
+	@Test
+	public void candidatesAreFoundOnce() {
+		BagOfWordsMinHash minHash = new BagOfWordsMinHash(10, 2, 1);
+		List<List<String>> sets = new ArrayList<List<String>>();
+		sets.add(Arrays.asList("a", "b", "c", "d"));
+		sets.add(Arrays.asList("x", "y", "z"));
+		sets.add(Arrays.asList("a", "b", "c", "d"));
+		sets.add(Arrays.asList("a", "b", "c", "e"));
+		sets.add(Arrays.asList("x", "y", "z"));
+		int[] signatures = new int[sets.size() * minHash.getSignatureLength()];
+		for (int i = 0; i < sets.size(); i++)
+			minHash.signature(sets.get(i), signatures, i);
+
+		Set<Long> pairs = new HashSet<Long>();
+		for (int band = 0; band < minHash.getBands(); band++) {
+			for (long pair : minHash.candidates(signatures, sets.size(), band)) {
+				assertTrue(BagOfWordsMinHash.first(pair) < BagOfWordsMinHash.second(pair));
+				assertTrue(pairs.add(pair));
+			}
+		}
+
+		// identical sets always collide, disjoint ones never
+		assertTrue(pairs.contains(BagOfWordsMinHash.pair(0, 2)));
+		assertTrue(pairs.contains(BagOfWordsMinHash.pair(1, 4)));
+		for (long pair : pairs)
+			assertTrue(minHash.similarity(signatures, BagOfWordsMinHash.first(pair), BagOfWordsMinHash.second(pair)) > 0f);
+	}
+
+}
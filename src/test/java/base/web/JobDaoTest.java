@@ -0,0 +1,41 @@
+package base.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.apache.commons.cli.DefaultParser;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+public class JobDaoTest {
+
+	@BeforeClass
+	public static void setUpDatabase() throws Exception {
+		// the default config uses a temporary database file
+		ServerConfig.initialize("none.properties", new DefaultParser().parse(ServerConfig.CLI_OPTIONS, new String[0]));
+	}
+
+	@Test
+	public void rejectedJobIsNotPendingAgain() throws Exception {
+		Job pending = job(1);
+		Job rejected = job(2);
+		rejected.setFailed("Declared memory demand exceeds the maximum memory available.");
+
+		List<Job> fetched = JobDao.fetchPending();
+		assertEquals(1, fetched.size());
+		assertEquals(pending.getId(), fetched.get(0).getId());
+		assertTrue(JobDao.fetchRunning().isEmpty());
+	}
+
+	// jobs are identified by the id they are submitted with
+	private static Job job(long id) throws Exception {
+		Job job = new Gson().fromJson("{\"id\": " + id + "}", Job.class);
+		job.save();
+		return job;
+	}
+
+}
@@ -0,0 +1,78 @@
+package burrowsWheeler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import modules.basic_text_processing.burrows_wheeler.BurrowsWheeler;
+import modules.basic_text_processing.burrows_wheeler.SuffixArray;
+
+public class BurrowsWheelerTest {
+
+	// the transform as defined: last column of the sorted rotation matrix
+	private static String naiveTransform(String str) {
+		String[] table = new String[str.length()];
+		for (int i = 0; i < str.length(); i++)
+			table[i] = str.substring(i) + str.substring(0, i);
+		Arrays.sort(table);
+		StringBuilder result = new StringBuilder();
+		for (String row : table)
+			result.append(row.charAt(str.length() - 1));
+		return result.toString();
+	}
+
+	private static Integer[] naiveSuffixArray(final String str) {
+		Integer[] sa = new Integer[str.length()];
+		for (int i = 0; i < sa.length; i++)
+			sa[i] = i;
+		Arrays.sort(sa, (a, b) -> str.substring(a).compareTo(str.substring(b)));
+		return sa;
+	}
+
+	@Test
+	public void testSuffixArray() {
+		Random random = new Random(42);
+		for (int round = 0; round < 200; round++) {
+			String str = randomString(random, 1 + random.nextInt(60), 1 + random.nextInt(4));
+			int[] sa = SuffixArray.build(str);
+			Integer[] expected = naiveSuffixArray(str);
+			assertEquals(str, expected.length, sa.length);
+			for (int i = 0; i < sa.length; i++)
+				assertEquals(str, expected[i].intValue(), sa[i]);
+		}
+		assertArrayEquals(new int[] { 5, 3, 1, 0, 4, 2 }, SuffixArray.build("banana"));
+	}
+
+	@Test
+	public void testTransformAndInverse() {
+		assertEquals("annb$aa", BurrowsWheeler.transform("banana$"));
+		assertEquals("banana$", BurrowsWheeler.inverse("annb$aa", '$'));
+		assertEquals("", BurrowsWheeler.transform(""));
+		assertNull(BurrowsWheeler.inverse("abc", '$'));
+
+		Random random = new Random(7);
+		for (int round = 0; round < 300; round++) {
+			String str = randomString(random, 1 + random.nextInt(50), 1 + random.nextInt(5));
+			// periodic strings have equal rotations
+			if (round % 10 == 0)
+				str = str + str + str;
+			String bwt = BurrowsWheeler.transform(str);
+			assertEquals(str, naiveTransform(str), bwt);
+			str = str + "$";
+			assertEquals(str, BurrowsWheeler.inverse(BurrowsWheeler.transform(str), '$'));
+		}
+	}
+
+	private static String randomString(Random random, int length, int alphabetSize) {
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++)
+			chars[i] = (char) ('a' + random.nextInt(alphabetSize));
+		return new String(chars);
+	}
+
+}
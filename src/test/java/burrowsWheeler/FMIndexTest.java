@@ -0,0 +1,84 @@
+package burrowsWheeler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import modules.basic_text_processing.burrows_wheeler.FMIndex;
+
+public class FMIndexTest {
+
+	private static int[] naiveLocate(String text, String pattern) {
+		List<Integer> positions = new ArrayList<Integer>();
+		for (int i = text.indexOf(pattern); i >= 0; i = text.indexOf(pattern, i + 1))
+			positions.add(i);
+		int[] result = new int[positions.size()];
+		for (int i = 0; i < result.length; i++)
+			result[i] = positions.get(i);
+		return result;
+	}
+
+	private static String randomString(Random random, int length, String alphabet) {
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++)
+			sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		return sb.toString();
+	}
+
+	private static void assertMatchesNaive(FMIndex index, String text, String pattern) {
+		int[] expected = naiveLocate(text, pattern);
+		assertEquals(pattern, expected.length, index.count(pattern));
+		assertArrayEquals(pattern, expected, index.locate(pattern, -1));
+	}
+
+	@Test
+	public void testCountAndLocate() {
+		Random random = new Random(7);
+		for (int round = 0; round < 50; round++) {
+			String text = randomString(random, random.nextInt(500), "abc");
+			FMIndex index = new FMIndex(text);
+			assertEquals(text.length(), index.getTextLength());
+			for (int q = 0; q < 20; q++) {
+				int length = 1 + random.nextInt(6);
+				String pattern;
+				if (text.length() >= length && random.nextBoolean()) {
+					int start = random.nextInt(text.length() - length + 1);
+					pattern = text.substring(start, start + length);
+				} else {
+					pattern = randomString(random, length, "abcd");
+				}
+				assertMatchesNaive(index, text, pattern);
+			}
+		}
+	}
+
+	@Test
+	public void testLocateLimit() {
+		FMIndex index = new FMIndex("abababababab");
+		assertEquals(6, index.count("ab"));
+		assertEquals(3, index.locate("ab", 3).length);
+		assertEquals(0, index.count("ba$"));
+	}
+
+	@Test
+	public void testWriteAndRead() throws Exception {
+		String text = randomString(new Random(3), 3000, "acgt");
+		FMIndex index = new FMIndex(text);
+		File file = File.createTempFile("fmindex", ".bin");
+		try {
+			index.write(file);
+			FMIndex read = FMIndex.read(file);
+			for (String pattern : new String[] { "a", "ac", "gattaca", "tt", text.substring(100, 130) })
+				assertMatchesNaive(read, text, pattern);
+		} finally {
+			file.delete();
+		}
+	}
+
+}
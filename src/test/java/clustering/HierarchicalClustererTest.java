@@ -0,0 +1,132 @@
+package clustering;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import modules.tree_building.suffixTreeClustering.clustering.hierarchical.HierarchicalCluster;
+import modules.tree_building.suffixTreeClustering.clustering.hierarchical.HierarchicalClusterer;
+import modules.tree_building.suffixTreeClustering.clustering.hierarchical.SimilarityMeasure;
+import modules.tree_building.suffixTreeClustering.data.Type;
+import modules.tree_building.suffixTreeClustering.features.FeatureVector;
+
+public class HierarchicalClustererTest {
+
+	// points on a line at integer positions: the distances are exact and
+	// many of them are equal (including duplicate points)
+	private static final double[] POSITIONS = { 3, 0, 1, 4, 4, 9, 7, 6, 12, 10, 2 };
+
+	@Test
+	public void singleLink() {
+		assertSameDendrogram(SimilarityMeasure.SINGLE_LINK);
+	}
+
+	@Test
+	public void completeLink() {
+		assertSameDendrogram(SimilarityMeasure.COMPLETE_LINK);
+	}
+
+	@Test
+	public void averageLink() {
+		assertSameDendrogram(SimilarityMeasure.AVERAGE_LINK);
+	}
+
+	// the clusters are numbered by a global counter, so the first number
+	// is determined before clustering
+	private static void assertSameDendrogram(SimilarityMeasure measure) {
+		List<Type> types = new ArrayList<>();
+		for (int i = 0; i < POSITIONS.length; i++) {
+			Type type = new Type(new FeatureVector(new double[] { POSITIONS[i] }));
+			type.setID(i);
+			type.setTypeString("t" + i);
+			types.add(type);
+		}
+		int firstAge = new HierarchicalCluster(types.get(0)).getAge() + 1;
+
+		HierarchicalClusterer clusterer = new HierarchicalClusterer(types, measure);
+		clusterer.analyze();
+
+		HierarchicalCluster expected = bruteForce(types, measure, firstAge);
+		assertEquals(1, clusterer.getClusters().size());
+		assertEquals(String.format("digraph{\n%s}", dot(expected, new StringBuilder())), clusterer.toDot());
+		assertEquals(expected.toString(), clusterer.getClusters().get(0).toString());
+	}
+
+	/*
+	 * Combines the nearest pair of clusters (the first one if there are
+	 * several) until one is left, computing the cluster distances from all
+	 * pairs of their members. The clusters are numbered in the order they
+	 * are created, starting with the given number.
+	 */
+	private static HierarchicalCluster bruteForce(List<Type> types, SimilarityMeasure measure, int firstAge) {
+		int age = firstAge;
+		List<HierarchicalCluster> clusters = new ArrayList<>();
+		for (Type type : types) {
+			HierarchicalCluster cluster = new HierarchicalCluster(type);
+			cluster.addTopic(type.getString());
+			cluster.setAge(age++);
+			clusters.add(cluster);
+		}
+		while (clusters.size() > 1) {
+			double smallest = Double.POSITIVE_INFINITY;
+			int c1 = 0;
+			int c2 = 0;
+			for (int i = 0; i < clusters.size() - 1; i++) {
+				for (int j = i + 1; j < clusters.size(); j++) {
+					double distance = distance(clusters.get(i), clusters.get(j), measure);
+					if (distance < smallest) {
+						smallest = distance;
+						c1 = i;
+						c2 = j;
+					}
+				}
+			}
+			HierarchicalCluster combined = new HierarchicalCluster(clusters.get(c1), clusters.get(c2));
+			combined.setAge(age++);
+			clusters.remove(c2);
+			clusters.set(c1, combined);
+		}
+		return clusters.get(0);
+	}
+
+	private static double distance(HierarchicalCluster c1, HierarchicalCluster c2, SimilarityMeasure measure) {
+		double min = Double.POSITIVE_INFINITY;
+		double max = 0;
+		double sum = 0;
+		for (Type t1 : c1.getAllTypes()) {
+			for (Type t2 : c2.getAllTypes()) {
+				double distance = t1.getVector().distance(t2.getVector());
+				min = Math.min(min, distance);
+				max = Math.max(max, distance);
+				sum += distance;
+			}
+		}
+		switch (measure) {
+		case SINGLE_LINK:
+			return min;
+		case COMPLETE_LINK:
+			return max;
+		default:
+			return sum / (c1.getAllTypes().size() + c2.getAllTypes().size());
+		}
+	}
+
+	private static String dot(HierarchicalCluster cluster, StringBuilder builder) {
+		if (cluster != null) {
+			builder.append(cluster.getAge()).append("[label = \"").append(cluster.getTopics()).append("\"];");
+			if (cluster.getLeftChild() != null) {
+				builder.append(cluster.getAge()).append(" -> ").append(cluster.getLeftChild().getAge()).append(";\n");
+			}
+			dot(cluster.getLeftChild(), builder);
+			if (cluster.getRightChild() != null) {
+				builder.append(cluster.getAge()).append(" -> ").append(cluster.getRightChild().getAge()).append(";\n");
+			}
+			dot(cluster.getRightChild(), builder);
+		}
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,207 @@
+package clustering;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import modules.tree_building.suffixTreeClustering.clustering.neighborjoin.NJNode;
+import modules.tree_building.suffixTreeClustering.clustering.neighborjoin.NeighborJoining;
+import modules.tree_building.suffixTreeClustering.data.Type;
+import modules.tree_building.suffixTreeClustering.features.FeatureVector;
+
+public class NeighborJoiningTest {
+
+	// points of a grid have many equal distances, so there are ties among the
+	// pairs to join; the first pair (in order of the remaining clusters) wins
+	@Test
+	public void tiesAreResolvedLikeTheNaiveSearch() {
+		List<Type> types = new ArrayList<>();
+		for (int x = 0; x < 4; x++) {
+			for (int y = 0; y < 3; y++) {
+				types.add(type(types.size(), new double[] { x, y }));
+			}
+		}
+		assertSameTree(new NaiveNeighborJoining(types), join(types, 1), 0.0);
+		assertSameTree(new NaiveNeighborJoining(types), join(types, 4), 0.0);
+	}
+
+	// enough clusters for rows to be compacted and searched in parallel (the
+	// row sums are updated instead of recomputed, so branch lengths may differ
+	// in the last digits)
+	@Test(timeout = 120000)
+	public void largeMatrixIsJoinedLikeTheNaiveSearch() {
+		Random random = new Random(19);
+		List<Type> types = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			double[] values = new double[8];
+			for (int k = 0; k < values.length; k++) {
+				values[k] = random.nextDouble();
+			}
+			types.add(type(i, values));
+		}
+		NaiveNeighborJoining expected = new NaiveNeighborJoining(types);
+		NJNode singleThreaded = join(types, 1);
+		NJNode multiThreaded = join(types, 4);
+		assertSameTree(expected, singleThreaded, 1e-9);
+		assertSameTree(expected, multiThreaded, 1e-9);
+		assertEquals(describe(singleThreaded), describe(multiThreaded));
+	}
+
+	private static Type type(int id, double[] values) {
+		Type type = new Type(new FeatureVector(values));
+		type.setID(id);
+		type.setTypeString("t" + id);
+		return type;
+	}
+
+	private static NJNode join(List<Type> types, int threads) {
+		NeighborJoining nj = new NeighborJoining(types, 0, threads);
+		nj.start();
+		return nj.getRoot();
+	}
+
+	private static void assertSameTree(NaiveNeighborJoining expected, NJNode root, double delta) {
+		Set<String> rootChildren = new HashSet<>();
+		for (NJNode child : root.getChildren()) {
+			rootChildren.add(child.getLabel());
+		}
+		assertEquals(new HashSet<>(expected.remaining), rootChildren);
+
+		List<NJNode> joined = new ArrayList<>();
+		collectJoined(root, joined);
+		assertEquals(expected.children.size(), joined.size());
+		for (NJNode node : joined) {
+			String[] children = expected.children.get(node.getLabel());
+			double[] lengths = expected.lengths.get(node.getLabel());
+			assertArrayEquals(node.getLabel(), children, new String[] {
+					node.getChild(0).getLabel(), node.getChild(1).getLabel() });
+			assertEquals(lengths[0], node.getChild(0).getBranchLength(), delta);
+			assertEquals(lengths[1], node.getChild(1).getBranchLength(), delta);
+		}
+	}
+
+	private static void collectJoined(NJNode node, List<NJNode> joined) {
+		for (NJNode child : node.getChildren()) {
+			if (!child.getChildren().isEmpty()) {
+				joined.add(child);
+				collectJoined(child, joined);
+			}
+		}
+	}
+
+	private static String describe(NJNode node) {
+		StringBuilder description = new StringBuilder(node.getLabel()).append(':')
+				.append(node.getBranchLength());
+		if (!node.getChildren().isEmpty()) {
+			description.append('(');
+			for (NJNode child : node.getChildren()) {
+				description.append(describe(child)).append(' ');
+			}
+			description.append(')');
+		}
+		return description.toString();
+	}
+
+	/*
+	 * Neighbor Joining recomputing all row sums and comparing all pairs in
+	 * each step. The terms are evaluated in the same order as by
+	 * NeighborJoining, so equal values are equal here as well.
+	 */
+	private static class NaiveNeighborJoining {
+
+		// children of the joined clusters and their branch lengths
+		private final Map<String, String[]> children = new HashMap<>();
+		private final Map<String, double[]> lengths = new HashMap<>();
+		// clusters left at the end
+		private final List<String> remaining = new ArrayList<>();
+
+		private NaiveNeighborJoining(List<Type> types) {
+			int size = types.size();
+			double[][] d = new double[size][size];
+			for (int i = 0; i < size; i++) {
+				for (int j = 0; j < size; j++) {
+					d[i][j] = types.get(Math.max(i, j)).getVector()
+							.distance(types.get(Math.min(i, j)).getVector());
+				}
+			}
+			// clusters by index in the matrix, in order
+			List<Integer> clusters = new ArrayList<>();
+			List<String> names = new ArrayList<>();
+			for (int i = 0; i < size; i++) {
+				clusters.add(i);
+				names.add(types.get(i).getString());
+			}
+			int[] birth = new int[size];
+			double[] r = new double[size];
+			int step = 0;
+
+			while (true) {
+				int n = clusters.size();
+				for (int i = 0; i < n; i++) {
+					double sum = 0.0;
+					for (int j = 0; j < n; j++) {
+						sum += d[clusters.get(i)][clusters.get(j)];
+					}
+					r[clusters.get(i)] = sum / (n - 2);
+				}
+
+				double bestQ = Double.POSITIVE_INFINITY;
+				int bestI = 0;
+				int bestJ = 0;
+				for (int i = 0; i < n; i++) {
+					for (int j = i + 1; j < n; j++) {
+						int a = clusters.get(i);
+						int b = clusters.get(j);
+						// the distance is kept in the row of the younger cluster
+						if (birth[b] > birth[a] || (birth[b] == birth[a] && b > a)) {
+							a = clusters.get(j);
+							b = clusters.get(i);
+						}
+						double q = d[a][b] - r[a] - r[b];
+						if (q < bestQ) {
+							bestQ = q;
+							bestI = i;
+							bestJ = j;
+						}
+					}
+				}
+
+				int ci = clusters.get(bestI);
+				int cj = clusters.get(bestJ);
+				double dij = d[ci][cj];
+				double liu = (dij / 2) + ((r[ci] - r[cj]) / 2);
+				double lju = dij - liu;
+				if (n == 3) {
+					break;
+				}
+
+				for (int k = 0; k < n; k++) {
+					int ck = clusters.get(k);
+					if (k != bestI && k != bestJ) {
+						d[ck][ci] = d[ci][ck] = (d[ck][ci] + d[ck][cj] - d[ci][cj]) / 2.0;
+					}
+				}
+				d[ci][ci] = 0.0;
+				birth[ci] = ++step;
+
+				String name = "U" + step;
+				children.put(name, new String[] { names.get(bestI), names.get(bestJ) });
+				lengths.put(name, new double[] { liu, lju });
+				names.set(bestI, name);
+				names.remove(bestJ);
+				clusters.remove(bestJ);
+			}
+			remaining.addAll(names);
+		}
+	}
+
+}
@@ -0,0 +1,54 @@
+package common;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DelimitedTokenIteratorTest {
+
+	@Test
+	public void testSplitsOnMultiCharDelimiter() throws Exception {
+		Assert.assertEquals(Arrays.asList("a", "bc", "", "d"), tokens("a::bc::::d::", "::", false));
+		Assert.assertEquals(Arrays.asList("a", "bc", "d"), tokens("a::bc::::d::", "::", true));
+		Assert.assertEquals(Arrays.asList("a:b"), tokens("a:b", "::", false));
+		Assert.assertEquals(Arrays.asList("", "1", "2"), tokens("\n1\n2", "\n", false));
+		Assert.assertEquals(Arrays.asList("1", "2"), tokens("\n1\n2", "\n", true));
+	}
+
+	@Test
+	public void testTokensSpanningBufferBoundaries() throws Exception {
+		StringBuilder input = new StringBuilder();
+		List<String> expected = new ArrayList<String>();
+		for (int i = 0; i < 5000; i++) {
+			String token = "token" + i;
+			expected.add(token);
+			input.append(token).append("<|>");
+		}
+		Assert.assertEquals(expected, tokens(input.toString(), "<|>", false));
+	}
+
+	@Test
+	public void testLineIterator() throws Exception {
+		List<String> lines = new ArrayList<String>();
+		for (String line : new LineIterator(new StringReader("a\r\nb\n\nc"), false))
+			lines.add(line);
+		Assert.assertEquals(Arrays.asList("a", "b", "", "c"), lines);
+
+		lines.clear();
+		for (String line : new LineIterator(new StringReader("a\r\nb\n\nc\n"), true))
+			lines.add(line);
+		Assert.assertEquals(Arrays.asList("a", "b", "c"), lines);
+	}
+
+	private static List<String> tokens(String input, String delimiter, boolean skipEmptyTokens) {
+		List<String> result = new ArrayList<String>();
+		for (String token : new DelimitedTokenIterator(new StringReader(input), delimiter, skipEmptyTokens))
+			result.add(token);
+		return result;
+	}
+
+}
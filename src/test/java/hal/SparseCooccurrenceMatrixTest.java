@@ -0,0 +1,75 @@
+package hal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import modules.hal.SparseCooccurrenceMatrix;
+
+public class SparseCooccurrenceMatrixTest {
+
+	private static final int WINDOW = 3;
+
+	@Test
+	public void countersMatchNaiveCounting() {
+		Random random = new Random(5);
+		SparseCooccurrenceMatrix matrix = new SparseCooccurrenceMatrix(WINDOW);
+		SparseCooccurrenceMatrix first = new SparseCooccurrenceMatrix(WINDOW);
+		SparseCooccurrenceMatrix second = new SparseCooccurrenceMatrix(WINDOW);
+		Map<Long, int[]> expected = new HashMap<Long, int[]>();
+
+		// enough pairs to make the table grow several times
+		for (int i = 0; i < 50000; i++) {
+			int row = random.nextInt(300);
+			int column = random.nextInt(300);
+			int position = random.nextInt(WINDOW);
+			matrix.increment(row, column, position);
+			(i % 2 == 0 ? first : second).increment(row, column, position);
+			long key = ((long) row << 32) | column;
+			if (!expected.containsKey(key))
+				expected.put(key, new int[WINDOW]);
+			expected.get(key)[position]++;
+		}
+		first.addAll(second);
+
+		assertEquals(expected.size(), matrix.size());
+		assertEquals(expected.size(), first.size());
+		int[] counters = new int[WINDOW];
+		for (Map.Entry<Long, int[]> entry : expected.entrySet()) {
+			int row = SparseCooccurrenceMatrix.row(entry.getKey());
+			int column = SparseCooccurrenceMatrix.column(entry.getKey());
+			assertTrue(matrix.getCounters(row, column, counters));
+			assertArrayEquals(entry.getValue(), counters);
+			assertTrue(first.getCounters(row, column, counters));
+			assertArrayEquals(entry.getValue(), counters);
+		}
+		assertFalse(matrix.getCounters(300, 0, counters));
+		assertArrayEquals(new int[WINDOW], counters);
+	}
+
+	@Test
+	public void pairsAreSortedByRank() {
+		SparseCooccurrenceMatrix matrix = new SparseCooccurrenceMatrix(WINDOW);
+		matrix.increment(0, 1, 0);
+		matrix.increment(2, 0, 1);
+		matrix.increment(0, 0, 2);
+		matrix.increment(2, 2, 0);
+
+		// order of the ids: 2, 0, 1
+		long[] pairs = matrix.sortedPairs(new int[] { 1, 2, 0 });
+		int[][] expected = { { 2, 2 }, { 2, 0 }, { 0, 0 }, { 0, 1 } };
+		assertEquals(expected.length, pairs.length);
+		for (int i = 0; i < pairs.length; i++) {
+			assertEquals(expected[i][0], SparseCooccurrenceMatrix.row(pairs[i]));
+			assertEquals(expected[i][1], SparseCooccurrenceMatrix.column(pairs[i]));
+		}
+	}
+
+}
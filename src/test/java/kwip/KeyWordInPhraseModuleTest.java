@@ -0,0 +1,192 @@
+package kwip;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexCommit;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import modules.CharPipe;
+import modules.InputPort;
+import modules.OutputPort;
+import modules.kwip.KeyWordInPhraseModule;
+
+public class KeyWordInPhraseModuleTest {
+
+	private static final String NL = System.lineSeparator();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	// "cat" occurs twice in the first line and once in the second one, every
+	// occurrence gets its own entry with the contexts of exactly that occurrence
+	@Test(timeout = 60000)
+	public void everyOccurrenceIsListedWithItsContext() throws Exception {
+		Output output = run(new Properties(), "cat saw cat\ndog saw cat\n");
+
+		assertEquals(Arrays.asList("cat", "dog", "saw"), lines(output.types));
+		// running total of the tokens up to the last token of each type
+		assertEquals(Arrays.asList("3", "4", "6"), lines(output.units));
+		assertEquals("cat saw cat" + NL + "cat saw cat" + NL + "dog saw cat" + NL
+				+ "dog saw cat" + NL
+				+ "cat saw cat" + NL + "dog saw cat" + NL, output.plain);
+
+		assertEquals(Arrays.asList(
+				// cat
+				"0|0|11|0|| saw cat",
+				"11|19|22|0|cat saw |",
+				"22|30|33|1|dog saw |",
+				// dog
+				"33|33|44|1|| saw cat",
+				// saw
+				"44|48|55|0|cat | cat",
+				"55|59|66|1|dog | cat"), tokens(output.xml));
+	}
+
+	// the index in the index directory is kept as long as the input does not
+	// change and rebuilt otherwise
+	@Test(timeout = 60000)
+	public void indexIsReusedForTheSameInput() throws Exception {
+		File indexDirectory = folder.newFolder("index");
+		Properties properties = new Properties();
+		properties.setProperty(KeyWordInPhraseModule.PROPERTYKEY_INDEXDIRECTORY,
+				indexDirectory.getAbsolutePath());
+		String text = "cat saw cat\ndog saw cat\n";
+		String changedText = "cat saw dog\n";
+
+		Output first = run(properties, text);
+		IndexCommit firstCommit = lastCommit(indexDirectory);
+		assertEquals(sha256(text), firstCommit.getUserData().get("InputHash"));
+
+		// same input: same commit, same output
+		Output second = run(properties, text);
+		IndexCommit secondCommit = lastCommit(indexDirectory);
+		assertEquals(firstCommit.getGeneration(), secondCommit.getGeneration());
+		assertEquals(first.plain, second.plain);
+		assertEquals(first.xml, second.xml);
+		assertEquals(first.units, second.units);
+
+		// changed input: new commit, output of the changed input only
+		Output third = run(properties, changedText);
+		IndexCommit thirdCommit = lastCommit(indexDirectory);
+		assertTrue(thirdCommit.getGeneration() > secondCommit.getGeneration());
+		assertEquals(sha256(changedText), thirdCommit.getUserData().get("InputHash"));
+		assertEquals(run(new Properties(), changedText).xml, third.xml);
+		assertEquals(Arrays.asList("cat", "dog", "saw"), lines(third.types));
+		assertEquals(Arrays.asList("1", "2", "3"), lines(third.units));
+	}
+
+	private static IndexCommit lastCommit(File indexDirectory) throws Exception {
+		Directory directory = FSDirectory.open(indexDirectory);
+		try {
+			DirectoryReader reader = DirectoryReader.open(directory);
+			try {
+				return reader.getIndexCommit();
+			} finally {
+				reader.close();
+			}
+		} finally {
+			directory.close();
+		}
+	}
+
+	private static String sha256(String text) throws Exception {
+		StringBuilder hash = new StringBuilder();
+		for (byte b : MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)))
+			hash.append(String.format("%02x", b));
+		return hash.toString();
+	}
+
+	static class Output {
+		String plain;
+		String units;
+		String types;
+		String xml;
+	}
+
+	static Output run(Properties properties, String text) throws Exception {
+		final KeyWordInPhraseModule module = new KeyWordInPhraseModule(null, properties);
+		module.applyProperties();
+
+		CharPipe textPipe = new CharPipe(text.length() + 1);
+		textPipe.write(text);
+		textPipe.writeClose();
+		module.getInputPorts().get("plain").addPipe(textPipe, new OutputPort("text", "", null));
+		CharPipe plainPipe = connect(module.getOutputPorts().get("plain"));
+		CharPipe unitsPipe = connect(module.getOutputPorts().get("units"));
+		CharPipe typesPipe = connect(module.getOutputPorts().get("types"));
+		CharPipe xmlPipe = connect(module.getOutputPorts().get("xml"));
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Boolean> result = executor.submit(() -> module.process());
+			assertTrue(result.get());
+			Output output = new Output();
+			output.plain = readAll(plainPipe);
+			output.units = readAll(unitsPipe);
+			output.types = readAll(typesPipe);
+			output.xml = readAll(xmlPipe);
+			return output;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	static List<String> lines(String output) {
+		return Arrays.asList(output.split("\n"));
+	}
+
+	/*
+	 * Reduces the tokens of the xml output to
+	 * "contextStart|position|contextEnd|source|left|right"
+	 */
+	static List<String> tokens(String xml) {
+		Pattern token = Pattern.compile("<token>\\s*<context>.*?</context>\\s*"
+				+ "<contextStart>(\\d+)</contextStart>\\s*<position>(\\d+)</position>\\s*"
+				+ "<contextEnd>(\\d+)</contextEnd>\\s*<source>(\\d+)</source>\\s*"
+				+ "<left>(.*?)</left>\\s*<right>(.*?)</right>\\s*</token>");
+		List<String> tokens = new ArrayList<String>();
+		Matcher matcher = token.matcher(xml);
+		while (matcher.find()) {
+			tokens.add(matcher.group(1) + "|" + matcher.group(2) + "|" + matcher.group(3)
+					+ "|" + matcher.group(4) + "|" + matcher.group(5) + "|" + matcher.group(6));
+		}
+		return tokens;
+	}
+
+	// the pipes hold the whole output, so the module never has to wait for them
+	private static CharPipe connect(OutputPort outputPort) throws Exception {
+		CharPipe pipe = new CharPipe(1 << 16);
+		outputPort.addPipe(pipe, new InputPort(outputPort.getName(), "", null));
+		return pipe;
+	}
+
+	private static String readAll(CharPipe pipe) throws Exception {
+		StringBuilder result = new StringBuilder();
+		char[] buffer = new char[1024];
+		int read;
+		while ((read = pipe.read(buffer, 0, buffer.length)) != -1) {
+			result.append(buffer, 0, read);
+		}
+		return result.toString();
+	}
+
+}
@@ -34,6 +34,31 @@ public class ExtensibleTreeNodeTest {
 		Assert.assertTrue(node3.getChildNodes().get("child").getAttributes().get("doubleCounter").getClass().equals(Double.class));
 	}
 	
-	
+	@Test
+	public void parentLinkTest() {
+		Gson gson = new GsonBuilder().setPrettyPrinting().create();
+		
+		ExtensibleTreeNode root = new ExtensibleTreeNode("^");
+		ExtensibleTreeNode child = new ExtensibleTreeNode();
+		String json = gson.toJson(root);
+		
+		root.putChildNode("ab", child);
+		Assert.assertSame(root, child.getParentNode());
+		Assert.assertEquals("ab", child.getKeyInParent());
+		Assert.assertSame(child, root.getChildNodes().get("ab"));
+		
+		// re-keying
+		root.removeChildNode("ab");
+		Assert.assertNull(child.getParentNode());
+		Assert.assertNull(child.getKeyInParent());
+		root.putChildNode("abc", child);
+		Assert.assertEquals("abc", child.getKeyInParent());
+		Assert.assertEquals(1, root.getChildNodes().size());
+		
+		// links are not serialised
+		root.removeChildNode("abc");
+		Assert.assertEquals(json, gson.toJson(root));
+		Assert.assertEquals("{\n  \"nodeCounter\": 0,\n  \"childNodes\": {},\n  \"attributes\": {}\n}", gson.toJson(child));
+	}
 
 }
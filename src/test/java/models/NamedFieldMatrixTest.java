@@ -51,6 +51,23 @@ public class NamedFieldMatrixTest {
 		}
 	}
 
+	@Test
+	public void copyTest() {
+		try {
+			NamedFieldMatrix matrix = NamedFieldMatrix.parseCSV(CSV, ",");
+			NamedFieldMatrix copy = matrix.copy();
+			copy.setValue("set2", "data3", 42.0d);
+			copy.addValue("set4", "data5", 1.0d);
+			assertTrue(matrix.getValue("set2", "data3").doubleValue() == 1.2d);
+			assertTrue(copy.getValue("set2", "data3").doubleValue() == 42.0d);
+			assertTrue(matrix.getValue("set4", "data5") == null);
+			assertTrue(copy.getValue("set1", "data4").doubleValue() == 153.543d);
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail("Exception: " + e.getMessage());
+		}
+	}
+
 	@Test
 	public void contractionTest() {
 		try {
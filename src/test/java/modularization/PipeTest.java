@@ -0,0 +1,169 @@
+package modularization;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.junit.Test;
+
+import modules.BytePipe;
+import modules.CharPipe;
+import modules.InputPort;
+import modules.ObjectPipe;
+import modules.OutputPort;
+import modules.OutputPortWriter;
+
+public class PipeTest {
+
+	@Test
+	public void testCharPipeTransfersAllData() throws Exception {
+		// Small buffer to force wrap-around and blocking on both sides
+		final CharPipe pipe = new CharPipe(7);
+		final StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 10000; i++)
+			expected.append(i).append(' ');
+
+		Thread writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					String data = expected.toString();
+					int pos = 0;
+					while (pos < data.length()) {
+						int len = Math.min(13, data.length() - pos);
+						pipe.write(data.substring(pos, pos + len));
+						pos += len;
+					}
+					pipe.writeClose();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		});
+		writer.start();
+
+		StringBuilder actual = new StringBuilder();
+		char[] buffer = new char[5];
+		int read;
+		while ((read = pipe.read(buffer, 0, buffer.length)) != -1)
+			actual.append(buffer, 0, read);
+		writer.join();
+
+		assertEquals(expected.toString(), actual.toString());
+	}
+
+	@Test
+	public void testBytePipeTransfersAllData() throws Exception {
+		final BytePipe pipe = new BytePipe(11);
+		final byte[] expected = new byte[5000];
+		for (int i = 0; i < expected.length; i++)
+			expected[i] = (byte) i;
+
+		Thread writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					pipe.write(expected, 0, expected.length);
+					pipe.writeClose();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		});
+		writer.start();
+
+		byte[] actual = new byte[expected.length];
+		int pos = 0;
+		int b;
+		while ((b = pipe.getInput().read()) != -1)
+			actual[pos++] = (byte) b;
+		writer.join();
+
+		assertEquals(expected.length, pos);
+		assertArrayEquals(expected, actual);
+	}
+
+	@Test
+	public void testPipeCanBeReusedAfterReset() throws Exception {
+		CharPipe pipe = new CharPipe();
+		pipe.write("first");
+		pipe.writeClose();
+		pipe.reset();
+		pipe.write("second");
+		pipe.writeClose();
+
+		char[] buffer = new char[16];
+		int read = pipe.read(buffer, 0, buffer.length);
+		assertEquals("second", new String(buffer, 0, read));
+		assertEquals(-1, pipe.read(buffer, 0, buffer.length));
+	}
+
+	@Test
+	public void testObjectPipePassesReferences() throws Exception {
+		final ObjectPipe<Object> pipe = new ObjectPipe<Object>(2);
+		final Object[] objects = new Object[10];
+		for (int i = 0; i < objects.length; i++)
+			objects[i] = new Object();
+
+		Thread writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					for (Object object : objects)
+						pipe.write(object);
+					pipe.writeClose();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		});
+		writer.start();
+
+		for (Object object : objects)
+			assertSame(object, pipe.read());
+		assertNull(pipe.read());
+		assertNull(pipe.read());
+		writer.join();
+	}
+
+	@Test
+	public void testOutputPortWriterStreamsIntoPipe() throws Exception {
+		final OutputPort out = new OutputPort("out", "", null);
+		out.addSupportedPipe(CharPipe.class);
+		final CharPipe pipe = new CharPipe(16);
+		out.addPipe(pipe, new InputPort("in", "", null));
+		final StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 2000; i++)
+			expected.append(i).append(',');
+
+		// Much more data than the pipe can hold, so writing must block until read
+		Thread writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Writer w = new OutputPortWriter(out, 10);
+					w.write(expected.toString());
+					w.close();
+					out.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		});
+		writer.start();
+
+		StringBuilder actual = new StringBuilder();
+		char[] buffer = new char[7];
+		int read;
+		while ((read = pipe.read(buffer, 0, buffer.length)) != -1)
+			actual.append(buffer, 0, read);
+		writer.join();
+
+		assertEquals(expected.toString(), actual.toString());
+	}
+
+}
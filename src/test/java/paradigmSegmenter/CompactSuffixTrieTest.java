@@ -0,0 +1,64 @@
+package paradigmSegmenter;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import models.ExtensibleTreeNode;
+import modules.segmentation.paradigmSegmenter.CompactSuffixTrie;
+import modules.segmentation.paradigmSegmenter.SymbolRater;
+
+public class CompactSuffixTrieTest {
+
+	// suffix trie of "abab" and "ba" up to depth 3
+	private static ExtensibleTreeNode buildTrie() {
+		ExtensibleTreeNode root = new ExtensibleTreeNode();
+		for (String word : new String[] { "abab", "ba" }) {
+			for (int i = 0; i < word.length(); i++) {
+				ExtensibleTreeNode node = root;
+				node.setNodeCounter(node.getNodeCounter() + 1);
+				for (int j = i; j < word.length() && j < i + 3; j++) {
+					String symbol = word.substring(j, j + 1);
+					ExtensibleTreeNode child = node.getChildNodes().get(symbol);
+					if (child == null) {
+						child = new ExtensibleTreeNode(symbol);
+						node.putChildNode(symbol, child);
+					}
+					child.setNodeCounter(child.getNodeCounter() + 1);
+					node = child;
+				}
+			}
+		}
+		return root;
+	}
+
+	@Test
+	public void ratingsMatchSymbolRater() {
+		ExtensibleTreeNode root = buildTrie();
+		SymbolRater rater = new SymbolRater(0.5, 2);
+		CompactSuffixTrie trie = new CompactSuffixTrie(root, rater);
+
+		assertEquals(2, trie.getSymbolAnzahl());
+		int a = trie.kodieren('a');
+		int b = trie.kodieren("b");
+		assertEquals("a", trie.getSymbol(a));
+		assertEquals(CompactSuffixTrie.KEIN_KNOTEN, trie.kodieren('c'));
+		assertEquals(CompactSuffixTrie.KEIN_KNOTEN, trie.kodieren("ab"));
+
+		// follow "bab" in both representations
+		int knoten = CompactSuffixTrie.WURZEL;
+		ExtensibleTreeNode elternKnoten = root;
+		for (int symbol : new int[] { b, a, b }) {
+			int kind = trie.getKindKnoten(knoten, symbol);
+			for (double letzteBewertung : new double[] { Double.MAX_VALUE, 0.1, 1 })
+				assertEquals(rater.symbolBewerten(trie.getSymbol(symbol), elternKnoten, letzteBewertung),
+						rater.abfallEinbeziehen(trie.getBewertung(kind), letzteBewertung), 0d);
+			knoten = kind;
+			elternKnoten = elternKnoten.getChildNodes().get(trie.getSymbol(symbol));
+		}
+		assertEquals(CompactSuffixTrie.KEIN_KNOTEN, trie.getKindKnoten(knoten, a));
+		assertEquals(CompactSuffixTrie.KEIN_KNOTEN, trie.getKindKnoten(CompactSuffixTrie.KEIN_KNOTEN, a));
+		assertEquals(CompactSuffixTrie.KEIN_KNOTEN, trie.getKindKnoten(CompactSuffixTrie.WURZEL, 2));
+	}
+
+}
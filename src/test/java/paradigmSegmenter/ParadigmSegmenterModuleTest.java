@@ -0,0 +1,191 @@
+package paradigmSegmenter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+import models.ExtensibleTreeNode;
+import modules.CharPipe;
+import modules.InputPort;
+import modules.OutputPort;
+import modules.segmentation.paradigmSegmenter.ParadigmSegmenterModule;
+
+public class ParadigmSegmenterModuleTest {
+
+	private static final String[] WORDS = { "haus", "hauses", "maus", "mause", "baum", "baumes" };
+
+	private static final String[][] SENTENCES = { { "der", "hund", "bellt" }, { "der", "hund", "schlaeft" },
+			{ "die", "katze", "schlaeft" } };
+
+	@Test(timeout = 60000)
+	public void charInput() throws Exception {
+		assertEquals("haus\tmaus\nmaus\tbaum\thaus\nhaus\tes\n",
+				segment(new Properties(), charTrie(), "hausmaus\nmausbaumhaus\nhauses\n"));
+	}
+
+	@Test(timeout = 60000)
+	public void charInputWithScoring() throws Exception {
+		Properties properties = new Properties();
+		properties.setProperty(ParadigmSegmenterModule.PROPERTYKEY_INCLUDESCORING, "true");
+		String score = String.valueOf(Double.MAX_VALUE);
+		assertEquals("haus\t" + score + "\tmaus\n" + "maus\t" + score + "\tbaum\t" + score + "\thaus\n"
+				+ "haus\t" + score + "\tes\n",
+				segment(properties, charTrie(), "hausmaus\nmausbaumhaus\nhauses\n"));
+	}
+
+	// the symbols of a segment are followed by the input token divider, those
+	// remaining at the end of a document are not
+	@Test(timeout = 60000)
+	public void tokenInput() throws Exception {
+		Properties properties = new Properties();
+		properties.setProperty(ParadigmSegmenterModule.PROPERTYKEY_INPUTTOKENDIVIDER, " ");
+		assertEquals("der \thundschlaeftdiekatzebellt\ndiekatzeschlaeft\n",
+				segment(properties, tokenTrie(), "der hund schlaeft die katze bellt \ndie katze schlaeft \n"));
+	}
+
+	// symbols missing from the trie are passed through as documents of their
+	// own, but cannot be segmented together with others
+	@Test(timeout = 60000)
+	public void unknownSymbols() throws Exception {
+		assertEquals("haus\nx\nmaus\n", segment(new Properties(), charTrie(), "haus\nx\nmaus\n"));
+
+		Properties properties = new Properties();
+		properties.setProperty(ParadigmSegmenterModule.PROPERTYKEY_INPUTTOKENDIVIDER, " ");
+		assertEquals("der \thund\nmaus\n", segment(properties, tokenTrie(), "der hund \nmaus \n"));
+
+		try {
+			segment(new Properties(), charTrie(), "hausxmaus\n");
+			fail("Unknown symbol within a document was not reported.");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause().getMessage().contains("unknown symbol"));
+		}
+	}
+
+	@Test(timeout = 60000)
+	public void emptyDocument() throws Exception {
+		assertEquals("haus\n\nmaus\n", segment(new Properties(), charTrie(), "haus\n\nmaus\n"));
+
+		Properties properties = new Properties();
+		properties.setProperty(ParadigmSegmenterModule.PROPERTYKEY_INPUTDOCUMENTDIVIDER, "");
+		assertEquals("", segment(properties, charTrie(), ""));
+	}
+
+	// the documents are output in input order however many threads segment
+	// them (more documents than may be pending at once)
+	@Test(timeout = 60000)
+	public void threadsDoNotChangeOutput() throws Exception {
+		Random random = new Random(24);
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			for (int j = random.nextInt(6); j >= 0; j--) {
+				text.append(WORDS[random.nextInt(WORDS.length)]);
+			}
+			text.append('\n');
+		}
+
+		String singleThreaded = segment(threads(1), charTrie(), text.toString());
+		assertEquals(500, singleThreaded.split("\n", -1).length - 1);
+		assertEquals(singleThreaded, segment(threads(4), charTrie(), text.toString()));
+	}
+
+	// a document that cannot be segmented fails the module, also if it is
+	// segmented in another thread
+	@Test(timeout = 60000)
+	public void failingDocumentFailsModule() throws Exception {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			text.append(i == 100 ? "hausxmaus" : "hausmaus").append('\n');
+		}
+		for (int threads : new int[] { 1, 4 }) {
+			try {
+				segment(threads(threads), charTrie(), text.toString());
+				fail("Failure of a document did not reach the caller (" + threads + " threads).");
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause().getMessage().contains("unknown symbol"));
+			}
+		}
+	}
+
+	private static Properties threads(int threads) {
+		Properties properties = new Properties();
+		properties.setProperty(ParadigmSegmenterModule.PROPERTYKEY_THREADS, String.valueOf(threads));
+		return properties;
+	}
+
+	// suffix trie of the given symbol sequences up to depth 4
+	private static ExtensibleTreeNode buildTrie(String[][] sequences) {
+		ExtensibleTreeNode root = new ExtensibleTreeNode();
+		for (String[] sequence : sequences) {
+			for (int i = 0; i < sequence.length; i++) {
+				ExtensibleTreeNode node = root;
+				node.setNodeCounter(node.getNodeCounter() + 1);
+				for (int j = i; j < sequence.length && j < i + 4; j++) {
+					ExtensibleTreeNode child = node.getChildNodes().get(sequence[j]);
+					if (child == null) {
+						child = new ExtensibleTreeNode(sequence[j]);
+						node.putChildNode(sequence[j], child);
+					}
+					child.setNodeCounter(child.getNodeCounter() + 1);
+					node = child;
+				}
+			}
+		}
+		return root;
+	}
+
+	private static ExtensibleTreeNode charTrie() {
+		String[][] sequences = new String[WORDS.length][];
+		for (int i = 0; i < WORDS.length; i++) {
+			sequences[i] = WORDS[i].split("");
+		}
+		return buildTrie(sequences);
+	}
+
+	private static ExtensibleTreeNode tokenTrie() {
+		return buildTrie(SENTENCES);
+	}
+
+	static String segment(Properties properties, ExtensibleTreeNode trie, String text) throws Exception {
+		final ParadigmSegmenterModule module = new ParadigmSegmenterModule(null, properties);
+		module.applyProperties();
+
+		String json = new Gson().toJson(trie);
+		CharPipe triePipe = new CharPipe(json.length() + 1);
+		triePipe.write(json);
+		triePipe.writeClose();
+		module.getInputPorts().get("suffix trie").addPipe(triePipe, new OutputPort("trie", "", null));
+		CharPipe textPipe = new CharPipe(text.length() + 1);
+		textPipe.write(text);
+		textPipe.writeClose();
+		module.getInputPorts().get("text").addPipe(textPipe, new OutputPort("text", "", null));
+		CharPipe outputPipe = new CharPipe(1 << 16);
+		module.getOutputPorts().get("output").addPipe(outputPipe, new InputPort("output", "", null));
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Boolean> result = executor.submit(() -> module.process());
+			result.get();
+			StringBuilder output = new StringBuilder();
+			char[] buffer = new char[1024];
+			int read;
+			while ((read = outputPipe.read(buffer, 0, buffer.length)) != -1) {
+				output.append(buffer, 0, read);
+			}
+			return output.toString();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,126 @@
+package segmentation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import modules.segmentation.SegmentDistanceMatrix;
+
+public class SegmentDistanceMatrixTest {
+
+	@Test
+	public void distancesKeepTheirOrderAcrossAdditions() {
+		SegmentDistanceMatrix matrix = new SegmentDistanceMatrix();
+		matrix.addSegments(new String[] { "ge", "lauf", "en" });
+		assertEquals(Arrays.asList((short) 2), matrix.getDistances("ge", "en"));
+
+		// adding after a read merges the new distances behind the old ones
+		matrix.addSegments(new String[] { "en", "ge" });
+		matrix.addSegments(new String[] { "lauf", "t" });
+		assertEquals(Arrays.asList((short) 2, (short) -1), matrix.getDistances("ge", "en"));
+		assertArrayEquals(new short[] { -2, 1 }, matrix.getDistances(2, 0));
+		assertTrue(matrix.hasCombination("lauf", "t"));
+		assertFalse(matrix.hasCombination("ge", "t"));
+		assertFalse(matrix.hasCombination("ge", "unknown"));
+		assertEquals(0, matrix.getDistances("ge", "t").size());
+		assertArrayEquals(new int[] { 0, 2, 3 }, matrix.getRowColumns(1));
+	}
+
+	@Test
+	public void rowHammingDistancesMatchPairwiseOnes() {
+		SegmentDistanceMatrix matrix = new SegmentDistanceMatrix();
+		matrix.addSegments(new String[] { "geh", "en" });
+		matrix.addSegments(new String[] { "geh", "t" });
+		matrix.addSegments(new String[] { "lauf", "en" });
+		matrix.addSegments(new String[] { "ge", "lauf", "en" });
+
+		for (int i = 0; i < matrix.getSegmentsAmount(); i++) {
+			int[] distances = matrix.getRowHammingDistances(i);
+			for (int j = 0; j < matrix.getSegmentsAmount(); j++) {
+				assertEquals(matrix.getRowsHammingDistance(matrix.getSegments().get(i), matrix.getSegments().get(j)),
+						distances[j]);
+			}
+		}
+		assertEquals(2, matrix.getRowsHammingDistance("geh", "lauf"));
+	}
+
+	// rows and columns are sorted ignoring case (equal ones keep their order),
+	// fields not set are left empty
+	@Test
+	public void printSortsSegmentsAndLeavesUnsetFieldsEmpty() {
+		SegmentDistanceMatrix matrix = new SegmentDistanceMatrix();
+		matrix.addSegments(new String[] { "ge", "lauf", "en" });
+		matrix.addSegments(new String[] { "en", "ge" });
+		matrix.addSegments(new String[] { "Lauf", "t" });
+
+		assertEquals(";en;ge;lauf;Lauf;t;\n"
+				+ "en;;-2,1;-1;;;\n"
+				+ "ge;2,-1;;1;;;\n"
+				+ "lauf;1;-1;;;;\n"
+				+ "Lauf;;;;;1;\n"
+				+ "t;;;;-1;;\n", matrix.print(";"));
+	}
+
+	// with many segments most rows have too few columns to be kept as bit
+	// sets, so all ways of comparing rows (sparse with sparse, sparse with bit
+	// set, bit set with bit set) are taken
+	@Test
+	public void rowHammingDistancesMatchSetDifferences() {
+		Random random = new Random(25);
+		int segmentsAmount = 200;
+		List<Set<String>> columns = new ArrayList<>();
+		for (int i = 0; i < segmentsAmount; i++) {
+			columns.add(new HashSet<String>());
+		}
+		SegmentDistanceMatrix matrix = new SegmentDistanceMatrix();
+		for (int i = 0; i < 100; i++) {
+			// a few random segments (each at most once)
+			int[] sequence = random.ints(0, segmentsAmount).distinct().limit(2 + random.nextInt(2)).toArray();
+			add(matrix, columns, sequence);
+		}
+		// two segments combined with most others
+		for (int i = 2; i < segmentsAmount; i++) {
+			add(matrix, columns, new int[] { 0, i });
+			if (i % 3 != 0)
+				add(matrix, columns, new int[] { i, 1 });
+		}
+
+		for (int i = 0; i < segmentsAmount; i++) {
+			int[] distances = matrix.getRowHammingDistances(matrix.getSegments().indexOf("s" + i));
+			for (int j = 0; j < segmentsAmount; j++) {
+				Set<String> difference = new HashSet<>(columns.get(i));
+				difference.addAll(columns.get(j));
+				Set<String> common = new HashSet<>(columns.get(i));
+				common.retainAll(columns.get(j));
+				difference.removeAll(common);
+				int expected = i == j ? 0 : difference.size();
+
+				assertEquals(expected, matrix.getRowsHammingDistance("s" + i, "s" + j));
+				assertEquals(expected, distances[matrix.getSegments().indexOf("s" + j)]);
+			}
+		}
+	}
+
+	private static void add(SegmentDistanceMatrix matrix, List<Set<String>> columns, int[] sequence) {
+		String[] segments = new String[sequence.length];
+		for (int i = 0; i < sequence.length; i++) {
+			segments[i] = "s" + sequence[i];
+			for (int j = 0; j < sequence.length; j++) {
+				if (i != j)
+					columns.get(sequence[i]).add("s" + sequence[j]);
+			}
+		}
+		matrix.addSegments(segments);
+	}
+
+}
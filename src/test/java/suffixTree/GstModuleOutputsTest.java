@@ -0,0 +1,130 @@
+package suffixTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import modules.BytePipe;
+import modules.CharPipe;
+import modules.InputPort;
+import modules.OutputPort;
+import modules.tree_building.suffixTreeModuleWrapper.GeneralisedSuffixTreeModule;
+
+public class GstModuleOutputsTest {
+
+	// outputs can be read one after another in the order they are written out
+	// although they are streamed into small pipes
+	@Test(timeout = 60000)
+	public void outputsCanBeReadOneAfterAnother() throws Exception {
+		final GeneralisedSuffixTreeModule module = module();
+		CharPipe edgeSegmentsPipe = connect(module.getOutputPorts().get("edge segments"));
+		BytePipe xmlPipe = connectBytes(module.getOutputPorts().get("xml"));
+		CharPipe jsonPipe = connect(module.getOutputPorts().get("json"));
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Boolean> result = executor.submit(() -> module.process());
+
+			// read the edge segments to their end before the xml and json
+			String edgeSegments = readAll(edgeSegmentsPipe);
+			String xml = readAll(xmlPipe);
+			String json = readAll(jsonPipe);
+			assertTrue(result.get());
+
+			assertEquals(500, edgeSegments.split(System.lineSeparator()).length);
+			assertTrue(xml.trim().endsWith("</output>"));
+			assertTrue(json.trim().endsWith("}"));
+
+			// each output is the same as if it was the only one (the order of
+			// a node's leaves and thus of its pattern infos may vary)
+			assertEquals(edgeSegments, singleOutput("edge segments"));
+			assertEquals(sortedLines(xml), sortedLines(singleOutput("xml")));
+			assertEquals(sortedLines(json), sortedLines(singleOutput("json")));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static List<String> sortedLines(String output) {
+		List<String> lines = Arrays.asList(output.split("\\R"));
+		Collections.sort(lines);
+		return lines;
+	}
+
+	private static String singleOutput(String outputId) throws Exception {
+		final GeneralisedSuffixTreeModule module = module();
+		OutputPort outputPort = module.getOutputPorts().get(outputId);
+		boolean bytes = outputPort.supportsPipeClass(BytePipe.class);
+		CharPipe charPipe = bytes ? null : connect(outputPort);
+		BytePipe bytePipe = bytes ? connectBytes(outputPort) : null;
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Boolean> result = executor.submit(() -> module.process());
+			String output = bytes ? readAll(bytePipe) : readAll(charPipe);
+			assertTrue(result.get());
+			return output;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static GeneralisedSuffixTreeModule module() throws Exception {
+		GeneralisedSuffixTreeModule module = new GeneralisedSuffixTreeModule(null, new Properties());
+
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			text.append("word").append(i).append('$');
+		}
+		CharPipe textPipe = new CharPipe(text.length() + 1);
+		textPipe.write(text.toString());
+		textPipe.writeClose();
+		module.getInputPorts().get("plain").addPipe(textPipe, new OutputPort("text", "", null));
+		return module;
+	}
+
+	private static CharPipe connect(OutputPort outputPort) throws Exception {
+		CharPipe pipe = new CharPipe(64);
+		outputPort.addPipe(pipe, new InputPort(outputPort.getName(), "", null));
+		return pipe;
+	}
+
+	private static BytePipe connectBytes(OutputPort outputPort) throws Exception {
+		BytePipe pipe = new BytePipe(64);
+		outputPort.addPipe(pipe, new InputPort(outputPort.getName(), "", null));
+		return pipe;
+	}
+
+	private static String readAll(CharPipe pipe) throws Exception {
+		StringBuilder result = new StringBuilder();
+		char[] buffer = new char[1024];
+		int read;
+		while ((read = pipe.read(buffer, 0, buffer.length)) != -1) {
+			result.append(buffer, 0, read);
+		}
+		return result.toString();
+	}
+
+	private static String readAll(BytePipe pipe) throws Exception {
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		InputStream in = pipe.getInput();
+		byte[] buffer = new byte[1024];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			result.write(buffer, 0, read);
+		}
+		return result.toString("UTF-8");
+	}
+
+}
@@ -6,12 +6,14 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
 
+import modules.tree_building.suffixTree.GST;
 import modules.tree_building.suffixTree.SuffixTree;
 
 public class GstTest {
@@ -251,4 +253,14 @@ public class GstTest {
 		assertFalse(tree.findPattern("$N"));
 	}
 
+	@Test
+	public void testMultiLineInput() throws Exception {
+		// lines not ending on '$' are joined to their predecessor by a blank
+		final SuffixTree tree = GST.buildGST(new BufferedReader(new StringReader("aa$\nbb\ncc$\naa$")), null);
+		assertEquals("aa$ bbcc$aa$", tree.getText());
+		assertEquals(3, tree.textNrsAmount());
+		assertEquals(" bbcc$", tree.getInputText(1));
+		assertTrue(tree.findPattern("bbcc$"));
+	}
+
 }
@@ -0,0 +1,72 @@
+package suffixTree;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import modules.tree_building.suffixTree.CompositeTreeWalkerListener;
+import modules.tree_building.suffixTree.GST;
+import modules.tree_building.suffixTree.ITreeWalkerListener;
+import modules.tree_building.suffixTree.SuffixTree;
+import modules.tree_building.suffixTree.TreeWalker;
+
+public class TreeWalkerTest {
+
+	// notes every action as "+nodeNr/level" or "-nodeNr/level"
+	private static class RecordingListener implements ITreeWalkerListener {
+
+		final List<String> actions = new ArrayList<String>();
+		int maxLevel = 0;
+
+		@Override
+		public void entryaction(int nodeNr, int level) throws IOException {
+			actions.add("+" + nodeNr + "/" + level);
+			maxLevel = Math.max(maxLevel, level);
+		}
+
+		@Override
+		public void exitaction(int nodeNr, int level) throws IOException {
+			actions.add("-" + nodeNr + "/" + level);
+		}
+	}
+
+	@Test
+	public void testCompositeListenerSeesSameWalk() throws Exception {
+		final SuffixTree tree = GST.buildGST("aab$bba$aabccd$aabbba$bbaaab$");
+
+		final RecordingListener single = new RecordingListener();
+		TreeWalker.walk(tree.getRoot(), tree, single);
+
+		final RecordingListener first = new RecordingListener();
+		final RecordingListener second = new RecordingListener();
+		TreeWalker.walk(tree.getRoot(), tree, new CompositeTreeWalkerListener().add(first).add(second));
+
+		assertEquals(single.actions, first.actions);
+		assertEquals(single.actions, second.actions);
+		// every node is entered and exited exactly once
+		assertEquals(2 * tree.getNodeAmount(), single.actions.size());
+		assertEquals("+" + tree.getRoot() + "/0", single.actions.get(0));
+		assertEquals("-" + tree.getRoot() + "/0", single.actions.get(single.actions.size() - 1));
+	}
+
+	@Test
+	public void testDeepTree() throws Exception {
+		// a single repeated letter yields a tree as deep as the input is long
+		final StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			input.append('a');
+		}
+		input.append('$');
+		final SuffixTree tree = GST.buildGST(input.toString());
+
+		final RecordingListener listener = new RecordingListener();
+		TreeWalker.walk(tree.getRoot(), tree, listener);
+		assertEquals(2 * tree.getNodeAmount(), listener.actions.size());
+		assertEquals(20000, listener.maxLevel);
+	}
+
+}
@@ -0,0 +1,107 @@
+package transitionNetwork;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import modules.transitionNetwork.TransitionNetworkArray;
+
+public class TransitionNetworkArrayTest {
+
+	private static TransitionNetworkArray buildNetwork() {
+		TransitionNetworkArray network = new TransitionNetworkArray();
+		network.addPath(new String[] { "geh", "en" });
+		network.addPath(new String[] { "geh", "t" });
+		network.addPath(new String[] { "lauf", "en" });
+		network.addPath(new String[] { "lauf", "t" });
+		network.addPath(new String[] { "ge", "lauf", "en" });
+		return network;
+	}
+
+	@Test
+	public void pathsShareTheirPrefixes() {
+		TransitionNetworkArray network = buildNetwork();
+
+		assertEquals(4, network.getStatesAmount());
+		assertEquals(5, network.getTransitionsAmount());
+		int geh = network.getTransition(network.getInitialState(), "geh");
+		assertEquals(1, geh);
+		assertEquals(network.getFinalState(), network.getTransition(geh, "en"));
+		assertEquals(network.getFinalState(), network.getTransition(geh, "t"));
+		assertEquals(network.getInvalidState(), network.getTransition(geh, "lauf"));
+		assertEquals(network.getInvalidState(), network.getTransition(geh, "unknown"));
+		assertEquals(2, network.countSubStates(geh));
+		assertEquals(0, network.countSubStates(network.getFinalState()));
+
+		// both states lead to the final state by the same labels
+		assertEquals(0.0, network.stateDistance(geh, network.getTransition(0, "lauf")), 0.0);
+		assertEquals(1.0, network.stateDistance(geh, network.getTransition(0, "ge")), 0.0);
+	}
+
+	@Test
+	public void binaryFormatRoundTrips() throws IOException {
+		TransitionNetworkArray network = buildNetwork();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		network.write(out);
+
+		TransitionNetworkArray read = TransitionNetworkArray.read(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(network.print(), read.print());
+		assertEquals(network.getMaxStates(), read.getMaxStates());
+
+		// the network read can be extended
+		read.addPath(new String[] { "geh", "st" });
+		assertEquals(network.getFinalState(), read.getTransition(1, "st"));
+	}
+
+	@Test
+	public void emptyNetworkCanBeExtendedAfterReading() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new TransitionNetworkArray().write(out);
+
+		TransitionNetworkArray read = TransitionNetworkArray.read(new ByteArrayInputStream(out.toByteArray()));
+		read.addPath(new String[] { "a", "b" });
+		assertEquals(read.getFinalState(), read.getTransition(read.getTransition(0, "a"), "b"));
+	}
+
+	@Test
+	public void pathsEndingAtAnotherPathsStateAreKept() throws IOException {
+		// the shorter path added after the longer one
+		TransitionNetworkArray network = new TransitionNetworkArray();
+		network.addPath(new String[] { "geh", "en" });
+		network.addPath(new String[] { "geh" });
+		int geh = network.getTransition(0, "geh");
+		assertEquals(1, geh);
+		assertTrue(network.isAccepting(geh));
+		assertEquals(network.getFinalState(), network.getTransition(geh, "en"));
+		assertEquals(2, network.countSubStates(0));
+
+		// the longer path added after the shorter one
+		TransitionNetworkArray reversed = new TransitionNetworkArray();
+		reversed.addPath(new String[] { "geh" });
+		reversed.addPath(new String[] { "geh", "en" });
+		assertEquals(network.print(), reversed.print());
+		assertFalse(reversed.isAccepting(0));
+		assertEquals(1.0, reversed.stateDistance(geh, 0), 0.0);
+		assertEquals(0.0, reversed.stateDistance(geh, geh), 0.0);
+
+		// accepting states are kept in the binary format
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		reversed.write(out);
+		TransitionNetworkArray read = TransitionNetworkArray.read(new ByteArrayInputStream(out.toByteArray()));
+		assertTrue(read.isAccepting(geh));
+		assertEquals(reversed.print(), read.print());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void stateLimitIsEnforced() {
+		TransitionNetworkArray network = new TransitionNetworkArray(1, 10);
+		network.addPath(new String[] { "a", "b", "c" });
+	}
+
+}
@@ -0,0 +1,72 @@
+package transitionNetwork;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import modules.transitionNetwork.TransitionNetwork;
+import modules.transitionNetwork.elements.StateElement;
+import modules.transitionNetwork.elements.StateTransitionElement;
+import modules.transitionNetwork.elements.SuffixElement;
+
+public class TransitionNetworkTest {
+
+	@Test
+	public void elementsAreDeduplicated() {
+		TransitionNetwork tn = new TransitionNetwork("abab$".toCharArray(), false);
+
+		// suffixes are equal if their text is
+		assertEquals(0, tn.addSuffixElement(new SuffixElement(0, 2)));
+		assertEquals(1, tn.addSuffixElement(new SuffixElement(1, 3)));
+		assertEquals(0, tn.addSuffixElement(new SuffixElement(2, 4)));
+		assertEquals(2, tn.addSuffixElement(new SuffixElement(0, 1)));
+		assertEquals(2, tn.addSuffixElement(new SuffixElement(2, 3)));
+
+		// states are equal if their numbers are
+		assertEquals(0, tn.addStateElement(new StateElement(7)));
+		assertEquals(1, tn.addStateElement(new StateElement(3)));
+		assertEquals(0, tn.addStateElement(new StateElement(7)));
+		tn.states.add(new StateElement(5));
+		assertEquals(2, tn.getStateId(new StateElement(5)));
+	}
+
+	@Test
+	public void minimizeMergesEquivalentStates() {
+		TransitionNetwork tn = new TransitionNetwork("xyz".toCharArray(), false);
+		int x = tn.addSuffixElement(new SuffixElement(0, 1));
+		int y = tn.addSuffixElement(new SuffixElement(1, 2));
+		int z = tn.addSuffixElement(new SuffixElement(2, 3));
+
+		// 0 -x-> 1 -z-> F, 0 -y-> 2 -z-> F, 2 -x-> 3 -z-> F
+		int[] states = new int[4];
+		for (int i = 0; i < states.length; i++)
+			states[i] = tn.addStateElement(new StateElement(10 + i));
+		tn.setRootStateId(10);
+		addTransition(tn, states[0], x, states[1]);
+		addTransition(tn, states[0], y, states[2]);
+		addTransition(tn, states[1], z, tn.getFinalStateId());
+		addTransition(tn, states[2], z, tn.getFinalStateId());
+		addTransition(tn, states[2], x, states[3]);
+		addTransition(tn, states[3], z, tn.getFinalStateId());
+
+		// 1 and 3 are equivalent, 2 is not (it reads x as well)
+		assertEquals(1, tn.minimize());
+		assertEquals(3, tn.states.size());
+		assertEquals(10, tn.getState(0).state);
+		assertEquals(11, tn.getState(1).state);
+		assertEquals(12, tn.getState(2).state);
+		assertEquals(1, tn.getState(2).toStateTransitions.get(1).toStateElement);
+		assertEquals(2, tn.getStateId(new StateElement(12)));
+
+		// nothing left to merge
+		assertEquals(0, tn.minimize());
+	}
+
+	private static void addTransition(TransitionNetwork tn, int from, int suffix, int to) {
+		StateTransitionElement transition = new StateTransitionElement();
+		transition.toSuffixElement = suffix;
+		transition.toStateElement = to;
+		tn.getState(from).toStateTransitions.add(transition);
+	}
+
+}
@@ -0,0 +1,94 @@
+package treeBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.Test;
+
+import modules.tree_building.treeBuilder.CountingTrie;
+import modules.tree_building.treeBuilder.Knoten;
+
+public class CountingTrieTest {
+
+	// builds the same trie on linked Knoten, following the original recursive definition
+	private static void naiveAdd(Knoten node, char[] text, int from, int to, boolean reverse) {
+		node.setZaehler(node.getZaehler() + 1);
+		if (from == to)
+			return;
+		String label = String.valueOf(reverse ? text[to - 1] : text[from]);
+		Knoten child = node.getKinder().get(label);
+		if (child == null) {
+			child = new Knoten(label);
+			node.getKinder().put(label, child);
+		}
+		if (reverse)
+			naiveAdd(child, text, from, to - 1, true);
+		else
+			naiveAdd(child, text, from + 1, to, false);
+	}
+
+	private static void assertSameTree(Knoten expected, Knoten actual) {
+		assertEquals(expected.getName(), actual.getName());
+		assertEquals(expected.getZaehler(), actual.getZaehler());
+		assertEquals(expected.getKinder().size(), actual.getKinder().size());
+		for (Entry<String, Knoten> entry : expected.getKinder().entrySet()) {
+			Knoten child = actual.getKinder().get(entry.getKey());
+			assertNotNull(entry.getKey(), child);
+			assertSameTree(entry.getValue(), child);
+		}
+	}
+
+	@Test
+	public void testCounters() {
+		CountingTrie trie = new CountingTrie("^");
+		char[] text = "abab".toCharArray();
+		int[] created = { 4, 3, 0, 0 };
+		for (int i = 0; i < text.length; i++)
+			assertEquals(created[i], trie.addPath(text, i, text.length, false, -1));
+
+		assertEquals(8, trie.size());
+		assertEquals(4, trie.getCounter(trie.getRoot()));
+		int a = trie.getChild(trie.getRoot(), "a");
+		int ab = trie.getChild(a, "b");
+		assertEquals(2, trie.getCounter(a));
+		assertEquals(2, trie.getCounter(ab));
+		assertEquals(a, trie.getParent(ab));
+		assertEquals("b", trie.getLabel(ab));
+		assertEquals(-1, trie.getChild(ab, "b"));
+		assertEquals(-1, trie.getChild(ab, "c"));
+	}
+
+	@Test
+	public void testMatchesNaiveTrie() {
+		Random random = new Random(11);
+		for (boolean reverse : new boolean[] { false, true }) {
+			char[] text = new char[3000];
+			for (int i = 0; i < text.length; i++)
+				text[i] = (char) ('a' + random.nextInt(4));
+
+			CountingTrie trie = new CountingTrie("^");
+			Knoten expected = new Knoten("^");
+			for (int i = 0; i + 8 <= text.length; i++) {
+				trie.addPath(text, i, i + 8, reverse, -1);
+				naiveAdd(expected, text, i, i + 8, reverse);
+			}
+			assertSameTree(expected, trie.toKnoten());
+		}
+	}
+
+	@Test
+	public void testTokensAndMaxLength() {
+		CountingTrie trie = new CountingTrie("$");
+		String[] tokens = { "the", "cat", "sat" };
+		assertEquals(2, trie.addPath(tokens, 0, tokens.length, true, 2));
+		int sat = trie.getChild(trie.getRoot(), "sat");
+		assertEquals(1, trie.getCounter(sat));
+		assertEquals(-1, trie.getChild(trie.getChild(sat, "cat"), "the"));
+		assertEquals(0, trie.addPath(tokens, 1, tokens.length, true, -1));
+		assertEquals(2, trie.getCounter(sat));
+	}
+
+}
@@ -0,0 +1,83 @@
+package treeBuilder;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+
+import models.ExtensibleTreeNode;
+import modules.tree_building.treeBuilder.CountingTrie;
+import modules.tree_building.treeBuilder.Knoten;
+import modules.tree_building.treeBuilder.TrieJson;
+
+public class TrieJsonTest {
+
+	private static CountingTrie buildTrie() {
+		CountingTrie trie = new CountingTrie("^");
+		char[] text = "abracadabra \"<&>\"".toCharArray();
+		for (int i = 0; i < text.length; i++)
+			trie.addPath(text, i, text.length, false, 4);
+		return trie;
+	}
+
+	private static JsonElement parse(String json) {
+		return new JsonParser().parse(json);
+	}
+
+	@Test
+	public void countingTrieIsWrittenLikeGsonWritesItsKnoten() throws Exception {
+		CountingTrie trie = buildTrie();
+		Gson gson = new GsonBuilder().setPrettyPrinting().create();
+		for (boolean prettyPrint : new boolean[] { true, false }) {
+			StringWriter written = new StringWriter();
+			JsonWriter out = TrieJson.createWriter(written, prettyPrint);
+			TrieJson.write(trie, out);
+			out.close();
+			assertEquals(parse(gson.toJson(trie.toKnoten())), parse(written.toString()));
+		}
+	}
+
+	@Test
+	public void knotenAreWrittenLikeGsonAndReadBack() throws Exception {
+		Knoten root = buildTrie().toKnoten();
+		root.getKinder().get("a").setMatch(true);
+		Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+		StringWriter written = new StringWriter();
+		JsonWriter out = TrieJson.createWriter(written, true);
+		TrieJson.write(root, out);
+		out.close();
+		assertEquals(gson.toJson(root), written.toString());
+
+		Knoten read = TrieJson.readKnoten(new StringReader(written.toString()));
+		assertEquals(gson.toJson(root), gson.toJson(read));
+	}
+
+	@Test
+	public void extensibleTreeNodesAreWrittenLikeGson() throws Exception {
+		ExtensibleTreeNode root = new ExtensibleTreeNode("^");
+		root.setNodeCounter(3);
+		ExtensibleTreeNode child = new ExtensibleTreeNode("a");
+		child.setNodeCounter(2);
+		child.getAttributes().put("weight", 0.5d);
+		child.getAttributes().put("label", "<a>");
+		root.getChildNodes().put("a", child);
+		root.getChildNodes().put("b", new ExtensibleTreeNode("b"));
+		Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+		StringWriter written = new StringWriter();
+		JsonWriter out = TrieJson.createWriter(written, true);
+		TrieJson.write(root, out);
+		out.close();
+		assertEquals(gson.toJson(root), written.toString());
+	}
+
+}